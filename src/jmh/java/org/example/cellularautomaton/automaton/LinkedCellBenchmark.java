@@ -0,0 +1,55 @@
+package org.example.cellularautomaton.automaton;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction d'une grille carrée avec {@link LinkedCell#add(Object)} et {@link LinkedCell#addNewLine(Object)},
+ * dans le même ordre que l'initialisation de la forêt (de la dernière cellule à la première).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LinkedCellBenchmark {
+    @Param({"16", "64", "256"})
+    private int size;
+
+    @Benchmark
+    public LinkedCell<Integer> buildGrid() {
+        LinkedCell<Integer> grid = new LinkedCell<>(0);
+        for (int row = this.size - 1; row >= 0; row--) {
+            for (int column = this.size - 1; column >= 0; column--) {
+                if (column == this.size - 1) {
+                    grid.addNewLine(column);
+                }
+                else {
+                    grid.add(column);
+                }
+            }
+        }
+        return grid;
+    }
+
+    @Benchmark
+    public LinkedCell<Integer> buildLine() {
+        LinkedCell<Integer> line = new LinkedCell<>(0);
+        int cells = this.size * this.size;
+        for (int column = 0; column < cells; column++) {
+            line.add(column);
+        }
+        return line;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.cellularautomaton.automaton;
+
+import jdk.jfr.Recording;
+import org.example.cellularautomaton.Automaton;
+import org.example.cellularautomaton.automaton1d.Automaton1D;
+import org.example.cellularautomaton.automaton1d.Automaton1DEngine;
+import org.example.cellularautomaton.fireforest.ForestAutomaton;
+import org.example.cellularautomaton.fireforest.ForestEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Le coût des mesures d'une génération : sans mesures, avec {@link SimulationMetrics} (avec et sans la mémoire
+ * allouée) et pendant un enregistrement JFR qui active {@link GenerationEvent}. Les générations sont courtes (un
+ * automate à une dimension de 1024 cellules, une petite forêt FRONTIER) pour que le coût des mesures se voie.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationMetricsBenchmark {
+    public enum Instrumentation {
+        OFF, METRICS, METRICS_WITHOUT_ALLOCATION, JFR
+    }
+
+    @Param({"AUTOMATON_1D", "FOREST"})
+    private String automatonType;
+
+    @Param({"OFF", "METRICS", "METRICS_WITHOUT_ALLOCATION", "JFR"})
+    private Instrumentation instrumentation;
+
+    private Automaton automaton;
+    private Recording recording;
+
+    @Setup
+    public void setUp() {
+        if (this.automatonType.equals("FOREST")) {
+            ForestAutomaton forest = new ForestAutomaton(256, 256, 8, 70, 60, 10, 5, ForestEngine.FRONTIER);
+            forest.setSeed(42);
+            forest.initForest();
+            this.automaton = forest;
+        }
+        else {
+            this.automaton = new Automaton1D(1024, 30, Automaton1DEngine.BIT_PARALLEL, Boundary.TOROIDAL);
+        }
+        if (this.instrumentation == Instrumentation.METRICS || this.instrumentation == Instrumentation.METRICS_WITHOUT_ALLOCATION) {
+            SimulationMetrics metrics = new SimulationMetrics();
+            metrics.setAllocationMeasured(this.instrumentation == Instrumentation.METRICS);
+            this.automaton.setMetrics(metrics);
+        }
+        else if (this.instrumentation == Instrumentation.JFR) {
+            this.recording = new Recording();
+            this.recording.enable(GenerationEvent.class).withoutThreshold();
+            this.recording.setToDisk(false);
+            this.recording.start();
+        }
+    }
+
+    /**
+     * Recommence la forêt quand le feu est éteint pour que chaque génération mesurée ait un front de feu.
+     */
+    @Setup(Level.Invocation)
+    public void restartExtinctFire() {
+        if (this.automaton instanceof ForestAutomaton forest && !forest.isStillFireInForest()) {
+            forest.initForest();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.recording != null) {
+            this.recording.close();
+        }
+    }
+
+    @Benchmark
+    public Automaton simulate() {
+        this.automaton.simulate();
+        return this.automaton;
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.cellularautomaton.automaton1d;
+
+import org.example.cellularautomaton.automaton.Boundary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One generation of {@link Automaton1D} for each engine. Rule 30 stays chaotic and rule 110 keeps a mixed
+ * pattern, so the work per generation does not fade out while the benchmark runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Automaton1DBenchmark {
+    @Param({"1024", "65536", "1048576"})
+    private int size;
+
+    @Param({"30", "110"})
+    private int rule;
+
+    @Param({"LOOKUP_TABLE", "BIT_PARALLEL"})
+    private Automaton1DEngine engine;
+
+    @Param({"DEAD", "TOROIDAL"})
+    private Boundary boundary;
+
+    private Automaton1D automaton;
+
+    @Setup
+    public void setUp() {
+        this.automaton = new Automaton1D(this.size, this.rule, this.engine, this.boundary);
+        // Let the single seed cell grow into a pattern before measuring
+        for (int generation = 0; generation < 256; generation++) {
+            this.automaton.simulateAGeneration();
+        }
+    }
+
+    @Benchmark
+    public Automaton1D simulateAGeneration() {
+        this.automaton.simulateAGeneration();
+        return this.automaton;
+    }
+}
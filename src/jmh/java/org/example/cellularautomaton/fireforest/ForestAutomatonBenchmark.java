@@ -0,0 +1,94 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.ByteGrid;
+import org.example.cellularautomaton.automaton.CellRandom;
+import org.example.cellularautomaton.automaton.LinkedCell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Une génération de feu de forêt et l'évaluation de toutes les cellules avec determineNextState, pour chaque
+ * stockage et chaque voisinage. Le benchmark est dans le paquet fireforest pour atteindre la version de
+ * determineNextState sur la grille, qui n'est pas publique.
+ * <p>
+ * La liste chainée est reconstruite à chaque génération, elle est très lente sur la grille de 1024 : elle peut être
+ * exclue avec {@code -PjmhArgs="-p engine=ARRAY,FRONTIER,ACTIVE_TILES,VECTOR"}. VECTOR ne calcule par vecteurs
+ * qu'avec {@code -Pvector}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ForestAutomatonBenchmark {
+    @Param({"64", "256", "1024"})
+    private int size;
+
+    @Param({"4", "6", "8"})
+    private int nbNextCell;
+
+    @Param({"LINKED_CELL", "ARRAY", "FRONTIER", "ACTIVE_TILES", "VECTOR"})
+    private ForestEngine engine;
+
+    private ForestAutomaton forest;
+
+    @Setup
+    public void setUp() {
+        this.forest = new ForestAutomaton(this.size, this.size, this.nbNextCell, 70, 60, 10, 5, this.engine);
+        this.forest.setSeed(42);
+        this.forest.initForest();
+    }
+
+    /**
+     * Recommence la simulation quand le feu est éteint pour que chaque génération mesurée ait un front de feu.
+     * Le coût de ce test n'est pas compté dans la mesure.
+     */
+    @Setup(Level.Invocation)
+    public void restartExtinctFire() {
+        if (!this.forest.isStillFireInForest()) {
+            this.forest.initForest();
+        }
+    }
+
+    @Benchmark
+    public ForestAutomaton simulateForestFire() {
+        this.forest.simulateForestFire();
+        return this.forest;
+    }
+
+    @Benchmark
+    public void determineNextState(Blackhole blackhole) {
+        if (this.engine == ForestEngine.LINKED_CELL) {
+            LinkedCell<ForestState> cell = this.forest.getForest();
+            while (cell != null) {
+                blackhole.consume(this.forest.determineNextState(cell));
+                cell = cell.getNextCell();
+            }
+            return;
+        }
+
+        ByteGrid grid = this.forest.getForestGrid();
+        long generationKey = CellRandom.generationKey(this.forest.getSeed(), this.forest.getGeneration());
+        for (int row = 0; row < grid.getY(); row++) {
+            int index = grid.index(0, row);
+            long cellIndex = (long) row * grid.getX();
+            for (int column = 0; column < grid.getX(); column++, index++, cellIndex++) {
+                blackhole.consume(this.forest.determineNextState(grid, index, generationKey, cellIndex));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.MappedGrid;
+import org.example.cellularautomaton.automaton.TiledGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Une génération de feu de forêt avec les stockages faits pour les grandes forêts : FRONTIER et ACTIVE_TILES en
+ * mémoire, MAPPED (fichier projeté en mémoire) et TILED (tuiles dans un fichier avec un cache) sur disque. Les
+ * fichiers sont créés dans un dossier temporaire, supprimé à la fin du benchmark : ils mesurent surtout le cache
+ * de pages du système, pas le disque.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ForestStorageBenchmark {
+    @Param({"1024", "4096"})
+    private int size;
+
+    @Param({"FRONTIER", "ACTIVE_TILES", "MAPPED", "TILED"})
+    private ForestEngine engine;
+
+    private Path directory;
+    private MappedGrid mappedGrid;
+    private TiledGrid tiledGrid;
+    private ForestAutomaton forest;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.forest = new ForestAutomaton(this.size, this.size, 8);
+        this.forest.setDensity(70);
+        this.forest.setProbabilityOfSpread(60);
+        this.forest.setEngine(this.engine);
+        if (this.engine == ForestEngine.MAPPED || this.engine == ForestEngine.TILED) {
+            this.directory = Files.createTempDirectory("forest-benchmark");
+        }
+        if (this.engine == ForestEngine.MAPPED) {
+            this.mappedGrid = MappedGrid.create(this.directory.resolve("forest.grid"), this.size, this.size, 2);
+            this.forest.setMappedGrid(this.mappedGrid);
+        }
+        else if (this.engine == ForestEngine.TILED) {
+            this.tiledGrid = new TiledGrid(this.directory.resolve("forest.tiles"), this.size, this.size, 64, 2, 256);
+            this.forest.setTiledGrid(this.tiledGrid);
+        }
+        this.forest.setSeed(42);
+        this.forest.initForest();
+    }
+
+    /**
+     * Recommence la simulation quand le feu est éteint pour que chaque génération mesurée ait un front de feu.
+     * Le coût de ce test n'est pas compté dans la mesure.
+     */
+    @Setup(Level.Invocation)
+    public void restartExtinctFire() {
+        if (!this.forest.isStillFireInForest()) {
+            this.forest.initForest();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (this.mappedGrid != null) {
+            this.mappedGrid.close();
+            Files.deleteIfExists(this.directory.resolve("forest.grid"));
+        }
+        if (this.tiledGrid != null) {
+            this.tiledGrid.close();
+            Files.deleteIfExists(this.directory.resolve("forest.tiles"));
+        }
+        if (this.directory != null) {
+            Files.deleteIfExists(this.directory);
+        }
+    }
+
+    @Benchmark
+    public ForestAutomaton simulateForestFire() {
+        this.forest.simulateForestFire();
+        return this.forest;
+    }
+}
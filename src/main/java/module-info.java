@@ -1,8 +1,11 @@
 module org.example.cellularautomaton {
     requires javafx.controls;
-    requires javafx.fxml;
+    requires java.management;
+    requires jdk.management;
+    requires jdk.jfr;
+    requires static jdk.incubator.vector;
 
-
-    opens org.example.cellularautomaton to javafx.fxml;
     exports org.example.cellularautomaton;
+    // Les mesures des simulations sont lues par JMX.
+    exports org.example.cellularautomaton.management;
 }
\ No newline at end of file
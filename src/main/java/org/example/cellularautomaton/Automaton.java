@@ -1,6 +1,109 @@
 package org.example.cellularautomaton;
 
+import org.example.cellularautomaton.automaton.SimulationMetrics;
+
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Automate cellulaire, quel que soit son moteur : automate à une dimension, feu de forêt, jeu de la vie ou règle
+ * quelconque. Le code qui fait avancer un automate, affiche ses cellules ou mesure ses générations n'a besoin que de
+ * cette classe, le moteur peut donc être choisi selon le travail sans changer ce code.
+ * <p>
+ * Les cellules sont lues comme des codes d'état (0 pour une cellule vide ou morte) sur une grille de getX() colonnes
+ * et getY() lignes, une seule ligne pour un automate à une dimension. Pour enchaîner beaucoup de générations avec
+ * des observateurs, voir {@link StepScheduler}.
+ */
 public abstract class Automaton {
+    // Les mesures des générations, null quand elles sont désactivées.
+    private SimulationMetrics metrics;
+
     public abstract void initializeAutomaton();
+
     public abstract void simulate();
+
+    /**
+     * Simule plusieurs générations. Un moteur qui sait avancer de plusieurs générations d'un coup (voir
+     * {@link AutomatonCapability#BATCHED}) redéfinit cette méthode.
+     *
+     * @param generations le nombre de générations à simuler.
+     */
+    public void step(long generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException("Le nombre de générations doit être positif : " + generations);
+        }
+        for (long ii = 0; ii < generations; ii++) {
+            simulate();
+        }
+    }
+
+    /**
+     * Simule des générations jusqu'à ce que la condition soit vraie. La condition est testée avant chaque
+     * génération : l'automate s'arrête sur la première génération qui la vérifie.
+     *
+     * @param stopCondition la condition d'arrêt, par exemple {@code () -> !forest.isStillFireInForest()}.
+     * @param maxGenerations le nombre maximum de générations à simuler.
+     * @return le nombre de générations simulées.
+     */
+    public long stepUntil(BooleanSupplier stopCondition, long maxGenerations) {
+        long generations = 0;
+        while (generations < maxGenerations && !stopCondition.getAsBoolean()) {
+            simulate();
+            generations++;
+        }
+        return generations;
+    }
+
+    /**
+     * Renvoi le nombre de générations simulées depuis l'initialisation.
+     *
+     * @return le numéro de la génération courante.
+     */
+    public abstract long getGeneration();
+
+    public abstract int getX();
+
+    public abstract int getY();
+
+    /**
+     * Renvoi le code de l'état d'une cellule.
+     *
+     * @param column la colonne de la cellule.
+     * @param row la ligne de la cellule, 0 pour un automate à une dimension.
+     * @return le code de l'état, 0 pour une cellule vide ou morte.
+     */
+    public abstract int getCell(int column, int row);
+
+    /**
+     * Copie le code de l'état de chaque cellule, ligne par ligne : la cellule de la colonne column et de la ligne row
+     * est à l'indice {@code row * getX() + column}.
+     *
+     * @param target le tableau qui reçoit les codes, de taille getX() * getY() au moins.
+     */
+    public abstract void copyCells(byte[] target);
+
+    /**
+     * Renvoi ce que sait faire le moteur avec sa configuration courante (stockage, calcul en parallèle, règle).
+     *
+     * @return les capacités du moteur.
+     */
+    public abstract Set<AutomatonCapability> getCapabilities();
+
+    public boolean hasCapability(AutomatonCapability capability) {
+        return getCapabilities().contains(capability);
+    }
+
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Active la mesure des générations : durée, cellules évaluées et actives, mémoire allouée. Les mêmes mesures
+     * peuvent être partagées par plusieurs automates.
+     *
+     * @param metrics les mesures à remplir, null pour ne plus mesurer.
+     */
+    public void setMetrics(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
@@ -0,0 +1,27 @@
+package org.example.cellularautomaton;
+
+/**
+ * Capacités d'un moteur d'automate ({@link Automaton#getCapabilities()}), pour choisir le moteur le plus adapté à un
+ * travail.
+ */
+public enum AutomatonCapability {
+    /**
+     * Les générations sont calculées sur plusieurs threads.
+     */
+    PARALLEL,
+    /**
+     * Le coût d'une génération dépend des cellules qui changent et non de la taille de la grille : une grille
+     * presque vide ou figée est calculée plus vite.
+     */
+    SPARSE,
+    /**
+     * La prochaine génération ne dépend que des cellules, sans tirage aléatoire. Un automate aléatoire reste
+     * reproductible avec la même graine.
+     */
+    DETERMINISTIC,
+    /**
+     * {@link Automaton#step(long)} avance de plusieurs générations pour moins que le coût d'autant de générations
+     * simulées une par une.
+     */
+    BATCHED
+}
@@ -1,23 +1,119 @@
 package org.example.cellularautomaton;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
+import org.example.cellularautomaton.automaton.ParallelStepper;
+import org.example.cellularautomaton.fireforest.ForestAutomaton;
+import org.example.cellularautomaton.fireforest.ForestEngine;
+import org.example.cellularautomaton.fireforest.ForestState;
+import org.example.cellularautomaton.fx.LiveRenderer;
 
-import java.io.IOException;
-
+/**
+ * Affiche un feu de forêt simulé en continu. La simulation tourne sur son propre fil (et le pool commun pour les
+ * bandes de tuiles), l'affichage montre la dernière génération à chaque image de l'écran.
+ * <p>
+ * La taille de la forêt se choisit avec {@code --size=4096}. Quand le feu est éteint, une nouvelle forêt est générée.
+ */
 public class HelloApplication extends Application {
+    private static final int DEFAULT_SIZE = 4096;
+    // Durée entre deux mises à jour du texte d'état.
+    private static final long STATUS_INTERVAL_NANOS = 250_000_000L;
+
+    private ForestAutomaton forest;
+    private LiveRenderer renderer;
+    private AnimationTimer statusTimer;
+    private Thread simulation;
+    private volatile boolean running;
+    private volatile long simulatedGenerations;
+
     @Override
-    public void start(Stage stage) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(HelloApplication.class.getResource("hello-view.fxml"));
-        Scene scene = new Scene(fxmlLoader.load(), 320, 240);
-        stage.setTitle("Hello!");
-        stage.setScene(scene);
+    public void start(Stage stage) {
+        int size = Integer.parseInt(getParameters().getNamed().getOrDefault("size", String.valueOf(DEFAULT_SIZE)));
+        this.forest = new ForestAutomaton(size, size, 8, 70, 60, 0, 0, ForestEngine.ACTIVE_TILES);
+        this.forest.setParallelStepper(new ParallelStepper());
+        this.renderer = new LiveRenderer(size, size, ForestState.palette());
+
+        ImageView view = this.renderer.getView();
+        StackPane center = new StackPane(view);
+        center.setMinSize(0, 0);
+        view.fitWidthProperty().bind(center.widthProperty());
+        view.fitHeightProperty().bind(center.heightProperty());
+        Label status = new Label();
+        BorderPane root = new BorderPane(center);
+        root.setBottom(status);
+
+        this.statusTimer = new AnimationTimer() {
+            private long lastUpdate;
+            private long lastShownFrames;
+            private long lastGenerations;
+
+            @Override
+            public void handle(long now) {
+                if (now - this.lastUpdate < STATUS_INTERVAL_NANOS) {
+                    return;
+                }
+                double seconds = (now - this.lastUpdate) / 1e9;
+                long shownFrames = renderer.getShownFrames();
+                long generations = simulatedGenerations;
+                status.setText(String.format("Génération %d  |  %.0f images/s  |  %.0f générations/s  |  %d images ignorées",
+                        renderer.getDisplayedGeneration(), (shownFrames - this.lastShownFrames) / seconds,
+                        (generations - this.lastGenerations) / seconds, renderer.getSkippedFrames()));
+                this.lastUpdate = now;
+                this.lastShownFrames = shownFrames;
+                this.lastGenerations = generations;
+            }
+        };
+
+        stage.setTitle("Feu de forêt " + size + "x" + size);
+        stage.setScene(new Scene(root, 960, 960));
         stage.show();
+
+        this.renderer.start();
+        this.statusTimer.start();
+        this.running = true;
+        this.simulation = new Thread(this::simulate, "forest-simulation");
+        this.simulation.setDaemon(true);
+        this.simulation.start();
+    }
+
+    /**
+     * Boucle du fil de la simulation : les générations s'enchaînent sans attendre l'affichage, les pixels ne sont
+     * écrits que quand l'affichage a pris la génération précédente.
+     */
+    private void simulate() {
+        long seed = 0;
+        while (this.running) {
+            if (this.renderer.isFrameWanted()) {
+                this.renderer.publish(this.forest.getGeneration(), this.forest::copyCells);
+            }
+            if (this.forest.isStillFireInForest()) {
+                this.forest.simulateForestFire();
+            }
+            else {
+                this.forest.setSeed(++seed);
+                this.forest.initForest();
+            }
+            this.simulatedGenerations++;
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        this.running = false;
+        if (this.renderer != null) {
+            this.renderer.stop();
+            this.statusTimer.stop();
+            this.simulation.join();
+        }
     }
 
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
-}
\ No newline at end of file
+}
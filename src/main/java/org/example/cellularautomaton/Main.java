@@ -1,15 +1,24 @@
 package org.example.cellularautomaton;
 
+import org.example.cellularautomaton.automaton.FrameOutput;
+import org.example.cellularautomaton.automaton.TerminalFrameEncoder;
 import org.example.cellularautomaton.automaton1d.Automaton1D;
 
+import java.io.IOException;
+
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Automaton1D automaton1D = new Automaton1D(100, 30);
         automaton1D.initializeAutomaton();
-        automaton1D.printCurrentStateOfAutomaton();
-        for (int ii = 0; ii < 50; ii++) {
-            automaton1D.simulateAGeneration();
-            automaton1D.printCurrentStateOfAutomaton();
+        // Une ligne par génération, écrite par le fil de la sortie pendant que l'automate avance.
+        TerminalFrameEncoder encoder = new TerminalFrameEncoder(System.out, new String[]{" ", "*"}, 0,
+                automaton1D.getX(), 1, false, false);
+        try (FrameOutput output = new FrameOutput(encoder, automaton1D.getX(), 1, 16)) {
+            output.submit(automaton1D.getGeneration(), automaton1D::copyCells);
+            for (int ii = 0; ii < 50; ii++) {
+                automaton1D.simulateAGeneration();
+                output.submit(automaton1D.getGeneration(), automaton1D::copyCells);
+            }
         }
     }
 }
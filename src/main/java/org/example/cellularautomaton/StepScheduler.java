@@ -0,0 +1,185 @@
+package org.example.cellularautomaton;
+
+import org.example.cellularautomaton.automaton.RunningStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fait avancer un automate par lots de générations : chaque lot est un seul appel à {@link Automaton#step(long)},
+ * la condition d'arrêt et les observateurs ne sont appelés qu'entre deux lots. Le coût d'une condition qui parcourt
+ * la grille (par exemple {@code isStillFireInForest()}) ou d'un observateur qui lit les cellules est ainsi partagé
+ * entre toutes les générations du lot, et un moteur {@link AutomatonCapability#BATCHED} avance d'un lot entier en un
+ * seul calcul.
+ * <p>
+ * La taille des lots est fixe ({@link #setBatchSize(int)}) ou ajustée après chaque lot pour qu'un lot dure environ
+ * une durée cible ({@link #setTargetBatchNanos(long)}). Un planificateur n'est utilisé que par un seul thread.
+ */
+public class StepScheduler {
+    /**
+     * Observateur appelé après chaque lot, par exemple pour afficher les cellules ou compter les générations.
+     */
+    public interface Observer {
+        /**
+         * @param automaton l'automate, après le lot.
+         * @param generations le nombre de générations du lot.
+         * @param nanos la durée du lot en nanosecondes.
+         */
+        void onBatch(Automaton automaton, long generations, long nanos);
+    }
+
+    private final Automaton automaton;
+    private final List<Observer> observers = new ArrayList<>();
+    private int batchSize = 1;
+    // Durée visée pour un lot, 0 pour garder la taille des lots fixe.
+    private long targetBatchNanos;
+    private int maxBatchSize = 1 << 16;
+    // Durée d'une génération de chaque lot, en nanosecondes.
+    private RunningStatistics generationNanos = new RunningStatistics();
+    private long generations;
+    private long batches;
+    private long totalNanos;
+
+    public StepScheduler(Automaton automaton) {
+        this.automaton = automaton;
+    }
+
+    /**
+     * Simule des générations par lots.
+     *
+     * @param maxGenerations le nombre de générations à simuler.
+     * @return le nombre de générations simulées.
+     */
+    public long run(long maxGenerations) {
+        return runUntil(null, maxGenerations);
+    }
+
+    /**
+     * Simule des générations par lots jusqu'à ce que la condition soit vraie. La condition est testée avant chaque
+     * lot : l'automate peut dépasser de moins d'un lot la première génération qui la vérifie. Pour un arrêt exact,
+     * voir {@link Automaton#stepUntil(BooleanSupplier, long)}.
+     *
+     * @param stopCondition la condition d'arrêt, null pour simuler maxGenerations générations.
+     * @param maxGenerations le nombre maximum de générations à simuler.
+     * @return le nombre de générations simulées.
+     */
+    public long runUntil(BooleanSupplier stopCondition, long maxGenerations) {
+        long done = 0;
+        while (done < maxGenerations && (stopCondition == null || !stopCondition.getAsBoolean())) {
+            long batch = Math.min(this.batchSize, maxGenerations - done);
+            long start = System.nanoTime();
+            this.automaton.step(batch);
+            long nanos = System.nanoTime() - start;
+
+            done += batch;
+            this.generations += batch;
+            this.batches++;
+            this.totalNanos += nanos;
+            this.generationNanos.add((double) nanos / batch);
+            for (Observer observer : this.observers) {
+                observer.onBatch(this.automaton, batch, nanos);
+            }
+            if (this.targetBatchNanos > 0) {
+                adjustBatchSize(batch, nanos);
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Choisit la taille du prochain lot d'après la durée du dernier, sans plus que doubler ou diviser par deux la
+     * taille à chaque lot pour ne pas suivre une seule génération lente.
+     */
+    private void adjustBatchSize(long batch, long nanos) {
+        long wanted = nanos == 0 ? batch * 2 : batch * this.targetBatchNanos / nanos;
+        wanted = Math.max(batch / 2, Math.min(batch * 2, wanted));
+        this.batchSize = (int) Math.max(1, Math.min(this.maxBatchSize, wanted));
+    }
+
+    public void addObserver(Observer observer) {
+        this.observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        this.observers.remove(observer);
+    }
+
+    /**
+     * Remet les compteurs et les statistiques à zéro.
+     */
+    public void resetStatistics() {
+        this.generationNanos = new RunningStatistics();
+        this.generations = 0;
+        this.batches = 0;
+        this.totalNanos = 0;
+    }
+
+    public Automaton getAutomaton() {
+        return automaton;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Modifie le nombre de générations d'un lot. Avec une durée cible c'est la taille du prochain lot, ajustée
+     * ensuite.
+     *
+     * @param batchSize le nombre de générations, au moins 1.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Un lot contient au moins une génération : " + batchSize);
+        }
+        this.batchSize = Math.min(batchSize, this.maxBatchSize);
+    }
+
+    public long getTargetBatchNanos() {
+        return targetBatchNanos;
+    }
+
+    /**
+     * Ajuste la taille des lots pour qu'un lot dure environ targetBatchNanos, par exemple la durée d'une image de
+     * l'affichage.
+     *
+     * @param targetBatchNanos la durée visée d'un lot en nanosecondes, 0 pour des lots de taille fixe.
+     */
+    public void setTargetBatchNanos(long targetBatchNanos) {
+        this.targetBatchNanos = Math.max(0, targetBatchNanos);
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Un lot contient au moins une génération : " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = Math.min(this.batchSize, maxBatchSize);
+    }
+
+    /**
+     * Renvoi la durée d'une génération de chaque lot (moyenne, écart type, minimum et maximum), en nanosecondes.
+     *
+     * @return les statistiques des lots simulés.
+     */
+    public RunningStatistics getGenerationNanos() {
+        return generationNanos;
+    }
+
+    public long getGenerations() {
+        return generations;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.cellularautomaton.automaton;
+
+import java.util.Arrays;
+
+/**
+ * Suivi des tuiles d'une grille qui ont changé à la dernière génération. Une tuile dont aucune cellule, ni aucune
+ * cellule des 8 tuiles voisines, n'a changé à la dernière génération ne change pas à la prochaine : elle n'a pas
+ * besoin d'être calculée. Cela suppose que l'automate soit déterministe pour une cellule et des voisines qui n'ont
+ * pas changé (une cellule en feu change toujours, une forêt sans voisin en feu reste une forêt).
+ * <p>
+ * Avec deux grilles échangées à chaque génération, une tuile sautée n'est pas écrite dans la grille suivante :
+ * elle n'a pas changé à la dernière génération, les deux grilles ont donc déjà les mêmes cellules pour cette tuile.
+ * Une cellule modifiée en dehors d'une génération doit être signalée ({@link #markCell(int, int)}) pour que sa
+ * tuile soit calculée.
+ */
+public class ActiveTiles {
+    private final int tileSize;
+    private final int tilesPerRow;
+    private final int tilesPerColumn;
+    private final Boundary boundary;
+    // Les tuiles qui ont changé à la dernière génération, et celles qui changent pendant la génération en cours.
+    private boolean[] changed;
+    private boolean[] nextChanged;
+    // Les tuiles à calculer : celles qui ont changé et leurs voisines, recalculées à la fin de chaque génération.
+    private final boolean[] active;
+
+    /**
+     * Constructeur où toutes les tuiles sont à calculer.
+     *
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param tileSize le nombre de cellules du côté d'une tuile.
+     * @param boundary TOROIDAL si les tuiles des bords opposés sont voisines.
+     */
+    public ActiveTiles(int x, int y, int tileSize, Boundary boundary) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("La taille d'une tuile doit être positive : " + tileSize);
+        }
+        this.tileSize = tileSize;
+        this.tilesPerRow = (x + tileSize - 1) / tileSize;
+        this.tilesPerColumn = (y + tileSize - 1) / tileSize;
+        this.boundary = boundary;
+        this.changed = new boolean[this.tilesPerRow * this.tilesPerColumn];
+        this.nextChanged = new boolean[this.changed.length];
+        this.active = new boolean[this.changed.length];
+        markAll();
+    }
+
+    /**
+     * Toutes les tuiles seront calculées à la prochaine génération (après l'initialisation de la grille par exemple).
+     */
+    public void markAll() {
+        Arrays.fill(this.changed, true);
+        Arrays.fill(this.active, true);
+    }
+
+    /**
+     * Signale une cellule modifiée en dehors d'une génération : sa tuile et ses voisines seront calculées.
+     */
+    public void markCell(int column, int row) {
+        int tileRow = row / this.tileSize;
+        int tileColumn = column / this.tileSize;
+        this.changed[tileRow * this.tilesPerRow + tileColumn] = true;
+        activateAround(tileRow, tileColumn);
+    }
+
+    /**
+     * Renvoi true si la tuile ou une de ses voisines a changé à la dernière génération.
+     *
+     * @param tileRow la ligne de la tuile.
+     * @param tileColumn la colonne de la tuile.
+     * @return true si la tuile doit être calculée.
+     */
+    public boolean isActive(int tileRow, int tileColumn) {
+        return this.active[tileRow * this.tilesPerRow + tileColumn];
+    }
+
+    /**
+     * Marque à calculer une tuile et ses 8 voisines.
+     */
+    private void activateAround(int tileRow, int tileColumn) {
+        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+            int neighbourRow = wrap(tileRow + rowOffset, this.tilesPerColumn);
+            if (neighbourRow < 0) {
+                continue;
+            }
+            int rowStart = neighbourRow * this.tilesPerRow;
+            for (int columnOffset = -1; columnOffset <= 1; columnOffset++) {
+                int neighbourColumn = wrap(tileColumn + columnOffset, this.tilesPerRow);
+                if (neighbourColumn >= 0) {
+                    this.active[rowStart + neighbourColumn] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Renvoi l'indice d'une tuile voisine, -1 si elle est en dehors d'une grille au bord DEAD.
+     */
+    private int wrap(int tile, int tiles) {
+        if (tile >= 0 && tile < tiles) {
+            return tile;
+        }
+        if (this.boundary == Boundary.DEAD) {
+            return -1;
+        }
+        return tile < 0 ? tiles - 1 : 0;
+    }
+
+    /**
+     * Renvoi true si la tuile a changé à la dernière génération.
+     */
+    public boolean hasChanged(int tileRow, int tileColumn) {
+        return this.changed[tileRow * this.tilesPerRow + tileColumn];
+    }
+
+    /**
+     * Signale qu'une tuile a changé pendant la génération en cours. Des threads différents peuvent signaler des
+     * tuiles différentes.
+     */
+    public void setChanged(int tileRow, int tileColumn) {
+        this.nextChanged[tileRow * this.tilesPerRow + tileColumn] = true;
+    }
+
+    /**
+     * Termine la génération : les tuiles signalées pendant la génération deviennent les tuiles qui ont changé, et
+     * les tuiles à calculer à la prochaine génération sont marquées.
+     */
+    public void endGeneration() {
+        boolean[] lastChanged = this.changed;
+        this.changed = this.nextChanged;
+        this.nextChanged = lastChanged;
+        Arrays.fill(this.nextChanged, false);
+
+        Arrays.fill(this.active, false);
+        for (int tileRow = 0; tileRow < this.tilesPerColumn; tileRow++) {
+            int rowStart = tileRow * this.tilesPerRow;
+            for (int tileColumn = 0; tileColumn < this.tilesPerRow; tileColumn++) {
+                if (this.changed[rowStart + tileColumn]) {
+                    activateAround(tileRow, tileColumn);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renvoi le nombre de tuiles qui ont changé à la dernière génération, 0 si la grille est figée.
+     *
+     * @return le nombre de tuiles qui ont changé.
+     */
+    public int getChangedCount() {
+        int count = 0;
+        for (boolean tileChanged : this.changed) {
+            if (tileChanged) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Renvoi le nombre de tuiles à calculer à la prochaine génération.
+     *
+     * @return le nombre de tuiles actives.
+     */
+    public int getActiveCount() {
+        int count = 0;
+        for (boolean tileActive : this.active) {
+            if (tileActive) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getTilesPerRow() {
+        return tilesPerRow;
+    }
+
+    public int getTilesPerColumn() {
+        return tilesPerColumn;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.cellularautomaton.automaton;
+
+/**
+ * Compression des valeurs des cellules sur 1, 2 ou 4 bits. Dans un octet, la première cellule est dans les bits de
+ * poids faible.
+ */
+final class BitPacking {
+    private BitPacking() {
+    }
+
+    /**
+     * Renvoi le nombre d'octets de count cellules de bitsPerCell bits.
+     */
+    static int packedSize(int count, int bitsPerCell) {
+        return (int) (((long) count * bitsPerCell + 7) >>> 3);
+    }
+
+    /**
+     * Compresse les cellules {@code cells[offset]} à {@code cells[offset + count - 1]} au début de packed.
+     */
+    static void pack(byte[] cells, int offset, int count, int bitsPerCell, byte[] packed) {
+        pack(cells, offset, count, bitsPerCell, packed, 0);
+    }
+
+    /**
+     * Compresse les cellules {@code cells[offset]} à {@code cells[offset + count - 1]} dans packed à partir de
+     * {@code packed[packedOffset]}.
+     */
+    static void pack(byte[] cells, int offset, int count, int bitsPerCell, byte[] packed, int packedOffset) {
+        int cellMask = (1 << bitsPerCell) - 1;
+        int cellsPerByte = 8 / bitsPerCell;
+        int cell = 0;
+        int byteIndex = 0;
+        if (bitsPerCell == 2) {
+            // Cas des états de la forêt : les octets complets sont écrits sans boucle interne.
+            for (int fullBytes = count >>> 2; byteIndex < fullBytes; byteIndex++, cell += 4) {
+                int index = offset + cell;
+                packed[packedOffset + byteIndex] = (byte) ((cells[index] & 3) | (cells[index + 1] & 3) << 2
+                        | (cells[index + 2] & 3) << 4 | (cells[index + 3] & 3) << 6);
+            }
+        }
+        for (int size = packedSize(count, bitsPerCell); byteIndex < size; byteIndex++) {
+            int value = 0;
+            int end = Math.min(count, cell + cellsPerByte);
+            for (int shift = 0; cell < end; cell++, shift += bitsPerCell) {
+                value |= (cells[offset + cell] & cellMask) << shift;
+            }
+            packed[packedOffset + byteIndex] = (byte) value;
+        }
+    }
+
+    /**
+     * Décompresse count cellules du début de packed dans {@code cells[offset]} à {@code cells[offset + count - 1]}.
+     */
+    static void unpack(byte[] packed, int count, int bitsPerCell, byte[] cells, int offset) {
+        int cellMask = (1 << bitsPerCell) - 1;
+        int cellsPerByte = 8 / bitsPerCell;
+        int cell = 0;
+        int byteIndex = 0;
+        if (bitsPerCell == 2) {
+            for (int fullBytes = count >>> 2; byteIndex < fullBytes; byteIndex++, cell += 4) {
+                int value = packed[byteIndex];
+                int index = offset + cell;
+                cells[index] = (byte) (value & 3);
+                cells[index + 1] = (byte) ((value >>> 2) & 3);
+                cells[index + 2] = (byte) ((value >>> 4) & 3);
+                cells[index + 3] = (byte) ((value >>> 6) & 3);
+            }
+        }
+        for (int size = packedSize(count, bitsPerCell); byteIndex < size; byteIndex++) {
+            int value = packed[byteIndex];
+            int end = Math.min(count, cell + cellsPerByte);
+            for (; cell < end; cell++) {
+                cells[offset + cell] = (byte) (value & cellMask);
+                value >>>= bitsPerCell;
+            }
+        }
+    }
+}
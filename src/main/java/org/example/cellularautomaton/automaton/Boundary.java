@@ -0,0 +1,11 @@
+package org.example.cellularautomaton.automaton;
+
+/**
+ * Ce que voit une cellule du bord d'un automate à la place des voisins qui sont en dehors de la grille.
+ */
+public enum Boundary {
+    // Les voisins en dehors de la grille sont des cellules mortes (valeur 0).
+    DEAD,
+    // La grille est refermée sur elle-même : le voisin en dehors d'un bord est la cellule du bord opposé.
+    TOROIDAL
+}
@@ -0,0 +1,149 @@
+package org.example.cellularautomaton.automaton;
+
+import java.util.Arrays;
+
+/**
+ * Grille stockée à plat dans un tableau de byte (une valeur par cellule, ligne par ligne).
+ * La grille est entourée d'une bordure (une cellule par défaut) qui vaut toujours 0, ce qui permet de lire les voisins
+ * d'une cellule du bord sans vérifier les limites de la grille. Un voisinage de rayon r a besoin d'une bordure de r
+ * cellules.
+ */
+public class ByteGrid {
+    // Le nombre de colonnes de la grille (sans la bordure).
+    private final int x;
+    // Le nombre de lignes de la grille (sans la bordure).
+    private final int y;
+    // Le nombre de cellules de la bordure autour de la grille.
+    private final int border;
+    // Le nombre de cellules d'une ligne dans le tableau (bordure comprise).
+    private final int stride;
+    private final byte[] cells;
+
+    /**
+     * Constructeur qui créé une grille dont toutes les cellules valent 0.
+     *
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     */
+    public ByteGrid(int x, int y) {
+        this(x, y, 1);
+    }
+
+    /**
+     * Constructeur qui créé une grille dont toutes les cellules valent 0, entourée d'une bordure de plusieurs cellules.
+     *
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param border le nombre de cellules de la bordure, au moins 1.
+     */
+    public ByteGrid(int x, int y, int border) {
+        if (x <= 0 || y <= 0) {
+            throw new IllegalArgumentException("La taille de la grille doit être positive : " + x + "x" + y);
+        }
+        if (border < 1) {
+            throw new IllegalArgumentException("La bordure doit avoir au moins une cellule : " + border);
+        }
+        this.x = x;
+        this.y = y;
+        this.border = border;
+        this.stride = Math.addExact(x, 2 * border);
+        this.cells = new byte[Math.multiplyExact(this.stride, Math.addExact(y, 2 * border))];
+    }
+
+    /**
+     * Renvoi l'indice dans le tableau de la cellule à la colonne et la ligne passées en paramètre.
+     *
+     * @param column la colonne de la cellule.
+     * @param row la ligne de la cellule.
+     * @return l'indice de la cellule dans le tableau.
+     */
+    public int index(int column, int row) {
+        return (row + this.border) * this.stride + column + this.border;
+    }
+
+    public byte get(int column, int row) {
+        return this.cells[index(column, row)];
+    }
+
+    public void set(int column, int row, byte value) {
+        this.cells[index(column, row)] = value;
+    }
+
+    public byte get(int index) {
+        return this.cells[index];
+    }
+
+    public void set(int index, byte value) {
+        this.cells[index] = value;
+    }
+
+    /**
+     * Renvoi la colonne de la cellule à l'indice passé en paramètre (l'inverse de {@link #index(int, int)}).
+     *
+     * @param index l'indice de la cellule dans le tableau.
+     * @return la colonne de la cellule.
+     */
+    public int column(int index) {
+        return index % this.stride - this.border;
+    }
+
+    /**
+     * Renvoi la ligne de la cellule à l'indice passé en paramètre (l'inverse de {@link #index(int, int)}).
+     *
+     * @param index l'indice de la cellule dans le tableau.
+     * @return la ligne de la cellule.
+     */
+    public int row(int index) {
+        return index / this.stride - this.border;
+    }
+
+    /**
+     * Copie le contenu d'une grille de même taille dans la grille courante.
+     *
+     * @param other la grille à copier.
+     */
+    public void copyFrom(ByteGrid other) {
+        if (other.x != this.x || other.y != this.y || other.border != this.border) {
+            throw new IllegalArgumentException("Les grilles n'ont pas la même taille");
+        }
+        System.arraycopy(other.cells, 0, this.cells, 0, this.cells.length);
+    }
+
+    /**
+     * Remet toutes les cellules (bordure comprise) à 0.
+     */
+    public void clear() {
+        Arrays.fill(this.cells, (byte) 0);
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getBorder() {
+        return border;
+    }
+
+    /**
+     * Renvoi le nombre de cellules d'une ligne dans le tableau, bordure comprise. Ajouter ou soustraire cette valeur
+     * à un indice donne la cellule du dessous ou du dessus.
+     *
+     * @return le nombre de cellules d'une ligne dans le tableau.
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Renvoi le tableau qui contient les cellules (bordure comprise). Le tableau n'est pas copié.
+     *
+     * @return le tableau des cellules.
+     */
+    public byte[] getCells() {
+        return cells;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.cellularautomaton.automaton;
+
+/**
+ * Générateur de nombres aléatoires sans état : le nombre tiré pour une cellule ne dépend que de la graine, de la
+ * génération et de l'indice de la cellule. Le résultat ne dépend donc ni de l'ordre de parcours des cellules ni du
+ * découpage de la grille entre plusieurs threads.
+ */
+public final class CellRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private CellRandom() {
+    }
+
+    /**
+     * Calcule la clé d'une génération, à calculer une fois par génération puis à passer à
+     * {@link #percentage(long, long)} pour chaque cellule.
+     *
+     * @param seed la graine de la simulation.
+     * @param generation le numéro de la génération.
+     * @return la clé de la génération.
+     */
+    public static long generationKey(long seed, long generation) {
+        return mix(seed ^ mix(generation * GOLDEN_GAMMA + GOLDEN_GAMMA));
+    }
+
+    /**
+     * Renvoi le nombre aléatoire entre 1 et 100 de la cellule.
+     *
+     * @param generationKey la clé de la génération.
+     * @param cellIndex l'indice de la cellule (ligne * largeur + colonne).
+     * @return un nombre entre 1 et 100.
+     */
+    public static int percentage(long generationKey, long cellIndex) {
+        long random = mix(generationKey + cellIndex * GOLDEN_GAMMA);
+        // Les 32 bits de poids fort ramenés entre 0 et 99 par multiplication
+        return (int) (((random >>> 32) * 100) >>> 32) + 1;
+    }
+
+    /**
+     * Fonction de mélange de SplitMix64.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
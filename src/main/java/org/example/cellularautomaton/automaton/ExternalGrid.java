@@ -0,0 +1,31 @@
+package org.example.cellularautomaton.automaton;
+
+/**
+ * Grille stockée en dehors du tas de la JVM (dans un fichier), lue et écrite ligne par ligne. Les valeurs sont
+ * celles de la génération courante.
+ */
+public interface ExternalGrid {
+    int getX();
+
+    int getY();
+
+    /**
+     * Renvoi le nombre de bits d'une cellule dans le fichier, les valeurs vont de 0 à 2^bits - 1.
+     */
+    int getBitsPerCell();
+
+    /**
+     * Renvoi la valeur d'une cellule.
+     */
+    int get(int column, int row);
+
+    /**
+     * Copie une ligne : la cellule de la colonne jj est écrite dans {@code target[offset + jj]}.
+     */
+    void readRow(int row, byte[] target, int offset);
+
+    /**
+     * Écrit une ligne à partir de {@code source[offset]}.
+     */
+    void writeRow(int row, byte[] source, int offset);
+}
@@ -0,0 +1,51 @@
+package org.example.cellularautomaton.automaton;
+
+/**
+ * Une génération copiée pour être écrite par un {@link FrameEncoder} : la valeur de chaque cellule (un octet par
+ * cellule, ligne par ligne). La simulation continue pendant l'écriture, elle ne modifie jamais une image donnée à
+ * {@link FrameOutput}.
+ * <p>
+ * Les images sont réutilisées par {@link FrameOutput} quand elles ont été écrites : un encodeur ne doit pas garder
+ * une image (ni son tableau) après {@link FrameEncoder#encode(Frame)}.
+ */
+public final class Frame {
+    private final int x;
+    private final int y;
+    private final byte[] cells;
+    private long generation;
+
+    Frame(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.cells = new byte[Math.multiplyExact(x, y)];
+    }
+
+    void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    public byte get(int column, int row) {
+        return this.cells[row * this.x + column];
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Renvoi la valeur de chaque cellule, ligne par ligne. Le tableau n'est pas copié et ne doit pas être modifié.
+     *
+     * @return le tableau des cellules.
+     */
+    public byte[] getCells() {
+        return cells;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Écrit les générations d'une simulation : images binaires compressées ({@link PackedFrameEncoder}), suite d'images
+ * PNG ou PPM ({@link ImageFrameEncoder}) ou affichage dans le terminal ({@link TerminalFrameEncoder}).
+ * <p>
+ * Avec {@link FrameOutput} les images sont écrites par un fil dédié, dans l'ordre des générations : un encodeur n'est
+ * jamais appelé par deux fils à la fois.
+ */
+public interface FrameEncoder extends Closeable {
+    /**
+     * Écrit une génération.
+     *
+     * @param frame la génération, elle ne doit pas être gardée après l'appel.
+     * @throws IOException si l'écriture échoue.
+     */
+    void encode(Frame frame) throws IOException;
+
+    /**
+     * Termine l'écriture : les données en attente sont écrites et les fichiers fermés.
+     *
+     * @throws IOException si l'écriture échoue.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
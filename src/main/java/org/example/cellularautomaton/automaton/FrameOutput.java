@@ -0,0 +1,196 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Écriture des générations d'une simulation sur un fil dédié. Le fil de la simulation copie la génération dans une
+ * image libre et la donne au fil d'écriture, qui l'écrit avec l'encodeur puis la rend : la simulation n'attend
+ * jamais une écriture, seulement la copie des cellules.
+ * <p>
+ * Les images sont allouées à la création, une génération n'alloue donc aucun objet. Quand toutes les images attendent
+ * d'être écrites, {@link #offer(long, FrameSource)} ignore la génération (pour un affichage, qui peut sauter des
+ * générations) et {@link #submit(long, FrameSource)} attend qu'une image soit libre (pour un fichier, qui doit
+ * contenir toutes les générations).
+ */
+public class FrameOutput implements Closeable {
+    /**
+     * Copie les cellules de la génération courante, par exemple {@code forest::copyCells}.
+     */
+    @FunctionalInterface
+    public interface FrameSource {
+        /**
+         * Copie la valeur de chaque cellule, ligne par ligne, dans target.
+         */
+        void copyCells(byte[] target);
+    }
+
+    // Donnée au fil d'écriture pour l'arrêter.
+    private static final Frame END = new Frame(1, 1);
+
+    private final FrameEncoder encoder;
+    private final BlockingQueue<Frame> freeFrames;
+    private final BlockingQueue<Frame> pendingFrames;
+    private final Thread writer;
+    // La première erreur du fil d'écriture, renvoyée au fil de la simulation.
+    private volatile IOException failure;
+    private volatile long writtenFrames;
+    private long droppedFrames;
+    private boolean closed;
+
+    /**
+     * Constructeur qui démarre le fil d'écriture.
+     *
+     * @param encoder l'encodeur des images, fermé par {@link #close()}.
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param bufferedFrames le nombre d'images qui peuvent attendre d'être écrites.
+     */
+    public FrameOutput(FrameEncoder encoder, int x, int y, int bufferedFrames) {
+        if (x <= 0 || y <= 0) {
+            throw new IllegalArgumentException("La taille de la grille doit être positive : " + x + "x" + y);
+        }
+        if (bufferedFrames <= 0) {
+            throw new IllegalArgumentException("Il faut au moins une image : " + bufferedFrames);
+        }
+        this.encoder = encoder;
+        this.freeFrames = new ArrayBlockingQueue<>(bufferedFrames);
+        this.pendingFrames = new ArrayBlockingQueue<>(bufferedFrames + 1);
+        for (int frame = 0; frame < bufferedFrames; frame++) {
+            this.freeFrames.add(new Frame(x, y));
+        }
+        this.writer = new Thread(this::writeFrames, "frame-output");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Donne une génération à écrire si une image est libre, sinon la génération est ignorée.
+     *
+     * @param generation le numéro de la génération.
+     * @param source copie les cellules de la génération.
+     * @return true si la génération sera écrite.
+     * @throws IOException si l'écriture d'une génération précédente a échoué.
+     */
+    public boolean offer(long generation, FrameSource source) throws IOException {
+        checkOpen();
+        Frame frame = this.freeFrames.poll();
+        if (frame == null) {
+            this.droppedFrames++;
+            return false;
+        }
+        publish(frame, generation, source);
+        return true;
+    }
+
+    /**
+     * Donne une génération à écrire, en attendant qu'une image soit libre si l'écriture a pris du retard.
+     *
+     * @param generation le numéro de la génération.
+     * @param source copie les cellules de la génération.
+     * @throws IOException si l'écriture d'une génération précédente a échoué ou si le fil est interrompu.
+     */
+    public void submit(long generation, FrameSource source) throws IOException {
+        checkOpen();
+        Frame frame;
+        try {
+            frame = this.freeFrames.take();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompu en attendant une image libre");
+        }
+        publish(frame, generation, source);
+    }
+
+    private void publish(Frame frame, long generation, FrameSource source) {
+        frame.setGeneration(generation);
+        source.copyCells(frame.getCells());
+        this.pendingFrames.add(frame);
+    }
+
+    private void checkOpen() throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException("La sortie des images est fermée");
+        }
+        if (this.failure != null) {
+            throw new IOException("L'écriture des images a échoué", this.failure);
+        }
+    }
+
+    /**
+     * Boucle du fil d'écriture. Après une erreur les images sont rendues sans être écrites, pour que
+     * {@link #submit(long, FrameSource)} n'attende pas indéfiniment.
+     */
+    private void writeFrames() {
+        try {
+            while (true) {
+                Frame frame = this.pendingFrames.take();
+                if (frame == END) {
+                    return;
+                }
+                if (this.failure == null) {
+                    try {
+                        this.encoder.encode(frame);
+                        this.writtenFrames++;
+                    }
+                    catch (IOException | RuntimeException e) {
+                        this.failure = e instanceof IOException ioException ? ioException : new IOException(e);
+                    }
+                }
+                this.freeFrames.add(frame);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Attend l'écriture des générations données puis ferme l'encodeur.
+     *
+     * @throws IOException si une écriture a échoué.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.pendingFrames.add(END);
+        try {
+            this.writer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompu en attendant l'écriture des images");
+        }
+        finally {
+            this.encoder.close();
+        }
+        if (this.failure != null) {
+            throw new IOException("L'écriture des images a échoué", this.failure);
+        }
+    }
+
+    /**
+     * Renvoi le nombre de générations écrites par l'encodeur.
+     *
+     * @return le nombre d'images écrites.
+     */
+    public long getWrittenFrames() {
+        return writtenFrames;
+    }
+
+    /**
+     * Renvoi le nombre de générations ignorées par {@link #offer(long, FrameSource)} faute d'image libre.
+     *
+     * @return le nombre d'images ignorées.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+}
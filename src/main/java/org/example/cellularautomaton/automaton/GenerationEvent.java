@@ -0,0 +1,88 @@
+package org.example.cellularautomaton.automaton;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Évènement JFR d'une génération (ou d'un lot de générations) d'un automate. L'évènement n'est enregistré que
+ * pendant un enregistrement JFR qui l'active, par exemple {@code java -XX:StartFlightRecording:settings=profile ...}.
+ * Sans enregistrement, {@link #beginIfEnabled()} ne crée pas d'évènement : le coût est un test par génération.
+ * <pre>
+ * GenerationEvent event = GenerationEvent.beginIfEnabled();
+ * ... calcul de la génération ...
+ * if (event != null) {
+ *     event.record("ForestAutomaton", engine.name(), generation, 1, evaluatedCells, activeCells);
+ * }
+ * </pre>
+ */
+@Name("org.example.cellularautomaton.Generation")
+@Label("Génération")
+@Category("Automates cellulaires")
+@Description("Calcul d'une génération d'un automate cellulaire")
+@StackTrace(false)
+public final class GenerationEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(GenerationEvent.class);
+
+    @Label("Automate")
+    private String automaton;
+
+    @Label("Moteur")
+    private String engine;
+
+    @Label("Génération")
+    @Description("Le numéro de la génération calculée")
+    private long generation;
+
+    @Label("Générations")
+    @Description("Le nombre de générations calculées ensemble")
+    private long generations;
+
+    @Label("Cellules évaluées")
+    private long evaluatedCells;
+
+    @Label("Cellules actives")
+    @Description("Le front de feu, les cellules des tuiles actives ou toute la grille selon le moteur")
+    private long activeCells;
+
+    /**
+     * Commence un évènement si un enregistrement JFR l'a activé.
+     *
+     * @return l'évènement commencé, ou null si aucun enregistrement ne le demande.
+     */
+    public static GenerationEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Termine l'évènement et l'enregistre si un enregistrement JFR le demande.
+     *
+     * @param automaton le type d'automate.
+     * @param engine le moteur de l'automate.
+     * @param generation le numéro de la génération calculée.
+     * @param generations le nombre de générations calculées depuis {@link #begin()}.
+     * @param evaluatedCells le nombre de cellules évaluées.
+     * @param activeCells le nombre de cellules actives.
+     */
+    public void record(String automaton, String engine, long generation, long generations, long evaluatedCells, long activeCells) {
+        end();
+        if (shouldCommit()) {
+            this.automaton = automaton;
+            this.engine = engine;
+            this.generation = generation;
+            this.generations = generations;
+            this.evaluatedCells = evaluatedCells;
+            this.activeCells = activeCells;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.cellularautomaton.automaton;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Échange des générations entre le fil qui calcule une simulation et des fils qui la lisent, sans copie et sans
+ * verrou. Le fil de la simulation publie la grille de chaque génération, un lecteur l'ouvre avec {@link #acquire()}
+ * et la lit tant que sa vue ({@link GridView}) n'est pas fermée : la grille n'est pas réécrite avant.
+ * <p>
+ * Chaque grille porte le numéro de la génération qu'elle contient et le nombre de vues ouvertes dessus. Avant de
+ * réécrire une grille, la simulation la marque « en écriture » puis vérifie qu'aucune vue n'est ouverte ; un lecteur
+ * ouvre sa vue puis vérifie que la grille n'est pas en écriture. Un des deux voit toujours l'autre : si la grille est
+ * lue, la simulation écrit dans une autre grille (prise parmi les grilles libres ou allouée) et celle qui est lue
+ * revient dans les grilles libres quand ses vues sont fermées. Il y a donc au plus une grille de plus par génération
+ * gardée ouverte par les lecteurs.
+ * <p>
+ * Les méthodes {@code claim}, {@code publish} et {@code reset} sont réservées au fil de la simulation.
+ */
+public class GenerationExchange {
+    // Le numéro de génération d'une grille en cours d'écriture.
+    static final long WRITING = -1;
+
+    /**
+     * Une grille et son état partagé avec les lecteurs.
+     */
+    static final class Buffer {
+        final ByteGrid grid;
+        final AtomicInteger views = new AtomicInteger();
+        volatile long generation = WRITING;
+
+        private Buffer(ByteGrid grid) {
+            this.grid = grid;
+        }
+    }
+
+    // Les grilles connues, utilisé par le fil de la simulation seulement.
+    private final List<Buffer> buffers = new ArrayList<>();
+    // La dernière génération publiée, null avant la première ou pendant une initialisation.
+    private volatile Buffer latest;
+    // Vrai quand un lecteur a demandé une génération depuis la dernière publication.
+    private volatile boolean wanted;
+
+    /**
+     * Ouvre une vue sur la dernière génération publiée. Peut être appelé depuis n'importe quel fil, n'attend pas la
+     * simulation.
+     *
+     * @return la vue de la génération, à fermer après la lecture, ou null si aucune génération n'est publiée.
+     */
+    public GridView acquire() {
+        this.wanted = true;
+        while (true) {
+            Buffer buffer = this.latest;
+            if (buffer == null) {
+                return null;
+            }
+            buffer.views.incrementAndGet();
+            long generation = buffer.generation;
+            if (generation != WRITING) {
+                return new GridView(buffer, generation, 0, 0, buffer.grid.getX(), buffer.grid.getY());
+            }
+            // La grille lue était déjà réécrite : une génération plus récente a été publiée depuis.
+            buffer.views.decrementAndGet();
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Indique si un lecteur a demandé une génération depuis la dernière publication. Une simulation qui doit copier
+     * ses cellules pour les publier ne copie que les générations demandées : un lecteur qui ouvre une vue à chaque
+     * image lit la génération publiée après sa demande précédente, et les copies s'arrêtent quand plus personne ne
+     * lit.
+     *
+     * @return true si {@link #acquire()} a été appelé depuis la dernière publication.
+     */
+    public boolean isWanted() {
+        return this.wanted;
+    }
+
+    /**
+     * Renvoi le numéro de la dernière génération publiée.
+     *
+     * @return le numéro de la génération, -1 si aucune génération n'est publiée.
+     */
+    public long getGeneration() {
+        Buffer buffer = this.latest;
+        return buffer == null ? WRITING : buffer.generation;
+    }
+
+    /**
+     * Renvoi une grille dans laquelle écrire la prochaine génération : preferred si aucune vue n'est ouverte dessus,
+     * sinon une grille libre de même taille.
+     *
+     * @param preferred la grille à réécrire de préférence (la grille suivante d'un double tampon par exemple).
+     * @param copyFrom la grille à recopier dans la grille renvoyée si ce n'est pas preferred, null pour ne rien
+     *                 copier (quand toutes les cellules seront réécrites).
+     * @return la grille à écrire, marquée en écriture jusqu'à {@link #publish(ByteGrid, long)}.
+     */
+    public ByteGrid claim(ByteGrid preferred, ByteGrid copyFrom) {
+        if (tryClaim(find(preferred))) {
+            return preferred;
+        }
+        ByteGrid grid = claim(preferred.getX(), preferred.getY(), preferred.getBorder());
+        if (copyFrom != null) {
+            System.arraycopy(copyFrom.getCells(), 0, grid.getCells(), 0, grid.getCells().length);
+        }
+        return grid;
+    }
+
+    /**
+     * Renvoi une grille libre de la taille demandée, allouée si aucune grille n'est libre.
+     *
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param border la bordure de la grille.
+     * @return la grille à écrire, marquée en écriture jusqu'à {@link #publish(ByteGrid, long)}.
+     */
+    public ByteGrid claim(int x, int y, int border) {
+        Buffer latestBuffer = this.latest;
+        for (Iterator<Buffer> iterator = this.buffers.iterator(); iterator.hasNext(); ) {
+            Buffer buffer = iterator.next();
+            ByteGrid grid = buffer.grid;
+            if (grid.getX() != x || grid.getY() != y || grid.getBorder() != border) {
+                // Une grille d'une autre taille n'est plus publiée : elle est oubliée une fois ses vues fermées.
+                if (buffer != latestBuffer && buffer.views.get() == 0) {
+                    iterator.remove();
+                }
+                continue;
+            }
+            // Une grille en écriture est utilisée par la simulation, la dernière génération peut être ouverte.
+            if (buffer == latestBuffer || buffer.generation == WRITING) {
+                continue;
+            }
+            if (tryClaim(buffer)) {
+                return grid;
+            }
+        }
+        ByteGrid grid = new ByteGrid(x, y, border);
+        this.buffers.add(new Buffer(grid));
+        return grid;
+    }
+
+    /**
+     * Publie une génération : les prochaines vues ouvertes la liront.
+     *
+     * @param grid la grille de la génération, obtenue avec une méthode {@code claim}.
+     * @param generation le numéro de la génération.
+     */
+    public void publish(ByteGrid grid, long generation) {
+        if (generation < 0) {
+            throw new IllegalArgumentException("Le numéro de génération doit être positif : " + generation);
+        }
+        Buffer buffer = find(grid);
+        buffer.generation = generation;
+        this.latest = buffer;
+        this.wanted = false;
+    }
+
+    /**
+     * Retire la dernière génération avant une initialisation : {@link #acquire()} renvoi null jusqu'à la prochaine
+     * publication. Les vues déjà ouvertes restent valides.
+     */
+    public void reset() {
+        this.latest = null;
+    }
+
+    /**
+     * Marque la grille en écriture si aucune vue n'est ouverte dessus.
+     *
+     * @return true si la grille peut être réécrite.
+     */
+    private static boolean tryClaim(Buffer buffer) {
+        long generation = buffer.generation;
+        buffer.generation = WRITING;
+        if (buffer.views.get() == 0) {
+            return true;
+        }
+        buffer.generation = generation;
+        return false;
+    }
+
+    /**
+     * Renvoi l'état de la grille, créé à la première utilisation d'une grille allouée ailleurs.
+     */
+    private Buffer find(ByteGrid grid) {
+        for (Buffer buffer : this.buffers) {
+            if (buffer.grid == grid) {
+                return buffer;
+            }
+        }
+        Buffer buffer = new Buffer(grid);
+        this.buffers.add(buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,340 @@
+package org.example.cellularautomaton.automaton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Historique compressé des générations d'une simulation. Chaque génération est un tableau d'octets (un octet par
+ * cellule). Une génération sur {@link #getKeyframeInterval()} est gardée en entier (image clé compressée par
+ * plages), les autres ne gardent que les cellules qui ont changé depuis la génération précédente, regroupées en
+ * plages de même valeur.
+ * <p>
+ * Pour revenir à une génération, l'historique décode l'image clé précédente puis applique au plus
+ * {@code keyframeInterval - 1} différences. Un intervalle plus grand prend moins de mémoire mais rend
+ * {@link #seek(long)} plus lent.
+ * <p>
+ * Une simulation qui sait quelles cellules ont changé (un front de feu, des tuiles actives) les donne avec
+ * {@link #recordChanges(long, long[], int)} : l'enregistrement d'une génération coûte alors le nombre de changements,
+ * plus une image clé toutes les {@link #getKeyframeInterval()} générations.
+ */
+public class GenerationHistory {
+    private final int keyframeInterval;
+    // Une entrée par génération : image clé ou différences avec la génération précédente.
+    private final List<byte[]> records = new ArrayList<>();
+    private long firstGeneration;
+    private int cellCount = -1;
+    private long storedBytes;
+    // La dernière génération enregistrée, pour calculer les différences.
+    private byte[] lastFrame;
+    // Tampon d'écriture réutilisé par l'encodage.
+    private byte[] buffer = new byte[256];
+    private int bufferLength;
+    // Position de lecture dans l'entrée en cours de décodage.
+    private int readPosition;
+
+    // La génération décodée par seek et son numéro (-1 si aucune), réutilisée pour avancer sans repartir de l'image clé.
+    private byte[] cursorFrame;
+    private long cursorGeneration = -1;
+
+    /**
+     * @param keyframeInterval le nombre de générations entre deux images clés (1 pour ne garder que des images clés).
+     */
+    public GenerationHistory(int keyframeInterval) {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("L'intervalle entre deux images clés doit être positif : " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Vide l'historique. La prochaine génération enregistrée sera la première.
+     */
+    public void clear() {
+        this.records.clear();
+        this.cellCount = -1;
+        this.storedBytes = 0;
+        this.lastFrame = null;
+        this.cursorFrame = null;
+        this.cursorGeneration = -1;
+    }
+
+    /**
+     * Ajoute une génération à la fin de l'historique.
+     *
+     * @param generation le numéro de la génération, il doit suivre celui de la dernière génération enregistrée.
+     * @param frame la valeur de chaque cellule, le tableau n'est pas gardé.
+     */
+    public void record(long generation, byte[] frame) {
+        if (this.cellCount < 0) {
+            this.firstGeneration = generation;
+            this.cellCount = frame.length;
+            this.lastFrame = new byte[frame.length];
+        }
+        else if (frame.length != this.cellCount) {
+            throw new IllegalArgumentException("La génération contient " + frame.length + " cellules au lieu de " + this.cellCount);
+        }
+        else {
+            checkNextGeneration(generation);
+        }
+
+        this.bufferLength = 0;
+        if (this.records.size() % this.keyframeInterval == 0) {
+            encodeKeyframe(frame);
+        }
+        else {
+            encodeDelta(this.lastFrame, frame);
+        }
+        addRecord();
+        System.arraycopy(frame, 0, this.lastFrame, 0, frame.length);
+    }
+
+    /**
+     * Ajoute une génération à la fin de l'historique à partir des cellules qui ont changé depuis la génération
+     * précédente, sans parcourir toutes les cellules (sauf pour une image clé).
+     *
+     * @param generation le numéro de la génération, il doit suivre celui de la dernière génération enregistrée.
+     * @param changes les cellules qui ont changé, codées avec {@link #change(int, byte)}, dans n'importe quel ordre
+     *                et au plus une fois par cellule. Les count premières valeurs du tableau sont triées.
+     * @param count le nombre de changements.
+     * @throws IllegalStateException si l'historique est vide : la première génération est donnée en entier.
+     */
+    public void recordChanges(long generation, long[] changes, int count) {
+        if (this.cellCount < 0) {
+            throw new IllegalStateException("La première génération de l'historique doit être enregistrée en entier");
+        }
+        checkNextGeneration(generation);
+        Arrays.sort(changes, 0, count);
+        for (int change = 0; change < count; change++) {
+            this.lastFrame[changedCell(changes[change])] = (byte) changes[change];
+        }
+
+        this.bufferLength = 0;
+        if (this.records.size() % this.keyframeInterval == 0) {
+            encodeKeyframe(this.lastFrame);
+        }
+        else {
+            encodeChanges(changes, count);
+        }
+        addRecord();
+    }
+
+    /**
+     * Code le changement d'une cellule pour {@link #recordChanges(long, long[], int)}. Les changements codés se
+     * trient dans l'ordre des cellules.
+     *
+     * @param cell l'indice de la cellule dans la génération.
+     * @param value la nouvelle valeur de la cellule.
+     * @return le changement codé.
+     */
+    public static long change(int cell, byte value) {
+        return ((long) cell << 8) | (value & 0xFF);
+    }
+
+    private static int changedCell(long change) {
+        return (int) (change >>> 8);
+    }
+
+    private void checkNextGeneration(long generation) {
+        if (generation != getLastGeneration() + 1) {
+            throw new IllegalArgumentException("La génération " + generation + " ne suit pas la génération " + getLastGeneration());
+        }
+    }
+
+    private void addRecord() {
+        byte[] record = Arrays.copyOf(this.buffer, this.bufferLength);
+        this.records.add(record);
+        this.storedBytes += record.length;
+    }
+
+    /**
+     * Renvoi les cellules d'une génération enregistrée. Avancer d'une génération à la suivante ne décode qu'une
+     * différence ; sinon la génération est reconstruite depuis l'image clé précédente.
+     *
+     * @param generation le numéro de la génération.
+     * @return la valeur de chaque cellule. Le tableau appartient à l'historique : il ne doit pas être modifié et
+     * n'est valable que jusqu'au prochain appel.
+     */
+    public byte[] seek(long generation) {
+        if (generation < this.firstGeneration || generation > getLastGeneration()) {
+            throw new IndexOutOfBoundsException("La génération " + generation + " n'est pas dans l'historique ["
+                    + this.firstGeneration + ", " + getLastGeneration() + "]");
+        }
+        int target = (int) (generation - this.firstGeneration);
+        int keyframe = target - target % this.keyframeInterval;
+        if (this.cursorFrame == null) {
+            this.cursorFrame = new byte[this.cellCount];
+        }
+
+        int current = (int) (this.cursorGeneration - this.firstGeneration);
+        if (this.cursorGeneration < 0 || current > target || current < keyframe) {
+            decodeKeyframe(this.records.get(keyframe), this.cursorFrame);
+            current = keyframe;
+        }
+        while (current < target) {
+            current++;
+            decodeDelta(this.records.get(current), this.cursorFrame);
+        }
+        this.cursorGeneration = generation;
+        return this.cursorFrame;
+    }
+
+    /**
+     * Image clé : suite de plages (longueur, valeur) qui couvrent toutes les cellules.
+     */
+    private void encodeKeyframe(byte[] frame) {
+        int index = 0;
+        while (index < frame.length) {
+            byte value = frame[index];
+            int end = index + 1;
+            while (end < frame.length && frame[end] == value) {
+                end++;
+            }
+            writeVarInt(end - index);
+            writeByte(value);
+            index = end;
+        }
+    }
+
+    /**
+     * Différences : suite de plages (écart depuis la fin de la plage précédente, longueur, nouvelle valeur) des
+     * cellules qui ont changé.
+     */
+    private void encodeDelta(byte[] previous, byte[] frame) {
+        int lastEnd = 0;
+        int index = 0;
+        while (index < frame.length) {
+            if (frame[index] == previous[index]) {
+                index++;
+                continue;
+            }
+            byte value = frame[index];
+            int end = index + 1;
+            while (end < frame.length && frame[end] == value && previous[end] != value) {
+                end++;
+            }
+            writeVarInt(index - lastEnd);
+            writeVarInt(end - index);
+            writeByte(value);
+            lastEnd = end;
+            index = end;
+        }
+    }
+
+    /**
+     * Différences à partir des changements triés, dans le même format que {@link #encodeDelta(byte[], byte[])} :
+     * les cellules voisines qui prennent la même valeur forment une plage.
+     */
+    private void encodeChanges(long[] changes, int count) {
+        int lastEnd = 0;
+        int change = 0;
+        while (change < count) {
+            int index = changedCell(changes[change]);
+            byte value = (byte) changes[change];
+            int end = index + 1;
+            change++;
+            while (change < count && changedCell(changes[change]) == end && (byte) changes[change] == value) {
+                end++;
+                change++;
+            }
+            writeVarInt(index - lastEnd);
+            writeVarInt(end - index);
+            writeByte(value);
+            lastEnd = end;
+        }
+    }
+
+    private void decodeKeyframe(byte[] record, byte[] frame) {
+        this.readPosition = 0;
+        int index = 0;
+        while (this.readPosition < record.length) {
+            int length = readVarInt(record);
+            byte value = record[this.readPosition++];
+            Arrays.fill(frame, index, index + length, value);
+            index += length;
+        }
+    }
+
+    private void decodeDelta(byte[] record, byte[] frame) {
+        this.readPosition = 0;
+        int index = 0;
+        while (this.readPosition < record.length) {
+            index += readVarInt(record);
+            int length = readVarInt(record);
+            byte value = record[this.readPosition++];
+            Arrays.fill(frame, index, index + length, value);
+            index += length;
+        }
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((byte) value);
+    }
+
+    private void writeByte(byte value) {
+        if (this.bufferLength == this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, this.bufferLength * 2);
+        }
+        this.buffer[this.bufferLength++] = value;
+    }
+
+    private int readVarInt(byte[] record) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = record[this.readPosition++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Renvoi le numéro de la première génération enregistrée.
+     *
+     * @return le numéro de la première génération.
+     */
+    public long getFirstGeneration() {
+        return firstGeneration;
+    }
+
+    /**
+     * Renvoi le numéro de la dernière génération enregistrée, {@code getFirstGeneration() - 1} si l'historique est vide.
+     *
+     * @return le numéro de la dernière génération.
+     */
+    public long getLastGeneration() {
+        return this.firstGeneration + this.records.size() - 1;
+    }
+
+    public int getGenerationCount() {
+        return this.records.size();
+    }
+
+    /**
+     * Renvoi le nombre de cellules de chaque génération, -1 si l'historique est vide.
+     *
+     * @return le nombre de cellules.
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Renvoi la taille des générations compressées (sans le coût des objets Java).
+     *
+     * @return le nombre d'octets enregistrés.
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+}
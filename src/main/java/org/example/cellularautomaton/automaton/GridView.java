@@ -0,0 +1,153 @@
+package org.example.cellularautomaton.automaton;
+
+import java.lang.ref.Cleaner;
+import java.util.Objects;
+
+/**
+ * Vue en lecture seule sur une génération publiée par un {@link GenerationExchange}, ou sur un rectangle de cette
+ * génération. La vue lit directement la grille de la simulation, sans copie : la grille n'est pas réécrite tant que
+ * la vue est ouverte, la vue doit donc être fermée dès que la lecture est finie.
+ * <p>
+ * Une vue qui n'est pas fermée garde sa grille : la simulation écrit dans une autre grille, allouée si besoin. Une
+ * vue oubliée est fermée quand le ramasse-miettes la récupère, ce qui peut prendre longtemps : la fermer reste la
+ * seule façon de rendre la grille tout de suite.
+ * <p>
+ * Une vue est utilisée par un seul fil. Les colonnes et les lignes sont comptées depuis le coin haut gauche de la
+ * vue.
+ */
+public final class GridView implements AutoCloseable {
+    // Ferme les vues oubliées récupérées par le ramasse-miettes.
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final GenerationExchange.Buffer buffer;
+    private final long generation;
+    private final int fromColumn;
+    private final int fromRow;
+    private final int x;
+    private final int y;
+    private final Cleaner.Cleanable release;
+    private boolean closed;
+
+    /**
+     * Retire la vue du nombre de vues ouvertes de la grille, une seule fois. Ne doit pas référencer la vue pour que
+     * le ramasse-miettes puisse la récupérer.
+     */
+    private record Release(GenerationExchange.Buffer buffer) implements Runnable {
+        @Override
+        public void run() {
+            this.buffer.views.decrementAndGet();
+        }
+    }
+
+    /**
+     * La vue est comptée dans les vues ouvertes de la grille par l'appelant.
+     */
+    GridView(GenerationExchange.Buffer buffer, long generation, int fromColumn, int fromRow, int x, int y) {
+        this.buffer = buffer;
+        this.generation = generation;
+        this.fromColumn = fromColumn;
+        this.fromRow = fromRow;
+        this.x = x;
+        this.y = y;
+        this.release = CLEANER.register(this, new Release(buffer));
+    }
+
+    /**
+     * Renvoi la valeur d'une cellule de la vue.
+     *
+     * @param column la colonne de la cellule dans la vue.
+     * @param row la ligne de la cellule dans la vue.
+     * @return la valeur de la cellule.
+     */
+    public byte get(int column, int row) {
+        checkOpen();
+        Objects.checkIndex(column, this.x);
+        Objects.checkIndex(row, this.y);
+        return this.buffer.grid.get(this.fromColumn + column, this.fromRow + row);
+    }
+
+    /**
+     * Copie une ligne de la vue.
+     *
+     * @param row la ligne dans la vue.
+     * @param target le tableau qui reçoit les x valeurs de la ligne.
+     * @param offset l'indice de la première valeur dans target.
+     */
+    public void copyRow(int row, byte[] target, int offset) {
+        checkOpen();
+        Objects.checkIndex(row, this.y);
+        ByteGrid grid = this.buffer.grid;
+        System.arraycopy(grid.getCells(), grid.index(this.fromColumn, this.fromRow + row), target, offset, this.x);
+    }
+
+    /**
+     * Ouvre une vue sur un rectangle de cette vue, sans copie. La nouvelle vue reste valide si cette vue est fermée
+     * et doit être fermée elle aussi.
+     *
+     * @param column la colonne du coin haut gauche du rectangle dans cette vue.
+     * @param row la ligne du coin haut gauche du rectangle dans cette vue.
+     * @param width le nombre de colonnes du rectangle.
+     * @param height le nombre de lignes du rectangle.
+     * @return la vue du rectangle.
+     */
+    public GridView region(int column, int row, int width, int height) {
+        checkOpen();
+        Objects.checkFromIndexSize(column, width, this.x);
+        Objects.checkFromIndexSize(row, height, this.y);
+        // Cette vue est ouverte : la grille ne peut pas être en écriture.
+        this.buffer.views.incrementAndGet();
+        return new GridView(this.buffer, this.generation, this.fromColumn + column, this.fromRow + row, width, height);
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("La vue de la génération " + this.generation + " est fermée");
+        }
+    }
+
+    /**
+     * Ferme la vue : la simulation peut à nouveau réécrire la grille si plus aucune vue n'est ouverte dessus.
+     */
+    @Override
+    public void close() {
+        if (!this.closed) {
+            this.closed = true;
+            this.release.clean();
+        }
+    }
+
+    /**
+     * Renvoi le numéro de la génération lue par la vue.
+     *
+     * @return le numéro de la génération.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Renvoi la colonne du coin haut gauche de la vue dans la grille entière.
+     *
+     * @return la première colonne de la vue.
+     */
+    public int getFromColumn() {
+        return fromColumn;
+    }
+
+    /**
+     * Renvoi la ligne du coin haut gauche de la vue dans la grille entière.
+     *
+     * @return la première ligne de la vue.
+     */
+    public int getFromRow() {
+        return fromRow;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+}
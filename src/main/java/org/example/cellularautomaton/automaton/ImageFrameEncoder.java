@@ -0,0 +1,199 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Écrit chaque génération dans une image d'un dossier ({@code prefixe-00000042.png} pour la génération 42). La
+ * couleur d'une cellule est donnée par une palette indexée par la valeur de la cellule, chaque cellule peut être
+ * agrandie en un carré de plusieurs pixels.
+ * <p>
+ * Les images PNG utilisent la palette (un octet par pixel, compressé) et les images PPM (P6) sont en couleurs
+ * brutes. Les deux formats sont écrits sans java.desktop.
+ */
+public class ImageFrameEncoder implements FrameEncoder {
+    /**
+     * Le format des images.
+     */
+    public enum Format {
+        PNG,
+        PPM
+    }
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    // Un octet de filtre (0 : aucun) commence chaque ligne d'une image PNG.
+    private static final int PNG_FILTER_NONE = 0;
+
+    private final Path directory;
+    private final String prefix;
+    private final Format format;
+    private final int[] palette;
+    private final int scale;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    // Les pixels d'une image et leur version compressée, réutilisés à chaque génération.
+    private byte[] pixels;
+    private final byte[] compressed = new byte[1 << 16];
+    // La longueur ou le CRC d'un chunk PNG.
+    private final byte[] chunkInt = new byte[4];
+
+    /**
+     * @param directory le dossier des images, créé s'il n'existe pas.
+     * @param prefix le début du nom des fichiers.
+     * @param format le format des images.
+     * @param palette la couleur (0xRRGGBB) de chaque valeur de cellule, au plus 256 couleurs.
+     * @param scale le nombre de pixels du côté d'une cellule.
+     * @throws IOException si le dossier ne peut pas être créé.
+     */
+    public ImageFrameEncoder(Path directory, String prefix, Format format, int[] palette, int scale) throws IOException {
+        if (palette.length == 0 || palette.length > 256) {
+            throw new IllegalArgumentException("La palette doit avoir entre 1 et 256 couleurs : " + palette.length);
+        }
+        if (scale <= 0) {
+            throw new IllegalArgumentException("La taille d'une cellule doit être positive : " + scale);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.prefix = prefix;
+        this.format = format;
+        this.palette = palette.clone();
+        this.scale = scale;
+    }
+
+    @Override
+    public void encode(Frame frame) throws IOException {
+        Path file = this.directory.resolve(String.format("%s-%08d.%s", this.prefix, frame.getGeneration(),
+                this.format == Format.PNG ? "png" : "ppm"));
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            if (this.format == Format.PNG) {
+                writePng(frame, output);
+            }
+            else {
+                writePpm(frame, output);
+            }
+        }
+    }
+
+    /**
+     * Écrit une image PPM : un en-tête texte puis 3 octets (rouge, vert, bleu) par pixel.
+     */
+    private void writePpm(Frame frame, OutputStream output) throws IOException {
+        int width = frame.getX() * this.scale;
+        int height = frame.getY() * this.scale;
+        output.write(("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+        byte[] row = pixelRow(width * 3);
+        for (int cellRow = 0; cellRow < frame.getY(); cellRow++) {
+            int pixel = 0;
+            for (int column = 0; column < frame.getX(); column++) {
+                int color = color(frame.get(column, cellRow));
+                for (int repeat = 0; repeat < this.scale; repeat++) {
+                    row[pixel++] = (byte) (color >>> 16);
+                    row[pixel++] = (byte) (color >>> 8);
+                    row[pixel++] = (byte) color;
+                }
+            }
+            for (int repeat = 0; repeat < this.scale; repeat++) {
+                output.write(row, 0, width * 3);
+            }
+        }
+    }
+
+    /**
+     * Écrit une image PNG à palette : les chunks IHDR, PLTE, IDAT (les lignes compressées) et IEND.
+     */
+    private void writePng(Frame frame, OutputStream output) throws IOException {
+        int width = frame.getX() * this.scale;
+        int height = frame.getY() * this.scale;
+        output.write(PNG_SIGNATURE);
+
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; // 8 bits par pixel
+        header[9] = 3; // couleurs indexées
+        writeChunk(output, "IHDR", header, header.length);
+
+        byte[] colors = new byte[this.palette.length * 3];
+        for (int color = 0; color < this.palette.length; color++) {
+            colors[3 * color] = (byte) (this.palette[color] >>> 16);
+            colors[3 * color + 1] = (byte) (this.palette[color] >>> 8);
+            colors[3 * color + 2] = (byte) this.palette[color];
+        }
+        writeChunk(output, "PLTE", colors, colors.length);
+
+        byte[] row = pixelRow(width + 1);
+        row[0] = PNG_FILTER_NONE;
+        this.deflater.reset();
+        for (int cellRow = 0; cellRow < frame.getY(); cellRow++) {
+            int pixel = 1;
+            for (int column = 0; column < frame.getX(); column++) {
+                byte index = (byte) Math.floorMod(frame.get(column, cellRow), this.palette.length);
+                for (int repeat = 0; repeat < this.scale; repeat++) {
+                    row[pixel++] = index;
+                }
+            }
+            for (int repeat = 0; repeat < this.scale; repeat++) {
+                this.deflater.setInput(row, 0, width + 1);
+                while (!this.deflater.needsInput()) {
+                    deflate(output);
+                }
+            }
+        }
+        this.deflater.finish();
+        while (!this.deflater.finished()) {
+            deflate(output);
+        }
+        writeChunk(output, "IEND", new byte[0], 0);
+    }
+
+    /**
+     * Compresse la suite des lignes et écrit un chunk IDAT quand le tampon est plein (ou à la fin de l'image).
+     */
+    private void deflate(OutputStream output) throws IOException {
+        int length = this.deflater.deflate(this.compressed);
+        if (length > 0) {
+            writeChunk(output, "IDAT", this.compressed, length);
+        }
+    }
+
+    private void writeChunk(OutputStream output, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        putInt(this.chunkInt, 0, length);
+        output.write(this.chunkInt);
+        output.write(typeBytes);
+        output.write(data, 0, length);
+        this.crc.reset();
+        this.crc.update(typeBytes);
+        this.crc.update(data, 0, length);
+        putInt(this.chunkInt, 0, (int) this.crc.getValue());
+        output.write(this.chunkInt);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    private int color(byte value) {
+        return this.palette[Math.floorMod(value, this.palette.length)];
+    }
+
+    private byte[] pixelRow(int length) {
+        if (this.pixels == null || this.pixels.length < length) {
+            this.pixels = new byte[length];
+        }
+        return this.pixels;
+    }
+
+    @Override
+    public void close() {
+        this.deflater.end();
+    }
+}
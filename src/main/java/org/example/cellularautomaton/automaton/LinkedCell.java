@@ -96,15 +96,16 @@ public class LinkedCell<E> implements Cloneable {
      * @return la cellule qui n'a pas de cellule à sa droite
      */
     private LinkedCell<E> getFirstCellWithRightNull(LinkedCell<E> nextLinkedCell) {
+        // Parcours itératif : une version récursive dépasse la taille de la pile sur les grilles très larges.
+        LinkedCell<E> currentCell = nextLinkedCell;
         // Si je suis à la première cellule de la liste chainée alors je renvoi null
-        if (nextLinkedCell.nextCell == null) {
-            return null;
-        }
-        if (nextLinkedCell.getRightCell() == null) {
-            return nextLinkedCell;
-        } else {
-            return getFirstCellWithRightNull(nextLinkedCell.nextCell);
+        while (currentCell.nextCell != null) {
+            if (currentCell.getRightCell() == null) {
+                return currentCell;
+            }
+            currentCell = currentCell.nextCell;
         }
+        return null;
     }
 
     /**
@@ -0,0 +1,366 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Grille stockée dans un fichier projeté en mémoire, pour les grilles qui ne tiennent pas dans le tas de la JVM.
+ * Chaque cellule prend 1, 2 ou 4 bits. Le fichier contient un en-tête puis deux plans (deux copies de la grille) :
+ * une génération lit le plan courant et écrit le plan suivant, puis {@link #swapPlanes()} change le plan courant
+ * dans l'en-tête.
+ * <p>
+ * Le fichier sert aussi de point de reprise : l'en-tête garde la taille, le plan courant et, pour chaque plan, sa
+ * génération, la graine, des paramètres et des compteurs libres. {@link #open(Path)} ne fait que vérifier l'en-tête
+ * et projeter le fichier. {@link #swapPlanes(long, long[])} écrit le plan suivant sur le disque avant de changer le
+ * plan courant : après un arrêt brutal le fichier désigne l'ancien plan ou le nouveau, avec son état, jamais un plan
+ * à moitié écrit.
+ * <p>
+ * Format (little endian) : magic (8 octets), version, bits par cellule, x, y, plan courant (int), puis à partir de
+ * l'octet 64 l'état de chaque plan sur 128 octets : génération, graine (long), {@value #PARAMETER_COUNT} paramètres
+ * (int), {@value #COUNTER_COUNT} compteurs (long). Les deux plans commencent à l'octet {@value #HEADER_SIZE}, chaque
+ * ligne d'un plan commence sur un octet.
+ */
+public class MappedGrid implements ExternalGrid, Closeable {
+    public static final int PARAMETER_COUNT = 8;
+    public static final int COUNTER_COUNT = 4;
+    static final int HEADER_SIZE = 320;
+
+    private static final long MAGIC = 0x3130444952474143L; // "CAGRID01"
+    private static final int VERSION = 2;
+    private static final int BITS_OFFSET = 12;
+    private static final int X_OFFSET = 16;
+    private static final int Y_OFFSET = 20;
+    private static final int PLANE_OFFSET = 24;
+    // L'état de chaque plan, le plan p commence à l'octet PLANE_STATE_OFFSET + p * PLANE_STATE_SIZE.
+    private static final int PLANE_STATE_OFFSET = 64;
+    private static final int PLANE_STATE_SIZE = 128;
+    private static final int GENERATION_OFFSET = 0;
+    private static final int SEED_OFFSET = 8;
+    private static final int PARAMETERS_OFFSET = 16;
+    private static final int COUNTERS_OFFSET = PARAMETERS_OFFSET + 4 * PARAMETER_COUNT;
+    // Taille maximum d'une projection (une projection est limitée à 2 Go), arrondie à un nombre entier de lignes.
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int x;
+    private final int y;
+    private final int bitsPerCell;
+    private final int cellMask;
+    private final int bytesPerRow;
+    private final int rowsPerChunk;
+    // chunks[plan][morceau] : les projections de chaque plan.
+    private final MappedByteBuffer[][] chunks;
+    // Les octets d'une ligne, réutilisés par readRow et writeRow.
+    private final byte[] rowBytes;
+    // Les paramètres du plan courant recopiés par swapPlanes(long, long[]), réutilisés à chaque génération.
+    private final int[] currentParameters = new int[PARAMETER_COUNT];
+
+    private MappedGrid(FileChannel channel, int x, int y, int bitsPerCell) throws IOException {
+        this.channel = channel;
+        this.x = x;
+        this.y = y;
+        this.bitsPerCell = bitsPerCell;
+        this.cellMask = (1 << bitsPerCell) - 1;
+        this.bytesPerRow = BitPacking.packedSize(x, bitsPerCell);
+        this.rowsPerChunk = (int) Math.max(1, Math.min(y, MAX_CHUNK_SIZE / this.bytesPerRow));
+        this.rowBytes = new byte[this.bytesPerRow];
+
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        this.header.order(ByteOrder.LITTLE_ENDIAN);
+
+        long planeSize = (long) this.bytesPerRow * y;
+        int chunkCount = (y + this.rowsPerChunk - 1) / this.rowsPerChunk;
+        this.chunks = new MappedByteBuffer[2][chunkCount];
+        for (int plane = 0; plane < 2; plane++) {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                long chunkStart = (long) chunk * this.rowsPerChunk * this.bytesPerRow;
+                long chunkSize = Math.min((long) this.rowsPerChunk * this.bytesPerRow, planeSize - chunkStart);
+                this.chunks[plane][chunk] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_SIZE + plane * planeSize + chunkStart, chunkSize);
+            }
+        }
+    }
+
+    /**
+     * Créé (ou remplace) le fichier d'une grille dont toutes les cellules valent 0.
+     *
+     * @param path le fichier de la grille.
+     * @param x le nombre de colonnes.
+     * @param y le nombre de lignes.
+     * @param bitsPerCell le nombre de bits d'une cellule : 1, 2 ou 4.
+     * @return la grille projetée en mémoire.
+     * @throws IOException si le fichier ne peut pas être créé.
+     */
+    public static MappedGrid create(Path path, int x, int y, int bitsPerCell) throws IOException {
+        if (x <= 0 || y <= 0) {
+            throw new IllegalArgumentException("La taille de la grille doit être positive : " + x + "x" + y);
+        }
+        if (bitsPerCell != 1 && bitsPerCell != 2 && bitsPerCell != 4) {
+            throw new IllegalArgumentException("Une cellule doit prendre 1, 2 ou 4 bits : " + bitsPerCell);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // Le fichier est agrandi d'un coup, les octets non écrits valent 0 (et restent creux sur le disque).
+            long planeSize = (long) BitPacking.packedSize(x, bitsPerCell) * y;
+            channel.write(ByteBuffer.allocate(1), HEADER_SIZE + 2 * planeSize - 1);
+            MappedGrid grid = new MappedGrid(channel, x, y, bitsPerCell);
+            grid.header.putLong(0, MAGIC);
+            grid.header.putInt(8, VERSION);
+            grid.header.putInt(BITS_OFFSET, bitsPerCell);
+            grid.header.putInt(X_OFFSET, x);
+            grid.header.putInt(Y_OFFSET, y);
+            return grid;
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Ouvre le fichier d'une grille existante, sans lire les cellules.
+     *
+     * @param path le fichier de la grille.
+     * @return la grille projetée en mémoire.
+     * @throws IOException si le fichier ne peut pas être lu ou n'est pas une grille.
+     */
+    public static MappedGrid open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) != HEADER_SIZE || header.getLong(0) != MAGIC) {
+                throw new IOException("Le fichier n'est pas une grille : " + path);
+            }
+            if (header.getInt(8) != VERSION) {
+                throw new IOException("Version de grille inconnue : " + header.getInt(8));
+            }
+            int x = header.getInt(X_OFFSET);
+            int y = header.getInt(Y_OFFSET);
+            int bitsPerCell = header.getInt(BITS_OFFSET);
+            int plane = header.getInt(PLANE_OFFSET);
+            if (x <= 0 || y <= 0 || (bitsPerCell != 1 && bitsPerCell != 2 && bitsPerCell != 4) || (plane != 0 && plane != 1)) {
+                throw new IOException("L'en-tête de la grille est abimé : " + path);
+            }
+            // Un fichier tronqué ou agrandi ne correspond pas à l'en-tête : le projeter donnerait une autre grille.
+            long expectedSize = HEADER_SIZE + 2 * (long) BitPacking.packedSize(x, bitsPerCell) * y;
+            if (channel.size() != expectedSize) {
+                throw new IOException("La grille " + path + " fait " + channel.size() + " octets au lieu de " + expectedSize);
+            }
+            return new MappedGrid(channel, x, y, bitsPerCell);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Renvoi la valeur d'une cellule du plan courant.
+     */
+    @Override
+    public int get(int column, int row) {
+        long bit = (long) column * this.bitsPerCell;
+        byte value = chunkOf(getCurrentPlane(), row).get(rowStart(row) + (int) (bit >>> 3));
+        return (value >>> (bit & 7)) & this.cellMask;
+    }
+
+    /**
+     * Modifie la valeur d'une cellule du plan courant.
+     */
+    public void set(int column, int row, int value) {
+        long bit = (long) column * this.bitsPerCell;
+        MappedByteBuffer chunk = chunkOf(getCurrentPlane(), row);
+        int index = rowStart(row) + (int) (bit >>> 3);
+        int shift = (int) (bit & 7);
+        int updated = (chunk.get(index) & ~(this.cellMask << shift)) | ((value & this.cellMask) << shift);
+        chunk.put(index, (byte) updated);
+    }
+
+    /**
+     * Copie une ligne du plan courant : la cellule de la colonne jj est écrite dans {@code target[offset + jj]}.
+     */
+    @Override
+    public void readRow(int row, byte[] target, int offset) {
+        chunkOf(getCurrentPlane(), row).get(rowStart(row), this.rowBytes, 0, this.bytesPerRow);
+        BitPacking.unpack(this.rowBytes, this.x, this.bitsPerCell, target, offset);
+    }
+
+    /**
+     * Écrit une ligne dans le plan courant à partir de {@code source[offset]}.
+     */
+    @Override
+    public void writeRow(int row, byte[] source, int offset) {
+        writeRow(getCurrentPlane(), row, source, offset);
+    }
+
+    /**
+     * Écrit une ligne dans le plan suivant, qui deviendra le plan courant après {@link #swapPlanes()}.
+     */
+    public void writeNextRow(int row, byte[] source, int offset) {
+        writeRow(1 - getCurrentPlane(), row, source, offset);
+    }
+
+    private void writeRow(int plane, int row, byte[] source, int offset) {
+        BitPacking.pack(source, offset, this.x, this.bitsPerCell, this.rowBytes);
+        chunkOf(plane, row).put(rowStart(row), this.rowBytes, 0, this.bytesPerRow);
+    }
+
+    /**
+     * Le plan suivant devient le plan courant, avec la graine et les paramètres du plan courant.
+     *
+     * @param generation la génération du plan suivant.
+     * @param counters les compteurs du plan suivant, les compteurs absents valent 0.
+     * @see #swapPlanes(long, long, int[], long[])
+     */
+    public void swapPlanes(long generation, long[] counters) {
+        int[] parameters = this.currentParameters;
+        for (int index = 0; index < PARAMETER_COUNT; index++) {
+            parameters[index] = getParameter(index);
+        }
+        swapPlanes(generation, getSeed(), parameters, counters);
+    }
+
+    /**
+     * Le plan suivant devient le plan courant, avec son état. Le plan suivant est d'abord écrit sur le disque, puis
+     * son état est écrit dans l'en-tête et le numéro du plan courant est changé (une seule écriture), enfin
+     * l'en-tête est écrit sur le disque. Coûte une écriture du plan sur le disque.
+     *
+     * @param generation la génération du plan suivant.
+     * @param seed la graine du plan suivant.
+     * @param parameters les paramètres du plan suivant, les paramètres absents valent 0.
+     * @param counters les compteurs du plan suivant, les compteurs absents valent 0.
+     */
+    public void swapPlanes(long generation, long seed, int[] parameters, long[] counters) {
+        if (parameters.length > PARAMETER_COUNT || counters.length > COUNTER_COUNT) {
+            throw new IllegalArgumentException("Au plus " + PARAMETER_COUNT + " paramètres et " + COUNTER_COUNT + " compteurs");
+        }
+        int nextPlane = 1 - getCurrentPlane();
+        for (MappedByteBuffer chunk : this.chunks[nextPlane]) {
+            chunk.force();
+        }
+        int state = stateOffset(nextPlane);
+        this.header.putLong(state + GENERATION_OFFSET, generation);
+        this.header.putLong(state + SEED_OFFSET, seed);
+        for (int index = 0; index < PARAMETER_COUNT; index++) {
+            this.header.putInt(state + PARAMETERS_OFFSET + 4 * index, index < parameters.length ? parameters[index] : 0);
+        }
+        for (int index = 0; index < COUNTER_COUNT; index++) {
+            this.header.putLong(state + COUNTERS_OFFSET + 8 * index, index < counters.length ? counters[index] : 0);
+        }
+        this.header.putInt(PLANE_OFFSET, nextPlane);
+        this.header.force();
+    }
+
+    /**
+     * Écrit sur le disque les modifications de la grille : les plans d'abord, puis l'en-tête qui désigne le plan courant.
+     */
+    public void force() {
+        for (MappedByteBuffer[] plane : this.chunks) {
+            for (MappedByteBuffer chunk : plane) {
+                chunk.force();
+            }
+        }
+        this.header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        this.channel.close();
+    }
+
+    private MappedByteBuffer chunkOf(int plane, int row) {
+        return this.chunks[plane][row / this.rowsPerChunk];
+    }
+
+    private int rowStart(int row) {
+        return (row % this.rowsPerChunk) * this.bytesPerRow;
+    }
+
+    private int getCurrentPlane() {
+        return this.header.getInt(PLANE_OFFSET);
+    }
+
+    /**
+     * Renvoi le début de l'état d'un plan dans l'en-tête.
+     */
+    private static int stateOffset(int plane) {
+        return PLANE_STATE_OFFSET + plane * PLANE_STATE_SIZE;
+    }
+
+    private int currentState() {
+        return stateOffset(getCurrentPlane());
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int getBitsPerCell() {
+        return bitsPerCell;
+    }
+
+    /**
+     * Renvoi la génération du plan courant. La génération, la graine, les paramètres et les compteurs se lisent et
+     * se modifient dans l'état du plan courant.
+     */
+    public long getGeneration() {
+        return this.header.getLong(currentState() + GENERATION_OFFSET);
+    }
+
+    public void setGeneration(long generation) {
+        this.header.putLong(currentState() + GENERATION_OFFSET, generation);
+    }
+
+    public long getSeed() {
+        return this.header.getLong(currentState() + SEED_OFFSET);
+    }
+
+    public void setSeed(long seed) {
+        this.header.putLong(currentState() + SEED_OFFSET, seed);
+    }
+
+    /**
+     * Renvoi un paramètre libre du plan courant (par exemple un paramètre de la simulation).
+     *
+     * @param index le numéro du paramètre, entre 0 et {@value #PARAMETER_COUNT} - 1.
+     * @return la valeur du paramètre.
+     */
+    public int getParameter(int index) {
+        return this.header.getInt(currentState() + PARAMETERS_OFFSET + 4 * Objects.checkIndex(index, PARAMETER_COUNT));
+    }
+
+    public void setParameter(int index, int value) {
+        this.header.putInt(currentState() + PARAMETERS_OFFSET + 4 * Objects.checkIndex(index, PARAMETER_COUNT), value);
+    }
+
+    /**
+     * Renvoi un compteur libre du plan courant (par exemple le nombre de cellules d'un état).
+     *
+     * @param index le numéro du compteur, entre 0 et {@value #COUNTER_COUNT} - 1.
+     * @return la valeur du compteur.
+     */
+    public long getCounter(int index) {
+        return this.header.getLong(currentState() + COUNTERS_OFFSET + 8 * Objects.checkIndex(index, COUNTER_COUNT));
+    }
+
+    public void setCounter(int index, long value) {
+        this.header.putLong(currentState() + COUNTERS_OFFSET + 8 * Objects.checkIndex(index, COUNTER_COUNT), value);
+    }
+}
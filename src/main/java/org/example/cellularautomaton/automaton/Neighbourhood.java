@@ -0,0 +1,208 @@
+package org.example.cellularautomaton.automaton;
+
+import java.util.Arrays;
+
+/**
+ * Voisinage d'une cellule : la liste des voisins, donnés par leur décalage en colonne et en ligne par rapport à la
+ * cellule. Chaque voisin a aussi un poids pour le vent d'ouest et un poids pour le vent du sud, ajoutés à la
+ * probabilité de propagation du feu quand ce voisin est en feu.
+ * <p>
+ * Le voisinage est compilé pour une grille avec {@link #offsets(int)} : les décalages deviennent des différences
+ * d'indices dans le tableau de la grille, le calcul d'une cellule n'a alors ni test de bord ni choix du voisinage.
+ * La bordure de la grille doit être au moins égale au rayon du voisinage ({@link ByteGrid#ByteGrid(int, int, int)}).
+ */
+public final class Neighbourhood {
+    // Voisinage de von Neumann : les 4 cellules à gauche, en haut, à droite et en bas. Le vent d'ouest est ajouté
+    // pour les voisins de gauche et de droite, le vent du sud pour ceux du haut et du bas.
+    public static final Neighbourhood VON_NEUMANN = new Neighbourhood("VON_NEUMANN",
+            new int[] {-1, 0, 1, 0},
+            new int[] {0, -1, 0, 1},
+            new int[] {1, 0, 1, 0},
+            new int[] {0, 1, 0, 1});
+    // Voisinage de Moore : les 8 cellules autour de la cellule.
+    public static final Neighbourhood MOORE = new Neighbourhood("MOORE",
+            new int[] {-1, -1, -1, 0, 1, 1, 1, 0},
+            new int[] {0, 1, -1, -1, -1, 0, 1, 1});
+    // Grille hexagonale : les 6 cellules de Moore sans celles en bas à gauche et en haut à droite.
+    public static final Neighbourhood HEXAGONAL = new Neighbourhood("HEXAGONAL",
+            new int[] {-1, -1, 0, 1, 1, 0},
+            new int[] {0, -1, -1, 0, 1, 1});
+
+    private final String name;
+    private final int[] columns;
+    private final int[] rows;
+    private final int[] westWeights;
+    private final int[] southWeights;
+    // Le plus grand décalage en colonne ou en ligne.
+    private final int radius;
+
+    /**
+     * Constructeur d'un voisinage quelconque. Un voisin sur la même ligne reçoit le vent d'ouest s'il est à l'ouest
+     * (et le retire s'il est à l'est), un voisin sur la même colonne reçoit le vent du sud s'il est au sud (et le
+     * retire s'il est au nord), les voisins en diagonale ne reçoivent pas de vent.
+     *
+     * @param name le nom du voisinage.
+     * @param columns le décalage en colonne de chaque voisin.
+     * @param rows le décalage en ligne de chaque voisin (positif vers le bas).
+     */
+    public Neighbourhood(String name, int[] columns, int[] rows) {
+        this(name, columns, rows, defaultWestWeights(columns, rows), defaultSouthWeights(columns, rows));
+    }
+
+    /**
+     * Constructeur d'un voisinage quelconque avec les poids du vent de chaque voisin.
+     *
+     * @param name le nom du voisinage.
+     * @param columns le décalage en colonne de chaque voisin.
+     * @param rows le décalage en ligne de chaque voisin (positif vers le bas).
+     * @param westWeights le nombre de fois où le vent d'ouest est ajouté quand le voisin est en feu.
+     * @param southWeights le nombre de fois où le vent du sud est ajouté quand le voisin est en feu.
+     */
+    public Neighbourhood(String name, int[] columns, int[] rows, int[] westWeights, int[] southWeights) {
+        if (columns.length != rows.length || columns.length != westWeights.length || columns.length != southWeights.length) {
+            throw new IllegalArgumentException("Chaque voisin doit avoir une colonne, une ligne et deux poids");
+        }
+        int maxOffset = 0;
+        for (int neighbour = 0; neighbour < columns.length; neighbour++) {
+            if (columns[neighbour] == 0 && rows[neighbour] == 0) {
+                throw new IllegalArgumentException("La cellule ne peut pas être sa propre voisine");
+            }
+            maxOffset = Math.max(maxOffset, Math.max(Math.abs(columns[neighbour]), Math.abs(rows[neighbour])));
+        }
+        this.name = name;
+        this.columns = columns.clone();
+        this.rows = rows.clone();
+        this.westWeights = westWeights.clone();
+        this.southWeights = southWeights.clone();
+        this.radius = maxOffset;
+    }
+
+    /**
+     * Renvoi le voisinage utilisé historiquement pour un nombre de voisins.
+     *
+     * @param nbNextCell le nombre de voisins : 4, 6 ou 8.
+     * @return le voisinage, null si le nombre de voisins n'en désigne aucun.
+     */
+    public static Neighbourhood of(int nbNextCell) {
+        return switch (nbNextCell) {
+            case 4 -> VON_NEUMANN;
+            case 6 -> HEXAGONAL;
+            case 8 -> MOORE;
+            default -> null;
+        };
+    }
+
+    /**
+     * Renvoi le voisinage de von Neumann d'un rayon : les cellules à une distance de Manhattan au plus égale au rayon.
+     *
+     * @param radius le rayon du voisinage.
+     * @return {@link #VON_NEUMANN} pour un rayon de 1, sinon un nouveau voisinage.
+     */
+    public static Neighbourhood vonNeumann(int radius) {
+        if (radius == 1) {
+            return VON_NEUMANN;
+        }
+        return square("VON_NEUMANN_" + radius, radius, true);
+    }
+
+    /**
+     * Renvoi le voisinage de Moore d'un rayon : les cellules du carré de côté 2 * rayon + 1 autour de la cellule.
+     *
+     * @param radius le rayon du voisinage.
+     * @return {@link #MOORE} pour un rayon de 1, sinon un nouveau voisinage.
+     */
+    public static Neighbourhood moore(int radius) {
+        if (radius == 1) {
+            return MOORE;
+        }
+        return square("MOORE_" + radius, radius, false);
+    }
+
+    private static Neighbourhood square(String name, int radius, boolean manhattan) {
+        if (radius < 1) {
+            throw new IllegalArgumentException("Le rayon du voisinage doit être positif : " + radius);
+        }
+        int side = 2 * radius + 1;
+        int[] columns = new int[side * side];
+        int[] rows = new int[side * side];
+        int count = 0;
+        for (int row = -radius; row <= radius; row++) {
+            for (int column = -radius; column <= radius; column++) {
+                if ((column != 0 || row != 0) && (!manhattan || Math.abs(column) + Math.abs(row) <= radius)) {
+                    columns[count] = column;
+                    rows[count] = row;
+                    count++;
+                }
+            }
+        }
+        return new Neighbourhood(name, Arrays.copyOf(columns, count), Arrays.copyOf(rows, count));
+    }
+
+    private static int[] defaultWestWeights(int[] columns, int[] rows) {
+        int[] weights = new int[columns.length];
+        for (int neighbour = 0; neighbour < Math.min(columns.length, rows.length); neighbour++) {
+            weights[neighbour] = rows[neighbour] == 0 ? -Integer.signum(columns[neighbour]) : 0;
+        }
+        return weights;
+    }
+
+    private static int[] defaultSouthWeights(int[] columns, int[] rows) {
+        int[] weights = new int[rows.length];
+        for (int neighbour = 0; neighbour < Math.min(columns.length, rows.length); neighbour++) {
+            weights[neighbour] = columns[neighbour] == 0 ? Integer.signum(rows[neighbour]) : 0;
+        }
+        return weights;
+    }
+
+    /**
+     * Compile le voisinage pour une grille : renvoi la différence d'indice entre chaque voisin et la cellule.
+     *
+     * @param stride le nombre de cellules d'une ligne dans le tableau de la grille ({@link ByteGrid#getStride()}).
+     * @return le décalage d'indice de chaque voisin, dans l'ordre du voisinage.
+     */
+    public int[] offsets(int stride) {
+        int[] offsets = new int[this.columns.length];
+        for (int neighbour = 0; neighbour < offsets.length; neighbour++) {
+            offsets[neighbour] = this.rows[neighbour] * stride + this.columns[neighbour];
+        }
+        return offsets;
+    }
+
+    /**
+     * Renvoi le nombre de voisins.
+     *
+     * @return le nombre de voisins.
+     */
+    public int size() {
+        return columns.length;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getColumn(int neighbour) {
+        return columns[neighbour];
+    }
+
+    public int getRow(int neighbour) {
+        return rows[neighbour];
+    }
+
+    public int getWestWeight(int neighbour) {
+        return westWeights[neighbour];
+    }
+
+    public int getSouthWeight(int neighbour) {
+        return southWeights[neighbour];
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Écrit les générations dans un flux binaire, compressées sur 1, 2 ou 4 bits par cellule comme les points de
+ * reprise ({@link Snapshot}).
+ * <p>
+ * Format (little endian) : magic (8 octets), version, x, y, bits par cellule (int), puis pour chaque génération son
+ * numéro (long) et ses cellules compressées à la suite (les lignes ne commencent pas sur un octet).
+ */
+public class PackedFrameEncoder implements FrameEncoder {
+    public static final int VERSION = 1;
+
+    private static final long MAGIC = 0x31304D4152464143L; // "CAFRAM01"
+    private static final int HEADER_SIZE = 8 + 4 * 4;
+
+    private final OutputStream output;
+    private final int bitsPerCell;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private int x;
+    private int y;
+    // Le numéro et les cellules compressées d'une génération, réutilisé à chaque génération.
+    private byte[] packed;
+
+    /**
+     * @param output le flux où les générations sont écrites, fermé par {@link #close()}. Il est écrit par gros blocs
+     *               et n'a pas besoin d'être bufferisé.
+     * @param bitsPerCell le nombre de bits d'une cellule : 1, 2 ou 4.
+     */
+    public PackedFrameEncoder(OutputStream output, int bitsPerCell) {
+        if (bitsPerCell != 1 && bitsPerCell != 2 && bitsPerCell != 4) {
+            throw new IllegalArgumentException("Une cellule doit prendre 1, 2 ou 4 bits : " + bitsPerCell);
+        }
+        this.output = output;
+        this.bitsPerCell = bitsPerCell;
+    }
+
+    @Override
+    public void encode(Frame frame) throws IOException {
+        if (this.packed == null) {
+            this.x = frame.getX();
+            this.y = frame.getY();
+            this.packed = new byte[Long.BYTES + BitPacking.packedSize(this.x * this.y, this.bitsPerCell)];
+            this.header.putLong(MAGIC).putInt(VERSION).putInt(this.x).putInt(this.y).putInt(this.bitsPerCell);
+            this.output.write(this.header.array(), 0, HEADER_SIZE);
+        }
+        else if (frame.getX() != this.x || frame.getY() != this.y) {
+            throw new IllegalArgumentException("La génération fait " + frame.getX() + "x" + frame.getY()
+                    + " au lieu de " + this.x + "x" + this.y);
+        }
+
+        long generation = frame.getGeneration();
+        for (int index = 0; index < Long.BYTES; index++) {
+            this.packed[index] = (byte) (generation >>> (8 * index));
+        }
+        BitPacking.pack(frame.getCells(), 0, this.x * this.y, this.bitsPerCell, this.packed, Long.BYTES);
+        this.output.write(this.packed);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+}
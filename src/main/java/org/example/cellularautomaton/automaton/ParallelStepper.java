@@ -0,0 +1,155 @@
+package org.example.cellularautomaton.automaton;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Découpe les lignes d'une grille en bandes horizontales et calcule les bandes en parallèle. Chaque appel à
+ * {@link #forEachStripe(int, StripeTask)} attend la fin de toutes les bandes avant de rendre la main : c'est la
+ * barrière entre deux générations.
+ * <p>
+ * Les tâches des bandes sont créées une fois et réutilisées à chaque génération : une génération n'alloue rien dans
+ * le découpage (un exécuteur autre qu'un ForkJoinPool peut allouer pour chaque tâche reçue). Les appels à
+ * forEachStripe depuis plusieurs threads sont donc exécutés l'un après l'autre.
+ */
+public class ParallelStepper {
+    private final ExecutorService executor;
+    private final int stripes;
+    // Les tâches des bandes 1 à stripes - 1, la bande 0 est calculée par le thread appelant.
+    private final Stripe[] stripeTasks;
+
+    /**
+     * Tâche réutilisable d'une bande. Elle est donnée telle quelle à un ForkJoinPool, les autres exécuteurs la
+     * reçoivent comme un Runnable.
+     */
+    private static final class Stripe extends RecursiveAction implements Runnable {
+        // RecursiveAction est Serializable, une bande n'est pourtant jamais sérialisée : sa tâche est transient.
+        private static final long serialVersionUID = 1L;
+
+        private transient StripeTask task;
+        private int stripe;
+        private int fromRow;
+        private int toRow;
+
+        @Override
+        protected void compute() {
+            this.task.compute(this.stripe, this.fromRow, this.toRow);
+        }
+
+        @Override
+        public void run() {
+            // L'erreur est gardée par la tâche et relancée par le thread appelant.
+            quietlyInvoke();
+        }
+    }
+
+    /**
+     * Constructeur qui utilise le ForkJoinPool commun avec une bande par processeur.
+     */
+    public ParallelStepper() {
+        this(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructeur avec un exécuteur choisi.
+     *
+     * @param executor l'exécuteur qui calcule les bandes.
+     * @param stripes le nombre maximum de bandes d'une génération.
+     */
+    public ParallelStepper(ExecutorService executor, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Le nombre de bandes doit être positif : " + stripes);
+        }
+        this.executor = executor;
+        this.stripes = stripes;
+        this.stripeTasks = new Stripe[stripes - 1];
+        for (int stripe = 0; stripe < this.stripeTasks.length; stripe++) {
+            this.stripeTasks[stripe] = new Stripe();
+        }
+    }
+
+    /**
+     * Calcul d'une bande de lignes.
+     */
+    @FunctionalInterface
+    public interface StripeTask {
+        /**
+         * @param stripe le numéro de la bande, entre 0 et {@link #getStripes()} - 1.
+         * @param fromRow la première ligne de la bande.
+         * @param toRow la ligne après la dernière ligne de la bande.
+         */
+        void compute(int stripe, int fromRow, int toRow);
+    }
+
+    /**
+     * Calcule toutes les bandes de la grille. La première bande est calculée par le thread appelant, les autres par
+     * l'exécuteur. Si une bande échoue, les autres bandes sont attendues avant de relancer l'erreur.
+     *
+     * @param rows le nombre de lignes de la grille.
+     * @param task le calcul d'une bande.
+     */
+    public synchronized void forEachStripe(int rows, StripeTask task) {
+        int stripeCount = Math.min(this.stripes, rows);
+        if (stripeCount <= 1) {
+            task.compute(0, 0, rows);
+            return;
+        }
+
+        int submitted = 0;
+        try {
+            for (int stripe = 1; stripe < stripeCount; stripe++) {
+                Stripe stripeTask = this.stripeTasks[stripe - 1];
+                stripeTask.reinitialize();
+                stripeTask.task = task;
+                stripeTask.stripe = stripe;
+                stripeTask.fromRow = firstRow(rows, stripeCount, stripe);
+                stripeTask.toRow = firstRow(rows, stripeCount, stripe + 1);
+                if (this.executor instanceof ForkJoinPool pool) {
+                    pool.execute((ForkJoinTask<?>) stripeTask);
+                }
+                else {
+                    this.executor.execute(stripeTask);
+                }
+                submitted++;
+            }
+
+            task.compute(0, 0, firstRow(rows, stripeCount, 1));
+        }
+        finally {
+            // Une bande encore en cours ne doit pas être réutilisée par l'appel suivant.
+            for (int stripe = 0; stripe < submitted; stripe++) {
+                this.stripeTasks[stripe].quietlyJoin();
+            }
+        }
+
+        for (int stripe = 0; stripe < submitted; stripe++) {
+            Stripe stripeTask = this.stripeTasks[stripe];
+            stripeTask.task = null;
+            Throwable failure = stripeTask.getException();
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (failure instanceof Error error) {
+                throw error;
+            }
+            if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
+        }
+    }
+
+    private static int firstRow(int rows, int stripeCount, int stripe) {
+        return (int) ((long) rows * stripe / stripeCount);
+    }
+
+    /**
+     * Renvoi le nombre maximum de bandes, pour préparer un espace de travail par bande.
+     *
+     * @return le nombre maximum de bandes.
+     */
+    public int getStripes() {
+        return stripes;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.cellularautomaton.automaton;
+
+/**
+ * Moyenne, variance, minimum et maximum d'une série de valeurs calculés au fil de l'eau (algorithme de Welford),
+ * sans garder les valeurs.
+ */
+public class RunningStatistics {
+    private long count;
+    private double mean;
+    // Somme des carrés des écarts à la moyenne
+    private double squaredDeviations;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * Ajoute une valeur à la série.
+     *
+     * @param value la valeur à ajouter.
+     */
+    public void add(double value) {
+        this.count++;
+        double delta = value - this.mean;
+        this.mean += delta / this.count;
+        this.squaredDeviations += delta * (value - this.mean);
+        this.min = this.count == 1 ? value : Math.min(this.min, value);
+        this.max = this.count == 1 ? value : Math.max(this.max, value);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Renvoi la variance de l'échantillon (divisée par n - 1).
+     *
+     * @return la variance, NaN s'il y a moins de 2 valeurs.
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : squaredDeviations / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Renvoi la demi-largeur de l'intervalle de confiance de la moyenne avec l'approximation normale.
+     *
+     * @param z le quantile de la loi normale (1.96 pour un intervalle à 95 %).
+     * @return la demi-largeur de l'intervalle, NaN s'il y a moins de 2 valeurs.
+     */
+    public double getConfidenceHalfWidth(double z) {
+        return z * Math.sqrt(getVariance() / count);
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d moyenne=%.3f écart-type=%.3f min=%.3f max=%.3f",
+                count, getMean(), getStandardDeviation(), min, max);
+    }
+}
@@ -0,0 +1,241 @@
+package org.example.cellularautomaton.automaton;
+
+import org.example.cellularautomaton.management.SimulationMetricsMXBean;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures des générations d'une ou plusieurs simulations : durée de chaque génération (histogramme
+ * {@link StepHistogram}), cellules évaluées et débit en cellules par seconde, cellules actives de la dernière
+ * génération et mémoire allouée par les threads de calcul.
+ * <p>
+ * Un automate ne mesure ses générations que si des mesures lui sont données
+ * ({@link org.example.cellularautomaton.Automaton#setMetrics(SimulationMetrics)}), sans mesures le coût est un test
+ * par génération. Les mêmes mesures peuvent être données à plusieurs automates calculés sur des threads différents,
+ * par exemple les forêts d'un {@link org.example.cellularautomaton.fireforest.ForestMonteCarloRunner}. Une fois
+ * enregistrées dans JMX ({@link #register(String)}) elles se lisent pendant la simulation avec JConsole ou VisualVM.
+ */
+public class SimulationMetrics implements SimulationMetricsMXBean {
+    // La durée de chaque génération, le nombre de générations et leur durée totale.
+    private final StepHistogram stepNanos = new StepHistogram();
+    private final LongAdder evaluatedCells = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private volatile long activeCells;
+    // Mesure la mémoire allouée, deux lectures du compteur du thread par génération.
+    private volatile boolean allocationMeasured = StepProfiler.isAllocationMeasured();
+    // Le début de la génération en cours de chaque thread : mémoire allouée et instant.
+    private final ThreadLocal<long[]> stepStart = ThreadLocal.withInitial(() -> new long[2]);
+    private ObjectName objectName;
+
+    /**
+     * Début de la mesure d'une génération (ou d'un lot de générations) sur le thread courant.
+     */
+    public void begin() {
+        long[] start = this.stepStart.get();
+        start[0] = this.allocationMeasured ? StepProfiler.currentThreadAllocatedBytes() : 0;
+        start[1] = System.nanoTime();
+    }
+
+    /**
+     * Fin de la mesure commencée par {@link #begin()} sur le même thread.
+     *
+     * @param generations le nombre de générations calculées depuis begin().
+     * @param evaluatedCells le nombre de cellules évaluées.
+     * @param activeCells le nombre de cellules actives pendant la dernière génération.
+     */
+    public void end(long generations, long evaluatedCells, long activeCells) {
+        long now = System.nanoTime();
+        long[] start = this.stepStart.get();
+        long nanos = now - start[1];
+        if (this.allocationMeasured) {
+            this.allocatedBytes.add(StepProfiler.currentThreadAllocatedBytes() - start[0]);
+        }
+        if (generations > 0) {
+            this.stepNanos.record(nanos / generations, generations);
+        }
+        this.evaluatedCells.add(evaluatedCells);
+        this.activeCells = activeCells;
+    }
+
+    /**
+     * Enregistre les mesures dans le serveur JMX de la JVM sous le nom
+     * {@code org.example.cellularautomaton:type=SimulationMetrics,name=<name>}.
+     *
+     * @param name le nom des mesures dans JMX, par exemple le nom de la simulation.
+     * @throws IllegalArgumentException si le nom n'est pas utilisable dans un nom JMX.
+     * @throws IllegalStateException si les mesures ou d'autres mesures du même nom sont déjà enregistrées.
+     */
+    public synchronized void register(String name) {
+        if (this.objectName != null) {
+            throw new IllegalStateException("Les mesures sont déjà enregistrées sous le nom " + this.objectName);
+        }
+        Hashtable<String, String> properties = new Hashtable<>();
+        properties.put("type", "SimulationMetrics");
+        properties.put("name", name);
+        ObjectName newName;
+        try {
+            newName = new ObjectName("org.example.cellularautomaton", properties);
+        }
+        catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Nom JMX invalide : " + name, e);
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, newName);
+        }
+        catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("Des mesures sont déjà enregistrées sous le nom " + newName, e);
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Impossible d'enregistrer les mesures " + newName, e);
+        }
+        this.objectName = newName;
+    }
+
+    /**
+     * Retire les mesures du serveur JMX, sans effet si elles ne sont pas enregistrées.
+     */
+    public synchronized void unregister() {
+        if (this.objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(this.objectName);
+        }
+        catch (InstanceNotFoundException e) {
+            // Déjà retirées par quelqu'un d'autre.
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Impossible de retirer les mesures " + this.objectName, e);
+        }
+        this.objectName = null;
+    }
+
+    /**
+     * Remet les mesures à zéro. Une génération mesurée en même temps peut n'être comptée qu'en partie.
+     */
+    @Override
+    public void reset() {
+        this.stepNanos.reset();
+        this.evaluatedCells.reset();
+        this.allocatedBytes.reset();
+        this.activeCells = 0;
+    }
+
+    public StepHistogram getStepNanos() {
+        return stepNanos;
+    }
+
+    public boolean isAllocationMeasured() {
+        return allocationMeasured;
+    }
+
+    /**
+     * Active ou désactive la mesure de la mémoire allouée. Elle coûte environ 100 ns par génération, à désactiver
+     * pour des générations très courtes (un petit automate à une dimension par exemple).
+     *
+     * @param allocationMeasured true pour mesurer la mémoire allouée, si la JVM le permet.
+     */
+    public void setAllocationMeasured(boolean allocationMeasured) {
+        this.allocationMeasured = allocationMeasured && StepProfiler.isAllocationMeasured();
+    }
+
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public long getGenerations() {
+        return this.stepNanos.getTotalCount();
+    }
+
+    @Override
+    public long getEvaluatedCells() {
+        return this.evaluatedCells.sum();
+    }
+
+    @Override
+    public long getActiveCells() {
+        return activeCells;
+    }
+
+    /**
+     * Renvoi le débit pendant les générations mesurées. Avec plusieurs threads c'est le débit moyen d'un thread.
+     *
+     * @return le nombre de cellules évaluées par seconde de calcul.
+     */
+    @Override
+    public double getCellsPerSecond() {
+        long nanos = this.stepNanos.getSum();
+        return nanos == 0 ? 0 : this.evaluatedCells.sum() * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public double getMeanStepNanos() {
+        return this.stepNanos.getMean();
+    }
+
+    @Override
+    public long getMaxStepNanos() {
+        return this.stepNanos.getMax();
+    }
+
+    @Override
+    public long getStepNanosP50() {
+        return this.stepNanos.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getStepNanosP90() {
+        return this.stepNanos.getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getStepNanosP99() {
+        return this.stepNanos.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getStepNanosP999() {
+        return this.stepNanos.getValueAtPercentile(99.9);
+    }
+
+    /**
+     * Renvoi la mémoire allouée par les threads qui ont calculé les générations, 0 si elle n'est pas mesurée
+     * ({@link #setAllocationMeasured(boolean)}). Les allocations des threads d'un ParallelStepper ne sont pas
+     * comptées.
+     *
+     * @return le nombre d'octets alloués.
+     */
+    @Override
+    public long getAllocatedBytes() {
+        return this.allocatedBytes.sum();
+    }
+
+    /**
+     * Renvoi le débit d'allocation pendant les générations mesurées.
+     *
+     * @return le nombre d'octets alloués par seconde de calcul.
+     */
+    @Override
+    public double getAllocationRate() {
+        long nanos = this.stepNanos.getSum();
+        return nanos == 0 ? 0 : this.allocatedBytes.sum() * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "générations : " + getGenerations() +
+                ", durée : " + this.stepNanos +
+                ", débit : " + String.format("%.3g", getCellsPerSecond()) + " cellules/s" +
+                ", cellules actives : " + getActiveCells();
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Fichier binaire qui garde l'état complet d'une simulation pour la reprendre plus tard : la grille compressée sur
+ * 1, 2 ou 4 bits par cellule, les paramètres, la génération et la graine (les nombres aléatoires ne dépendent que
+ * de la graine et de la génération, voir {@link CellRandom}).
+ * <p>
+ * Format (little endian) : magic (8 octets), version, type de simulation, x, y, bits par cellule, nombre de
+ * paramètres (int), génération, graine (long), les paramètres (int), puis les lignes compressées (chaque ligne
+ * commence sur un octet) et enfin le CRC32C de tout ce qui précède (long).
+ * <p>
+ * Les lignes sont compressées dans un tampon direct écrit au fur et à mesure dans le fichier, la grille n'est
+ * jamais copiée en entier. Le fichier est écrit à côté, écrit sur le disque puis renommé : un ancien point de
+ * reprise n'est remplacé que par un fichier complet, même après un arrêt brutal.
+ */
+public final class Snapshot {
+    public static final int VERSION = 2;
+
+    private static final long MAGIC = 0x313050414E534143L; // "CASNAP01"
+    private static final int BUFFER_SIZE = 1 << 20;
+    // La taille de l'en-tête sans les paramètres : magic, 6 int, génération et graine.
+    private static final int HEADER_SIZE = 48;
+    // Le nombre maximum de paramètres, pour refuser un en-tête abimé avant d'allouer.
+    private static final int MAX_PARAMETERS = 1024;
+
+    private Snapshot() {
+    }
+
+    /**
+     * L'en-tête d'un fichier de reprise.
+     *
+     * @param kind le type de simulation, pour refuser le fichier d'une autre simulation.
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param bitsPerCell le nombre de bits d'une cellule : 1, 2 ou 4.
+     * @param generation la génération de la grille.
+     * @param seed la graine des nombres aléatoires.
+     * @param parameters les paramètres de la simulation.
+     */
+    public record Header(int kind, int x, int y, int bitsPerCell, long generation, long seed, int[] parameters) {
+        public Header {
+            if (x <= 0 || y <= 0) {
+                throw new IllegalArgumentException("La taille de la grille doit être positive : " + x + "x" + y);
+            }
+            if (bitsPerCell != 1 && bitsPerCell != 2 && bitsPerCell != 4) {
+                throw new IllegalArgumentException("Une cellule doit prendre 1, 2 ou 4 bits : " + bitsPerCell);
+            }
+            if (parameters.length > MAX_PARAMETERS) {
+                throw new IllegalArgumentException("Au plus " + MAX_PARAMETERS + " paramètres : " + parameters.length);
+            }
+        }
+    }
+
+    /**
+     * Fournit les lignes de la grille à écrire, dans l'ordre.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        /**
+         * Copie la ligne row (une valeur par cellule) dans {@code target[offset]} à {@code target[offset + x - 1]}.
+         */
+        void readRow(int row, byte[] target, int offset);
+    }
+
+    /**
+     * Reçoit les lignes de la grille lue, dans l'ordre.
+     */
+    @FunctionalInterface
+    public interface RowTarget {
+        /**
+         * Reçoit la ligne row (une valeur par cellule) dans {@code source[offset]} à {@code source[offset + x - 1]}.
+         */
+        void writeRow(int row, byte[] source, int offset);
+    }
+
+    /**
+     * Écrit un fichier de reprise.
+     *
+     * @param path le fichier à écrire, remplacé s'il existe.
+     * @param header l'en-tête du fichier.
+     * @param rows les lignes de la grille.
+     * @throws IOException si le fichier ne peut pas être écrit.
+     */
+    public static void write(Path path, Header header, RowSource rows) throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C checksum = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(header.kind())
+                    .putInt(header.x())
+                    .putInt(header.y())
+                    .putInt(header.bitsPerCell())
+                    .putInt(header.parameters().length)
+                    .putLong(header.generation())
+                    .putLong(header.seed());
+            for (int parameter : header.parameters()) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    flush(channel, buffer, checksum);
+                }
+                buffer.putInt(parameter);
+            }
+
+            byte[] row = new byte[header.x()];
+            byte[] packedRow = new byte[BitPacking.packedSize(header.x(), header.bitsPerCell())];
+            for (int ii = 0; ii < header.y(); ii++) {
+                rows.readRow(ii, row, 0);
+                BitPacking.pack(row, 0, header.x(), header.bitsPerCell(), packedRow);
+                for (int written = 0; written < packedRow.length; ) {
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer, checksum);
+                    }
+                    int length = Math.min(buffer.remaining(), packedRow.length - written);
+                    buffer.put(packedRow, written, length);
+                    written += length;
+                }
+            }
+            flush(channel, buffer, checksum);
+            buffer.putLong(checksum.getValue());
+            flush(channel, buffer, null);
+            // Le fichier doit être sur le disque avant le renommage, sinon le renommage peut l'être avant lui.
+            channel.force(true);
+        }
+        catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Lit un fichier de reprise. Les lignes sont données au fur et à mesure de la lecture, avant la vérification du
+     * CRC à la fin du fichier : elles doivent être écrites à part (grille ou plan qui n'est pas encore utilisé,
+     * copie...) et ne remplacer l'état de la simulation qu'après le retour de cette méthode.
+     *
+     * @param path le fichier à lire.
+     * @param prepare reçoit l'en-tête avant la lecture des lignes (pour préparer la grille) et renvoi où écrire
+     *                les lignes.
+     * @return l'en-tête du fichier.
+     * @throws IOException si le fichier ne peut pas être lu, n'est pas un fichier de reprise ou est abimé.
+     */
+    public static Header read(Path path, Function<Header, RowTarget> prepare) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            CRC32C checksum = new CRC32C();
+            fill(channel, buffer, HEADER_SIZE);
+            checksum.update(buffer.duplicate().limit(buffer.position() + HEADER_SIZE));
+            if (buffer.getLong() != MAGIC) {
+                throw new IOException("Le fichier n'est pas un point de reprise : " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Version de point de reprise inconnue : " + version);
+            }
+            int kind = buffer.getInt();
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            int bitsPerCell = buffer.getInt();
+            int parameterCount = buffer.getInt();
+            long generation = buffer.getLong();
+            long seed = buffer.getLong();
+            if (parameterCount < 0 || parameterCount > MAX_PARAMETERS) {
+                throw new IOException("Le point de reprise est abimé : " + path);
+            }
+            int[] parameters = new int[parameterCount];
+            for (int parameter = 0; parameter < parameterCount; parameter++) {
+                fill(channel, buffer, Integer.BYTES);
+                checksum.update(buffer.duplicate().limit(buffer.position() + Integer.BYTES));
+                parameters[parameter] = buffer.getInt();
+            }
+            Header header;
+            try {
+                header = new Header(kind, x, y, bitsPerCell, generation, seed, parameters);
+            }
+            catch (IllegalArgumentException e) {
+                throw new IOException("Le point de reprise est abimé : " + path, e);
+            }
+            // La taille de la grille est vérifiée avec celle du fichier avant que prepare n'alloue la grille : un
+            // en-tête abimé ne peut pas demander une grille démesurée. Les octets après le CRC sont refusés aussi.
+            long expectedSize = HEADER_SIZE + (long) Integer.BYTES * parameterCount
+                    + (long) y * BitPacking.packedSize(x, bitsPerCell) + Long.BYTES;
+            if (channel.size() != expectedSize) {
+                throw new IOException("Le point de reprise est abimé : " + path + " fait " + channel.size()
+                        + " octets au lieu de " + expectedSize);
+            }
+            RowTarget rows = prepare.apply(header);
+
+            byte[] row = new byte[x];
+            byte[] packedRow = new byte[BitPacking.packedSize(x, bitsPerCell)];
+            for (int ii = 0; ii < y; ii++) {
+                for (int read = 0; read < packedRow.length; ) {
+                    fill(channel, buffer, 1);
+                    int length = Math.min(buffer.remaining(), packedRow.length - read);
+                    buffer.get(packedRow, read, length);
+                    read += length;
+                }
+                checksum.update(packedRow);
+                BitPacking.unpack(packedRow, x, bitsPerCell, row, 0);
+                rows.writeRow(ii, row, 0);
+            }
+            fill(channel, buffer, Long.BYTES);
+            if (buffer.getLong() != checksum.getValue()) {
+                throw new IOException("Le point de reprise est abimé : " + path);
+            }
+            return header;
+        }
+    }
+
+    /**
+     * Écrit sur le disque le renommage d'un fichier du répertoire. Sans effet si le système ne permet pas d'ouvrir
+     * un répertoire (Windows).
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        }
+        catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Écrit le contenu du tampon dans le fichier (et dans le CRC s'il n'est pas null) puis vide le tampon.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C checksum) throws IOException {
+        buffer.flip();
+        if (checksum != null) {
+            checksum.update(buffer.duplicate());
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Lit le fichier jusqu'à avoir au moins minimum octets à lire dans le tampon.
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer, int minimum) throws IOException {
+        if (buffer.remaining() >= minimum) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < minimum) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Le point de reprise est incomplet");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.cellularautomaton.automaton;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées à précision relative fixe, sur le principe de HdrHistogram : les valeurs de 0 à 127 ont
+ * chacune leur case, au-delà chaque puissance de 2 est découpée en 64 cases. Une valeur est donc rangée à moins de
+ * 1,6 % près, de la nanoseconde à plusieurs années, dans un tableau de taille fixe : enregistrer une valeur n'alloue
+ * rien et ne prend aucun verrou, plusieurs threads peuvent enregistrer en même temps.
+ */
+public class StepHistogram {
+    // Le nombre de bits gardés d'une valeur : 2^SUB_BITS cases pour les petites valeurs, la moitié par puissance de 2.
+    private static final int SUB_BITS = 7;
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BITS - 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucket(Long.MAX_VALUE) + 1);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Renvoi la case d'une valeur positive.
+     */
+    static int bucket(long value) {
+        int exponent = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BITS);
+        return (exponent << (SUB_BITS - 1)) + (int) (value >>> exponent);
+    }
+
+    /**
+     * Renvoi la plus grande valeur rangée dans une case.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < 2 * HALF_SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >>> (SUB_BITS - 1)) - 1;
+        long lowest = (long) (bucket - (exponent << (SUB_BITS - 1))) << exponent;
+        return lowest + (1L << exponent) - 1;
+    }
+
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Enregistre plusieurs fois la même valeur, par exemple la durée moyenne d'une génération d'un lot.
+     *
+     * @param value la valeur, ramenée à 0 si elle est négative.
+     * @param count le nombre de fois où la valeur est enregistrée.
+     */
+    public void record(long value, long count) {
+        if (count <= 0) {
+            return;
+        }
+        long positive = Math.max(0, value);
+        this.counts.addAndGet(bucket(positive), count);
+        this.totalCount.add(count);
+        this.sum.add(positive * count);
+        if (positive > this.max.get()) {
+            this.max.accumulateAndGet(positive, Math::max);
+        }
+    }
+
+    /**
+     * Renvoi la valeur sous laquelle se trouvent percentile % des valeurs enregistrées (la plus grande valeur de sa
+     * case, sans dépasser le maximum).
+     *
+     * @param percentile le percentile, entre 0 et 100.
+     * @return la valeur du percentile, 0 si aucune valeur n'est enregistrée.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = this.totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < this.counts.length(); bucket++) {
+            seen += this.counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestValue(bucket), getMax());
+            }
+        }
+        // Des valeurs enregistrées pendant le parcours : la dernière case remplie.
+        return getMax();
+    }
+
+    /**
+     * Remet l'histogramme à zéro. Une valeur enregistrée en même temps peut être comptée à moitié.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < this.counts.length(); bucket++) {
+            this.counts.set(bucket, 0);
+        }
+        this.totalCount.reset();
+        this.sum.reset();
+        this.max.set(0);
+    }
+
+    public long getTotalCount() {
+        return this.totalCount.sum();
+    }
+
+    /**
+     * Renvoi la somme des valeurs enregistrées.
+     *
+     * @return la somme des valeurs.
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    public long getMax() {
+        return this.max.get();
+    }
+
+    public double getMean() {
+        long count = this.totalCount.sum();
+        return count == 0 ? 0 : (double) this.sum.sum() / count;
+    }
+
+    @Override
+    public String toString() {
+        return "n=" + getTotalCount() +
+                " moyenne=" + String.format("%.0f", getMean()) +
+                " p50=" + getValueAtPercentile(50) +
+                " p99=" + getValueAtPercentile(99) +
+                " max=" + getMax();
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.cellularautomaton.automaton;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mesure la durée et la mémoire allouée par le thread courant pendant chaque génération d'une simulation.
+ * La mesure d'allocation utilise le compteur par thread de la JVM, elle ne compte donc que les allocations du thread
+ * qui appelle {@link #begin()} et {@link #end()}.
+ */
+public class StepProfiler {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    private long stepStartNanos;
+    private long stepStartAllocatedBytes;
+
+    private long lastStepNanos;
+    private long lastStepAllocatedBytes;
+    private long stepCount;
+    private long totalNanos;
+    private long totalAllocatedBytes;
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                && threadMXBean.isThreadAllocatedMemorySupported()) {
+            threadMXBean.setThreadAllocatedMemoryEnabled(true);
+            return threadMXBean;
+        }
+        return null;
+    }
+
+    /**
+     * Renvoi la mémoire allouée depuis son démarrage par le thread courant, 0 si la JVM ne la mesure pas.
+     */
+    static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Début de la mesure d'une génération.
+     */
+    public void begin() {
+        this.stepStartAllocatedBytes = currentThreadAllocatedBytes();
+        this.stepStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Fin de la mesure d'une génération.
+     */
+    public void end() {
+        this.lastStepNanos = System.nanoTime() - this.stepStartNanos;
+        this.lastStepAllocatedBytes = currentThreadAllocatedBytes() - this.stepStartAllocatedBytes;
+        this.stepCount++;
+        this.totalNanos += this.lastStepNanos;
+        this.totalAllocatedBytes += this.lastStepAllocatedBytes;
+    }
+
+    /**
+     * Remet les compteurs à zéro.
+     */
+    public void reset() {
+        this.lastStepNanos = 0;
+        this.lastStepAllocatedBytes = 0;
+        this.stepCount = 0;
+        this.totalNanos = 0;
+        this.totalAllocatedBytes = 0;
+    }
+
+    /**
+     * Indique si la mémoire allouée peut être mesurée par la JVM. Si ce n'est pas le cas les allocations valent 0.
+     *
+     * @return true si la mémoire allouée est mesurée.
+     */
+    public static boolean isAllocationMeasured() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    public long getLastStepNanos() {
+        return lastStepNanos;
+    }
+
+    public long getLastStepAllocatedBytes() {
+        return lastStepAllocatedBytes;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getTotalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    /**
+     * Renvoi la durée moyenne d'une génération.
+     *
+     * @return la durée moyenne d'une génération en nanosecondes.
+     */
+    public double getAverageStepNanos() {
+        return this.stepCount == 0 ? 0 : (double) this.totalNanos / this.stepCount;
+    }
+
+    /**
+     * Renvoi le débit d'allocation pendant les générations mesurées.
+     *
+     * @return le nombre d'octets alloués par seconde.
+     */
+    public double getAllocationRate() {
+        return this.totalNanos == 0 ? 0 : this.totalAllocatedBytes * 1_000_000_000.0 / this.totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "générations : " + this.stepCount +
+                ", durée moyenne : " + String.format("%.3f", getAverageStepNanos() / 1_000_000.0) + " ms" +
+                ", allocation : " + String.format("%.1f", getAllocationRate() / (1024 * 1024)) + " Mo/s";
+    }
+}
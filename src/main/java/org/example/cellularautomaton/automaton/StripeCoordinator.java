@@ -0,0 +1,515 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Coordinateur d'une simulation répartie entre plusieurs processus ({@link StripeWorker}). Chaque worker calcule
+ * une bande de lignes de la grille et échange à chaque génération sa première et sa dernière ligne avec les
+ * workers voisins, directement, sans passer par le coordinateur.
+ * <p>
+ * Le coordinateur attend la connexion des workers, leur envoie la taille et les paramètres de la simulation, la
+ * bande de chaque worker et l'adresse de son voisin du dessous, puis éventuellement les lignes de départ. Ensuite,
+ * à chaque génération, il reçoit le nombre de cellules de chaque valeur de chaque worker, fait la somme et décide
+ * si la simulation continue : c'est la barrière entre deux générations.
+ * <p>
+ * Les adresses sont TCP ({@code tcp:hôte:port}) ou des sockets Unix ({@code unix:chemin}), voir
+ * {@link #parseAddress(String)}. Les workers se connectent entre eux avec le même type d'adresse que le coordinateur.
+ * <p>
+ * Messages (little endian) : un message de taille variable commence par sa taille (int). Un worker s'inscrit avec
+ * l'adresse où ses voisins peuvent se connecter. Le coordinateur répond avec la configuration du worker. À chaque
+ * génération le worker envoie {@code 2^bitsPerCell} compteurs (long) et reçoit une décision (octet) suivie des
+ * compteurs de toute la grille.
+ */
+public class StripeCoordinator implements Closeable {
+    // Décisions envoyées aux workers après les compteurs d'une génération.
+    static final byte CONTINUE = 0;
+    static final byte STOP = 1;
+    static final byte STOP_AND_SEND_ROWS = 2;
+    // Les options de la JVM courante transmises aux workers lancés localement, seules ou suivies de leur valeur.
+    private static final List<String> FORWARDED_OPTIONS = List.of("--add-modules", "--add-exports", "--add-opens",
+            "--add-reads", "--limit-modules", "--enable-native-access", "--enable-preview");
+    // Le temps entre deux vérifications des workers lancés localement pendant l'attente des connexions.
+    private static final long ACCEPT_POLL_MILLIS = 100;
+
+    private final ServerSocketChannel server;
+    private final List<SocketChannel> workers = new ArrayList<>();
+    private final List<Process> localWorkers = new ArrayList<>();
+    private Snapshot.Header header;
+    private int[] fromRows;
+    private long generation;
+    private long[] counts;
+    private ByteBuffer countsBuffer;
+    private ByteBuffer decisionBuffer;
+    private long acceptTimeoutMillis = 60_000;
+
+    /**
+     * Ouvre l'adresse où les workers vont se connecter.
+     *
+     * @param address l'adresse TCP (port 0 pour un port libre) ou le chemin du socket Unix (qui ne doit pas exister).
+     * @throws IOException si l'adresse ne peut pas être ouverte.
+     */
+    public StripeCoordinator(SocketAddress address) throws IOException {
+        this.server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        try {
+            this.server.bind(address);
+        }
+        catch (IOException e) {
+            this.server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lance des workers sur la machine courante, avec la même JVM et le même classpath (ou module path) que le
+     * processus courant. Chaque worker reçoit l'adresse du coordinateur en premier argument. Les options de la JVM
+     * courante dont le worker a besoin pour exécuter le même code (modules ajoutés comme jdk.incubator.vector,
+     * fonctionnalités en preview, assertions et propriétés système) lui sont transmises, pas les options de mémoire,
+     * de débogage ou d'enregistrement.
+     *
+     * @param mainClass la classe dont la méthode main créé le worker.
+     * @param count le nombre de workers à lancer.
+     * @return les processus lancés, arrêtés par {@link #close()} s'ils tournent encore.
+     * @throws IOException si un processus ne peut pas être lancé.
+     */
+    public List<Process> launchLocalWorkers(Class<?> mainClass, int count) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(forwardedJvmArguments(ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null && mainClass.getModule().isNamed()) {
+            command.add("--module-path");
+            command.add(modulePath);
+            command.add("-m");
+            command.add(mainClass.getModule().getName() + "/" + mainClass.getName());
+        }
+        else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(mainClass.getName());
+        }
+        command.add(formatAddress(getAddress()));
+
+        List<Process> processes = new ArrayList<>(count);
+        for (int worker = 0; worker < count; worker++) {
+            processes.add(new ProcessBuilder(command).inheritIO().start());
+        }
+        this.localWorkers.addAll(processes);
+        return processes;
+    }
+
+    /**
+     * Renvoi les options de la JVM courante à donner aux workers : les options des modules et de preview, les
+     * assertions et les propriétés système.
+     *
+     * @param inputArguments les options de la JVM courante.
+     * @return les options transmises, dans le même ordre.
+     */
+    static List<String> forwardedJvmArguments(List<String> inputArguments) {
+        List<String> forwarded = new ArrayList<>();
+        for (int ii = 0; ii < inputArguments.size(); ii++) {
+            String argument = inputArguments.get(ii);
+            String name = argument.contains("=") ? argument.substring(0, argument.indexOf('=')) : argument;
+            if (FORWARDED_OPTIONS.contains(name)) {
+                forwarded.add(argument);
+                // La valeur peut être l'argument suivant : --add-modules jdk.incubator.vector.
+                if (name.equals(argument) && !name.equals("--enable-preview") && ii + 1 < inputArguments.size()) {
+                    forwarded.add(inputArguments.get(++ii));
+                }
+            }
+            else if (argument.startsWith("-D") || argument.matches("-(e|d|enable|disable)(system)?assertions(:.*)?")
+                    || argument.matches("-[ed]s?a(:.*)?")) {
+                forwarded.add(argument);
+            }
+        }
+        return forwarded;
+    }
+
+    /**
+     * Attend la connexion des workers puis leur envoie leur configuration. Les lignes sont partagées en bandes de
+     * même taille (à une ligne près) dans l'ordre de connexion des workers. L'attente s'arrête si un worker lancé
+     * par {@link #launchLocalWorkers(Class, int)} se termine ou si les workers ne sont pas tous connectés après
+     * {@link #getAcceptTimeoutMillis()}.
+     *
+     * @param header la taille, les paramètres, la génération et la graine de la simulation ; bitsPerCell est le
+     *               nombre de bits d'une cellule dans les lignes échangées.
+     * @param boundary DEAD si les cellules en dehors de la grille valent 0, TOROIDAL si les bords opposés sont voisins.
+     * @param workerCount le nombre de workers attendus.
+     * @param initialRows les lignes de départ envoyées aux workers, null si chaque worker initialise sa bande.
+     * @throws IOException si un worker ne peut pas être joint, s'est arrêté ou ne s'est pas connecté à temps.
+     */
+    public void start(Snapshot.Header header, Boundary boundary, int workerCount, Snapshot.RowSource initialRows) throws IOException {
+        if (workerCount <= 0 || workerCount > header.y()) {
+            throw new IllegalArgumentException("Le nombre de workers doit être entre 1 et " + header.y() + " : " + workerCount);
+        }
+        this.header = header;
+        this.generation = header.generation();
+        this.counts = new long[1 << header.bitsPerCell()];
+        this.countsBuffer = ByteBuffer.allocate(Long.BYTES * this.counts.length).order(ByteOrder.LITTLE_ENDIAN);
+        this.decisionBuffer = ByteBuffer.allocate(1 + Long.BYTES * this.counts.length).order(ByteOrder.LITTLE_ENDIAN);
+        this.fromRows = new int[workerCount + 1];
+        for (int worker = 0; worker <= workerCount; worker++) {
+            this.fromRows[worker] = (int) ((long) header.y() * worker / workerCount);
+        }
+
+        String[] workerAddresses = new String[workerCount];
+        for (int worker = 0; worker < workerCount; worker++) {
+            SocketChannel channel = acceptWorker(worker, workerCount);
+            this.workers.add(channel);
+            workerAddresses[worker] = readString(channel);
+        }
+
+        for (int worker = 0; worker < workerCount; worker++) {
+            // Le voisin du dessous : le worker suivant, le premier pour le dernier worker d'une grille torique.
+            boolean last = worker == workerCount - 1;
+            String lowerAddress = workerCount == 1 || last && boundary == Boundary.DEAD ? ""
+                    : workerAddresses[(worker + 1) % workerCount];
+            boolean hasUpper = workerCount > 1 && (worker > 0 || boundary == Boundary.TOROIDAL);
+
+            byte[] lower = lowerAddress.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer message = ByteBuffer.allocate(Integer.BYTES * 14 + Long.BYTES * 2
+                    + Integer.BYTES * header.parameters().length + lower.length).order(ByteOrder.LITTLE_ENDIAN);
+            message.putInt(message.capacity() - Integer.BYTES)
+                    .putInt(worker)
+                    .putInt(workerCount)
+                    .putInt(this.fromRows[worker])
+                    .putInt(this.fromRows[worker + 1])
+                    .putInt(boundary.ordinal())
+                    .putInt(initialRows != null ? 1 : 0)
+                    .putInt(hasUpper ? 1 : 0)
+                    .putInt(header.kind())
+                    .putInt(header.x())
+                    .putInt(header.y())
+                    .putInt(header.bitsPerCell())
+                    .putLong(header.generation())
+                    .putLong(header.seed())
+                    .putInt(header.parameters().length);
+            for (int parameter : header.parameters()) {
+                message.putInt(parameter);
+            }
+            message.putInt(lower.length).put(lower).flip();
+            writeFully(this.workers.get(worker), message);
+        }
+
+        if (initialRows != null) {
+            sendInitialRows(initialRows);
+        }
+    }
+
+    /**
+     * Attend la connexion d'un worker, en vérifiant régulièrement que les workers lancés localement tournent encore.
+     */
+    private SocketChannel acceptWorker(int worker, int workerCount) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.acceptTimeoutMillis);
+        this.server.configureBlocking(false);
+        try (Selector selector = Selector.open()) {
+            this.server.register(selector, SelectionKey.OP_ACCEPT);
+            while (true) {
+                SocketChannel channel = this.server.accept();
+                if (channel != null) {
+                    channel.configureBlocking(true);
+                    return channel;
+                }
+                for (Process process : this.localWorkers) {
+                    if (!process.isAlive()) {
+                        throw new IOException("Un worker s'est arrêté avant de se connecter (code " + process.exitValue()
+                                + "), " + worker + " workers connectés sur " + workerCount);
+                    }
+                }
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    throw new IOException("Workers non connectés après " + this.acceptTimeoutMillis + " ms : "
+                            + worker + " workers connectés sur " + workerCount);
+                }
+                selector.select(Math.min(remainingMillis, ACCEPT_POLL_MILLIS));
+                selector.selectedKeys().clear();
+            }
+        }
+        finally {
+            // Le sélecteur fermé a retiré le serveur, qui peut redevenir bloquant.
+            if (this.server.isOpen()) {
+                this.server.configureBlocking(true);
+            }
+        }
+    }
+
+    /**
+     * Envoie les lignes de départ à chaque worker, une ligne compressée à la fois.
+     */
+    private void sendInitialRows(Snapshot.RowSource initialRows) throws IOException {
+        byte[] row = new byte[this.header.x()];
+        byte[] packedRow = new byte[BitPacking.packedSize(this.header.x(), this.header.bitsPerCell())];
+        ByteBuffer buffer = ByteBuffer.wrap(packedRow);
+        for (int worker = 0; worker < this.workers.size(); worker++) {
+            for (int ii = this.fromRows[worker]; ii < this.fromRows[worker + 1]; ii++) {
+                initialRows.readRow(ii, row, 0);
+                BitPacking.pack(row, 0, this.header.x(), this.header.bitsPerCell(), packedRow);
+                buffer.clear();
+                writeFully(this.workers.get(worker), buffer);
+            }
+        }
+    }
+
+    /**
+     * Fait avancer la simulation tant que la condition est vraie. Avant chaque génération (et après la dernière)
+     * les compteurs de toute la grille sont mis à jour. Les workers s'arrêtent à la fin de la simulation, cette
+     * méthode ne peut donc être appelée qu'une fois.
+     *
+     * @param stillRunning reçoit le nombre de cellules de chaque valeur et renvoi true pour calculer une génération
+     *                     de plus.
+     * @param maxGenerations le nombre maximum de générations à calculer.
+     * @param finalRows reçoit les lignes de la dernière génération, null pour ne pas les demander aux workers.
+     * @return le nombre de générations calculées.
+     * @throws IOException si un worker ne répond plus : les workers restants s'arrêtent quand le coordinateur est
+     *                     fermé.
+     */
+    public long run(Predicate<long[]> stillRunning, long maxGenerations, Snapshot.RowTarget finalRows) throws IOException {
+        long firstGeneration = this.generation;
+        while (true) {
+            Arrays.fill(this.counts, 0);
+            for (int worker = 0; worker < this.workers.size(); worker++) {
+                this.countsBuffer.clear();
+                try {
+                    readFully(this.workers.get(worker), this.countsBuffer);
+                }
+                catch (IOException e) {
+                    throw workerFailure(worker, e);
+                }
+                this.countsBuffer.flip();
+                for (int value = 0; value < this.counts.length; value++) {
+                    this.counts[value] += this.countsBuffer.getLong();
+                }
+            }
+
+            boolean running = this.generation - firstGeneration < maxGenerations && stillRunning.test(this.counts);
+            byte decision = running ? CONTINUE : finalRows != null ? STOP_AND_SEND_ROWS : STOP;
+            for (int worker = 0; worker < this.workers.size(); worker++) {
+                this.decisionBuffer.clear();
+                this.decisionBuffer.put(decision);
+                for (long count : this.counts) {
+                    this.decisionBuffer.putLong(count);
+                }
+                this.decisionBuffer.flip();
+                try {
+                    writeFully(this.workers.get(worker), this.decisionBuffer);
+                }
+                catch (IOException e) {
+                    throw workerFailure(worker, e);
+                }
+            }
+
+            if (!running) {
+                if (finalRows != null) {
+                    receiveFinalRows(finalRows);
+                }
+                return this.generation - firstGeneration;
+            }
+            this.generation++;
+        }
+    }
+
+    /**
+     * Reçoit les lignes de chaque worker, dans l'ordre des lignes de la grille.
+     */
+    private void receiveFinalRows(Snapshot.RowTarget finalRows) throws IOException {
+        byte[] row = new byte[this.header.x()];
+        byte[] packedRow = new byte[BitPacking.packedSize(this.header.x(), this.header.bitsPerCell())];
+        ByteBuffer buffer = ByteBuffer.wrap(packedRow);
+        for (int worker = 0; worker < this.workers.size(); worker++) {
+            for (int ii = this.fromRows[worker]; ii < this.fromRows[worker + 1]; ii++) {
+                buffer.clear();
+                try {
+                    readFully(this.workers.get(worker), buffer);
+                }
+                catch (IOException e) {
+                    throw workerFailure(worker, e);
+                }
+                BitPacking.unpack(packedRow, this.header.x(), this.header.bitsPerCell(), row, 0);
+                finalRows.writeRow(ii, row, 0);
+            }
+        }
+    }
+
+    /**
+     * Renvoi l'erreur d'un worker qui ne répond plus (arrêté, ou dont un voisin s'est arrêté) : le message donne le
+     * worker, sa bande et la génération, et le code de sortie des workers lancés localement déjà terminés.
+     */
+    private IOException workerFailure(int worker, IOException cause) {
+        StringBuilder message = new StringBuilder("Le worker ").append(worker).append(" (lignes ")
+                .append(this.fromRows[worker]).append(" à ").append(this.fromRows[worker + 1] - 1)
+                .append(") ne répond plus à la génération ").append(this.generation);
+        for (Process process : this.localWorkers) {
+            if (!process.isAlive()) {
+                message.append(", un worker local s'est arrêté avec le code ").append(process.exitValue());
+            }
+        }
+        return new IOException(message.toString(), cause);
+    }
+
+    /**
+     * Ferme les connexions, attend la fin des workers lancés par {@link #launchLocalWorkers(Class, int)} (ils sont
+     * arrêtés s'ils ne se terminent pas) et supprime le socket Unix.
+     */
+    @Override
+    public void close() throws IOException {
+        SocketAddress address = this.server.isOpen() ? this.server.getLocalAddress() : null;
+        for (SocketChannel worker : this.workers) {
+            worker.close();
+        }
+        this.server.close();
+        for (Process process : this.localWorkers) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+            catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            Files.deleteIfExists(unixAddress.getPath());
+        }
+    }
+
+    /**
+     * Renvoi l'adresse où les workers se connectent (avec le vrai port si le port 0 a été demandé).
+     *
+     * @return l'adresse du coordinateur.
+     * @throws IOException si l'adresse ne peut pas être lue.
+     */
+    public SocketAddress getAddress() throws IOException {
+        return this.server.getLocalAddress();
+    }
+
+    public long getAcceptTimeoutMillis() {
+        return acceptTimeoutMillis;
+    }
+
+    /**
+     * Modifie le temps maximum d'attente de la connexion des workers dans
+     * {@link #start(Snapshot.Header, Boundary, int, Snapshot.RowSource)}.
+     *
+     * @param acceptTimeoutMillis le temps maximum en millisecondes.
+     */
+    public void setAcceptTimeoutMillis(long acceptTimeoutMillis) {
+        if (acceptTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Le temps d'attente doit être positif : " + acceptTimeoutMillis);
+        }
+        this.acceptTimeoutMillis = acceptTimeoutMillis;
+    }
+
+    /**
+     * Renvoi la génération courante de la simulation.
+     *
+     * @return le numéro de la génération.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Renvoi le nombre de cellules de chaque valeur dans toute la grille, à la génération courante.
+     *
+     * @return les compteurs, indexés par la valeur de la cellule. Le tableau n'est pas copié.
+     */
+    public long[] getCounts() {
+        return counts;
+    }
+
+    /**
+     * Lit une adresse écrite {@code tcp:hôte:port} ou {@code unix:chemin}.
+     *
+     * @param address l'adresse à lire.
+     * @return l'adresse du socket.
+     */
+    public static SocketAddress parseAddress(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(address.substring("unix:".length()));
+        }
+        if (address.startsWith("tcp:")) {
+            int portStart = address.lastIndexOf(':');
+            if (portStart > "tcp:".length()) {
+                return new InetSocketAddress(address.substring("tcp:".length(), portStart),
+                        Integer.parseInt(address.substring(portStart + 1)));
+            }
+        }
+        throw new IllegalArgumentException("Adresse inconnue (tcp:hôte:port ou unix:chemin) : " + address);
+    }
+
+    /**
+     * Écrit une adresse sous la forme lue par {@link #parseAddress(String)}.
+     *
+     * @param address l'adresse TCP ou Unix.
+     * @return l'adresse écrite.
+     */
+    public static String formatAddress(SocketAddress address) {
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            return "unix:" + unixAddress.getPath();
+        }
+        if (address instanceof InetSocketAddress inetAddress) {
+            return "tcp:" + inetAddress.getHostString() + ":" + inetAddress.getPort();
+        }
+        throw new IllegalArgumentException("Type d'adresse inconnu : " + address);
+    }
+
+    static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("La connexion a été fermée");
+            }
+        }
+    }
+
+    /**
+     * Lit un message qui commence par sa taille.
+     */
+    static ByteBuffer readMessage(SocketChannel channel) throws IOException {
+        ByteBuffer size = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, size);
+        ByteBuffer message = ByteBuffer.allocate(size.getInt(0)).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, message);
+        return message.flip();
+    }
+
+    static void writeString(SocketChannel channel, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer message = ByteBuffer.allocate(Integer.BYTES + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        message.putInt(bytes.length).put(bytes).flip();
+        writeFully(channel, message);
+    }
+
+    static String readString(SocketChannel channel) throws IOException {
+        ByteBuffer message = readMessage(channel);
+        return new String(message.array(), 0, message.limit(), StandardCharsets.UTF_8);
+    }
+}
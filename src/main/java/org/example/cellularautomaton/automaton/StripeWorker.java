@@ -0,0 +1,406 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Worker d'une simulation répartie entre plusieurs processus (voir {@link StripeCoordinator}). Le worker garde sa
+ * bande de lignes dans une ByteGrid dont la ligne -1 et la ligne {@code getToRow() - getFromRow()} reçoivent la
+ * dernière ligne du voisin du dessus et la première ligne du voisin du dessous.
+ * <p>
+ * Les lignes échangées sont compressées sur bitsPerCell bits par cellule. L'échange avec les deux voisins se fait
+ * en même temps (sockets non bloquants et Selector) : aucun worker n'attend qu'un autre ait lu sa ligne pour lire
+ * la sienne, quelle que soit la taille des lignes.
+ * <p>
+ * Utilisation : {@link #connect(SocketAddress)}, initialisation de la bande si {@link #hasInitialRows()} renvoi
+ * false, puis {@link #run(TiledGrid.TileKernel)} jusqu'à ce que le coordinateur arrête la simulation.
+ */
+public class StripeWorker implements Closeable {
+    private final SocketChannel coordinator;
+    private final ServerSocketChannel listener;
+    private final Snapshot.Header header;
+    private final Boundary boundary;
+    private final int workerIndex;
+    private final int workerCount;
+    private final int fromRow;
+    private final int toRow;
+    private final boolean initialRows;
+    private final Link upper;
+    private final Link lower;
+    private final Selector selector;
+
+    private ByteGrid stripe;
+    private ByteGrid nextStripe;
+    private long generation;
+    // Le nombre de cellules de chaque valeur dans la bande, puis dans toute la grille.
+    private final long[] counts;
+    private final long[] totals;
+    private final ByteBuffer countsBuffer;
+    private final ByteBuffer decisionBuffer;
+    private final byte[] packedRow;
+
+    /**
+     * La connexion avec un voisin et les lignes en cours d'envoi et de réception.
+     */
+    private static final class Link {
+        private final SocketChannel channel;
+        private final ByteBuffer out;
+        private final ByteBuffer in;
+        private SelectionKey key;
+
+        private Link(SocketChannel channel, int rowBytes) {
+            this.channel = channel;
+            this.out = ByteBuffer.allocate(rowBytes);
+            this.in = ByteBuffer.allocate(rowBytes);
+        }
+
+        private boolean isPending() {
+            return this.out.hasRemaining() || this.in.hasRemaining();
+        }
+
+        private void updateInterest() {
+            this.key.interestOps((this.out.hasRemaining() ? SelectionKey.OP_WRITE : 0)
+                    | (this.in.hasRemaining() ? SelectionKey.OP_READ : 0));
+        }
+    }
+
+    private StripeWorker(SocketChannel coordinator, ServerSocketChannel listener) throws IOException {
+        this.coordinator = coordinator;
+        this.listener = listener;
+        StripeCoordinator.writeString(coordinator, StripeCoordinator.formatAddress(listener.getLocalAddress()));
+
+        ByteBuffer message = StripeCoordinator.readMessage(coordinator);
+        this.workerIndex = message.getInt();
+        this.workerCount = message.getInt();
+        this.fromRow = message.getInt();
+        this.toRow = message.getInt();
+        this.boundary = Boundary.values()[message.getInt()];
+        this.initialRows = message.getInt() != 0;
+        boolean hasUpper = message.getInt() != 0;
+        int kind = message.getInt();
+        int x = message.getInt();
+        int y = message.getInt();
+        int bitsPerCell = message.getInt();
+        long headerGeneration = message.getLong();
+        long seed = message.getLong();
+        int[] parameters = new int[message.getInt()];
+        for (int parameter = 0; parameter < parameters.length; parameter++) {
+            parameters[parameter] = message.getInt();
+        }
+        byte[] lowerAddress = new byte[message.getInt()];
+        message.get(lowerAddress);
+        this.header = new Snapshot.Header(kind, x, y, bitsPerCell, headerGeneration, seed, parameters);
+        this.generation = headerGeneration;
+
+        this.stripe = new ByteGrid(x, this.toRow - this.fromRow);
+        this.nextStripe = new ByteGrid(x, this.toRow - this.fromRow);
+        this.counts = new long[1 << bitsPerCell];
+        this.totals = new long[this.counts.length];
+        this.countsBuffer = ByteBuffer.allocate(Long.BYTES * this.counts.length).order(ByteOrder.LITTLE_ENDIAN);
+        this.decisionBuffer = ByteBuffer.allocate(1 + Long.BYTES * this.counts.length).order(ByteOrder.LITTLE_ENDIAN);
+        this.packedRow = new byte[BitPacking.packedSize(x, bitsPerCell)];
+
+        // Chaque worker se connecte à son voisin du dessous puis accepte son voisin du dessus : la connexion
+        // aboutit avant que le voisin l'accepte, l'ordre ne bloque donc pas.
+        this.lower = lowerAddress.length > 0 ? new Link(SocketChannel.open(StripeCoordinator.parseAddress(
+                new String(lowerAddress, StandardCharsets.UTF_8))), this.packedRow.length) : null;
+        this.upper = hasUpper ? new Link(listener.accept(), this.packedRow.length) : null;
+        this.selector = Selector.open();
+        for (Link link : new Link[] {this.upper, this.lower}) {
+            if (link != null) {
+                link.channel.configureBlocking(false);
+                link.key = link.channel.register(this.selector, 0, link);
+            }
+        }
+
+        if (this.initialRows) {
+            ByteBuffer buffer = ByteBuffer.wrap(this.packedRow);
+            byte[] cells = this.stripe.getCells();
+            for (int row = 0; row < this.stripe.getY(); row++) {
+                buffer.clear();
+                StripeCoordinator.readFully(coordinator, buffer);
+                BitPacking.unpack(this.packedRow, x, bitsPerCell, cells, this.stripe.index(0, row));
+            }
+        }
+    }
+
+    /**
+     * Se connecte au coordinateur, reçoit la configuration du worker et se connecte aux workers voisins.
+     *
+     * @param coordinatorAddress l'adresse du coordinateur.
+     * @return le worker prêt à calculer sa bande.
+     * @throws IOException si le coordinateur ou un voisin ne peut pas être joint.
+     */
+    public static StripeWorker connect(SocketAddress coordinatorAddress) throws IOException {
+        boolean unix = coordinatorAddress instanceof UnixDomainSocketAddress;
+        SocketChannel coordinator = SocketChannel.open(coordinatorAddress);
+        ServerSocketChannel listener = null;
+        try {
+            if (unix) {
+                listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+                listener.bind(UnixDomainSocketAddress.of(Files.createTempDirectory("stripe-worker").resolve("socket")));
+            }
+            else {
+                // Les voisins joignent le worker par l'interface qui le relie au coordinateur.
+                listener = ServerSocketChannel.open();
+                listener.bind(new InetSocketAddress(((InetSocketAddress) coordinator.getLocalAddress()).getAddress(), 0));
+            }
+            return new StripeWorker(coordinator, listener);
+        }
+        catch (IOException | RuntimeException e) {
+            coordinator.close();
+            if (listener != null) {
+                closeListener(listener);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Calcule des générations jusqu'à ce que le coordinateur arrête la simulation. Avant chaque génération le
+     * worker envoie au coordinateur le nombre de cellules de chaque valeur de sa bande et attend sa décision.
+     *
+     * @param kernel le calcul de la prochaine valeur d'une cellule, qui reçoit la bande comme tuile et la position
+     *               de la cellule dans toute la grille.
+     * @throws IOException si le coordinateur ou un voisin ne répond plus.
+     */
+    public void run(TiledGrid.TileKernel kernel) throws IOException {
+        Arrays.fill(this.counts, 0);
+        byte[] cells = this.stripe.getCells();
+        for (int row = 0; row < this.stripe.getY(); row++) {
+            int index = this.stripe.index(0, row);
+            for (int column = 0; column < this.header.x(); column++, index++) {
+                this.counts[cells[index]]++;
+            }
+        }
+
+        while (synchronizeWithCoordinator()) {
+            exchangeHalos();
+            step(kernel);
+        }
+    }
+
+    /**
+     * Envoie les compteurs de la bande au coordinateur et lit sa décision.
+     *
+     * @return true si le worker doit calculer une génération de plus.
+     */
+    private boolean synchronizeWithCoordinator() throws IOException {
+        this.countsBuffer.clear();
+        for (long count : this.counts) {
+            this.countsBuffer.putLong(count);
+        }
+        this.countsBuffer.flip();
+        StripeCoordinator.writeFully(this.coordinator, this.countsBuffer);
+
+        this.decisionBuffer.clear();
+        StripeCoordinator.readFully(this.coordinator, this.decisionBuffer);
+        this.decisionBuffer.flip();
+        byte decision = this.decisionBuffer.get();
+        for (int value = 0; value < this.totals.length; value++) {
+            this.totals[value] = this.decisionBuffer.getLong();
+        }
+
+        if (decision == StripeCoordinator.STOP_AND_SEND_ROWS) {
+            ByteBuffer buffer = ByteBuffer.wrap(this.packedRow);
+            for (int row = 0; row < this.stripe.getY(); row++) {
+                BitPacking.pack(this.stripe.getCells(), this.stripe.index(0, row), this.header.x(),
+                        this.header.bitsPerCell(), this.packedRow);
+                buffer.clear();
+                StripeCoordinator.writeFully(this.coordinator, buffer);
+            }
+        }
+        return decision == StripeCoordinator.CONTINUE;
+    }
+
+    /**
+     * Envoie la première ligne de la bande au voisin du dessus et la dernière au voisin du dessous, et reçoit leurs
+     * lignes dans le bord de la bande. Avec le bord TOROIDAL les colonnes du bord sont aussi remplies.
+     */
+    private void exchangeHalos() throws IOException {
+        byte[] cells = this.stripe.getCells();
+        int x = this.header.x();
+        int rows = this.stripe.getY();
+
+        if (this.workerCount == 1) {
+            if (this.boundary == Boundary.TOROIDAL) {
+                System.arraycopy(cells, this.stripe.index(0, rows - 1), cells, this.stripe.index(0, -1), x);
+                System.arraycopy(cells, this.stripe.index(0, 0), cells, this.stripe.index(0, rows), x);
+            }
+        }
+        else {
+            prepareLink(this.upper, 0);
+            prepareLink(this.lower, rows - 1);
+            while (this.upper != null && this.upper.isPending() || this.lower != null && this.lower.isPending()) {
+                this.selector.select();
+                for (SelectionKey key : this.selector.selectedKeys()) {
+                    Link link = (Link) key.attachment();
+                    if (key.isWritable()) {
+                        link.channel.write(link.out);
+                    }
+                    if (key.isReadable() && link.channel.read(link.in) < 0) {
+                        throw new EOFException("Le worker voisin a fermé la connexion");
+                    }
+                    link.updateInterest();
+                }
+                this.selector.selectedKeys().clear();
+            }
+            if (this.upper != null) {
+                BitPacking.unpack(this.upper.in.array(), x, this.header.bitsPerCell(), cells, this.stripe.index(0, -1));
+            }
+            if (this.lower != null) {
+                BitPacking.unpack(this.lower.in.array(), x, this.header.bitsPerCell(), cells, this.stripe.index(0, rows));
+            }
+        }
+
+        if (this.boundary == Boundary.TOROIDAL) {
+            for (int row = -1; row <= rows; row++) {
+                cells[this.stripe.index(-1, row)] = cells[this.stripe.index(x - 1, row)];
+                cells[this.stripe.index(x, row)] = cells[this.stripe.index(0, row)];
+            }
+        }
+    }
+
+    private void prepareLink(Link link, int row) {
+        if (link == null) {
+            return;
+        }
+        BitPacking.pack(this.stripe.getCells(), this.stripe.index(0, row), this.header.x(), this.header.bitsPerCell(),
+                link.out.array());
+        link.out.clear();
+        link.in.clear();
+        link.updateInterest();
+    }
+
+    /**
+     * Calcule la prochaine génération de la bande et compte les cellules de chaque valeur.
+     */
+    private void step(TiledGrid.TileKernel kernel) {
+        Arrays.fill(this.counts, 0);
+        byte[] nextCells = this.nextStripe.getCells();
+        for (int row = 0; row < this.stripe.getY(); row++) {
+            int index = this.stripe.index(0, row);
+            for (int column = 0; column < this.header.x(); column++, index++) {
+                byte value = kernel.nextState(this.stripe, index, column, this.fromRow + row);
+                nextCells[index] = value;
+                this.counts[value]++;
+            }
+        }
+        ByteGrid currentStripe = this.stripe;
+        this.stripe = this.nextStripe;
+        this.nextStripe = currentStripe;
+        this.generation++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.selector.close();
+        for (Link link : new Link[] {this.upper, this.lower}) {
+            if (link != null) {
+                link.channel.close();
+            }
+        }
+        closeListener(this.listener);
+        this.coordinator.close();
+    }
+
+    /**
+     * Ferme le socket où se connecte le voisin du dessus et supprime le fichier d'un socket Unix.
+     */
+    private static void closeListener(ServerSocketChannel listener) throws IOException {
+        SocketAddress address = listener.getLocalAddress();
+        listener.close();
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            Path path = unixAddress.getPath();
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(path.getParent());
+        }
+    }
+
+    /**
+     * Renvoi la taille, les paramètres, la génération de départ et la graine de la simulation.
+     *
+     * @return l'en-tête envoyé par le coordinateur.
+     */
+    public Snapshot.Header getHeader() {
+        return header;
+    }
+
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    public int getWorkerIndex() {
+        return workerIndex;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Renvoi la première ligne de la bande dans la grille.
+     *
+     * @return la première ligne de la bande.
+     */
+    public int getFromRow() {
+        return fromRow;
+    }
+
+    /**
+     * Renvoi la ligne après la dernière ligne de la bande dans la grille.
+     *
+     * @return la ligne après la bande.
+     */
+    public int getToRow() {
+        return toRow;
+    }
+
+    /**
+     * Renvoi true si le coordinateur a envoyé les lignes de départ, false si la bande doit être initialisée avant
+     * {@link #run(TiledGrid.TileKernel)}.
+     *
+     * @return true si la bande est déjà initialisée.
+     */
+    public boolean hasInitialRows() {
+        return initialRows;
+    }
+
+    /**
+     * Renvoi la bande courante : la ligne 0 de la ByteGrid est la ligne {@link #getFromRow()} de la grille.
+     *
+     * @return la bande courante.
+     */
+    public ByteGrid getStripe() {
+        return stripe;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Renvoi le nombre de cellules de chaque valeur dans toute la grille, reçu du coordinateur à la dernière
+     * génération.
+     *
+     * @return les compteurs, indexés par la valeur de la cellule. Le tableau n'est pas copié.
+     */
+    public long[] getTotals() {
+        return totals;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Affiche les générations dans un terminal. Une génération est écrite en une seule fois (un texte construit en
+ * entier puis écrit), et au plus une génération est affichée par intervalle : les autres sont ignorées, l'affichage
+ * ne ralentit donc pas une simulation rapide. Seul le coin haut gauche de la grille est affiché si elle est plus
+ * grande que le nombre de colonnes et de lignes choisi.
+ */
+public class TerminalFrameEncoder implements FrameEncoder {
+    // Replace le curseur en haut à gauche du terminal et efface l'écran (séquences ANSI).
+    private static final String CLEAR_SCREEN = "\u001B[H\u001B[2J";
+
+    private final Writer output;
+    private final String[] symbols;
+    private final long minimumIntervalNanos;
+    private final int maxColumns;
+    private final int maxRows;
+    private final boolean redraw;
+    private final boolean header;
+    // Le texte d'une génération, réutilisé à chaque génération.
+    private final StringBuilder text = new StringBuilder();
+    private long lastFrameNanos;
+    private boolean firstFrame = true;
+
+    /**
+     * @param output le flux du terminal, par exemple System.out. Il n'est pas fermé par {@link #close()}.
+     * @param symbols le texte de chaque valeur de cellule.
+     * @param minimumIntervalMillis le temps minimum entre deux générations affichées.
+     * @param maxColumns le nombre de cellules affichées par ligne.
+     * @param maxRows le nombre de lignes affichées.
+     * @param redraw true pour effacer le terminal avant chaque génération (la grille reste en place), false pour
+     *               afficher les générations les unes sous les autres.
+     */
+    public TerminalFrameEncoder(OutputStream output, String[] symbols, long minimumIntervalMillis, int maxColumns,
+                                int maxRows, boolean redraw) {
+        this(output, symbols, minimumIntervalMillis, maxColumns, maxRows, redraw, true);
+    }
+
+    /**
+     * @param output le flux du terminal, par exemple System.out. Il n'est pas fermé par {@link #close()}.
+     * @param symbols le texte de chaque valeur de cellule.
+     * @param minimumIntervalMillis le temps minimum entre deux générations affichées.
+     * @param maxColumns le nombre de cellules affichées par ligne.
+     * @param maxRows le nombre de lignes affichées.
+     * @param redraw true pour effacer le terminal avant chaque génération.
+     * @param header true pour écrire le numéro de la génération avant ses cellules, false pour n'écrire que les
+     *               cellules (un automate à une dimension affiche alors une génération par ligne).
+     */
+    public TerminalFrameEncoder(OutputStream output, String[] symbols, long minimumIntervalMillis, int maxColumns,
+                                int maxRows, boolean redraw, boolean header) {
+        if (symbols.length == 0) {
+            throw new IllegalArgumentException("Il faut le texte d'au moins une valeur");
+        }
+        this.output = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        this.symbols = symbols.clone();
+        this.minimumIntervalNanos = minimumIntervalMillis * 1_000_000L;
+        this.maxColumns = maxColumns;
+        this.maxRows = maxRows;
+        this.redraw = redraw;
+        this.header = header;
+    }
+
+    @Override
+    public void encode(Frame frame) throws IOException {
+        long now = System.nanoTime();
+        if (!this.firstFrame && now - this.lastFrameNanos < this.minimumIntervalNanos) {
+            return;
+        }
+        this.firstFrame = false;
+        this.lastFrameNanos = now;
+
+        StringBuilder builder = this.text;
+        builder.setLength(0);
+        if (this.redraw) {
+            builder.append(CLEAR_SCREEN);
+        }
+        if (this.header) {
+            builder.append("Génération ").append(frame.getGeneration()).append('\n');
+        }
+        int columns = Math.min(frame.getX(), this.maxColumns);
+        int rows = Math.min(frame.getY(), this.maxRows);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                builder.append(this.symbols[Math.floorMod(frame.get(column, row), this.symbols.length)]);
+            }
+            builder.append('\n');
+        }
+        this.output.append(builder);
+        this.output.flush();
+    }
+
+    /**
+     * Affiche une génération sans passer par une {@link FrameOutput} : les cellules sont copiées dans une image
+     * allouée pour l'occasion et écrites par le fil appelant.
+     *
+     * @param generation le numéro de la génération.
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param source copie les cellules de la génération.
+     * @throws IOException si l'écriture échoue.
+     */
+    public void encode(long generation, int x, int y, FrameOutput.FrameSource source) throws IOException {
+        Frame frame = new Frame(x, y);
+        frame.setGeneration(generation);
+        source.copyCells(frame.getCells());
+        encode(frame);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.output.flush();
+    }
+}
@@ -0,0 +1,436 @@
+package org.example.cellularautomaton.automaton;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Grille découpée en tuiles carrées stockées dans un fichier, pour les grilles qui ne tiennent pas en mémoire.
+ * Seules les tuiles du cache (au plus {@code cacheTiles}, la moins récemment utilisée est retirée en premier) sont en
+ * mémoire : la mémoire utilisée dépend de la taille du cache et pas de la taille de la grille.
+ * <p>
+ * Une génération ({@link #step(TileKernel, Boundary)}) parcourt les tuiles ligne par ligne. Chaque tuile est copiée
+ * dans une ByteGrid avec un bord d'une cellule pris dans les tuiles voisines, calculée, puis écrite dans le second
+ * plan du fichier. Les tuiles voisines de la tuile suivante sont lues en avance par un thread de fond. Pour que
+ * chaque tuile ne soit lue qu'une fois par génération, le cache doit pouvoir garder 3 lignes de tuiles plus
+ * 3 tuiles ; un cache plus petit donne le même résultat avec plus de lectures.
+ * <p>
+ * Le fichier est un espace de travail, il n'a pas d'en-tête : {@link Snapshot} sert à garder une simulation.
+ */
+public class TiledGrid implements ExternalGrid, Closeable {
+    private final FileChannel channel;
+    private final int x;
+    private final int y;
+    private final int tileSize;
+    private final int bitsPerCell;
+    private final int tilesPerRow;
+    private final int tilesPerColumn;
+    // La taille d'une tuile compressée dans le fichier.
+    private final int tileBytes;
+    private final long planeSize;
+    private int currentPlane;
+
+    // Les tuiles du plan courant, de la moins récemment utilisée à la plus récemment utilisée.
+    private final LinkedHashMap<Integer, Tile> cache;
+    private final int cacheTiles;
+    // La dernière tuile utilisée, pour ne pas chercher dans le cache à chaque cellule d'une ligne.
+    private int lastTileIndex = -1;
+    private Tile lastTile;
+    // Les lectures en avance en cours.
+    private final Map<Integer, Future<byte[]>> prefetched = new HashMap<>();
+    private final ExecutorService prefetchExecutor;
+
+    // Espaces de travail d'une génération, réutilisés pour chaque tuile.
+    private final ByteGrid haloTile;
+    private final byte[] nextTile;
+    private final byte[] packedTile;
+
+    private long tileReads;
+    private long cacheHits;
+
+    /**
+     * Une tuile du cache : ses cellules (une valeur par octet, ligne par ligne) et si elle a été modifiée.
+     */
+    private static final class Tile {
+        private final byte[] cells;
+        private boolean dirty;
+
+        private Tile(byte[] cells) {
+            this.cells = cells;
+        }
+    }
+
+    /**
+     * Calcul de la prochaine valeur d'une cellule.
+     */
+    @FunctionalInterface
+    public interface TileKernel {
+        /**
+         * @param tile la tuile et son bord d'une cellule.
+         * @param index l'indice de la cellule dans la tuile.
+         * @param column la colonne de la cellule dans la grille.
+         * @param row la ligne de la cellule dans la grille.
+         * @return la prochaine valeur de la cellule.
+         */
+        byte nextState(ByteGrid tile, int index, int column, int row);
+    }
+
+    /**
+     * Créé (ou remplace) le fichier d'une grille dont toutes les cellules valent 0.
+     *
+     * @param path le fichier des tuiles.
+     * @param x le nombre de colonnes.
+     * @param y le nombre de lignes.
+     * @param tileSize le nombre de cellules du côté d'une tuile.
+     * @param bitsPerCell le nombre de bits d'une cellule dans le fichier : 1, 2 ou 4.
+     * @param cacheTiles le nombre maximum de tuiles en mémoire.
+     * @throws IOException si le fichier ne peut pas être créé.
+     */
+    public TiledGrid(Path path, int x, int y, int tileSize, int bitsPerCell, int cacheTiles) throws IOException {
+        if (x <= 0 || y <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("La taille de la grille et des tuiles doit être positive : " + x + "x" + y + ", " + tileSize);
+        }
+        if (bitsPerCell != 1 && bitsPerCell != 2 && bitsPerCell != 4) {
+            throw new IllegalArgumentException("Une cellule doit prendre 1, 2 ou 4 bits : " + bitsPerCell);
+        }
+        if (cacheTiles <= 0) {
+            throw new IllegalArgumentException("Le cache doit contenir au moins une tuile : " + cacheTiles);
+        }
+        this.x = x;
+        this.y = y;
+        this.tileSize = tileSize;
+        this.bitsPerCell = bitsPerCell;
+        this.tilesPerRow = (x + tileSize - 1) / tileSize;
+        this.tilesPerColumn = (y + tileSize - 1) / tileSize;
+        int tileCells = Math.multiplyExact(tileSize, tileSize);
+        this.tileBytes = BitPacking.packedSize(tileCells, bitsPerCell);
+        this.planeSize = (long) this.tileBytes * Math.multiplyExact(this.tilesPerRow, this.tilesPerColumn);
+        this.cacheTiles = cacheTiles;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Tile> eldest) {
+                if (size() <= TiledGrid.this.cacheTiles) {
+                    return false;
+                }
+                evict(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+        this.haloTile = new ByteGrid(tileSize, tileSize);
+        this.nextTile = new byte[tileCells];
+        this.packedTile = new byte[this.tileBytes];
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Les octets non écrits valent 0 (et restent creux sur le disque).
+        this.channel.write(ByteBuffer.allocate(1), 2 * this.planeSize - 1);
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "tile-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Simule une génération : la prochaine valeur de chaque cellule est calculée tuile par tuile puis le second plan
+     * devient le plan courant.
+     *
+     * @param kernel le calcul de la prochaine valeur d'une cellule.
+     * @param boundary DEAD si les cellules en dehors de la grille valent 0, TOROIDAL si les bords opposés sont voisins.
+     */
+    public void step(TileKernel kernel, Boundary boundary) {
+        flush();
+        int nextPlane = 1 - this.currentPlane;
+
+        for (int tileRow = 0; tileRow < this.tilesPerColumn; tileRow++) {
+            for (int tileColumn = 0; tileColumn < this.tilesPerRow; tileColumn++) {
+                int tileIndex = tileRow * this.tilesPerRow + tileColumn;
+                if (tileIndex + 1 < this.tilesPerRow * this.tilesPerColumn) {
+                    prefetchAround(tileIndex + 1, boundary);
+                }
+
+                int firstColumn = tileColumn * this.tileSize;
+                int firstRow = tileRow * this.tileSize;
+                int width = Math.min(this.tileSize, this.x - firstColumn);
+                int height = Math.min(this.tileSize, this.y - firstRow);
+                fillHaloTile(tileIndex, firstColumn, firstRow, width, height, boundary);
+
+                if (width < this.tileSize || height < this.tileSize) {
+                    Arrays.fill(this.nextTile, (byte) 0);
+                }
+                for (int row = 0; row < height; row++) {
+                    int index = this.haloTile.index(0, row);
+                    int nextIndex = row * this.tileSize;
+                    for (int column = 0; column < width; column++) {
+                        this.nextTile[nextIndex + column] = kernel.nextState(this.haloTile, index + column,
+                                firstColumn + column, firstRow + row);
+                    }
+                }
+                writeTile(nextPlane, tileIndex, this.nextTile);
+            }
+        }
+
+        cancelPrefetch();
+        this.cache.clear();
+        this.lastTileIndex = -1;
+        this.lastTile = null;
+        this.currentPlane = nextPlane;
+    }
+
+    /**
+     * Copie la tuile dans la ByteGrid de travail, avec les cellules qui l'entourent sur son bord.
+     */
+    private void fillHaloTile(int tileIndex, int firstColumn, int firstRow, int width, int height, Boundary boundary) {
+        byte[] haloCells = this.haloTile.getCells();
+        byte[] tileCells = getTile(tileIndex).cells;
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(tileCells, row * this.tileSize, haloCells, this.haloTile.index(0, row), width);
+        }
+        for (int column = -1; column <= width; column++) {
+            haloCells[this.haloTile.index(column, -1)] = haloValue(firstColumn + column, firstRow - 1, boundary);
+            haloCells[this.haloTile.index(column, height)] = haloValue(firstColumn + column, firstRow + height, boundary);
+        }
+        for (int row = 0; row < height; row++) {
+            haloCells[this.haloTile.index(-1, row)] = haloValue(firstColumn - 1, firstRow + row, boundary);
+            haloCells[this.haloTile.index(width, row)] = haloValue(firstColumn + width, firstRow + row, boundary);
+        }
+    }
+
+    private byte haloValue(int column, int row, Boundary boundary) {
+        if (column < 0 || column >= this.x || row < 0 || row >= this.y) {
+            if (boundary == Boundary.DEAD) {
+                return 0;
+            }
+            column = Math.floorMod(column, this.x);
+            row = Math.floorMod(row, this.y);
+        }
+        return (byte) get(column, row);
+    }
+
+    /**
+     * Lit en avance les tuiles dont aura besoin la tuile tileIndex (elle et ses 8 voisines).
+     */
+    private void prefetchAround(int tileIndex, Boundary boundary) {
+        int tileRow = tileIndex / this.tilesPerRow;
+        int tileColumn = tileIndex % this.tilesPerRow;
+        for (int aroundRow = tileRow - 1; aroundRow <= tileRow + 1; aroundRow++) {
+            for (int aroundColumn = tileColumn - 1; aroundColumn <= tileColumn + 1; aroundColumn++) {
+                int row = aroundRow;
+                int column = aroundColumn;
+                if (row < 0 || row >= this.tilesPerColumn || column < 0 || column >= this.tilesPerRow) {
+                    if (boundary == Boundary.DEAD) {
+                        continue;
+                    }
+                    row = Math.floorMod(row, this.tilesPerColumn);
+                    column = Math.floorMod(column, this.tilesPerRow);
+                }
+                int index = row * this.tilesPerRow + column;
+                if (!this.cache.containsKey(index) && !this.prefetched.containsKey(index)) {
+                    int plane = this.currentPlane;
+                    this.prefetched.put(index, this.prefetchExecutor.submit(() -> readTile(plane, index, new byte[this.tileBytes])));
+                }
+            }
+        }
+    }
+
+    private void cancelPrefetch() {
+        for (Future<byte[]> future : this.prefetched.values()) {
+            future.cancel(false);
+        }
+        this.prefetched.clear();
+    }
+
+    /**
+     * Renvoi une tuile du plan courant, depuis le cache, une lecture en avance ou le fichier.
+     */
+    private Tile getTile(int tileIndex) {
+        if (tileIndex == this.lastTileIndex) {
+            return this.lastTile;
+        }
+        Tile tile = this.cache.get(tileIndex);
+        if (tile != null) {
+            this.cacheHits++;
+        }
+        else {
+            Future<byte[]> future = this.prefetched.remove(tileIndex);
+            tile = new Tile(future != null ? waitFor(future) : readTile(this.currentPlane, tileIndex, this.packedTile));
+            this.cache.put(tileIndex, tile);
+        }
+        this.lastTileIndex = tileIndex;
+        this.lastTile = tile;
+        return tile;
+    }
+
+    private static byte[] waitFor(Future<byte[]> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lecture d'une tuile interrompue", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void evict(int tileIndex, Tile tile) {
+        if (tileIndex == this.lastTileIndex) {
+            this.lastTileIndex = -1;
+            this.lastTile = null;
+        }
+        if (tile.dirty) {
+            writeTile(this.currentPlane, tileIndex, tile.cells);
+        }
+    }
+
+    private byte[] readTile(int plane, int tileIndex, byte[] packed) {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        long position = plane * this.planeSize + (long) tileIndex * this.tileBytes;
+        try {
+            while (buffer.hasRemaining()) {
+                if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Tuile incomplète : " + tileIndex);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (this) {
+            this.tileReads++;
+        }
+        byte[] cells = new byte[this.tileSize * this.tileSize];
+        BitPacking.unpack(packed, cells.length, this.bitsPerCell, cells, 0);
+        return cells;
+    }
+
+    private void writeTile(int plane, int tileIndex, byte[] cells) {
+        BitPacking.pack(cells, 0, cells.length, this.bitsPerCell, this.packedTile);
+        ByteBuffer buffer = ByteBuffer.wrap(this.packedTile);
+        long position = plane * this.planeSize + (long) tileIndex * this.tileBytes;
+        try {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer, position + buffer.position());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Tile tileOf(int column, int row) {
+        return getTile((row / this.tileSize) * this.tilesPerRow + column / this.tileSize);
+    }
+
+    private int indexInTile(int column, int row) {
+        return (row % this.tileSize) * this.tileSize + column % this.tileSize;
+    }
+
+    @Override
+    public int get(int column, int row) {
+        return tileOf(column, row).cells[indexInTile(column, row)];
+    }
+
+    /**
+     * Modifie la valeur d'une cellule. La tuile est écrite dans le fichier quand elle sort du cache.
+     */
+    public void set(int column, int row, int value) {
+        Tile tile = tileOf(column, row);
+        tile.cells[indexInTile(column, row)] = (byte) value;
+        tile.dirty = true;
+    }
+
+    @Override
+    public void readRow(int row, byte[] target, int offset) {
+        for (int column = 0; column < this.x; column += this.tileSize) {
+            int length = Math.min(this.tileSize, this.x - column);
+            System.arraycopy(tileOf(column, row).cells, indexInTile(column, row), target, offset + column, length);
+        }
+    }
+
+    @Override
+    public void writeRow(int row, byte[] source, int offset) {
+        for (int column = 0; column < this.x; column += this.tileSize) {
+            int length = Math.min(this.tileSize, this.x - column);
+            Tile tile = tileOf(column, row);
+            System.arraycopy(source, offset + column, tile.cells, indexInTile(column, row), length);
+            tile.dirty = true;
+        }
+    }
+
+    /**
+     * Écrit dans le fichier les tuiles modifiées du cache.
+     */
+    public void flush() {
+        for (Map.Entry<Integer, Tile> entry : this.cache.entrySet()) {
+            if (entry.getValue().dirty) {
+                writeTile(this.currentPlane, entry.getKey(), entry.getValue().cells);
+                entry.getValue().dirty = false;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        cancelPrefetch();
+        this.prefetchExecutor.shutdown();
+        this.channel.close();
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    @Override
+    public int getBitsPerCell() {
+        return bitsPerCell;
+    }
+
+    public int getCacheTiles() {
+        return cacheTiles;
+    }
+
+    /**
+     * Renvoi le nombre de tuiles lues dans le fichier depuis la création de la grille.
+     *
+     * @return le nombre de tuiles lues.
+     */
+    public synchronized long getTileReads() {
+        return tileReads;
+    }
+
+    /**
+     * Renvoi le nombre de tuiles trouvées dans le cache depuis la création de la grille.
+     *
+     * @return le nombre de tuiles trouvées dans le cache.
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+}
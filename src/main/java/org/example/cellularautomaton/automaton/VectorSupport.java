@@ -0,0 +1,24 @@
+package org.example.cellularautomaton.automaton;
+
+/**
+ * Indique si l'API Vector (module incubateur {@code jdk.incubator.vector}) peut être utilisée. Le module n'est
+ * chargé que si la JVM est lancée avec {@code --add-modules jdk.incubator.vector} : sans lui les moteurs VECTOR
+ * calculent les générations sans vecteurs, avec le même résultat.
+ */
+public final class VectorSupport {
+    public static final String MODULE_NAME = "jdk.incubator.vector";
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule(MODULE_NAME).isPresent();
+
+    private VectorSupport() {
+    }
+
+    /**
+     * Renvoi true si le module de l'API Vector est chargé.
+     *
+     * @return true si les calculs vectoriels sont possibles.
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+}
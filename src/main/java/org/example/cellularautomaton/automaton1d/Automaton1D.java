@@ -1,114 +1,387 @@
 package org.example.cellularautomaton.automaton1d;
 
-import org.example.cellularautomaton.automaton.LinkedCell;
+import org.example.cellularautomaton.Automaton;
+import org.example.cellularautomaton.AutomatonCapability;
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.automaton.GenerationEvent;
+import org.example.cellularautomaton.automaton.GenerationHistory;
+import org.example.cellularautomaton.automaton.SimulationMetrics;
+import org.example.cellularautomaton.automaton.Snapshot;
+import org.example.cellularautomaton.automaton.TerminalFrameEncoder;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
+
+public class Automaton1D extends Automaton {
+    // Kind of simulation written in the snapshot files of a 1D automaton
+    private static final int SNAPSHOT_KIND = 2;
 
-public class Automaton1D {
     private int size;
     private int rule;
-    private LinkedCell<Integer> cells;
+    private final Automaton1DEngine engine;
+    private Boundary boundary;
+    // The next value of a cell for each of the 8 patterns (left, cell, right), compiled from the rule
+    private byte[] ruleTable;
+    // The same table as a mask for each pattern (all bits set when the new value is 1), used by BIT_PARALLEL
+    private final long[] ruleMasks = new long[8];
+    // LOOKUP_TABLE : cell values, the extra cell at the end is the right neighbor of the last cell
+    private byte[] cells;
+    private byte[] nextCells;
+    // BIT_PARALLEL : cell values packed by 64, cell i is the bit (i % 64) of the word (i / 64)
+    private long[] bits;
+    private long[] nextBits;
+    // Number of generations simulated since the last initialization
+    private long generation;
+    // Records every generation when set, null otherwise
+    private GenerationHistory history;
+    private byte[] historyFrame;
 
     public Automaton1D(int size, int rule) {
+        this(size, rule, Automaton1DEngine.LOOKUP_TABLE, Boundary.DEAD);
+    }
+
+    /**
+     * @param engine the way cells are stored and computed
+     * @param boundary DEAD keeps the behavior of the first versions where both borders see an empty cell,
+     *                 TOROIDAL turns the automaton into a ring
+     */
+    public Automaton1D(int size, int rule, Automaton1DEngine engine, Boundary boundary) {
         this.size = size;
-        this.rule = rule;
+        this.engine = engine;
+        this.boundary = boundary;
+        setRuleTables(rule);
         initializeAutomaton();
     }
 
+    private void setRuleTables(int rule) {
+        this.rule = rule;
+        this.ruleTable = compileRule(rule);
+        for (int pattern = 0; pattern < 8; pattern++) {
+            this.ruleMasks[pattern] = -this.ruleTable[pattern];
+        }
+    }
+
+    @Override
     public void initializeAutomaton() {
-        LinkedCell<Integer> current = new LinkedCell<>(0);
-        for (int ii = this.size - 1; ii >= 0; ii--) {
-            if (ii == this.size) {
-                current.addNewLine(0);
-            }
-            else {
-                current.add(ii == size / 2 ? 1 : 0);
-            }
+        initializeCells();
+        if (this.engine == Automaton1DEngine.BIT_PARALLEL) {
+            this.bits[(this.size / 2) >>> 6] = 1L << (this.size / 2);
         }
+        else {
+            this.cells[this.size / 2] = 1;
+        }
+        this.generation = 0;
+        if (this.history != null) {
+            this.history.clear();
+            recordHistory();
+        }
+    }
 
-        this.cells = current;
+    /**
+     * Same as {@link #simulateAGeneration()}.
+     */
+    @Override
+    public void simulate() {
+        simulateAGeneration();
     }
 
     public void simulateAGeneration() {
-        List<Integer> nextStateOf1DAutomaton = new ArrayList<>();
-        LinkedCell<Integer> currentCell = this.cells;
+        // Instrumentation: a JFR event when a recording asks for it and the metrics when enabled
+        GenerationEvent event = GenerationEvent.beginIfEnabled();
+        SimulationMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.begin();
+        }
 
-        for (int cellIndex = 0; cellIndex < this.size; cellIndex++) {
-            nextStateOf1DAutomaton.add(getNextState(currentCell));
-            currentCell = currentCell.getNextCell();
+        if (this.engine == Automaton1DEngine.BIT_PARALLEL) {
+            simulateAGenerationBitParallel();
+        }
+        else {
+            simulateAGenerationLookupTable();
+        }
+        this.generation++;
+
+        if (metrics != null) {
+            metrics.end(1, this.size, this.size);
+        }
+        if (event != null) {
+            event.record("Automaton1D", this.engine.name(), this.generation, 1, this.size, this.size);
+        }
+        if (this.history != null) {
+            recordHistory();
         }
+    }
 
-        LinkedCell<Integer> new1DAutomaton = new LinkedCell<Integer>(0);
+    /**
+     * Allocates empty cells for the current size.
+     */
+    private void initializeCells() {
+        if (this.engine == Automaton1DEngine.BIT_PARALLEL) {
+            this.bits = new long[(this.size + 63) >>> 6];
+            this.nextBits = new long[this.bits.length];
+        }
+        else {
+            this.cells = new byte[this.size + 1];
+            this.nextCells = new byte[this.size + 1];
+        }
+    }
 
-        for (int ii = nextStateOf1DAutomaton.size() - 1; ii >= 0; ii--) {
-            // The first cell we add don't have right cell neighbor
-            if (ii == nextStateOf1DAutomaton.size()) {
-                new1DAutomaton.addNewLine(nextStateOf1DAutomaton.get(ii));
-            }
-            else {
-                new1DAutomaton.add(nextStateOf1DAutomaton.get(ii));
-            }
+    private void recordHistory() {
+        if (this.historyFrame == null) {
+            this.historyFrame = new byte[this.size];
         }
+        copyCells(this.historyFrame);
+        this.history.record(this.generation, this.historyFrame);
+    }
 
-        this.cells = new1DAutomaton;
+    /**
+     * Writes the cells (1 bit each), the rule, the boundary and the generation into a snapshot file.
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        Snapshot.Header header = new Snapshot.Header(SNAPSHOT_KIND, this.size, 1, 1, this.generation, 0,
+                new int[] {this.rule, this.boundary.ordinal()});
+        Snapshot.write(path, header, (row, target, offset) -> copyCells(target));
     }
 
-    private Integer getNextState(LinkedCell<Integer> cellToDeterminateState) {
-        // When there is no next cell then the opposite cell value is return like an infinite loop
-        Integer rightCellValue = cellToDeterminateState.getRightCell() != null ?
-                cellToDeterminateState.getRightCell().getCellValue() :
-                cellToDeterminateState.getFirstCell().getCellValue();
-        Integer leftCellValue = cellToDeterminateState.getLeftCell() != null ?
-                cellToDeterminateState.getLeftCell().getCellValue() :
-                cellToDeterminateState.getLastCell().getCellValue();
+    /**
+     * Replaces the automaton by the one saved in a snapshot file. The engine of this automaton is kept, the run
+     * goes on exactly as the saved one would have. The cells are read into a separate array and the automaton is
+     * only replaced once the whole file is checked, a damaged file leaves it unchanged.
+     *
+     * @throws IOException if the file cannot be read, is damaged or holds an unknown boundary
+     * @throws IllegalArgumentException if the file is not the snapshot of a 1D automaton
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        byte[][] stagedCells = new byte[1][];
+        Snapshot.Header header = Snapshot.read(path, snapshotHeader -> {
+            if (snapshotHeader.kind() != SNAPSHOT_KIND || snapshotHeader.y() != 1 || snapshotHeader.bitsPerCell() != 1
+                    || snapshotHeader.parameters().length != 2) {
+                throw new IllegalArgumentException("Not a 1D automaton snapshot : " + path);
+            }
+            stagedCells[0] = new byte[snapshotHeader.x()];
+            return (row, source, offset) -> System.arraycopy(source, offset, stagedCells[0], 0, stagedCells[0].length);
+        });
 
-        String initialPattern = String.valueOf(leftCellValue);
-        initialPattern += String.valueOf(cellToDeterminateState.getCellValue());
-        initialPattern += String.valueOf(rightCellValue);
+        int boundaryIndex = header.parameters()[1];
+        if (boundaryIndex < 0 || boundaryIndex >= Boundary.values().length) {
+            throw new IOException("Unknown boundary " + boundaryIndex + " in snapshot " + path);
+        }
 
-        List<Integer> binaryRule = convertRuleToBinary();
+        // The file is checked, the automaton can be replaced
+        this.size = header.x();
+        this.historyFrame = null;
+        initializeCells();
+        byte[] staged = stagedCells[0];
+        if (this.engine == Automaton1DEngine.BIT_PARALLEL) {
+            for (int index = 0; index < this.size; index++) {
+                this.bits[index >>> 6] |= (long) staged[index] << index;
+            }
+        }
+        else {
+            System.arraycopy(staged, 0, this.cells, 0, this.size);
+        }
+        setRuleTables(header.parameters()[0]);
+        this.boundary = Boundary.values()[boundaryIndex];
+        this.generation = header.generation();
+        if (this.history != null) {
+            this.history.clear();
+            recordHistory();
+        }
+    }
 
-        int indexToGetTheNewValue = Integer.parseInt(initialPattern, 2);
-        return binaryRule.get(indexToGetTheNewValue);
+    /**
+     * Copies the value (0 or 1) of every cell into target, which must hold at least getSize() cells.
+     */
+    @Override
+    public void copyCells(byte[] target) {
+        if (this.engine == Automaton1DEngine.BIT_PARALLEL) {
+            for (int index = 0; index < this.size; index++) {
+                target[index] = (byte) ((this.bits[index >>> 6] >>> index) & 1);
+            }
+        }
+        else {
+            System.arraycopy(this.cells, 0, target, 0, this.size);
+        }
     }
 
-    private List<Integer> convertRuleToBinary() {
-        String binaryRule = Integer.toBinaryString(this.rule);
-        List<Integer> newValues = new ArrayList<>();
+    private void simulateAGenerationLookupTable() {
+        byte[] currentCells = this.cells;
+        byte[] newCells = this.nextCells;
+
+        // The right neighbor of the last cell : the empty border or the first cell for a ring
+        currentCells[this.size] = this.boundary == Boundary.TOROIDAL ? currentCells[0] : 0;
+
+        // The pattern keeps the last 3 cells read : left in bit 2, the cell in bit 1 and right in bit 0.
+        // The left neighbor of the first cell is the empty border or the last cell for a ring.
+        int pattern = currentCells[0];
+        if (this.boundary == Boundary.TOROIDAL) {
+            pattern |= currentCells[this.size - 1] << 1;
+        }
 
-        // The last byte must be at index 0 because 0 in binary represent the last byte of the rule
-        for (int indexBinary = binaryRule.length() - 1; indexBinary >= 0; indexBinary--) {
-            newValues.add(Character.getNumericValue(binaryRule.charAt(indexBinary)));
+        for (int cellIndex = 0; cellIndex < this.size; cellIndex++) {
+            pattern = ((pattern << 1) | currentCells[cellIndex + 1]) & 0b111;
+            newCells[cellIndex] = this.ruleTable[pattern];
         }
 
-        // If rule 30 is selected for example then it's only 5 bytes (11110) and we need a list with 8 byte the
-        // it will add 3 bytes
-        if (newValues.size() < 8) {
-            int numberOfByteToAdd = 8 - newValues.size();
+        this.cells = newCells;
+        this.nextCells = currentCells;
+    }
+
+    private void simulateAGenerationBitParallel() {
+        long[] currentBits = this.bits;
+        long[] newBits = this.nextBits;
+        int lastWord = currentBits.length - 1;
+        int lastBit = (this.size - 1) & 63;
 
-            for (int ii = 0; ii < numberOfByteToAdd; ii++) {
-                newValues.add(0);
+        for (int word = 0; word <= lastWord; word++) {
+            long cell = currentBits[word];
+            long previous = word > 0 ? currentBits[word - 1] : 0;
+            long next = word < lastWord ? currentBits[word + 1] : 0;
+            // Bit i of left is the cell before bit i, bit i of right the cell after it
+            long left = (cell << 1) | (previous >>> 63);
+            long right = (cell >>> 1) | (next << 63);
+
+            if (this.boundary == Boundary.TOROIDAL) {
+                if (word == 0) {
+                    left |= (currentBits[lastWord] >>> lastBit) & 1;
+                }
+                if (word == lastWord) {
+                    right = (right & ~(1L << lastBit)) | ((currentBits[0] & 1) << lastBit);
+                }
             }
+
+            newBits[word] = applyRule(left, cell, right);
         }
 
-        return newValues;
+        // The bits after the last cell must stay 0 : they are the empty right neighbor of the last cell
+        if (lastBit != 63) {
+            newBits[lastWord] &= (1L << (lastBit + 1)) - 1;
+        }
+
+        this.bits = newBits;
+        this.nextBits = currentBits;
+    }
+
+    /**
+     * Computes the new value of 64 cells at once. The rule is a multiplexer on the 3 neighbors : right selects between
+     * 2 bits of the rule, then cell between 2 results, then left between 2 results, like reading the bit (left, cell,
+     * right) of the rule.
+     */
+    private long applyRule(long left, long cell, long right) {
+        long[] masks = this.ruleMasks;
+        long leftEmptyCellEmpty = masks[0] ^ (right & (masks[0] ^ masks[1]));
+        long leftEmptyCellFull = masks[2] ^ (right & (masks[2] ^ masks[3]));
+        long leftFullCellEmpty = masks[4] ^ (right & (masks[4] ^ masks[5]));
+        long leftFullCellFull = masks[6] ^ (right & (masks[6] ^ masks[7]));
+        long leftEmpty = leftEmptyCellEmpty ^ (cell & (leftEmptyCellEmpty ^ leftEmptyCellFull));
+        long leftFull = leftFullCellEmpty ^ (cell & (leftFullCellEmpty ^ leftFullCellFull));
+        return leftEmpty ^ (left & (leftEmpty ^ leftFull));
+    }
+
+    /**
+     * Converts the Wolfram rule into a table with the next value of a cell for each pattern. The pattern
+     * (left, cell, right) read as a binary number is the index of the bit of the rule which gives the new value.
+     */
+    private static byte[] compileRule(int rule) {
+        byte[] table = new byte[8];
+        for (int pattern = 0; pattern < table.length; pattern++) {
+            table[pattern] = (byte) ((rule >>> pattern) & 1);
+        }
+        return table;
     }
 
+    /**
+     * Prints the current generation on one line of the standard output, '*' for a live cell.
+     *
+     * @deprecated printing from the simulation thread slows the simulation down: submit the generations to a
+     * {@link org.example.cellularautomaton.automaton.FrameOutput} with a {@link TerminalFrameEncoder} instead.
+     */
+    @Deprecated
     public void printCurrentStateOfAutomaton() {
-        LinkedCell<Integer> currentCell = this.cells;
+        try {
+            new TerminalFrameEncoder(System.out, new String[]{" ", "*"}, 0, this.size, 1, false, false)
+                    .encode(getGeneration(), this.size, 1, this::copyCells);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        StringBuilder stringToPrint = new StringBuilder();
+    public int getCell(int index) {
+        if (this.engine == Automaton1DEngine.BIT_PARALLEL) {
+            return (int) (this.bits[index >>> 6] >>> index) & 1;
+        }
+        return this.cells[index];
+    }
 
-        for (int ii = 0; ii < this.size; ii++) {
-            if (currentCell.getCellValue() == 1) {
-                stringToPrint.append("*");
-            }
-            else {
-                stringToPrint.append(" ");
-            }
-            currentCell = currentCell.getNextCell();
+    /**
+     * A 1D automaton is a grid of a single row.
+     */
+    @Override
+    public int getCell(int column, int row) {
+        if (row != 0) {
+            throw new IndexOutOfBoundsException("A 1D automaton has a single row : " + row);
+        }
+        return getCell(column);
+    }
+
+    @Override
+    public int getX() {
+        return this.size;
+    }
+
+    @Override
+    public int getY() {
+        return 1;
+    }
+
+    @Override
+    public Set<AutomatonCapability> getCapabilities() {
+        return EnumSet.of(AutomatonCapability.DETERMINISTIC);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getRule() {
+        return rule;
+    }
+
+    public Automaton1DEngine getEngine() {
+        return engine;
+    }
+
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    /**
+     * Returns the number of generations simulated since the last initialization.
+     */
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    public GenerationHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Records the current generation and every following one into history. The history is cleared when the
+     * automaton is initialized again.
+     *
+     * @param history the history to fill, null to stop recording
+     */
+    public void setHistory(GenerationHistory history) {
+        this.history = history;
+        if (history != null) {
+            history.clear();
+            recordHistory();
         }
-        System.out.println(stringToPrint);
     }
 }
@@ -0,0 +1,11 @@
+package org.example.cellularautomaton.automaton1d;
+
+/**
+ * The way {@link Automaton1D} stores its cells and computes a generation.
+ */
+public enum Automaton1DEngine {
+    // One byte per cell, the next value of each cell is read in the compiled rule table
+    LOOKUP_TABLE,
+    // 64 cells per long, the next value of 64 cells is computed at once with bitwise operations
+    BIT_PARALLEL
+}
@@ -0,0 +1,186 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.automaton.ByteGrid;
+import org.example.cellularautomaton.automaton.CellRandom;
+import org.example.cellularautomaton.automaton.Neighbourhood;
+import org.example.cellularautomaton.automaton.Snapshot;
+import org.example.cellularautomaton.automaton.StripeCoordinator;
+import org.example.cellularautomaton.automaton.StripeWorker;
+import org.example.cellularautomaton.automaton.TiledGrid;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Simulation d'un feu de forêt répartie entre plusieurs processus : chaque worker calcule une bande de lignes de la
+ * forêt et le coordinateur (cette classe) arrête la simulation quand il n'y a plus de feu dans toute la forêt.
+ * <p>
+ * Chaque worker initialise sa bande et calcule ses cellules comme le stockage ARRAY, avec les mêmes nombres
+ * aléatoires : le résultat ne dépend pas du nombre de workers.
+ * <p>
+ * Par défaut les workers sont lancés sur la machine courante et joignent le coordinateur en TCP sur l'interface
+ * locale. Pour des workers sur d'autres machines il faut choisir l'adresse du coordinateur
+ * ({@link #setAddress(SocketAddress)}), ne pas lancer les workers locaux et lancer sur chaque machine
+ * {@code DistributedForest tcp:hôte:port}.
+ */
+public class DistributedForest {
+    private final ForestAutomaton forest;
+    private final int workers;
+    private SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    private boolean launchLocalWorkers = true;
+    private long generation;
+    // Le nombre de cellules de chaque état (indexé par le code de l'état) à la dernière génération.
+    private final long[] counts = new long[4];
+
+    /**
+     * @param forest la forêt qui donne la taille, les paramètres et la graine de la simulation. Elle n'est pas
+     *               modifiée.
+     * @param workers le nombre de workers, au plus le nombre de lignes de la forêt.
+     */
+    public DistributedForest(ForestAutomaton forest, int workers) {
+        this.forest = forest;
+        this.workers = workers;
+    }
+
+    /**
+     * Simule le feu jusqu'à son extinction.
+     *
+     * @param finalRows reçoit les lignes de la forêt (code de l'état de chaque cellule) à la fin de la simulation,
+     *                  null pour ne pas les rapatrier.
+     * @throws IOException si un worker ne peut pas être joint.
+     */
+    public void run(Snapshot.RowTarget finalRows) throws IOException {
+        // Seul le nombre de voisins est envoyé aux workers.
+        if (this.forest.getNeighbourhood() != Neighbourhood.of(this.forest.getNbNextCell())) {
+            throw new IllegalStateException("Le voisinage " + this.forest.getNeighbourhood() + " ne peut pas être réparti entre des workers");
+        }
+        Snapshot.Header header = new Snapshot.Header(ForestAutomaton.SNAPSHOT_KIND, this.forest.getX(),
+                this.forest.getY(), 2, 0, this.forest.getSeed(),
+                new int[] {this.forest.getNbNextCell(), this.forest.getDensity(), this.forest.getProbabilityOfSpread(),
+                        this.forest.getWestWindSpeed(), this.forest.getSouthWindSpeed()});
+        int fireCode = ForestState.FIRE.getCode();
+
+        try (StripeCoordinator coordinator = new StripeCoordinator(this.address)) {
+            if (this.launchLocalWorkers) {
+                coordinator.launchLocalWorkers(DistributedForest.class, this.workers);
+            }
+            coordinator.start(header, Boundary.DEAD, this.workers, null);
+            coordinator.run(stateCounts -> stateCounts[fireCode] > 0, Long.MAX_VALUE, finalRows);
+            this.generation = coordinator.getGeneration();
+            System.arraycopy(coordinator.getCounts(), 0, this.counts, 0, this.counts.length);
+        }
+    }
+
+    /**
+     * Worker : se connecte au coordinateur dont l'adresse est le premier argument, initialise sa bande de la forêt
+     * puis la calcule jusqu'à la fin de la simulation.
+     */
+    public static void main(String[] args) throws IOException {
+        try (StripeWorker worker = StripeWorker.connect(StripeCoordinator.parseAddress(args[0]))) {
+            Snapshot.Header header = worker.getHeader();
+            if (header.kind() != ForestAutomaton.SNAPSHOT_KIND || header.parameters().length != 5) {
+                throw new IllegalStateException("Le coordinateur ne simule pas une forêt");
+            }
+            int[] parameters = header.parameters();
+            ForestAutomaton forest = new ForestAutomaton(header.x(), header.y(), parameters[0]);
+            forest.setDensity(parameters[1]);
+            forest.setProbabilityOfSpread(parameters[2]);
+            forest.setWestWindSpeed(parameters[3]);
+            forest.setSouthWindSpeed(parameters[4]);
+            forest.setSeed(header.seed());
+
+            if (!worker.hasInitialRows()) {
+                forest.initRows(worker.getStripe(), worker.getFromRow(), worker.getToRow());
+            }
+            worker.run(new StripeKernel(forest, worker));
+        }
+    }
+
+    /**
+     * Calcul d'une cellule de la bande, avec la clé des nombres aléatoires de la génération en cours.
+     */
+    private static final class StripeKernel implements TiledGrid.TileKernel {
+        private final ForestAutomaton forest;
+        private final StripeWorker worker;
+        private final long width;
+        private long keyGeneration = -1;
+        private long generationKey;
+
+        private StripeKernel(ForestAutomaton forest, StripeWorker worker) {
+            this.forest = forest;
+            this.worker = worker;
+            this.width = forest.getX();
+        }
+
+        @Override
+        public byte nextState(ByteGrid tile, int index, int column, int row) {
+            if (this.worker.getGeneration() != this.keyGeneration) {
+                this.keyGeneration = this.worker.getGeneration();
+                this.generationKey = CellRandom.generationKey(this.forest.getSeed(), this.keyGeneration);
+            }
+            return this.forest.determineNextState(tile, index, this.generationKey, row * this.width + column);
+        }
+    }
+
+    /**
+     * Renvoi le pourcentage de forêt brulée à la fin de la simulation, -1 s'il n'y a pas de forêt.
+     *
+     * @return le pourcentage de forêt brulée.
+     */
+    public int getPercentageBurnedForest() {
+        long numberBurnedCell = this.counts[ForestState.BURNED.getCode()];
+        long numberInitialForestCell = this.counts[ForestState.FOREST.getCode()] + numberBurnedCell;
+        return numberInitialForestCell != 0 ? (int) (numberBurnedCell * 100 / numberInitialForestCell) : -1;
+    }
+
+    public boolean isStillFireInForest() {
+        return this.counts[ForestState.FIRE.getCode()] > 0;
+    }
+
+    /**
+     * Renvoi le nombre de cellules de chaque état à la fin de la simulation.
+     *
+     * @return les compteurs, indexés par le code de l'état. Le tableau n'est pas copié.
+     */
+    public long[] getCounts() {
+        return counts;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Modifie l'adresse où le coordinateur attend les workers : une adresse TCP (port 0 pour un port libre) ou un
+     * socket Unix ({@link java.net.UnixDomainSocketAddress}) pour des workers sur la même machine.
+     *
+     * @param address l'adresse du coordinateur.
+     */
+    public void setAddress(SocketAddress address) {
+        this.address = address;
+    }
+
+    public boolean isLaunchLocalWorkers() {
+        return launchLocalWorkers;
+    }
+
+    /**
+     * Choisit si {@link #run(Snapshot.RowTarget)} lance lui-même les workers sur la machine courante.
+     *
+     * @param launchLocalWorkers false si les workers sont lancés à la main, sur d'autres machines par exemple.
+     */
+    public void setLaunchLocalWorkers(boolean launchLocalWorkers) {
+        this.launchLocalWorkers = launchLocalWorkers;
+    }
+}
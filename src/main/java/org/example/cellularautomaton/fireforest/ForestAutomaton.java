@@ -1,20 +1,73 @@
 package org.example.cellularautomaton.fireforest;
 
+import org.example.cellularautomaton.Automaton;
+import org.example.cellularautomaton.AutomatonCapability;
+import org.example.cellularautomaton.automaton.ActiveTiles;
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.automaton.ByteGrid;
+import org.example.cellularautomaton.automaton.CellRandom;
+import org.example.cellularautomaton.automaton.ExternalGrid;
+import org.example.cellularautomaton.automaton.GenerationEvent;
+import org.example.cellularautomaton.automaton.GenerationExchange;
+import org.example.cellularautomaton.automaton.GenerationHistory;
+import org.example.cellularautomaton.automaton.GridView;
 import org.example.cellularautomaton.automaton.LinkedCell;
+import org.example.cellularautomaton.automaton.MappedGrid;
+import org.example.cellularautomaton.automaton.Neighbourhood;
+import org.example.cellularautomaton.automaton.ParallelStepper;
+import org.example.cellularautomaton.automaton.SimulationMetrics;
+import org.example.cellularautomaton.automaton.Snapshot;
+import org.example.cellularautomaton.automaton.StepProfiler;
+import org.example.cellularautomaton.automaton.TiledGrid;
+import org.example.cellularautomaton.automaton.VectorSupport;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.example.cellularautomaton.fireforest.ForestState.*;
 
-public class ForestAutomaton {
+public class ForestAutomaton extends Automaton {
+    // Les codes des états dans une ByteGrid (l'ordinal de ForestState).
+    private static final byte EMPTY_CODE = 0;
+    private static final byte FOREST_CODE = 1;
+    private static final byte FIRE_CODE = 2;
+    private static final byte BURNED_CODE = 3;
+
+    // Les paramètres de la simulation gardés dans l'en-tête d'une MappedGrid.
+    private static final int MAPPED_NB_NEXT_CELL = 0;
+    private static final int MAPPED_DENSITY = 1;
+    private static final int MAPPED_PROBABILITY_OF_SPREAD = 2;
+    private static final int MAPPED_WEST_WIND_SPEED = 3;
+    private static final int MAPPED_SOUTH_WIND_SPEED = 4;
+    // Les compteurs d'états des stockages MAPPED (dans l'en-tête de la MappedGrid) et TILED.
+    private static final int FOREST_COUNTER = 0;
+    private static final int BURNED_COUNTER = 1;
+    private static final int FIRE_COUNTER = 2;
+    // Le type de simulation écrit dans les points de reprise de la forêt.
+    static final int SNAPSHOT_KIND = 1;
+    // Le nombre de lignes calculées ensemble avec le stockage MAPPED.
+    private static final int MAPPED_BAND_ROWS = 64;
+    // Le nombre de cellules du côté d'une tuile avec le stockage ACTIVE_TILES.
+    private static final int ACTIVE_TILE_SIZE = 64;
+
     // La valeur en abscisse de la grille
     private int x;
     // La valeur en ordonnée de la grille
     private int y;
     // Le nombre de voisin à prendre en compte pour la simulation
     private int nbNextCell;
+    // Le voisinage utilisé avec les stockages sur ByteGrid, null si le nombre de voisins n'en désigne aucun.
+    private Neighbourhood neighbourhood;
+    // Le voisinage compilé pour la dernière grille calculée, recompilé si la grille ou les vents changent.
+    private ForestKernel kernel;
     private int density;
     // La probabilité de propagation du feux.
     private int probabilityOfSpread;
@@ -23,6 +76,49 @@ public class ForestAutomaton {
     // la force du vent du sud (si négatif alors vent du nord).
     private int southWindSpeed;
     private LinkedCell<ForestState> forest;
+    // Le stockage utilisé pour la forêt.
+    private ForestEngine engine = ForestEngine.LINKED_CELL;
+    // La forêt lorsque le stockage ARRAY ou FRONTIER est utilisé.
+    private ByteGrid forestGrid;
+    // La grille dans laquelle est écrite la prochaine génération, elle est échangée avec forestGrid à chaque génération.
+    private ByteGrid nextForestGrid;
+    // La graine des nombres aléatoires : le nombre tiré pour une cellule dépend de la graine, de la génération et de
+    // l'indice de la cellule, une simulation est donc reproductible avec la même graine.
+    private long seed = ThreadLocalRandom.current().nextLong();
+    // Le numéro de la génération courante, 0 après l'initialisation.
+    private long generation;
+    // Le front de feu lorsque le stockage FRONTIER est utilisé.
+    private ForestFrontier frontier;
+    // Calcul en parallèle par bandes de lignes avec le stockage ARRAY, null pour un calcul sur le thread courant.
+    private ParallelStepper parallelStepper;
+    // Mesure de la durée et des allocations de chaque génération.
+    private final StepProfiler stepProfiler = new StepProfiler();
+    // La forêt lorsque le stockage MAPPED est utilisé.
+    private MappedGrid mappedGrid;
+    // La forêt lorsque le stockage TILED est utilisé, et le nombre de cellules de chaque état.
+    private TiledGrid tiledGrid;
+    private final long[] tiledCounters = new long[3];
+    // Le calcul d'une cellule d'une tuile, créé une fois, avec la génération en cours et le nombre de cellules de
+    // chaque code compté pendant la génération.
+    private TiledGrid.TileKernel tileKernel;
+    private long tileGenerationKey;
+    private final long[] tileCounts = new long[4];
+    // Les lignes d'une bande et les 2 lignes qui l'entourent, copiées depuis la MappedGrid, la ligne calculée et les
+    // compteurs écrits dans la MappedGrid, réutilisés à chaque génération.
+    private ByteGrid mappedBand;
+    private byte[] mappedRow;
+    private final long[] mappedCounters = new long[3];
+    // Les tuiles qui ont changé à la dernière génération avec le stockage ACTIVE_TILES.
+    private ActiveTiles activeTiles;
+    // Historique des générations, null si les générations ne sont pas enregistrées.
+    private GenerationHistory history;
+    // Copie des cellules donnée à l'historique, et les cellules qui ont changé à la dernière génération (voir
+    // GenerationHistory.change), réutilisées à chaque génération.
+    private byte[] historyFrame;
+    private long[] historyChanges = new long[64];
+    private int historyChangeCount;
+    // Les générations publiées pour les lecteurs des autres fils, voir openGeneration().
+    private final GenerationExchange generations = new GenerationExchange();
 
     /**
      * Constructeur de Forest.
@@ -35,18 +131,59 @@ public class ForestAutomaton {
         this.x = x;
         this.y = y;
         this.nbNextCell = nbNextCell;
+        this.neighbourhood = Neighbourhood.of(nbNextCell);
     }
 
     public ForestAutomaton(int x, int y, int nbNextCell, int density, int probabilityOfSpread, int westWindSpeed, int southWindSpeed) {
         this.x = x;
         this.y = y;
         this.nbNextCell = nbNextCell;
+        this.neighbourhood = Neighbourhood.of(nbNextCell);
+        this.density = density;
+        this.probabilityOfSpread = probabilityOfSpread;
+        this.westWindSpeed = westWindSpeed;
+        this.southWindSpeed = southWindSpeed;
+        initForest();
+    }
+
+    /**
+     * Constructeur de Forest avec le choix du stockage de la forêt.
+     *
+     * @param engine le stockage utilisé pour la forêt.
+     */
+    public ForestAutomaton(int x, int y, int nbNextCell, int density, int probabilityOfSpread, int westWindSpeed, int southWindSpeed, ForestEngine engine) {
+        this.x = x;
+        this.y = y;
+        this.nbNextCell = nbNextCell;
+        this.neighbourhood = Neighbourhood.of(nbNextCell);
         this.density = density;
         this.probabilityOfSpread = probabilityOfSpread;
         this.westWindSpeed = westWindSpeed;
         this.southWindSpeed = southWindSpeed;
+        this.engine = engine;
         initForest();
     }
+
+    /**
+     * Constructeur qui reprend une forêt enregistrée dans une MappedGrid (stockage MAPPED). La taille, les
+     * paramètres, la graine et la génération sont lus dans l'en-tête de la grille, les cellules ne sont pas lues.
+     *
+     * @param mappedGrid la grille d'une forêt initialisée avec le stockage MAPPED.
+     */
+    public ForestAutomaton(MappedGrid mappedGrid) {
+        this.x = mappedGrid.getX();
+        this.y = mappedGrid.getY();
+        this.nbNextCell = mappedGrid.getParameter(MAPPED_NB_NEXT_CELL);
+        this.neighbourhood = Neighbourhood.of(this.nbNextCell);
+        this.density = mappedGrid.getParameter(MAPPED_DENSITY);
+        this.probabilityOfSpread = mappedGrid.getParameter(MAPPED_PROBABILITY_OF_SPREAD);
+        this.westWindSpeed = mappedGrid.getParameter(MAPPED_WEST_WIND_SPEED);
+        this.southWindSpeed = mappedGrid.getParameter(MAPPED_SOUTH_WIND_SPEED);
+        this.seed = mappedGrid.getSeed();
+        this.generation = mappedGrid.getGeneration();
+        this.engine = ForestEngine.MAPPED;
+        this.mappedGrid = mappedGrid;
+    }
 /*
     public ForestAutomaton(FireForestConfigurationFile fireForestConfigurationFile) {
         this.x = fireForestConfigurationFile.getX();
@@ -63,13 +200,39 @@ public class ForestAutomaton {
      * Initialisation de la grille qui représente la forêt.
      */
     public void initForest() {
+        this.generation = 0;
+        this.generations.reset();
+        if (this.engine == ForestEngine.LINKED_CELL || this.engine == ForestEngine.MAPPED || this.engine == ForestEngine.TILED) {
+            requireStandardNeighbourhood();
+        }
+        if (this.engine == ForestEngine.MAPPED || this.engine == ForestEngine.TILED) {
+            initForestExternal();
+        }
+        else if (this.engine != ForestEngine.LINKED_CELL) {
+            initForestGrid();
+        }
+        else {
+            initForestLinkedCell();
+        }
+        publishGeneration();
+
+        if (this.history != null) {
+            this.history.clear();
+            recordHistory();
+        }
+    }
 
+    /**
+     * Initialisation de la forêt dans la liste chainée.
+     */
+    private void initForestLinkedCell() {
+        long initialKey = getInitialKey();
         this.forest = new LinkedCell<>(EMPTY);
 
         for (int ii = this.y - 1; ii >= 0; ii--) {
             for (int jj = this.x - 1; jj >= 0; jj--) {
 
-                ForestState stateOfCell = getStateOfCellWithDensity(density);
+                ForestState stateOfCell = getStateOfCellWithDensity(density, CellRandom.percentage(initialKey, (long) ii * this.x + jj));
 
                 // La fonction d'ajout de cellule n'est pas la même si une nouvelle ligne est créée.
                 if (jj == this.x - 1) {
@@ -88,15 +251,415 @@ public class ForestAutomaton {
         }
     }
 
+    /**
+     * Initialisation de la forêt dans une ByteGrid.
+     */
+    private void initForestGrid() {
+        allocateForestGrids();
+        ByteGrid grid = this.forestGrid;
+        initRows(grid, 0, this.y);
+
+        this.forest = null;
+        if (this.engine == ForestEngine.FRONTIER) {
+            if (this.frontier == null) {
+                this.frontier = new ForestFrontier(this);
+            }
+            this.frontier.reset(grid);
+        }
+        else if (this.engine == ForestEngine.ACTIVE_TILES) {
+            // Une tuile n'active que ses voisines : un voisin ne doit pas être plus loin qu'une tuile.
+            if (this.neighbourhood != null && this.neighbourhood.getRadius() > ACTIVE_TILE_SIZE) {
+                throw new IllegalStateException("Le rayon du voisinage " + this.neighbourhood + " dépasse la taille d'une tuile");
+            }
+            this.activeTiles = new ActiveTiles(this.x, this.y, ACTIVE_TILE_SIZE, Boundary.DEAD);
+        }
+        this.stepProfiler.reset();
+    }
+
+    /**
+     * Vérifie que le voisinage est un des voisinages désignés par le nombre de voisins : la liste chainée ne connait
+     * que ceux-là, et les stockages MAPPED et TILED et les points de reprise n'enregistrent que le nombre de voisins.
+     */
+    private void requireStandardNeighbourhood() {
+        if (this.neighbourhood != Neighbourhood.of(this.nbNextCell)) {
+            throw new IllegalStateException("Le voisinage " + this.neighbourhood + " ne peut pas être utilisé avec le stockage "
+                    + this.engine + " ni enregistré");
+        }
+    }
+
+    /**
+     * Initialise les lignes [fromRow, toRow[ de la forêt dans une ByteGrid : la ligne ii de la forêt est écrite dans
+     * la ligne ii - fromRow de la grille. Une bande de la forêt est donc initialisée comme la forêt entière.
+     */
+    void initRows(ByteGrid grid, int fromRow, int toRow) {
+        long initialKey = getInitialKey();
+
+        for (int ii = fromRow; ii < toRow; ii++) {
+            int index = grid.index(0, ii - fromRow);
+            for (int jj = 0; jj < this.x; jj++, index++) {
+                ForestState stateOfCell = getStateOfCellWithDensity(density, CellRandom.percentage(initialKey, (long) ii * this.x + jj));
+                // Comme pour la liste chainée la colonne de gauche est en feu (sauf si elle est aussi la dernière colonne).
+                grid.set(index, jj == 0 && jj != this.x - 1 ? FIRE_CODE : stateOfCell.getCode());
+            }
+        }
+    }
+
+    /**
+     * Initialisation de la forêt dans la MappedGrid ou la TiledGrid, ligne par ligne. Avec le stockage MAPPED les
+     * paramètres de la forêt sont écrits dans l'en-tête pour pouvoir reprendre la simulation.
+     */
+    private void initForestExternal() {
+        ExternalGrid grid = getExternalGrid();
+        long initialKey = getInitialKey();
+        byte[] row = new byte[this.x];
+        long forestCount = 0;
+        long fireCount = 0;
+
+        for (int ii = 0; ii < this.y; ii++) {
+            for (int jj = 0; jj < this.x; jj++) {
+                ForestState stateOfCell = getStateOfCellWithDensity(density, CellRandom.percentage(initialKey, (long) ii * this.x + jj));
+                // Comme pour la liste chainée la colonne de gauche est en feu (sauf si elle est aussi la dernière colonne).
+                row[jj] = jj == 0 && jj != this.x - 1 ? FIRE_CODE : stateOfCell.getCode();
+                if (row[jj] == FOREST_CODE) {
+                    forestCount++;
+                }
+                else if (row[jj] == FIRE_CODE) {
+                    fireCount++;
+                }
+            }
+            grid.writeRow(ii, row, 0);
+        }
+
+        writeMappedHeader();
+        setExternalCounters(forestCount, 0, fireCount);
+        if (this.engine == ForestEngine.MAPPED) {
+            // La génération 0 est un point de reprise dès la fin de l'initialisation.
+            this.mappedGrid.force();
+        }
+        this.forest = null;
+        this.stepProfiler.reset();
+    }
+
+    /**
+     * Renvoi la grille du stockage MAPPED ou TILED, après avoir vérifié sa taille.
+     */
+    private ExternalGrid getExternalGrid() {
+        return getExternalGrid(this.x, this.y);
+    }
+
+    /**
+     * Renvoi la grille du stockage MAPPED ou TILED, après avoir vérifié qu'elle a la taille demandée.
+     */
+    private ExternalGrid getExternalGrid(int x, int y) {
+        ExternalGrid grid = this.engine == ForestEngine.MAPPED ? this.mappedGrid : this.tiledGrid;
+        if (grid == null || grid.getX() != x || grid.getY() != y || grid.getBitsPerCell() < 2) {
+            throw new IllegalStateException("Le stockage " + this.engine + " demande une grille de " + x + "x"
+                    + y + " avec au moins 2 bits par cellule");
+        }
+        return grid;
+    }
+
+    /**
+     * Écrit les paramètres, la graine et la génération de la forêt dans l'en-tête de la MappedGrid.
+     */
+    private void writeMappedHeader() {
+        if (this.engine != ForestEngine.MAPPED) {
+            return;
+        }
+        this.mappedGrid.setParameter(MAPPED_NB_NEXT_CELL, this.nbNextCell);
+        this.mappedGrid.setParameter(MAPPED_DENSITY, this.density);
+        this.mappedGrid.setParameter(MAPPED_PROBABILITY_OF_SPREAD, this.probabilityOfSpread);
+        this.mappedGrid.setParameter(MAPPED_WEST_WIND_SPEED, this.westWindSpeed);
+        this.mappedGrid.setParameter(MAPPED_SOUTH_WIND_SPEED, this.southWindSpeed);
+        this.mappedGrid.setSeed(this.seed);
+        this.mappedGrid.setGeneration(this.generation);
+    }
+
+    private void setExternalCounters(long forestCount, long burnedCount, long fireCount) {
+        if (this.engine == ForestEngine.MAPPED) {
+            this.mappedGrid.setCounter(FOREST_COUNTER, forestCount);
+            this.mappedGrid.setCounter(BURNED_COUNTER, burnedCount);
+            this.mappedGrid.setCounter(FIRE_COUNTER, fireCount);
+        }
+        else {
+            this.tiledCounters[FOREST_COUNTER] = forestCount;
+            this.tiledCounters[BURNED_COUNTER] = burnedCount;
+            this.tiledCounters[FIRE_COUNTER] = fireCount;
+        }
+    }
+
+    private long getExternalCounter(int counter) {
+        return this.engine == ForestEngine.MAPPED ? this.mappedGrid.getCounter(counter) : this.tiledCounters[counter];
+    }
+
+    /**
+     * Créé les deux ByteGrid de la forêt. Les grilles sont réutilisées si la taille de la forêt n'a pas changé.
+     */
+    private void allocateForestGrids() {
+        int border = getGridBorder(this.neighbourhood);
+        if (this.forestGrid == null || this.forestGrid.getX() != this.x || this.forestGrid.getY() != this.y
+                || this.forestGrid.getBorder() != border) {
+            this.forestGrid = new ByteGrid(this.x, this.y, border);
+            this.nextForestGrid = new ByteGrid(this.x, this.y, border);
+        }
+        // Les grilles vont être réécrites : une grille encore lue par une vue est remplacée. La grille suivante est
+        // prise en premier pour ne pas être choisie comme remplaçante de la grille courante.
+        this.nextForestGrid = this.generations.claim(this.nextForestGrid, null);
+        this.forestGrid = this.generations.claim(this.forestGrid, null);
+    }
+
+    /**
+     * Renvoi la bordure des ByteGrid de la forêt : elle doit couvrir le rayon du voisinage pour que les voisins des
+     * cellules du bord soient vides.
+     */
+    private static int getGridBorder(Neighbourhood neighbourhood) {
+        return neighbourhood == null ? 1 : Math.max(1, neighbourhood.getRadius());
+    }
+
+    /**
+     * Écrit la forêt, ses paramètres, sa graine et sa génération dans un point de reprise (2 bits par cellule).
+     *
+     * @param path le fichier à écrire.
+     * @throws IOException si le fichier ne peut pas être écrit.
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        requireStandardNeighbourhood();
+        Snapshot.Header header = new Snapshot.Header(SNAPSHOT_KIND, this.x, this.y, 2, this.generation, this.seed,
+                new int[] {this.nbNextCell, this.density, this.probabilityOfSpread, this.westWindSpeed, this.southWindSpeed});
+
+        Snapshot.RowSource rows;
+        switch (this.engine) {
+            case LINKED_CELL -> rows = new Snapshot.RowSource() {
+                // Les lignes sont demandées dans l'ordre : la liste chainée est parcourue une seule fois, sans copie.
+                private LinkedCell<ForestState> currentCell = forest;
+
+                @Override
+                public void readRow(int row, byte[] target, int offset) {
+                    for (int jj = 0; jj < x; jj++) {
+                        target[offset + jj] = this.currentCell.getCellValue().getCode();
+                        this.currentCell = this.currentCell.getNextCell();
+                    }
+                }
+            };
+            case MAPPED, TILED -> rows = getExternalGrid()::readRow;
+            default -> rows = (row, target, offset) ->
+                    System.arraycopy(this.forestGrid.getCells(), this.forestGrid.index(0, row), target, offset, this.x);
+        }
+        Snapshot.write(path, header, rows);
+    }
+
+    /**
+     * Remplace la forêt par celle d'un point de reprise. La simulation reprend exactement comme si elle n'avait pas
+     * été interrompue, quel que soit le stockage utilisé : le stockage courant est gardé (avec les stockages MAPPED
+     * et TILED la grille doit déjà avoir la taille de la forêt).
+     * <p>
+     * Le fichier est lu et vérifié en entier avant de remplacer la forêt : un fichier abimé laisse la forêt
+     * inchangée. Les lignes sont lues dans une grille à part, dans le plan suivant de la MappedGrid (qui ne devient le
+     * plan courant qu'après la vérification) ou, avec le stockage TILED, depuis une copie vérifiée du fichier.
+     *
+     * @param path le fichier à lire.
+     * @throws IOException si le fichier ne peut pas être lu ou est abimé.
+     * @throws IllegalArgumentException si le fichier n'est pas le point de reprise d'une forêt.
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        if (this.engine == ForestEngine.MAPPED) {
+            loadMappedSnapshot(path);
+            return;
+        }
+        if (this.engine == ForestEngine.TILED) {
+            loadTiledSnapshot(path);
+            return;
+        }
+
+        ByteGrid[] stagedGrid = new ByteGrid[1];
+        Snapshot.Header header = Snapshot.read(path, snapshotHeader -> {
+            checkSnapshotHeader(path, snapshotHeader);
+            ByteGrid grid;
+            try {
+                grid = new ByteGrid(snapshotHeader.x(), snapshotHeader.y(),
+                        getGridBorder(Neighbourhood.of(snapshotHeader.parameters()[0])));
+            }
+            catch (ArithmeticException e) {
+                throw new IllegalArgumentException("La forêt " + snapshotHeader.x() + "x" + snapshotHeader.y()
+                        + " est trop grande pour le stockage " + this.engine + ", utiliser MAPPED ou TILED", e);
+            }
+            stagedGrid[0] = grid;
+            return (row, source, offset) -> System.arraycopy(source, offset, grid.getCells(), grid.index(0, row), grid.getX());
+        });
+
+        // Le fichier est vérifié : la forêt peut être remplacée.
+        this.generations.reset();
+        setSnapshotState(header);
+        ByteGrid grid = stagedGrid[0];
+        switch (this.engine) {
+            case LINKED_CELL -> buildLinkedCell(grid);
+            case FRONTIER -> {
+                replaceForestGrids(grid);
+                if (this.frontier == null) {
+                    this.frontier = new ForestFrontier(this);
+                }
+                this.frontier.reset(this.forestGrid);
+                this.forest = null;
+            }
+            case ACTIVE_TILES -> {
+                replaceForestGrids(grid);
+                this.activeTiles = new ActiveTiles(this.x, this.y, ACTIVE_TILE_SIZE, Boundary.DEAD);
+                this.forest = null;
+            }
+            default -> {
+                replaceForestGrids(grid);
+                this.forest = null;
+            }
+        }
+        endSnapshotLoad();
+    }
+
+    /**
+     * Lit un point de reprise dans le plan suivant de la MappedGrid. Le plan ne devient le plan courant, avec les
+     * paramètres du point de reprise, qu'après la vérification du fichier : le plan courant reste un point de reprise
+     * valide si le fichier est abimé.
+     */
+    private void loadMappedSnapshot(Path path) throws IOException {
+        long[] counts = new long[4];
+        Snapshot.Header header = Snapshot.read(path, snapshotHeader -> {
+            checkSnapshotHeader(path, snapshotHeader);
+            MappedGrid grid = (MappedGrid) getExternalGrid(snapshotHeader.x(), snapshotHeader.y());
+            return (row, source, offset) -> {
+                countStates(source, offset, snapshotHeader.x(), counts);
+                grid.writeNextRow(row, source, offset);
+            };
+        });
+
+        this.generations.reset();
+        long[] counters = new long[3];
+        counters[FOREST_COUNTER] = counts[FOREST_CODE];
+        counters[BURNED_COUNTER] = counts[BURNED_CODE];
+        counters[FIRE_COUNTER] = counts[FIRE_CODE];
+        // Les paramètres du point de reprise sont dans le même ordre que ceux de l'en-tête de la MappedGrid.
+        this.mappedGrid.swapPlanes(header.generation(), header.seed(), header.parameters(), counters);
+        setSnapshotState(header);
+        this.forest = null;
+        endSnapshotLoad();
+    }
+
+    /**
+     * Lit un point de reprise dans la TiledGrid. Le fichier est d'abord copié puis vérifié, la copie n'est lue dans
+     * la grille qu'ensuite : la copie ne peut pas changer entre la vérification et la lecture.
+     */
+    private void loadTiledSnapshot(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Path copy = Files.createTempFile(directory, path.getFileName().toString(), ".load");
+        try {
+            Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+            Snapshot.read(copy, snapshotHeader -> {
+                checkSnapshotHeader(path, snapshotHeader);
+                getExternalGrid(snapshotHeader.x(), snapshotHeader.y());
+                return (row, source, offset) -> {
+                };
+            });
+
+            long[] counts = new long[4];
+            Snapshot.Header header = Snapshot.read(copy, snapshotHeader -> (row, source, offset) -> {
+                countStates(source, offset, snapshotHeader.x(), counts);
+                this.tiledGrid.writeRow(row, source, offset);
+            });
+            this.generations.reset();
+            setSnapshotState(header);
+            setExternalCounters(counts[FOREST_CODE], counts[BURNED_CODE], counts[FIRE_CODE]);
+            this.forest = null;
+            endSnapshotLoad();
+        }
+        finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    /**
+     * Vérifie que l'en-tête est celui d'un point de reprise d'une forêt.
+     */
+    private static void checkSnapshotHeader(Path path, Snapshot.Header header) {
+        if (header.kind() != SNAPSHOT_KIND || header.bitsPerCell() != 2 || header.parameters().length != 5) {
+            throw new IllegalArgumentException("Le fichier n'est pas le point de reprise d'une forêt : " + path);
+        }
+    }
+
+    /**
+     * Ajoute le nombre de cellules de chaque état d'une ligne à counts.
+     */
+    private static void countStates(byte[] row, int offset, int length, long[] counts) {
+        for (int jj = 0; jj < length; jj++) {
+            counts[row[offset + jj]]++;
+        }
+    }
+
+    /**
+     * Reprend la taille, les paramètres, la graine et la génération d'un point de reprise vérifié.
+     */
+    private void setSnapshotState(Snapshot.Header header) {
+        int[] parameters = header.parameters();
+        this.x = header.x();
+        this.y = header.y();
+        this.nbNextCell = parameters[0];
+        this.neighbourhood = Neighbourhood.of(this.nbNextCell);
+        this.density = parameters[1];
+        this.probabilityOfSpread = parameters[2];
+        this.westWindSpeed = parameters[3];
+        this.southWindSpeed = parameters[4];
+        this.seed = header.seed();
+        this.generation = header.generation();
+    }
+
+    /**
+     * Publie la forêt lue et recommence les mesures et l'historique.
+     */
+    private void endSnapshotLoad() {
+        publishGeneration();
+        this.stepProfiler.reset();
+        if (this.history != null) {
+            this.history.clear();
+            recordHistory();
+        }
+    }
+
+    /**
+     * Remplace la grille courante par une grille lue dans un point de reprise. L'ancienne grille suivante est
+     * réutilisée si elle a la bonne taille, sinon une grille est allouée.
+     */
+    private void replaceForestGrids(ByteGrid grid) {
+        ByteGrid next = this.nextForestGrid;
+        if (next == null || next.getX() != grid.getX() || next.getY() != grid.getY() || next.getBorder() != grid.getBorder()) {
+            next = new ByteGrid(grid.getX(), grid.getY(), grid.getBorder());
+        }
+        this.nextForestGrid = this.generations.claim(next, null);
+        this.forestGrid = grid;
+    }
+
+    /**
+     * Construit la liste chainée de la forêt à partir du code de l'état de chaque cellule d'une ByteGrid.
+     */
+    private void buildLinkedCell(ByteGrid cells) {
+        this.forest = new LinkedCell<>(EMPTY);
+        for (int ii = this.y - 1; ii >= 0; ii--) {
+            for (int jj = this.x - 1; jj >= 0; jj--) {
+                ForestState stateOfCell = ForestState.fromCode(cells.get(jj, ii));
+                if (jj == this.x - 1) {
+                    this.forest.addNewLine(stateOfCell);
+                }
+                else {
+                    this.forest.add(stateOfCell);
+                }
+            }
+        }
+    }
+
     /**
      * Renvoi un état (forêt ou vide) pour l'initialisation de la forêt selon la densité de la forêt.
      *
      * @param density la densité de la forêt
+     * @param random le nombre aléatoire entre 1 et 100 tiré pour la cellule.
      * @return l'état de la cellule.
      */
-    private ForestState getStateOfCellWithDensity(int density) {
-        // le paramètre bound est exclusif.
-        int random = ThreadLocalRandom.current().nextInt(1, 101);
+    private ForestState getStateOfCellWithDensity(int density, int random) {
         // Si le chiffre random entre 1 et 100 est compris dans la densité alors j'ajoute une cellule forêt, vide sinon.
         if (random <= density) {
             return FOREST;
@@ -104,57 +667,93 @@ public class ForestAutomaton {
         return EMPTY;
     }
 
+    /**
+     * Renvoi la clé des nombres aléatoires de l'initialisation de la forêt.
+     */
+    private long getInitialKey() {
+        return CellRandom.generationKey(this.seed, -1);
+    }
+
+    /**
+     * Renvoi l'état de la cellule de la ByteGrid à la colonne et la ligne passées en paramètre.
+     */
+    private ForestState getGridState(int column, int row) {
+        if (this.engine == ForestEngine.MAPPED || this.engine == ForestEngine.TILED) {
+            return ForestState.fromCode((byte) getExternalGrid().get(column, row));
+        }
+        return ForestState.fromCode(this.forestGrid.get(column, row));
+    }
+
     /**
      * Affiche la forêt avec des émoji.
      */
     public void printForestCurrentState() {
+        // La forêt est écrite en une seule fois : un appel à System.out par cellule coûte plus que la simulation.
+        StringBuilder stringToPrint = new StringBuilder((int) Math.min(1 << 30, (long) this.y * (this.x * 2L + 1)));
         LinkedCell<ForestState> currentCell = this.forest;
 
         for (int ii = 0; ii < this.y; ii++) {
             for (int jj = 0; jj < this.x; jj++) {
-                switch (currentCell.getCellValue()) {
-                    case EMPTY -> System.out.print("\uD83D\uDFEB");
-                    case FOREST -> System.out.print("\uD83C\uDF32");
-                    case FIRE -> System.out.print("\uD83D\uDD25");
-                    case BURNED -> System.out.print("\uD83D\uDD32");
+                ForestState stateOfCell;
+                if (this.engine != ForestEngine.LINKED_CELL) {
+                    stateOfCell = getGridState(jj, ii);
                 }
-                currentCell = currentCell.getNextCell();
+                else {
+                    stateOfCell = currentCell.getCellValue();
+                    currentCell = currentCell.getNextCell();
+                }
+                stringToPrint.append(stateOfCell.getSymbol());
             }
-            System.out.println();
+            stringToPrint.append('\n');
         }
+        System.out.print(stringToPrint);
     }
 
+    /**
+     * Renvoi l'état de chaque cellule dans un nouveau tableau indexé par {@code [colonne][ligne]}. Pour lire la forêt
+     * à chaque génération, ou depuis un autre fil, {@link #openGeneration()} évite la copie.
+     *
+     * @return l'état des cellules.
+     */
     public ForestState[][] getForestState() {
-        LinkedCell<ForestState> currentCell = this.forest;
-        // StringBuilder forestState = new StringBuilder();
-
         ForestState[][] forestState = new ForestState[this.x][this.y];
+        getForestState(forestState);
+        return forestState;
+    }
+
+    /**
+     * Copie l'état de chaque cellule dans un tableau déjà alloué, pour ne pas allouer un tableau à chaque génération.
+     *
+     * @param forestState le tableau qui reçoit les états, indexé par {@code [colonne][ligne]} (x tableaux de y états).
+     * @throws IllegalArgumentException si le tableau a moins de x colonnes ou si une colonne a moins de y états.
+     */
+    public void getForestState(ForestState[][] forestState) {
+        if (forestState.length < this.x) {
+            throw new IllegalArgumentException("Le tableau doit avoir " + this.x + " colonnes : " + forestState.length);
+        }
+        // Vérifié avant la copie pour ne pas laisser un tableau rempli à moitié.
+        for (int jj = 0; jj < this.x; jj++) {
+            if (forestState[jj] == null || forestState[jj].length < this.y) {
+                throw new IllegalArgumentException("La colonne " + jj + " du tableau doit avoir " + this.y + " lignes : "
+                        + (forestState[jj] == null ? "null" : forestState[jj].length));
+            }
+        }
+        LinkedCell<ForestState> currentCell = this.forest;
 
         for (int ii = 0; ii < this.y; ii++) {
             for (int jj = 0; jj < this.x; jj++) {
-                switch (currentCell.getCellValue()) {
-                    case EMPTY -> {
-                        // forestState.append("\uD83D\uDFEB");
-                        forestState[ii][jj] = EMPTY;
-                    }
-                    case FOREST -> {
-                        // forestState.append("\uD83C\uDF32");
-                        forestState[ii][jj] = FOREST;
-                    }
-                    case FIRE -> {
-                        // forestState.append("\uD83D\uDD25");
-                        forestState[ii][jj] = FIRE;
-                    }
-                    case BURNED -> {
-                        // forestState.append("\uD83D\uDD32");
-                        forestState[ii][jj] = BURNED;
-                    }
+                ForestState stateOfCell;
+                if (this.engine != ForestEngine.LINKED_CELL) {
+                    stateOfCell = getGridState(jj, ii);
                 }
-                currentCell = currentCell.getNextCell();
+                else {
+                    stateOfCell = currentCell.getCellValue();
+                    currentCell = currentCell.getNextCell();
+                }
+                // Le tableau est indexé par colonne puis par ligne, comme sa taille [x][y].
+                forestState[jj][ii] = stateOfCell;
             }
         }
-
-        return forestState;
     }
 
     /**
@@ -165,14 +764,23 @@ public class ForestAutomaton {
      * @return le prochain état de la cellule passée en paramètre.
      */
     public ForestState determineNextState(LinkedCell<ForestState> cellToDeterminateState) {
+        // Génération d'un nombre entre 1 et 100 (le paramètre bound est exclusif) qui servira à la probabilité de propagation
+        return determineNextState(cellToDeterminateState, ThreadLocalRandom.current().nextInt(1, 101));
+    }
+
+    /**
+     * Renvoi le prochain état de la cellule passée en paramètre avec le nombre aléatoire déjà tiré pour la cellule.
+     *
+     * @param cellToDeterminateState la cellule pour laquelle on veut déterminer le prochain état.
+     * @param random le nombre aléatoire entre 1 et 100 utilisé pour la propagation.
+     * @return le prochain état de la cellule passée en paramètre.
+     */
+    private ForestState determineNextState(LinkedCell<ForestState> cellToDeterminateState, int random) {
 
         ForestState stateOfCell = EMPTY;
 
         int currentProbabilityOfSpread = this.probabilityOfSpread;
 
-        // Génération d'un nombre entre 1 et 100 (le paramètre bound est exclusif) qui servira à la probabilité de propagation
-        int random = ThreadLocalRandom.current().nextInt(1, 101);
-
         switch (cellToDeterminateState.getCellValue()) {
             // Une cellule avec l'état feu devient brulé et une cellule brulé reste à l'état brulé
             case FIRE, BURNED -> stateOfCell = BURNED;
@@ -184,11 +792,12 @@ public class ForestAutomaton {
             case FOREST -> {
                 // Compte le nombre de cellule en feux
                 int nbNextCellWithFire = 0;
+                LinkedCell<ForestState> leftCell = getLeftNeighbour(cellToDeterminateState);
                 // On récupère les cellules voisines en fonction du nombre de voisin défini
                 switch (this.nbNextCell) {
                     case 4 -> {
-                        if (cellToDeterminateState.getLeftCell() != null) {
-                            if (cellToDeterminateState.getLeftCell().getCellValue() == FIRE) {
+                        if (leftCell != null) {
+                            if (leftCell.getCellValue() == FIRE) {
                                 nbNextCellWithFire++;
                                 currentProbabilityOfSpread += westWindSpeed;
                             }
@@ -215,20 +824,20 @@ public class ForestAutomaton {
                     }
                     case 8 -> {
                         //Verification à gauche
-                        if (cellToDeterminateState.getLeftCell() != null) {
-                            if (cellToDeterminateState.getLeftCell().getCellValue() == FIRE) {
+                        if (leftCell != null) {
+                            if (leftCell.getCellValue() == FIRE) {
                                 nbNextCellWithFire++;
                                 currentProbabilityOfSpread += westWindSpeed;
                             }
                             //Verification en bas à gauche
-                            if (cellToDeterminateState.getLeftCell().getBottomCell() != null) {
-                                if (cellToDeterminateState.getLeftCell().getBottomCell().getCellValue() == FIRE) {
+                            if (leftCell.getBottomCell() != null) {
+                                if (leftCell.getBottomCell().getCellValue() == FIRE) {
                                     nbNextCellWithFire++;
                                 }
                             }
                             //Verification en haut à gauche
-                            if (cellToDeterminateState.getLeftCell().getTopCell() != null) {
-                                if (cellToDeterminateState.getLeftCell().getTopCell().getCellValue() == FIRE) {
+                            if (leftCell.getTopCell() != null) {
+                                if (leftCell.getTopCell().getCellValue() == FIRE) {
                                     nbNextCellWithFire++;
                                 }
                             }
@@ -271,15 +880,15 @@ public class ForestAutomaton {
                     // grille hexagonale
                     case 6 -> {
                         //Verification à gauche
-                        if (cellToDeterminateState.getLeftCell() != null) {
-                            if (cellToDeterminateState.getLeftCell().getCellValue() == FIRE) {
+                        if (leftCell != null) {
+                            if (leftCell.getCellValue() == FIRE) {
                                 nbNextCellWithFire++;
                                 currentProbabilityOfSpread += westWindSpeed;
                             }
 
                             //Verification en haut à gauche
-                            if (cellToDeterminateState.getLeftCell().getTopCell() != null) {
-                                if (cellToDeterminateState.getLeftCell().getTopCell().getCellValue() == FIRE) {
+                            if (leftCell.getTopCell() != null) {
+                                if (leftCell.getTopCell().getCellValue() == FIRE) {
                                     nbNextCellWithFire++;
                                 }
                             }
@@ -322,7 +931,104 @@ public class ForestAutomaton {
         return stateOfCell;
     }
 
+    /**
+     * Renvoi la cellule à gauche de la cellule passée en paramètre si elle est sur la même ligne. Dans la liste
+     * chainée la cellule à gauche de la première colonne est la dernière cellule de la ligne précédente, elle ne
+     * doit pas être prise en compte comme voisine.
+     *
+     * @param cell la cellule dont on veut la voisine de gauche.
+     * @return la cellule à gauche ou null s'il n'y en a pas.
+     */
+    private LinkedCell<ForestState> getLeftNeighbour(LinkedCell<ForestState> cell) {
+        LinkedCell<ForestState> leftCell = cell.getLeftCell();
+        if (leftCell != null && leftCell.getRightCell() == cell) {
+            return leftCell;
+        }
+        return null;
+    }
+
+    /**
+     * Version de {@link #determineNextState(LinkedCell)} pour une ByteGrid. Les voisins sont lus avec les décalages
+     * d'indice du voisinage compilé pour la grille, la bordure de la grille (cellules vides) remplace les
+     * vérifications de cellule nulle. Sans vent le prochain état est lu dans la règle du feu compilée
+     * ({@link ForestState#rule(int, Neighbourhood)}), avec du vent il est calculé par le voisinage compilé.
+     *
+     * Le nombre aléatoire n'est tiré que pour une cellule forêt.
+     *
+     * @param grid la grille de la forêt.
+     * @param index l'indice de la cellule dans la grille.
+     * @param generationKey la clé des nombres aléatoires de la génération.
+     * @param cellIndex l'indice de la cellule dans la forêt (ligne * x + colonne).
+     * @return le code du prochain état de la cellule.
+     */
+    byte determineNextState(ByteGrid grid, int index, long generationKey, long cellIndex) {
+        return determineNextState(grid, kernelFor(grid), index, generationKey, cellIndex);
+    }
+
+    /**
+     * Version de {@link #determineNextState(ByteGrid, int, long, long)} avec le voisinage déjà compilé pour la grille,
+     * utilisée par les boucles qui calculent toute une génération.
+     *
+     * @param kernel le voisinage compilé pour la grille, null si le nombre de voisins n'en désigne aucun.
+     */
+    byte determineNextState(ByteGrid grid, ForestKernel kernel, int index, long generationKey, long cellIndex) {
+        byte[] cells = grid.getCells();
+        if (kernel != null && kernel.hasRule()) {
+            return kernel.nextState(cells, index, generationKey, cellIndex);
+        }
+
+        switch (cells[index]) {
+            case FIRE_CODE, BURNED_CODE -> {
+                return BURNED_CODE;
+            }
+            case FOREST_CODE -> {
+                // Comme pour la liste chainée, un nombre de voisin inconnu donne une cellule vide
+                if (kernel == null) {
+                    return EMPTY_CODE;
+                }
+                return kernel.nextForestState(cells, index, this.probabilityOfSpread, generationKey, cellIndex);
+            }
+            default -> {
+                return EMPTY_CODE;
+            }
+        }
+    }
+
+    /**
+     * Renvoi le voisinage compilé pour une grille, compilé à nouveau si le voisinage, la largeur de la grille ou les
+     * vents ont changé depuis la dernière génération.
+     *
+     * @param grid la grille de la forêt.
+     * @return le voisinage compilé, null si le nombre de voisins ne désigne aucun voisinage.
+     */
+    ForestKernel kernelFor(ByteGrid grid) {
+        ForestKernel current = this.kernel;
+        if (this.neighbourhood == null) {
+            return null;
+        }
+        if (current == null || !current.matches(this.neighbourhood, grid, this.westWindSpeed, this.southWindSpeed,
+                this.probabilityOfSpread)) {
+            current = new ForestKernel(this.neighbourhood, grid, this.westWindSpeed, this.southWindSpeed,
+                    this.probabilityOfSpread);
+            this.kernel = current;
+        }
+        return current;
+    }
+
     public int getPercentageBurnedForest() {
+        if (this.engine == ForestEngine.FRONTIER) {
+            long numberInitialForestCell = this.frontier.getForestCount() + this.frontier.getBurnedCount();
+            return numberInitialForestCell != 0 ? (int) (this.frontier.getBurnedCount() * 100 / numberInitialForestCell) : -1;
+        }
+        if (this.engine == ForestEngine.MAPPED || this.engine == ForestEngine.TILED) {
+            long numberBurnedCell = getExternalCounter(BURNED_COUNTER);
+            long numberInitialForestCell = getExternalCounter(FOREST_COUNTER) + numberBurnedCell;
+            return numberInitialForestCell != 0 ? (int) (numberBurnedCell * 100 / numberInitialForestCell) : -1;
+        }
+        if (this.engine != ForestEngine.LINKED_CELL) {
+            return getPercentageBurnedForestGrid();
+        }
+
         LinkedCell<ForestState> currentCell = this.forest;
 
         int numberInitialForestCell = 0;
@@ -349,12 +1055,58 @@ public class ForestAutomaton {
         return -1;
     }
 
-    public boolean isStillFireInForest() {
-        boolean stillFireInForest = false;
+    private int getPercentageBurnedForestGrid() {
+        int numberInitialForestCell = 0;
+        int numberBurnedCell = 0;
 
-        LinkedCell<ForestState> currentCell = this.forest;
         for (int ii = 0; ii < this.y; ii++) {
-            for (int jj = 0; jj < this.x; jj++) {
+            int index = this.forestGrid.index(0, ii);
+            for (int jj = 0; jj < this.x; jj++, index++) {
+                byte code = this.forestGrid.get(index);
+                if (code == BURNED_CODE) {
+                    numberBurnedCell++;
+                    numberInitialForestCell++;
+                }
+                if (code == FOREST_CODE) {
+                    numberInitialForestCell++;
+                }
+            }
+        }
+
+        if (numberInitialForestCell != 0) {
+            return (numberBurnedCell * 100 / numberInitialForestCell);
+        }
+
+        return -1;
+    }
+
+    public boolean isStillFireInForest() {
+        boolean stillFireInForest = false;
+
+        if (this.engine == ForestEngine.FRONTIER) {
+            return this.frontier.getFireCount() > 0;
+        }
+        if (this.engine == ForestEngine.MAPPED || this.engine == ForestEngine.TILED) {
+            return getExternalCounter(FIRE_COUNTER) > 0;
+        }
+        if (this.engine == ForestEngine.ACTIVE_TILES) {
+            return isStillFireInActiveTiles();
+        }
+        if (this.engine != ForestEngine.LINKED_CELL) {
+            for (int ii = 0; ii < this.y; ii++) {
+                int index = this.forestGrid.index(0, ii);
+                for (int jj = 0; jj < this.x; jj++, index++) {
+                    if (this.forestGrid.get(index) == FIRE_CODE) {
+                        return true;
+                    }
+                }
+            }
+            return stillFireInForest;
+        }
+
+        LinkedCell<ForestState> currentCell = this.forest;
+        for (int ii = 0; ii < this.y; ii++) {
+            for (int jj = 0; jj < this.x; jj++) {
                 if (currentCell.getCellValue() == FIRE) {
                     return true;
                 }
@@ -364,10 +1116,301 @@ public class ForestAutomaton {
         return stillFireInForest;
     }
 
+    /**
+     * Cherche le feu avec le stockage ACTIVE_TILES. Une cellule en feu vient de changer d'état : seules les tuiles
+     * qui ont changé à la dernière génération sont parcourues.
+     */
+    private boolean isStillFireInActiveTiles() {
+        for (int tileRow = 0; tileRow < this.activeTiles.getTilesPerColumn(); tileRow++) {
+            int fromRow = tileRow * ACTIVE_TILE_SIZE;
+            int toRow = Math.min(this.y, fromRow + ACTIVE_TILE_SIZE);
+            for (int tileColumn = 0; tileColumn < this.activeTiles.getTilesPerRow(); tileColumn++) {
+                if (!this.activeTiles.hasChanged(tileRow, tileColumn)) {
+                    continue;
+                }
+                int fromColumn = tileColumn * ACTIVE_TILE_SIZE;
+                int toColumn = Math.min(this.x, fromColumn + ACTIVE_TILE_SIZE);
+                for (int ii = fromRow; ii < toRow; ii++) {
+                    int index = this.forestGrid.index(fromColumn, ii);
+                    for (int jj = fromColumn; jj < toColumn; jj++, index++) {
+                        if (this.forestGrid.get(index) == FIRE_CODE) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Initialise la forêt, comme {@link #initForest()}.
+     */
+    @Override
+    public void initializeAutomaton() {
+        initForest();
+    }
+
+    /**
+     * Simule la prochaine génération, comme {@link #simulateForestFire()}.
+     */
+    @Override
+    public void simulate() {
+        simulateForestFire();
+    }
+
     /**
      * Simule le prochaine état de la forêt.
      */
     public void simulateForestFire() {
+        // Les cellules évaluées et actives ne sont comptées que pour les mesures ou un enregistrement JFR.
+        GenerationEvent event = GenerationEvent.beginIfEnabled();
+        SimulationMetrics metrics = getMetrics();
+        long evaluatedCells = 0;
+        long activeCells = 0;
+        if (metrics != null || event != null) {
+            if (this.engine == ForestEngine.FRONTIER) {
+                evaluatedCells = this.frontier.getCandidateCount();
+                activeCells = this.frontier.getFireCount();
+            }
+            else if (this.engine == ForestEngine.ACTIVE_TILES) {
+                evaluatedCells = Math.min((long) this.x * this.y, (long) this.activeTiles.getActiveCount() * ACTIVE_TILE_SIZE * ACTIVE_TILE_SIZE);
+                activeCells = evaluatedCells;
+            }
+            else {
+                evaluatedCells = (long) this.x * this.y;
+                activeCells = evaluatedCells;
+            }
+        }
+        if (metrics != null) {
+            metrics.begin();
+        }
+
+        this.stepProfiler.begin();
+        long generationKey = CellRandom.generationKey(this.seed, this.generation);
+        if (this.engine == ForestEngine.FRONTIER) {
+            this.frontier.step(generationKey);
+        }
+        else if (this.engine == ForestEngine.MAPPED) {
+            simulateForestFireOnMapped(generationKey);
+        }
+        else if (this.engine == ForestEngine.TILED) {
+            simulateForestFireOnTiles(generationKey);
+        }
+        else if (this.engine != ForestEngine.LINKED_CELL) {
+            simulateForestFireOnGrid(generationKey);
+        }
+        else {
+            simulateForestFireOnLinkedCell(generationKey);
+        }
+        this.generation++;
+        publishGeneration();
+        this.stepProfiler.end();
+
+        if (metrics != null) {
+            metrics.end(1, evaluatedCells, activeCells);
+        }
+        if (event != null) {
+            event.record("ForestAutomaton", this.engine.name(), this.generation, 1, evaluatedCells, activeCells);
+        }
+        if (this.history != null) {
+            recordHistory();
+        }
+    }
+
+    /**
+     * Ajoute la génération courante à l'historique. Après la première génération, les stockages qui savent quelles
+     * cellules ont changé ne donnent que ces cellules : le front de feu avec FRONTIER, les tuiles qui ont changé
+     * avec ACTIVE_TILES, la différence avec la grille précédente avec ARRAY et VECTOR. Les autres stockages copient
+     * toute la forêt.
+     */
+    private void recordHistory() {
+        long cellCount = (long) this.x * this.y;
+        if (cellCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("La forêt " + this.x + "x" + this.y + " est trop grande pour un historique");
+        }
+        if (this.history.getGenerationCount() > 0 && this.history.getCellCount() == cellCount && collectChanges()) {
+            this.history.recordChanges(this.generation, this.historyChanges, this.historyChangeCount);
+            return;
+        }
+        if (this.historyFrame == null || this.historyFrame.length != cellCount) {
+            this.historyFrame = new byte[(int) cellCount];
+        }
+        copyCells(this.historyFrame);
+        this.history.record(this.generation, this.historyFrame);
+    }
+
+    /**
+     * Range dans historyChanges les cellules qui ont changé à la dernière génération.
+     *
+     * @return false si le stockage ne sait pas quelles cellules ont changé.
+     */
+    private boolean collectChanges() {
+        this.historyChangeCount = 0;
+        switch (this.engine) {
+            case FRONTIER -> {
+                addGridChanges(this.frontier.getLastBurnedCells(), this.frontier.getLastBurnedCount(), BURNED_CODE);
+                addGridChanges(this.frontier.getFireCells(), (int) this.frontier.getFireCount(), FIRE_CODE);
+            }
+            case ACTIVE_TILES -> {
+                for (int tileRow = 0; tileRow < this.activeTiles.getTilesPerColumn(); tileRow++) {
+                    for (int tileColumn = 0; tileColumn < this.activeTiles.getTilesPerRow(); tileColumn++) {
+                        if (this.activeTiles.hasChanged(tileRow, tileColumn)) {
+                            addChangedCells(tileColumn * ACTIVE_TILE_SIZE, Math.min(this.x, (tileColumn + 1) * ACTIVE_TILE_SIZE),
+                                    tileRow * ACTIVE_TILE_SIZE, Math.min(this.y, (tileRow + 1) * ACTIVE_TILE_SIZE));
+                        }
+                    }
+                }
+            }
+            case ARRAY, VECTOR -> addChangedCells(0, this.x, 0, this.y);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ajoute des cellules de la grille courante (indices dans la grille) qui ont toutes pris le même état.
+     */
+    private void addGridChanges(int[] gridIndexes, int count, byte code) {
+        for (int cell = 0; cell < count; cell++) {
+            int index = gridIndexes[cell];
+            addHistoryChange(this.forestGrid.row(index) * this.x + this.forestGrid.column(index), code);
+        }
+    }
+
+    /**
+     * Ajoute les cellules d'un rectangle qui diffèrent entre la grille courante et la grille de la génération
+     * précédente (la grille suivante, échangée à la fin de la génération).
+     */
+    private void addChangedCells(int fromColumn, int toColumn, int fromRow, int toRow) {
+        byte[] cells = this.forestGrid.getCells();
+        byte[] previousCells = this.nextForestGrid.getCells();
+        for (int ii = fromRow; ii < toRow; ii++) {
+            int index = this.forestGrid.index(fromColumn, ii);
+            int cellIndex = ii * this.x + fromColumn;
+            for (int jj = fromColumn; jj < toColumn; jj++, index++, cellIndex++) {
+                if (cells[index] != previousCells[index]) {
+                    addHistoryChange(cellIndex, cells[index]);
+                }
+            }
+        }
+    }
+
+    private void addHistoryChange(int cellIndex, byte code) {
+        if (this.historyChangeCount == this.historyChanges.length) {
+            this.historyChanges = Arrays.copyOf(this.historyChanges, this.historyChangeCount * 2);
+        }
+        this.historyChanges[this.historyChangeCount++] = GenerationHistory.change(cellIndex, code);
+    }
+
+    /**
+     * Renvoi le code de l'état ({@link ForestState#getCode()}) d'une cellule. Avec le stockage LINKED_CELL la liste
+     * chainée est parcourue jusqu'à la cellule, {@link #copyCells(byte[])} est préférable pour lire toute la forêt.
+     *
+     * @param column la colonne de la cellule.
+     * @param row la ligne de la cellule.
+     * @return le code de l'état de la cellule.
+     */
+    @Override
+    public int getCell(int column, int row) {
+        if (column < 0 || column >= this.x || row < 0 || row >= this.y) {
+            throw new IndexOutOfBoundsException("Cellule (" + column + ", " + row + ") hors de la forêt " + this.x + "x" + this.y);
+        }
+        if (this.engine != ForestEngine.LINKED_CELL) {
+            return getGridState(column, row).getCode();
+        }
+        LinkedCell<ForestState> currentCell = this.forest;
+        for (long ii = (long) row * this.x + column; ii > 0; ii--) {
+            currentCell = currentCell.getNextCell();
+        }
+        return currentCell.getCellValue().getCode();
+    }
+
+    /**
+     * Copie le code de l'état ({@link ForestState#getCode()}) de chaque cellule, ligne par ligne : la cellule de la
+     * colonne jj et de la ligne ii est à l'indice {@code ii * x + jj}.
+     *
+     * @param target le tableau qui reçoit les codes, de taille x * y au moins.
+     */
+    @Override
+    public void copyCells(byte[] target) {
+        copyCells(target, 0, this.x);
+    }
+
+    /**
+     * Copie le code de l'état de chaque cellule : la ligne ii commence à l'indice {@code offset + ii * stride}.
+     */
+    private void copyCells(byte[] target, int offset, int stride) {
+        // Calculé en long : une grande grille MAPPED ou TILED ne tient pas dans un tableau.
+        long end = offset + (long) (this.y - 1) * stride + this.x;
+        if (end > target.length) {
+            throw new IndexOutOfBoundsException("La forêt " + this.x + "x" + this.y + " ne tient pas dans un tableau de "
+                    + target.length + " cellules");
+        }
+        if (this.engine == ForestEngine.MAPPED || this.engine == ForestEngine.TILED) {
+            ExternalGrid grid = getExternalGrid();
+            for (int ii = 0; ii < this.y; ii++) {
+                grid.readRow(ii, target, offset + ii * stride);
+            }
+            return;
+        }
+        if (this.engine != ForestEngine.LINKED_CELL) {
+            for (int ii = 0; ii < this.y; ii++) {
+                System.arraycopy(this.forestGrid.getCells(), this.forestGrid.index(0, ii), target, offset + ii * stride, this.x);
+            }
+            return;
+        }
+
+        LinkedCell<ForestState> currentCell = this.forest;
+        for (int ii = 0; ii < this.y; ii++) {
+            int index = offset + ii * stride;
+            for (int jj = 0; jj < this.x; jj++) {
+                target[index + jj] = currentCell.getCellValue().getCode();
+                currentCell = currentCell.getNextCell();
+            }
+        }
+    }
+
+    /**
+     * Publie la génération courante pour {@link #openGeneration()}. Les stockages ARRAY, VECTOR et ACTIVE_TILES
+     * publient directement leur grille courante. Les autres stockages modifient leurs cellules en place et publient
+     * une copie, seulement quand une génération a été demandée depuis la dernière copie.
+     */
+    private void publishGeneration() {
+        if (this.engine == ForestEngine.ARRAY || this.engine == ForestEngine.VECTOR || this.engine == ForestEngine.ACTIVE_TILES) {
+            this.generations.publish(this.forestGrid, this.generation);
+        }
+        else if (this.generations.isWanted()) {
+            ByteGrid copy = this.generations.claim(this.x, this.y, 1);
+            copyCells(copy.getCells(), copy.index(0, 0), copy.getStride());
+            this.generations.publish(copy, this.generation);
+        }
+    }
+
+    /**
+     * Ouvre une vue en lecture seule sur la dernière génération calculée, depuis n'importe quel fil et sans bloquer
+     * la simulation. Avec les stockages ARRAY, VECTOR et ACTIVE_TILES la vue lit la grille de la simulation sans copie
+     * (la simulation écrit dans une autre grille tant que la vue est ouverte). Les autres stockages ne copient leurs
+     * cellules qu'à la génération qui suit une demande : la vue lit la dernière copie, celle qui suit l'appel
+     * précédent, et le premier appel renvoi null. Un lecteur qui ouvre une vue à chaque image a donc une image de
+     * retard, et les copies s'arrêtent quand plus personne ne lit.
+     * <p>
+     * Les valeurs de la vue sont les codes des états ({@link ForestState#fromCode(byte)}). Une vue sur une partie de
+     * la forêt s'obtient avec {@link GridView#region(int, int, int, int)}.
+     *
+     * @return la vue de la génération, à fermer après la lecture, ou null si aucune génération n'est publiée.
+     */
+    public GridView openGeneration() {
+        return this.generations.acquire();
+    }
+
+    /**
+     * Simule le prochain état de la forêt stockée dans la liste chainée.
+     */
+    private void simulateForestFireOnLinkedCell(long generationKey) {
+
         // Liste du prochain état de toutes les cellules de la forêt.
         // Il n'est pas possible de modifier l'état de la forêt pendant le parcours car le calcul de l'état de la prochaine cellule sera faussé
         List<ForestState> nextStateOfForest = new ArrayList<>();
@@ -376,7 +1419,7 @@ public class ForestAutomaton {
         // Calcul du prochain état de toutes les cellules.
         for (int ii = 0; ii < this.y; ii++) {
             for (int jj = 0; jj < this.x; jj++) {
-                nextStateOfForest.add(determineNextState(currentCell));
+                nextStateOfForest.add(determineNextState(currentCell, CellRandom.percentage(generationKey, (long) ii * this.x + jj)));
                 currentCell = currentCell.getNextCell();
             }
         }
@@ -396,6 +1439,179 @@ public class ForestAutomaton {
         this.forest = newForest;
     }
 
+    /**
+     * Simule le prochain état de la forêt stockée dans une ByteGrid.
+     * La prochaine génération est écrite dans la deuxième grille puis les deux grilles sont échangées : une
+     * génération n'alloue aucun objet.
+     */
+    private void simulateForestFireOnGrid(long generationKey) {
+        ByteGrid currentForest = this.forestGrid;
+        // Si la grille suivante est encore lue par une vue, une autre grille est écrite. Avec ACTIVE_TILES elle est
+        // d'abord copiée depuis la grille courante : une tuile sautée doit être identique dans les deux grilles.
+        ByteGrid nextForest = this.generations.claim(this.nextForestGrid,
+                this.engine == ForestEngine.ACTIVE_TILES ? currentForest : null);
+        ForestKernel currentKernel = kernelFor(currentForest);
+
+        if (this.engine == ForestEngine.ACTIVE_TILES) {
+            if (this.parallelStepper != null) {
+                this.parallelStepper.forEachStripe(this.activeTiles.getTilesPerColumn(), (stripe, fromTileRow, toTileRow) ->
+                        simulateActiveTileRows(currentForest, nextForest, currentKernel, fromTileRow, toTileRow, generationKey));
+            }
+            else {
+                simulateActiveTileRows(currentForest, nextForest, currentKernel, 0, this.activeTiles.getTilesPerColumn(), generationKey);
+            }
+            this.activeTiles.endGeneration();
+        }
+        else if (this.parallelStepper != null) {
+            this.parallelStepper.forEachStripe(this.y, (stripe, fromRow, toRow) ->
+                    simulateRowsOnGrid(currentForest, nextForest, currentKernel, fromRow, toRow, generationKey));
+        }
+        else {
+            simulateRowsOnGrid(currentForest, nextForest, currentKernel, 0, this.y, generationKey);
+        }
+
+        this.forestGrid = nextForest;
+        this.nextForestGrid = currentForest;
+    }
+
+    /**
+     * Calcule le prochain état des lignes [fromRow, toRow[ de la forêt.
+     */
+    private void simulateRowsOnGrid(ByteGrid currentForest, ByteGrid nextForest, ForestKernel currentKernel, int fromRow, int toRow, long generationKey) {
+        if (this.engine == ForestEngine.VECTOR && VectorSupport.isAvailable()) {
+            VectorForestKernel.simulateRows(this, currentForest, nextForest, currentKernel, fromRow, toRow, generationKey);
+            return;
+        }
+        for (int ii = fromRow; ii < toRow; ii++) {
+            int index = currentForest.index(0, ii);
+            long cellIndex = (long) ii * this.x;
+            for (int jj = 0; jj < this.x; jj++, index++, cellIndex++) {
+                nextForest.set(index, determineNextState(currentForest, currentKernel, index, generationKey, cellIndex));
+            }
+        }
+    }
+
+    /**
+     * Calcule le prochain état des tuiles actives des lignes de tuiles [fromTileRow, toTileRow[. Une tuile sautée a
+     * déjà les mêmes cellules dans les deux grilles (voir {@link ActiveTiles}).
+     */
+    private void simulateActiveTileRows(ByteGrid currentForest, ByteGrid nextForest, ForestKernel currentKernel, int fromTileRow, int toTileRow, long generationKey) {
+        for (int tileRow = fromTileRow; tileRow < toTileRow; tileRow++) {
+            int fromRow = tileRow * ACTIVE_TILE_SIZE;
+            int toRow = Math.min(this.y, fromRow + ACTIVE_TILE_SIZE);
+            for (int tileColumn = 0; tileColumn < this.activeTiles.getTilesPerRow(); tileColumn++) {
+                if (!this.activeTiles.isActive(tileRow, tileColumn)) {
+                    continue;
+                }
+                int fromColumn = tileColumn * ACTIVE_TILE_SIZE;
+                int toColumn = Math.min(this.x, fromColumn + ACTIVE_TILE_SIZE);
+                boolean changed = false;
+                for (int ii = fromRow; ii < toRow; ii++) {
+                    int index = currentForest.index(fromColumn, ii);
+                    long cellIndex = (long) ii * this.x + fromColumn;
+                    for (int jj = fromColumn; jj < toColumn; jj++, index++, cellIndex++) {
+                        byte code = determineNextState(currentForest, currentKernel, index, generationKey, cellIndex);
+                        nextForest.set(index, code);
+                        changed |= code != currentForest.get(index);
+                    }
+                }
+                if (changed) {
+                    this.activeTiles.setChanged(tileRow, tileColumn);
+                }
+            }
+        }
+    }
+
+    /**
+     * Simule le prochain état de la forêt stockée dans la MappedGrid. Les lignes sont copiées par bandes de
+     * {@value #MAPPED_BAND_ROWS} lignes (plus la ligne au-dessus et la ligne en dessous) dans une ByteGrid, calculées
+     * comme avec le stockage ARRAY puis écrites dans le plan suivant de la grille. Les plans sont échangés à la fin
+     * de la génération, le fichier reste donc un point de reprise valide pendant le calcul.
+     */
+    private void simulateForestFireOnMapped(long generationKey) {
+        MappedGrid grid = this.mappedGrid;
+        int bandRows = Math.min(MAPPED_BAND_ROWS, this.y);
+        if (this.mappedBand == null || this.mappedBand.getX() != this.x || this.mappedBand.getY() != bandRows + 2) {
+            this.mappedBand = new ByteGrid(this.x, bandRows + 2);
+        }
+        ByteGrid band = this.mappedBand;
+        ForestKernel bandKernel = kernelFor(band);
+        byte[] bandCells = band.getCells();
+        if (this.mappedRow == null || this.mappedRow.length != this.x) {
+            this.mappedRow = new byte[this.x];
+        }
+        byte[] nextRow = this.mappedRow;
+        long forestCount = 0;
+        long burnedCount = 0;
+        long fireCount = 0;
+
+        for (int fromRow = 0; fromRow < this.y; fromRow += bandRows) {
+            int toRow = Math.min(this.y, fromRow + bandRows);
+            // La ligne bandRow de la bande est la ligne fromRow - 1 + bandRow de la forêt, hors de la forêt elle est vide.
+            for (int bandRow = 0; bandRow < toRow - fromRow + 2; bandRow++) {
+                int row = fromRow - 1 + bandRow;
+                if (bandRow < 2 && fromRow > 0) {
+                    // Les 2 premières lignes sont les 2 dernières de la bande précédente.
+                    System.arraycopy(bandCells, band.index(0, bandRows + bandRow), bandCells, band.index(0, bandRow), this.x);
+                }
+                else if (row >= 0 && row < this.y) {
+                    grid.readRow(row, bandCells, band.index(0, bandRow));
+                }
+                else {
+                    Arrays.fill(bandCells, band.index(0, bandRow), band.index(0, bandRow) + this.x, EMPTY_CODE);
+                }
+            }
+
+            for (int ii = fromRow; ii < toRow; ii++) {
+                int index = band.index(0, ii - fromRow + 1);
+                long cellIndex = (long) ii * this.x;
+                for (int jj = 0; jj < this.x; jj++, index++, cellIndex++) {
+                    byte code = determineNextState(band, bandKernel, index, generationKey, cellIndex);
+                    nextRow[jj] = code;
+                    switch (code) {
+                        case FOREST_CODE -> forestCount++;
+                        case FIRE_CODE -> fireCount++;
+                        case BURNED_CODE -> burnedCount++;
+                        default -> {
+                        }
+                    }
+                }
+                grid.writeNextRow(ii, nextRow, 0);
+            }
+        }
+
+        // Le plan suivant devient le plan courant avec sa génération et ses compteurs, une fois écrit sur le disque.
+        long[] counters = this.mappedCounters;
+        counters[FOREST_COUNTER] = forestCount;
+        counters[BURNED_COUNTER] = burnedCount;
+        counters[FIRE_COUNTER] = fireCount;
+        grid.swapPlanes(this.generation + 1, counters);
+    }
+
+    /**
+     * Simule le prochain état de la forêt stockée dans la TiledGrid, tuile par tuile. Chaque cellule est calculée
+     * comme avec le stockage ARRAY, avec le même nombre aléatoire.
+     */
+    private void simulateForestFireOnTiles(long generationKey) {
+        if (this.tileKernel == null) {
+            this.tileKernel = this::determineNextTileState;
+        }
+        long[] counts = this.tileCounts;
+        Arrays.fill(counts, 0);
+        this.tileGenerationKey = generationKey;
+        this.tiledGrid.step(this.tileKernel, Boundary.DEAD);
+        setExternalCounters(counts[FOREST_CODE], counts[BURNED_CODE], counts[FIRE_CODE]);
+    }
+
+    /**
+     * Calcule le prochain état d'une cellule d'une tuile pour la génération en cours et le compte.
+     */
+    private byte determineNextTileState(ByteGrid tile, int index, int column, int row) {
+        byte code = determineNextState(tile, index, this.tileGenerationKey, (long) row * this.x + column);
+        this.tileCounts[code]++;
+        return code;
+    }
+
     /**
      * Vérifie si il reste du feu dans la forêt
      *
@@ -404,6 +1620,9 @@ public class ForestAutomaton {
      * @param southWindSpeed la force du vent sud (si négatif la force du vent du nord).
      */
     public boolean Extinctionfeu(int probabilityOfSpread, int westWindSpeed, int southWindSpeed){
+        if (this.engine != ForestEngine.LINKED_CELL) {
+            return isStillFireInForest();
+        }
         boolean Dufeu=true;
         int nbenfeu=0;
         // Liste du prochain état de toutes les cellules de la forêt.
@@ -436,6 +1655,7 @@ public class ForestAutomaton {
      *
      * @return la valeur des abscisses de la grille.
      */
+    @Override
     public int getX() {
         return x;
     }
@@ -454,6 +1674,7 @@ public class ForestAutomaton {
      *
      * @return la valeur des ordonnées de la grille.
      */
+    @Override
     public int getY() {
         return y;
     }
@@ -483,6 +1704,24 @@ public class ForestAutomaton {
      */
     public void setNbNextCell(int nbNextCell) {
         this.nbNextCell = nbNextCell;
+        this.neighbourhood = Neighbourhood.of(nbNextCell);
+    }
+
+    public Neighbourhood getNeighbourhood() {
+        return neighbourhood;
+    }
+
+    /**
+     * Modifie le voisinage utilisé pour définir le prochain état d'une cellule, par exemple un voisinage de rayon 2
+     * ({@link Neighbourhood#moore(int)}) ou un voisinage défini par l'utilisateur. Les voisinages autres que ceux de
+     * {@link Neighbourhood#of(int)} ne sont utilisables qu'avec les stockages sur ByteGrid (ARRAY, FRONTIER,
+     * ACTIVE_TILES et VECTOR) et la forêt doit être initialisée à nouveau ({@link #initForest()}).
+     *
+     * @param neighbourhood le voisinage de chaque cellule.
+     */
+    public void setNeighbourhood(Neighbourhood neighbourhood) {
+        this.neighbourhood = neighbourhood;
+        this.nbNextCell = neighbourhood.size();
     }
 
     public int getDensity() {
@@ -517,6 +1756,153 @@ public class ForestAutomaton {
         this.southWindSpeed = southWindSpeed;
     }
 
+    /**
+     * Fixe la graine des nombres aléatoires pour pouvoir reproduire une simulation. La graine doit être fixée avant
+     * l'appel à {@link #initForest()}. Par défaut une graine est tirée au hasard à la création de la forêt.
+     *
+     * @param seed la graine des nombres aléatoires.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Renvoi le numéro de la génération courante, 0 juste après l'initialisation.
+     *
+     * @return le numéro de la génération courante.
+     */
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Le feu se propage au hasard : la forêt n'est jamais DETERMINISTIC. Les stockages FRONTIER et ACTIVE_TILES ne
+     * calculent que les cellules proches du feu (SPARSE), les stockages sur ByteGrid calculent en parallèle avec un
+     * ParallelStepper.
+     */
+    @Override
+    public Set<AutomatonCapability> getCapabilities() {
+        Set<AutomatonCapability> capabilities = EnumSet.noneOf(AutomatonCapability.class);
+        if (this.engine == ForestEngine.FRONTIER || this.engine == ForestEngine.ACTIVE_TILES) {
+            capabilities.add(AutomatonCapability.SPARSE);
+        }
+        if (this.parallelStepper != null && (this.engine == ForestEngine.ARRAY || this.engine == ForestEngine.VECTOR
+                || this.engine == ForestEngine.ACTIVE_TILES)) {
+            capabilities.add(AutomatonCapability.PARALLEL);
+        }
+        return capabilities;
+    }
+
+    public ForestEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Modifie le stockage utilisé pour la forêt. La forêt doit ensuite être initialisée avec {@link #initForest()}.
+     *
+     * @param engine le stockage utilisé pour la forêt.
+     */
+    public void setEngine(ForestEngine engine) {
+        this.engine = engine;
+    }
+
+    public ByteGrid getForestGrid() {
+        return forestGrid;
+    }
+
+    /**
+     * Renvoi le suivi des tuiles du stockage ACTIVE_TILES, pour savoir combien de tuiles ont changé par exemple.
+     *
+     * @return le suivi des tuiles ou null si la forêt n'a pas été initialisée avec ce stockage.
+     */
+    public ActiveTiles getActiveTiles() {
+        return activeTiles;
+    }
+
+    public MappedGrid getMappedGrid() {
+        return mappedGrid;
+    }
+
+    /**
+     * Modifie la grille utilisée par le stockage MAPPED. La forêt doit ensuite être initialisée avec
+     * {@link #initForest()}, sauf si la grille contient déjà une forêt à reprendre.
+     *
+     * @param mappedGrid la grille projetée en mémoire, de la taille de la forêt.
+     */
+    public void setMappedGrid(MappedGrid mappedGrid) {
+        this.mappedGrid = mappedGrid;
+    }
+
+    public TiledGrid getTiledGrid() {
+        return tiledGrid;
+    }
+
+    /**
+     * Modifie la grille utilisée par le stockage TILED (au moins 2 bits par cellule). La forêt doit ensuite être
+     * initialisée avec {@link #initForest()} ou lue avec {@link #loadSnapshot(Path)}.
+     *
+     * @param tiledGrid la grille découpée en tuiles, de la taille de la forêt.
+     */
+    public void setTiledGrid(TiledGrid tiledGrid) {
+        this.tiledGrid = tiledGrid;
+    }
+
+    public ParallelStepper getParallelStepper() {
+        return parallelStepper;
+    }
+
+    /**
+     * Active le calcul des générations en parallèle par bandes de lignes, avec les stockages ARRAY, VECTOR et
+     * ACTIVE_TILES (par bandes de lignes de tuiles). Les autres stockages calculent sur le thread courant. Le résultat
+     * est identique au calcul sur un seul thread quel que soit le découpage.
+     *
+     * @param parallelStepper le découpage en bandes à utiliser, null pour calculer sur le thread courant.
+     */
+    public void setParallelStepper(ParallelStepper parallelStepper) {
+        this.parallelStepper = parallelStepper;
+    }
+
+    /**
+     * Renvoi la mesure de la durée et de la mémoire allouée des générations simulées depuis l'initialisation.
+     *
+     * @return la mesure des générations.
+     */
+    public StepProfiler getStepProfiler() {
+        return stepProfiler;
+    }
+
+    public GenerationHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Enregistre les générations de la forêt dans un historique. L'historique est vidé à chaque initialisation de
+     * la forêt, puis reçoit la génération initiale et chaque génération simulée.
+     *
+     * @param history l'historique à remplir, null pour ne plus enregistrer les générations.
+     */
+    public void setHistory(GenerationHistory history) {
+        this.history = history;
+        if (history != null) {
+            history.clear();
+            // La forêt n'est enregistrée que si elle a déjà été initialisée.
+            boolean initialized = switch (this.engine) {
+                case LINKED_CELL -> this.forest != null;
+                case MAPPED -> this.mappedGrid != null;
+                case TILED -> this.tiledGrid != null;
+                default -> this.forestGrid != null;
+            };
+            if (initialized) {
+                recordHistory();
+            }
+        }
+    }
+
     public LinkedCell<ForestState> getForest() {
         return forest;
     }
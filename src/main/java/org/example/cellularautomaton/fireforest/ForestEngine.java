@@ -0,0 +1,23 @@
+package org.example.cellularautomaton.fireforest;
+
+/**
+ * Le stockage utilisé par {@link ForestAutomaton} pour représenter la forêt.
+ */
+public enum ForestEngine {
+    // Une LinkedCell par cellule, les voisins sont retrouvés en suivant les références.
+    LINKED_CELL,
+    // Un byte par cellule dans une ByteGrid, les voisins sont retrouvés par leur indice.
+    ARRAY,
+    // Une ByteGrid dont seules les cellules en feu et leurs voisines sont parcourues à chaque génération.
+    FRONTIER,
+    // Une MappedGrid (2 bits par cellule dans un fichier projeté en mémoire), calculée par bandes de lignes.
+    MAPPED,
+    // Une TiledGrid (tuiles dans un fichier avec un cache borné), calculée tuile par tuile.
+    TILED,
+    // Une ByteGrid dont seules les tuiles de 64 x 64 cellules dont une voisine a changé à la dernière génération
+    // sont calculées : les zones brulées ou sans feu à côté ne coûtent plus rien.
+    ACTIVE_TILES,
+    // Une ByteGrid calculée par paquets de cellules avec l'API Vector (module jdk.incubator.vector), comme ARRAY si
+    // le module n'est pas chargé.
+    VECTOR
+}
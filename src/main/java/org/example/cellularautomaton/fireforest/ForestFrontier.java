@@ -0,0 +1,177 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.ByteGrid;
+
+import java.util.Arrays;
+
+/**
+ * Front de feu du moteur FRONTIER de {@link ForestAutomaton}. Seules les cellules en feu et leurs voisines forêt
+ * peuvent changer d'état : une génération ne parcourt que ces cellules et modifie la grille sur place. Le nombre de
+ * cellules de chaque état est tenu à jour pour répondre sans parcourir la grille.
+ */
+class ForestFrontier {
+    private final ForestAutomaton forestAutomaton;
+    private ByteGrid grid;
+    // Indices (dans la grille) des cellules en feu
+    private int[] fireCells = new int[64];
+    private int fireCount;
+    // Indices des cellules qui prennent feu à la prochaine génération, après une génération les cellules qui étaient
+    // en feu et sont devenues brulées.
+    private int[] newFireCells = new int[64];
+    private int lastBurnedCount;
+    // Cellules forêt déjà évaluées pendant la génération en cours
+    private long[] visited;
+    // Décalages des cellules dont une cellule en feu est la voisine : l'opposé des décalages du voisinage
+    private int[] aroundOffsets;
+
+    private long forestCount;
+    private long burnedCount;
+
+    ForestFrontier(ForestAutomaton forestAutomaton) {
+        this.forestAutomaton = forestAutomaton;
+    }
+
+    /**
+     * Construit le front de feu et les compteurs à partir de la grille (un seul parcours de la grille).
+     */
+    void reset(ByteGrid grid) {
+        this.grid = grid;
+        ForestKernel kernel = this.forestAutomaton.kernelFor(grid);
+        int[] offsets = kernel == null ? new int[0] : kernel.getOffsets();
+        this.aroundOffsets = new int[offsets.length];
+        for (int neighbour = 0; neighbour < offsets.length; neighbour++) {
+            this.aroundOffsets[neighbour] = -offsets[neighbour];
+        }
+        int length = grid.getCells().length;
+        if (this.visited == null || this.visited.length != (length + 63) >>> 6) {
+            this.visited = new long[(length + 63) >>> 6];
+        }
+        else {
+            Arrays.fill(this.visited, 0);
+        }
+
+        this.fireCount = 0;
+        this.lastBurnedCount = 0;
+        this.forestCount = 0;
+        this.burnedCount = 0;
+        for (int row = 0; row < grid.getY(); row++) {
+            int index = grid.index(0, row);
+            for (int column = 0; column < grid.getX(); column++, index++) {
+                switch (ForestState.fromCode(grid.get(index))) {
+                    case FOREST -> this.forestCount++;
+                    case BURNED -> this.burnedCount++;
+                    case FIRE -> addFireCell(index);
+                    case EMPTY -> {
+                    }
+                }
+            }
+        }
+    }
+
+    private void addFireCell(int index) {
+        if (this.fireCount == this.fireCells.length) {
+            this.fireCells = Arrays.copyOf(this.fireCells, this.fireCount * 2);
+        }
+        this.fireCells[this.fireCount++] = index;
+    }
+
+    /**
+     * Simule une génération : les voisines forêt des cellules en feu sont évaluées avec la grille courante, puis les
+     * cellules en feu deviennent brulées et les cellules qui ont pris feu passent en feu.
+     */
+    void step(long generationKey) {
+        byte[] cells = this.grid.getCells();
+        ForestKernel kernel = this.forestAutomaton.kernelFor(this.grid);
+        int x = this.grid.getX();
+        int newFireCount = 0;
+
+        for (int fire = 0; fire < this.fireCount; fire++) {
+            int fireCell = this.fireCells[fire];
+            for (int offset : this.aroundOffsets) {
+                int candidate = fireCell + offset;
+                if (cells[candidate] != ForestState.FOREST.getCode() || isVisited(candidate)) {
+                    continue;
+                }
+                setVisited(candidate);
+                long cellIndex = (long) this.grid.row(candidate) * x + this.grid.column(candidate);
+                if (this.forestAutomaton.determineNextState(this.grid, kernel, candidate, generationKey, cellIndex) == ForestState.FIRE.getCode()) {
+                    if (newFireCount == this.newFireCells.length) {
+                        this.newFireCells = Arrays.copyOf(this.newFireCells, newFireCount * 2);
+                    }
+                    this.newFireCells[newFireCount++] = candidate;
+                }
+            }
+        }
+
+        for (int fire = 0; fire < this.fireCount; fire++) {
+            int fireCell = this.fireCells[fire];
+            for (int offset : this.aroundOffsets) {
+                clearVisited(fireCell + offset);
+            }
+            cells[fireCell] = ForestState.BURNED.getCode();
+        }
+        this.burnedCount += this.fireCount;
+
+        for (int fire = 0; fire < newFireCount; fire++) {
+            cells[this.newFireCells[fire]] = ForestState.FIRE.getCode();
+        }
+        this.forestCount -= newFireCount;
+
+        int[] burnedCells = this.fireCells;
+        this.fireCells = this.newFireCells;
+        this.newFireCells = burnedCells;
+        this.lastBurnedCount = this.fireCount;
+        this.fireCount = newFireCount;
+    }
+
+    /**
+     * Renvoi les indices (dans la grille) des cellules en feu, les getFireCount() premiers : à la dernière génération
+     * elles ont pris feu.
+     */
+    int[] getFireCells() {
+        return fireCells;
+    }
+
+    /**
+     * Renvoi les indices (dans la grille) des cellules devenues brulées à la dernière génération, les
+     * getLastBurnedCount() premiers.
+     */
+    int[] getLastBurnedCells() {
+        return newFireCells;
+    }
+
+    int getLastBurnedCount() {
+        return lastBurnedCount;
+    }
+
+    private boolean isVisited(int index) {
+        return (this.visited[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void setVisited(int index) {
+        this.visited[index >>> 6] |= 1L << index;
+    }
+
+    private void clearVisited(int index) {
+        this.visited[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Renvoi le nombre de voisines des cellules en feu parcourues à la prochaine génération.
+     */
+    long getCandidateCount() {
+        return (long) this.fireCount * this.aroundOffsets.length;
+    }
+
+    long getFireCount() {
+        return fireCount;
+    }
+
+    long getForestCount() {
+        return forestCount;
+    }
+
+    long getBurnedCount() {
+        return burnedCount;
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.ByteGrid;
+import org.example.cellularautomaton.automaton.CellRandom;
+import org.example.cellularautomaton.automaton.Neighbourhood;
+import org.example.cellularautomaton.rule.RuleTable;
+
+/**
+ * Voisinage de la forêt compilé pour une grille : le décalage d'indice de chaque voisin et ce que le voisin ajoute à
+ * la probabilité de propagation quand il est en feu (les vents multipliés par ses poids). Le noyau dépend de la
+ * largeur de la grille, des vents et de la probabilité de propagation, il est recompilé par {@link ForestAutomaton}
+ * quand l'un d'eux change.
+ * <p>
+ * Sans vent, le noyau compile aussi la règle du feu ({@link ForestState#rule(int, Neighbourhood)}) en
+ * {@link RuleTable} et les moteurs sur grille calculent le prochain état avec cette table. Avec du vent la chance de
+ * propagation dépend de la direction de chaque voisin en feu, ce qu'une table indexée par le nombre de voisins ne
+ * sait pas représenter : le calcul reste celui de {@link #nextForestState(byte[], int, int, long, long)}.
+ */
+final class ForestKernel {
+    private static final byte FOREST_CODE = ForestState.FOREST.getCode();
+    private static final byte FIRE_CODE = ForestState.FIRE.getCode();
+
+    private final Neighbourhood neighbourhood;
+    private final int stride;
+    private final int westWindSpeed;
+    private final int southWindSpeed;
+    private final int probabilityOfSpread;
+    // La règle compilée, null avec du vent.
+    private final RuleTable rule;
+    private final byte countedCode;
+    // Vrai pour les codes dont le prochain état dépend du nombre de voisins en feu.
+    private final boolean[] countDependent;
+    // Le décalage d'indice de chaque voisin dans la grille.
+    private final int[] offsets;
+    // Ce que chaque voisin en feu ajoute à la probabilité de propagation.
+    private final int[] windTerms;
+    // Les poids du vent de chaque voisin sur 8 bits pour le calcul par vecteurs, null s'ils n'y tiennent pas, et la
+    // somme de leurs valeurs absolues.
+    private final byte[] westWeights;
+    private final byte[] southWeights;
+    private final long westWeightSum;
+    private final long southWeightSum;
+
+    ForestKernel(Neighbourhood neighbourhood, ByteGrid grid, int westWindSpeed, int southWindSpeed, int probabilityOfSpread) {
+        if (grid.getBorder() < neighbourhood.getRadius()) {
+            throw new IllegalArgumentException("La bordure de la grille (" + grid.getBorder()
+                    + ") est plus petite que le rayon du voisinage " + neighbourhood + " (" + neighbourhood.getRadius() + ")");
+        }
+        this.neighbourhood = neighbourhood;
+        this.stride = grid.getStride();
+        this.westWindSpeed = westWindSpeed;
+        this.southWindSpeed = southWindSpeed;
+        this.probabilityOfSpread = probabilityOfSpread;
+        this.offsets = neighbourhood.offsets(this.stride);
+        this.windTerms = new int[neighbourhood.size()];
+        byte[] west = new byte[neighbourhood.size()];
+        byte[] south = new byte[neighbourhood.size()];
+        boolean fitsInBytes = true;
+        long westSum = 0;
+        long southSum = 0;
+        for (int neighbour = 0; neighbour < this.windTerms.length; neighbour++) {
+            int westWeight = neighbourhood.getWestWeight(neighbour);
+            int southWeight = neighbourhood.getSouthWeight(neighbour);
+            this.windTerms[neighbour] = westWeight * westWindSpeed + southWeight * southWindSpeed;
+            west[neighbour] = (byte) westWeight;
+            south[neighbour] = (byte) southWeight;
+            fitsInBytes &= west[neighbour] == westWeight && south[neighbour] == southWeight;
+            westSum += Math.abs(westWeight);
+            southSum += Math.abs(southWeight);
+        }
+        this.westWeights = fitsInBytes ? west : null;
+        this.southWeights = fitsInBytes ? south : null;
+        this.westWeightSum = westSum;
+        this.southWeightSum = southSum;
+
+        if (westWindSpeed == 0 && southWindSpeed == 0 && probabilityOfSpread >= 0) {
+            this.rule = ForestState.rule(probabilityOfSpread, neighbourhood).compile();
+            this.countedCode = (byte) this.rule.getCountedState();
+            this.countDependent = new boolean[this.rule.getStates()];
+            for (int state = 0; state < this.countDependent.length; state++) {
+                this.countDependent[state] = this.rule.isCountDependent(state);
+            }
+        }
+        else {
+            this.rule = null;
+            this.countedCode = FIRE_CODE;
+            this.countDependent = null;
+        }
+    }
+
+    /**
+     * Renvoi true si le noyau a été compilé pour ce voisinage, cette grille et ces vents.
+     */
+    boolean matches(Neighbourhood neighbourhood, ByteGrid grid, int westWindSpeed, int southWindSpeed, int probabilityOfSpread) {
+        return this.neighbourhood == neighbourhood && this.stride == grid.getStride()
+                && this.westWindSpeed == westWindSpeed && this.southWindSpeed == southWindSpeed
+                && this.probabilityOfSpread == probabilityOfSpread;
+    }
+
+    /**
+     * Indique si le prochain état se calcule avec la règle compilée ({@link #nextState(byte[], int, long, long)}).
+     */
+    boolean hasRule() {
+        return this.rule != null;
+    }
+
+    /**
+     * Renvoi le prochain code d'une cellule avec la règle compilée : une lecture de la table, après avoir compté les
+     * voisins en feu seulement si la transition de l'état en dépend.
+     */
+    byte nextState(byte[] cells, int index, long generationKey, long cellIndex) {
+        int state = cells[index];
+        int count = 0;
+        if (this.countDependent[state]) {
+            for (int neighbour = 0; neighbour < this.offsets.length; neighbour++) {
+                count += cells[index + this.offsets[neighbour]] == this.countedCode ? 1 : 0;
+            }
+        }
+        return this.rule.next(this.rule.index(state, count), generationKey, cellIndex);
+    }
+
+    /**
+     * Renvoi le prochain code d'une cellule forêt : elle prend feu si le nombre aléatoire est sous
+     * {@code nbVoisinsEnFeu * (probabilité + vents des voisins en feu)}. Les voisins sont comptés sans branchement.
+     */
+    byte nextForestState(byte[] cells, int index, int probabilityOfSpread, long generationKey, long cellIndex) {
+        int nbNextCellWithFire = 0;
+        int currentProbabilityOfSpread = probabilityOfSpread;
+        for (int neighbour = 0; neighbour < this.offsets.length; neighbour++) {
+            int onFire = cells[index + this.offsets[neighbour]] == FIRE_CODE ? 1 : 0;
+            nbNextCellWithFire += onFire;
+            currentProbabilityOfSpread += onFire * this.windTerms[neighbour];
+        }
+        if (nbNextCellWithFire == 0) {
+            return FOREST_CODE;
+        }
+        return CellRandom.percentage(generationKey, cellIndex) <= nbNextCellWithFire * currentProbabilityOfSpread ? FIRE_CODE : FOREST_CODE;
+    }
+
+    Neighbourhood getNeighbourhood() {
+        return neighbourhood;
+    }
+
+    /**
+     * Renvoi le poids du vent d'ouest de chaque voisin sur 8 bits, null s'il n'y tient pas. Le tableau n'est pas copié.
+     */
+    byte[] getWestWeights() {
+        return westWeights;
+    }
+
+    /**
+     * Renvoi le poids du vent du sud de chaque voisin sur 8 bits, null s'il n'y tient pas. Le tableau n'est pas copié.
+     */
+    byte[] getSouthWeights() {
+        return southWeights;
+    }
+
+    long getWestWeightSum() {
+        return westWeightSum;
+    }
+
+    long getSouthWeightSum() {
+        return southWeightSum;
+    }
+
+    /**
+     * Renvoi le décalage d'indice de chaque voisin, le tableau n'est pas copié.
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+}
@@ -0,0 +1,294 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.CellRandom;
+import org.example.cellularautomaton.automaton.RunningStatistics;
+import org.example.cellularautomaton.automaton.SimulationMetrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Lance de nombreux essais indépendants de feu de forêt pour chaque point d'une grille de paramètres et calcule les
+ * statistiques du pourcentage de forêt brulée et du nombre de générations avant l'extinction du feu.
+ * <p>
+ * Les essais d'un point sont répartis entre les workers, chaque worker réutilise sa propre forêt (et donc ses
+ * grilles) d'un essai à l'autre. Un point est arrêté dès que l'intervalle de confiance du pourcentage de forêt
+ * brulée est assez petit. La graine de chaque essai ne dépend que de la graine du runner, du numéro du point et du
+ * numéro de l'essai.
+ * <p>
+ * Les résultats des essais sont ajoutés aux statistiques dans l'ordre des numéros d'essai, quel que soit l'ordre où
+ * les workers les terminent, et l'arrêt est décidé sur les premiers essais : le résultat d'un point est le même
+ * quel que soit le nombre de workers. Les essais lancés après ceux qui ont arrêté le point ne sont pas comptés.
+ */
+public class ForestMonteCarloRunner {
+    private final ExecutorService executor;
+    private final ForestAutomaton[] workerForests;
+    private ForestEngine engine = ForestEngine.FRONTIER;
+    private int maxTrials = 1000;
+    private int minTrials = 30;
+    // Demi-largeur de l'intervalle de confiance qui arrête les essais d'un point, 0 pour faire tous les essais
+    private double targetHalfWidth;
+    // Quantile de la loi normale de l'intervalle de confiance (95 %)
+    private double z = 1.96;
+    private long seed;
+    // Les mesures des générations de toutes les forêts des essais, null quand elles sont désactivées.
+    private SimulationMetrics metrics;
+
+    /**
+     * Constructeur qui utilise le ForkJoinPool commun avec un worker par processeur.
+     */
+    public ForestMonteCarloRunner() {
+        this(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param executor l'exécuteur des essais.
+     * @param workers le nombre d'essais lancés en même temps.
+     */
+    public ForestMonteCarloRunner(ExecutorService executor, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Le nombre de workers doit être positif : " + workers);
+        }
+        this.executor = executor;
+        this.workerForests = new ForestAutomaton[workers];
+    }
+
+    /**
+     * Lance les essais de tous les points, un point après l'autre. Le résultat de chaque point est donné au
+     * listener dès que le point est terminé.
+     *
+     * @param points les paramètres des points à simuler.
+     * @param listener reçoit le résultat de chaque point, sur le thread appelant.
+     * @return les résultats de tous les points.
+     */
+    public List<ForestPointResult> run(List<ForestParameters> points, Consumer<ForestPointResult> listener) {
+        List<ForestPointResult> results = new ArrayList<>(points.size());
+        for (int pointIndex = 0; pointIndex < points.size(); pointIndex++) {
+            ForestPointResult result = runPoint(points.get(pointIndex), pointIndex);
+            results.add(result);
+            listener.accept(result);
+        }
+        return results;
+    }
+
+    /**
+     * Lance les essais d'un point.
+     *
+     * @param parameters les paramètres du point.
+     * @param pointIndex le numéro du point, utilisé pour les graines des essais.
+     * @return le résultat du point.
+     */
+    public ForestPointResult runPoint(ForestParameters parameters, int pointIndex) {
+        TrialMerger merger = new TrialMerger();
+        AtomicInteger nextTrial = new AtomicInteger();
+        long pointSeed = CellRandom.generationKey(this.seed, pointIndex);
+
+        Future<?>[] futures = new Future<?>[this.workerForests.length];
+        for (int worker = 0; worker < futures.length; worker++) {
+            ForestAutomaton forest = getWorkerForest(worker);
+            futures[worker] = this.executor.submit(() -> {
+                while (!merger.isStopped()) {
+                    int trial = nextTrial.getAndIncrement();
+                    if (trial >= this.maxTrials) {
+                        return;
+                    }
+                    forest.setMetrics(this.metrics);
+                    parameters.applyTo(forest);
+                    forest.setSeed(CellRandom.generationKey(pointSeed, trial));
+                    forest.initForest();
+                    forest.stepUntil(() -> !forest.isStillFireInForest(), Long.MAX_VALUE);
+                    // Sans cellule forêt le pourcentage vaut -1, il est compté comme 0 % de forêt brulée
+                    int burned = Math.max(0, forest.getPercentageBurnedForest());
+                    merger.add(trial, burned, forest.getGeneration());
+                }
+            });
+        }
+        waitFor(futures, merger);
+
+        return new ForestPointResult(parameters, merger.burnedPercentage, merger.generationsToExtinction,
+                merger.burnedPercentage.getConfidenceHalfWidth(this.z), merger.isStopped());
+    }
+
+    /**
+     * Ajoute les résultats des essais d'un point aux statistiques dans l'ordre des numéros d'essai. Un essai terminé
+     * avant les essais qui le précèdent attend qu'ils soient terminés.
+     */
+    private final class TrialMerger {
+        private final RunningStatistics burnedPercentage = new RunningStatistics();
+        private final RunningStatistics generationsToExtinction = new RunningStatistics();
+        // Les résultats terminés en avance (pourcentage brulé, générations), par numéro d'essai.
+        private final Map<Integer, long[]> pending = new HashMap<>();
+        // Le numéro du prochain essai à ajouter aux statistiques.
+        private int nextMerged;
+        private volatile boolean stopped;
+
+        synchronized void add(int trial, int burned, long generations) {
+            if (this.stopped) {
+                return;
+            }
+            this.pending.put(trial, new long[]{burned, generations});
+            long[] result;
+            while ((result = this.pending.remove(this.nextMerged)) != null) {
+                this.burnedPercentage.add(result[0]);
+                this.generationsToExtinction.add(result[1]);
+                this.nextMerged++;
+                if (targetHalfWidth > 0 && this.burnedPercentage.getCount() >= minTrials
+                        && this.burnedPercentage.getConfidenceHalfWidth(z) <= targetHalfWidth) {
+                    this.stopped = true;
+                    this.pending.clear();
+                    return;
+                }
+            }
+        }
+
+        boolean isStopped() {
+            return this.stopped;
+        }
+
+        /**
+         * Arrête les essais du point après l'échec d'un essai : les workers ne lancent plus de nouvel essai.
+         */
+        synchronized void cancel() {
+            this.stopped = true;
+            this.pending.clear();
+        }
+    }
+
+    private ForestAutomaton getWorkerForest(int worker) {
+        ForestAutomaton forest = this.workerForests[worker];
+        if (forest == null || forest.getEngine() != this.engine) {
+            forest = new ForestAutomaton(1, 1, 4);
+            forest.setEngine(this.engine);
+            this.workerForests[worker] = forest;
+        }
+        return forest;
+    }
+
+    /**
+     * Attend la fin de tous les workers du point. Quand un essai échoue, les autres workers s'arrêtent après leur
+     * essai en cours et l'erreur du premier worker en échec n'est relancée qu'une fois tous les workers terminés :
+     * aucun worker n'utilise encore sa forêt quand runPoint se termine.
+     */
+    private static void waitFor(Future<?>[] futures, TrialMerger merger) {
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            }
+            catch (InterruptedException e) {
+                merger.cancel();
+                for (Future<?> other : futures) {
+                    other.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Essais interrompus", e);
+            }
+            catch (ExecutionException e) {
+                merger.cancel();
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    public ForestEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Modifie le stockage des forêts des essais. FRONTIER est le plus rapide pour une forêt dont le feu s'éteint.
+     *
+     * @param engine le stockage des forêts.
+     */
+    public void setEngine(ForestEngine engine) {
+        this.engine = engine;
+    }
+
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Mesure les générations de tous les essais dans les mêmes mesures, par exemple enregistrées dans JMX pour
+     * suivre une longue série d'essais.
+     *
+     * @param metrics les mesures à remplir, null pour ne pas mesurer.
+     */
+    public void setMetrics(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public int getMaxTrials() {
+        return maxTrials;
+    }
+
+    public void setMaxTrials(int maxTrials) {
+        this.maxTrials = maxTrials;
+    }
+
+    public int getMinTrials() {
+        return minTrials;
+    }
+
+    /**
+     * Modifie le nombre d'essais minimum d'un point avant de pouvoir l'arrêter.
+     *
+     * @param minTrials le nombre d'essais minimum.
+     */
+    public void setMinTrials(int minTrials) {
+        this.minTrials = minTrials;
+    }
+
+    public double getTargetHalfWidth() {
+        return targetHalfWidth;
+    }
+
+    /**
+     * Modifie la demi-largeur de l'intervalle de confiance (en points de pourcentage) qui arrête les essais d'un
+     * point.
+     *
+     * @param targetHalfWidth la demi-largeur visée, 0 pour faire tous les essais.
+     */
+    public void setTargetHalfWidth(double targetHalfWidth) {
+        this.targetHalfWidth = targetHalfWidth;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * Modifie le quantile de la loi normale de l'intervalle de confiance.
+     *
+     * @param z le quantile (1.96 pour 95 %, 2.576 pour 99 %).
+     */
+    public void setZ(double z) {
+        this.z = z;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
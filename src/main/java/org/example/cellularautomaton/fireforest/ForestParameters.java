@@ -0,0 +1,58 @@
+package org.example.cellularautomaton.fireforest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Les paramètres d'une simulation de feu de forêt.
+ *
+ * @param x la valeur en abscisse de la grille.
+ * @param y la valeur en ordonnée de la grille.
+ * @param nbNextCell le nombre de voisin à prendre en compte pour la simulation (4, 6 ou 8).
+ * @param density la densité de la forêt.
+ * @param probabilityOfSpread la probabilité de propagation du feu.
+ * @param westWindSpeed la force du vent d'ouest (si négatif alors vent d'est).
+ * @param southWindSpeed la force du vent du sud (si négatif alors vent du nord).
+ */
+public record ForestParameters(int x, int y, int nbNextCell, int density, int probabilityOfSpread,
+                               int westWindSpeed, int southWindSpeed) {
+
+    /**
+     * Renvoi toutes les combinaisons des valeurs passées en paramètre, pour une grille de taille fixe.
+     *
+     * @return la liste des paramètres de chaque combinaison.
+     */
+    public static List<ForestParameters> combinations(int x, int y, int[] nbNextCells, int[] densities,
+                                                      int[] probabilitiesOfSpread, int[] westWindSpeeds,
+                                                      int[] southWindSpeeds) {
+        List<ForestParameters> combinations = new ArrayList<>();
+        for (int nbNextCell : nbNextCells) {
+            for (int density : densities) {
+                for (int probabilityOfSpread : probabilitiesOfSpread) {
+                    for (int westWindSpeed : westWindSpeeds) {
+                        for (int southWindSpeed : southWindSpeeds) {
+                            combinations.add(new ForestParameters(x, y, nbNextCell, density, probabilityOfSpread,
+                                    westWindSpeed, southWindSpeed));
+                        }
+                    }
+                }
+            }
+        }
+        return combinations;
+    }
+
+    /**
+     * Applique les paramètres à une forêt. La forêt doit ensuite être initialisée.
+     *
+     * @param forestAutomaton la forêt à paramétrer.
+     */
+    public void applyTo(ForestAutomaton forestAutomaton) {
+        forestAutomaton.setX(this.x);
+        forestAutomaton.setY(this.y);
+        forestAutomaton.setNbNextCell(this.nbNextCell);
+        forestAutomaton.setDensity(this.density);
+        forestAutomaton.setProbabilityOfSpread(this.probabilityOfSpread);
+        forestAutomaton.setWestWindSpeed(this.westWindSpeed);
+        forestAutomaton.setSouthWindSpeed(this.southWindSpeed);
+    }
+}
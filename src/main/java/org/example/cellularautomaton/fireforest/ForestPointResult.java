@@ -0,0 +1,30 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.RunningStatistics;
+
+/**
+ * Le résultat des essais d'un point de paramètres du {@link ForestMonteCarloRunner}.
+ *
+ * @param parameters les paramètres du point.
+ * @param burnedPercentage les statistiques du pourcentage de forêt brulée.
+ * @param generationsToExtinction les statistiques du nombre de générations avant l'extinction du feu.
+ * @param confidenceHalfWidth la demi-largeur de l'intervalle de confiance du pourcentage de forêt brulée.
+ * @param stoppedEarly vrai si les essais ont été arrêtés car l'intervalle de confiance était assez petit.
+ */
+public record ForestPointResult(ForestParameters parameters, RunningStatistics burnedPercentage,
+                                RunningStatistics generationsToExtinction, double confidenceHalfWidth,
+                                boolean stoppedEarly) {
+
+    public long trials() {
+        return burnedPercentage.getCount();
+    }
+
+    @Override
+    public String toString() {
+        return parameters + " essais=" + trials() +
+                String.format(" brulée=%.2f %% ± %.2f (variance %.2f)", burnedPercentage.getMean(), confidenceHalfWidth,
+                        burnedPercentage.getVariance()) +
+                String.format(" extinction=%.1f générations", generationsToExtinction.getMean()) +
+                (stoppedEarly ? " (arrêt anticipé)" : "");
+    }
+}
@@ -1,8 +1,97 @@
 package org.example.cellularautomaton.fireforest;
 
+import org.example.cellularautomaton.automaton.Neighbourhood;
+import org.example.cellularautomaton.rule.TransitionTableRule;
+
 public enum ForestState {
-    EMPTY,
-    FOREST,
-    FIRE,
-    BURNED
+    EMPTY("\uD83D\uDFEB", 0x8B5A2B),
+    FOREST("\uD83C\uDF32", 0x228B22),
+    FIRE("\uD83D\uDD25", 0xFF4500),
+    BURNED("\uD83D\uDD32", 0x404040);
+
+    private static final ForestState[] VALUES = values();
+
+    // Le texte de l'état dans le terminal et sa couleur (0xRRGGBB) dans une image.
+    private final String symbol;
+    private final int color;
+
+    ForestState(String symbol, int color) {
+        this.symbol = symbol;
+        this.color = color;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    /**
+     * Renvoi le texte de chaque état indexé par son code, pour un
+     * {@link org.example.cellularautomaton.automaton.TerminalFrameEncoder}.
+     *
+     * @return le texte de chaque état.
+     */
+    public static String[] symbols() {
+        String[] symbols = new String[VALUES.length];
+        for (ForestState state : VALUES) {
+            symbols[state.ordinal()] = state.symbol;
+        }
+        return symbols;
+    }
+
+    /**
+     * Renvoi la couleur de chaque état indexée par son code, pour un
+     * {@link org.example.cellularautomaton.automaton.ImageFrameEncoder}.
+     *
+     * @return la couleur de chaque état.
+     */
+    public static int[] palette() {
+        int[] palette = new int[VALUES.length];
+        for (ForestState state : VALUES) {
+            palette[state.ordinal()] = state.color;
+        }
+        return palette;
+    }
+
+    /**
+     * Renvoi la règle du feu de forêt sans vent en table de transitions, pour un
+     * {@link org.example.cellularautomaton.rule.RuleAutomaton} : un arbre prend feu avec une chance de
+     * probabilityOfSpread % par voisin en feu, un feu devient brûlé. Avec la même forêt et la même graine le résultat
+     * est celui de {@link ForestAutomaton} sans vent.
+     *
+     * @param probabilityOfSpread la probabilité de propagation du feu.
+     * @param neighbourhood le voisinage de la forêt.
+     * @return la règle du feu de forêt.
+     */
+    public static TransitionTableRule rule(int probabilityOfSpread, Neighbourhood neighbourhood) {
+        return TransitionTableRule.parse(ForestState.class, """
+                count FIRE
+                FIRE -> BURNED
+                BURNED -> BURNED
+                FOREST 1-%d -> FIRE %d%%*n
+                """.formatted(neighbourhood.size(), probabilityOfSpread), neighbourhood);
+    }
+
+    /**
+     * Renvoi le code de l'état utilisé dans les grilles de byte (l'ordinal de l'état). EMPTY vaut 0 pour que la
+     * bordure d'une {@link org.example.cellularautomaton.automaton.ByteGrid} soit une cellule vide.
+     *
+     * @return le code de l'état.
+     */
+    public byte getCode() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Renvoi l'état correspondant au code passé en paramètre.
+     *
+     * @param code le code de l'état.
+     * @return l'état correspondant.
+     */
+    public static ForestState fromCode(byte code) {
+        return VALUES[code];
+    }
 }
@@ -0,0 +1,133 @@
+package org.example.cellularautomaton.fireforest;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.example.cellularautomaton.automaton.ByteGrid;
+import org.example.cellularautomaton.automaton.CellRandom;
+
+/**
+ * Calcul d'une génération de la forêt avec l'API Vector (stockage VECTOR) : les cellules d'une ligne sont
+ * calculées par paquets de la taille d'un vecteur. Le nombre de voisins en feu et les deux sommes de vent sont
+ * comptés pour tout le paquet, ce qui donne directement l'état des cellules vides, en feu, brulées et des forêts
+ * sans voisin en feu. Le seuil de propagation est calculé par vecteurs pour les forêts qui ont un voisin en feu,
+ * puis comparé au nombre aléatoire de chacune de ces cellules.
+ * <p>
+ * Les voisins sont lus avec les décalages du voisinage compilé ({@link ForestKernel}), n'importe quel voisinage est
+ * donc calculé par vecteurs. Le résultat est celui de
+ * {@link ForestAutomaton#determineNextState(ByteGrid, ForestKernel, int, long, long)}, qui calcule la fin des lignes
+ * plus courte qu'un vecteur. Cette classe n'est chargée que si le module jdk.incubator.vector l'est.
+ */
+final class VectorForestKernel {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORT_SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final int LENGTH = SPECIES.length();
+    private static final int SHORT_LENGTH = SHORT_SPECIES.length();
+
+    private static final byte EMPTY_CODE = ForestState.EMPTY.getCode();
+    private static final byte FOREST_CODE = ForestState.FOREST.getCode();
+    private static final byte FIRE_CODE = ForestState.FIRE.getCode();
+    private static final byte BURNED_CODE = ForestState.BURNED.getCode();
+
+    private VectorForestKernel() {
+    }
+
+    /**
+     * Calcule le prochain état des lignes [fromRow, toRow[ de la forêt.
+     *
+     * @param kernel le voisinage compilé pour la grille, null si le nombre de voisins n'en désigne aucun.
+     */
+    static void simulateRows(ForestAutomaton forest, ByteGrid currentForest, ByteGrid nextForest, ForestKernel kernel,
+                             int fromRow, int toRow, long generationKey) {
+        int probability = forest.getProbabilityOfSpread();
+        int westWind = forest.getWestWindSpeed();
+        int southWind = forest.getSouthWindSpeed();
+        int[] offsets = kernel == null ? null : kernel.getOffsets();
+        byte[] west = kernel == null ? null : kernel.getWestWeights();
+        byte[] south = kernel == null ? null : kernel.getSouthWeights();
+        // Les compteurs sont sur 8 bits et le seuil est calculé sur 16 bits : les voisinages et les paramètres trop
+        // grands sont calculés sans vecteurs.
+        boolean vectorizable = offsets != null && west != null && offsets.length <= Byte.MAX_VALUE
+                && kernel.getWestWeightSum() <= Byte.MAX_VALUE && kernel.getSouthWeightSum() <= Byte.MAX_VALUE
+                && offsets.length * (Math.abs((long) probability) + kernel.getWestWeightSum() * Math.abs((long) westWind)
+                + kernel.getSouthWeightSum() * Math.abs((long) southWind)) <= Short.MAX_VALUE;
+
+        int x = forest.getX();
+        byte[] cells = currentForest.getCells();
+        byte[] nextCells = nextForest.getCells();
+
+        for (int ii = fromRow; ii < toRow; ii++) {
+            int rowStart = currentForest.index(0, ii);
+            long rowCellIndex = (long) ii * x;
+            int jj = 0;
+            if (vectorizable) {
+                for (; jj <= x - LENGTH; jj += LENGTH) {
+                    int index = rowStart + jj;
+                    ByteVector current = ByteVector.fromArray(SPECIES, cells, index);
+                    VectorMask<Byte> isForest = current.eq(FOREST_CODE);
+                    VectorMask<Byte> burns = current.eq(FIRE_CODE).or(current.eq(BURNED_CODE));
+
+                    ByteVector fireCount = ByteVector.zero(SPECIES);
+                    ByteVector westCount = ByteVector.zero(SPECIES);
+                    ByteVector southCount = ByteVector.zero(SPECIES);
+                    for (int neighbour = 0; neighbour < offsets.length; neighbour++) {
+                        VectorMask<Byte> onFire = ByteVector.fromArray(SPECIES, cells, index + offsets[neighbour]).eq(FIRE_CODE);
+                        fireCount = fireCount.add((byte) 1, onFire);
+                        if (west[neighbour] != 0) {
+                            westCount = westCount.add(west[neighbour], onFire);
+                        }
+                        if (south[neighbour] != 0) {
+                            southCount = southCount.add(south[neighbour], onFire);
+                        }
+                    }
+
+                    ByteVector.broadcast(SPECIES, EMPTY_CODE)
+                            .blend(BURNED_CODE, burns)
+                            .blend(FOREST_CODE, isForest)
+                            .intoArray(nextCells, index);
+
+                    VectorMask<Byte> candidates = isForest.and(fireCount.compare(VectorOperators.GT, (byte) 0));
+                    if (candidates.anyTrue()) {
+                        ignite(nextCells, index, rowCellIndex + jj, candidates.toLong(), fireCount, westCount,
+                                southCount, probability, westWind, southWind, generationKey);
+                    }
+                }
+            }
+            for (int index = rowStart + jj; jj < x; jj++, index++) {
+                nextCells[index] = forest.determineNextState(currentForest, kernel, index, generationKey, rowCellIndex + jj);
+            }
+        }
+    }
+
+    /**
+     * Calcule le seuil de propagation {@code nbVoisinsEnFeu * (probabilité + vents)} du paquet sur 16 bits et met
+     * en feu les forêts candidates dont le nombre aléatoire est sous le seuil.
+     */
+    private static void ignite(byte[] nextCells, int index, long cellIndex, long candidates, ByteVector fireCount,
+                               ByteVector westCount, ByteVector southCount, int probability, int westWind,
+                               int southWind, long generationKey) {
+        long partMask = SHORT_LENGTH == Long.SIZE ? -1L : (1L << SHORT_LENGTH) - 1;
+        for (int part = 0; part < LENGTH / SHORT_LENGTH; part++) {
+            long partCandidates = (candidates >>> (part * SHORT_LENGTH)) & partMask;
+            if (partCandidates == 0) {
+                continue;
+            }
+            ShortVector threshold = ((ShortVector) westCount.convertShape(VectorOperators.B2S, SHORT_SPECIES, part))
+                    .mul((short) westWind)
+                    .add(((ShortVector) southCount.convertShape(VectorOperators.B2S, SHORT_SPECIES, part)).mul((short) southWind))
+                    .add((short) probability)
+                    .mul((ShortVector) fireCount.convertShape(VectorOperators.B2S, SHORT_SPECIES, part));
+
+            while (partCandidates != 0) {
+                int lane = Long.numberOfTrailingZeros(partCandidates);
+                partCandidates &= partCandidates - 1;
+                int cell = part * SHORT_LENGTH + lane;
+                if (CellRandom.percentage(generationKey, cellIndex + cell) <= threshold.lane(lane)) {
+                    nextCells[index + cell] = FIRE_CODE;
+                }
+            }
+        }
+    }
+}
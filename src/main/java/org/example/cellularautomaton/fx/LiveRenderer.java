@@ -0,0 +1,239 @@
+package org.example.cellularautomaton.fx;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import org.example.cellularautomaton.automaton.FrameOutput;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Affichage JavaFX d'une simulation qui tourne sur un autre fil. Le fil de la simulation calcule les pixels d'une
+ * génération, le fil JavaFX affiche à chaque image de l'écran la dernière génération calculée : la simulation
+ * n'attend jamais l'affichage et les générations trop rapides ne sont pas affichées.
+ * <p>
+ * Trois tableaux de pixels tournent entre les deux fils : celui que la simulation écrit, celui qui est prêt à être
+ * affiché et celui que le fil JavaFX recopie. Les deux fils n'échangent que des références, sous un verrou pris
+ * quelques instructions. Le {@link PixelBuffer} de l'image n'est modifié que par le fil JavaFX, dans
+ * {@link PixelBuffer#updateBuffer(javafx.util.Callback)} comme JavaFX le demande : une seule copie des pixels par
+ * image affichée, jamais pendant que l'image est rendue.
+ */
+public class LiveRenderer {
+    /**
+     * Les pixels d'une génération.
+     */
+    private static final class Slot {
+        private final int[] pixels;
+        private long generation;
+
+        private Slot(int x, int y) {
+            this.pixels = new int[x * y];
+        }
+    }
+
+    private final int x;
+    private final int y;
+    // La couleur opaque (0xAARRGGBB) de chaque valeur de cellule, 256 entrées pour lire un octet sans vérification.
+    private final int[] palette = new int[256];
+    private final ImageView view = new ImageView();
+    // Les pixels affichés, modifiés seulement par le fil JavaFX dans updateBuffer.
+    private final IntBuffer pixels;
+    private final PixelBuffer<IntBuffer> buffer;
+    private final AnimationTimer timer;
+    private final Object lock = new Object();
+
+    // Utilisés par le fil de la simulation seulement.
+    private Slot writing;
+    private final byte[] cells;
+    private final int[] rowPixels;
+
+    // Partagés entre les deux fils, sous le verrou.
+    private Slot ready;
+    private Slot free;
+    private long publishedFrames;
+    private long skippedFrames;
+
+    // Utilisés par le fil JavaFX seulement.
+    private Slot displayed;
+    private long displayedGeneration;
+    private long shownFrames;
+
+    /**
+     * Constructeur à appeler sur le fil JavaFX.
+     *
+     * @param x le nombre de colonnes de la grille, un pixel par cellule.
+     * @param y le nombre de lignes de la grille.
+     * @param palette la couleur (0xRRGGBB) de chaque valeur de cellule, au plus 256 couleurs.
+     */
+    public LiveRenderer(int x, int y, int[] palette) {
+        if (x <= 0 || y <= 0) {
+            throw new IllegalArgumentException("La taille de la grille doit être positive : " + x + "x" + y);
+        }
+        if (palette.length == 0 || palette.length > 256) {
+            throw new IllegalArgumentException("La palette doit avoir entre 1 et 256 couleurs : " + palette.length);
+        }
+        this.x = x;
+        this.y = y;
+        for (int value = 0; value < this.palette.length; value++) {
+            this.palette[value] = 0xFF000000 | palette[value % palette.length];
+        }
+        this.cells = new byte[x * y];
+        this.rowPixels = new int[x];
+
+        this.displayed = new Slot(x, y);
+        this.writing = new Slot(x, y);
+        this.free = new Slot(x, y);
+        this.pixels = ByteBuffer.allocateDirect(x * y * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        this.buffer = new PixelBuffer<>(x, y, this.pixels, PixelFormat.getIntArgbPreInstance());
+        this.view.setImage(new WritableImage(this.buffer));
+        this.view.setPreserveRatio(true);
+        // Un pixel par cellule : pas de lissage, les cellules restent nettes quand la vue est agrandie.
+        this.view.setSmooth(false);
+
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                showReadyFrame();
+            }
+        };
+    }
+
+    /**
+     * Indique si la génération suivante sera affichée. Quand une génération attend déjà d'être affichée, la
+     * simulation peut continuer sans appeler {@link #publish(long, FrameOutput.FrameSource)}.
+     *
+     * @return true si aucune génération n'attend d'être affichée.
+     */
+    public boolean isFrameWanted() {
+        synchronized (this.lock) {
+            return this.ready == null;
+        }
+    }
+
+    /**
+     * Calcule les pixels d'une génération et la donne à afficher. Appelé par le fil de la simulation : il écrit dans
+     * un tableau que le fil JavaFX n'utilise pas, puis remplace la génération qui attendait d'être affichée s'il y en
+     * a une.
+     *
+     * @param generation le numéro de la génération.
+     * @param source copie les cellules de la génération, par exemple {@code forest::copyCells}.
+     */
+    public void publish(long generation, FrameOutput.FrameSource source) {
+        Slot slot = this.writing;
+        source.copyCells(this.cells);
+        for (int row = 0; row < this.y; row++) {
+            int offset = row * this.x;
+            for (int column = 0; column < this.x; column++) {
+                this.rowPixels[column] = this.palette[this.cells[offset + column] & 0xFF];
+            }
+            System.arraycopy(this.rowPixels, 0, slot.pixels, offset, this.x);
+        }
+        slot.generation = generation;
+
+        synchronized (this.lock) {
+            Slot previous = this.ready;
+            this.ready = slot;
+            this.publishedFrames++;
+            if (previous != null) {
+                // La génération précédente n'a pas été affichée : son tableau est réécrit.
+                this.writing = previous;
+                this.skippedFrames++;
+            }
+            else {
+                this.writing = this.free;
+                this.free = null;
+            }
+        }
+    }
+
+    /**
+     * Affiche la dernière génération calculée. Appelé par le fil JavaFX à chaque image de l'écran, avant le rendu de
+     * l'image.
+     */
+    private void showReadyFrame() {
+        Slot next;
+        synchronized (this.lock) {
+            next = this.ready;
+            if (next == null) {
+                return;
+            }
+            this.ready = null;
+            this.free = this.displayed;
+        }
+        this.displayed = next;
+        this.buffer.updateBuffer(buffer -> {
+            this.pixels.put(0, next.pixels);
+            // Tout le tampon a changé : null demande de recopier l'image entière vers la carte graphique.
+            return null;
+        });
+        this.displayedGeneration = next.generation;
+        this.shownFrames++;
+    }
+
+    /**
+     * Démarre l'affichage des générations, à appeler sur le fil JavaFX.
+     */
+    public void start() {
+        this.timer.start();
+    }
+
+    /**
+     * Arrête l'affichage des générations, à appeler sur le fil JavaFX.
+     */
+    public void stop() {
+        this.timer.stop();
+    }
+
+    /**
+     * Renvoi la vue qui affiche les générations.
+     *
+     * @return la vue de la grille.
+     */
+    public ImageView getView() {
+        return view;
+    }
+
+    /**
+     * Renvoi le numéro de la génération affichée, à lire sur le fil JavaFX.
+     *
+     * @return le numéro de la génération affichée.
+     */
+    public long getDisplayedGeneration() {
+        return displayedGeneration;
+    }
+
+    /**
+     * Renvoi le nombre de générations affichées, à lire sur le fil JavaFX.
+     *
+     * @return le nombre d'images affichées.
+     */
+    public long getShownFrames() {
+        return shownFrames;
+    }
+
+    /**
+     * Renvoi le nombre de générations écrites par la simulation.
+     *
+     * @return le nombre d'images écrites.
+     */
+    public long getPublishedFrames() {
+        synchronized (this.lock) {
+            return publishedFrames;
+        }
+    }
+
+    /**
+     * Renvoi le nombre de générations écrites mais remplacées par une génération suivante avant d'être affichées.
+     *
+     * @return le nombre d'images ignorées.
+     */
+    public long getSkippedFrames() {
+        synchronized (this.lock) {
+            return skippedFrames;
+        }
+    }
+}
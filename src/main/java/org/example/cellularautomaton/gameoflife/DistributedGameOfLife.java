@@ -0,0 +1,204 @@
+package org.example.cellularautomaton.gameoflife;
+
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.automaton.Snapshot;
+import org.example.cellularautomaton.automaton.StripeCoordinator;
+import org.example.cellularautomaton.automaton.StripeWorker;
+import org.example.cellularautomaton.rule.CellRule;
+import org.example.cellularautomaton.rule.OuterTotalisticRule;
+import org.example.cellularautomaton.rule.RuleTable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.SplittableRandom;
+
+/**
+ * Jeu de la vie réparti entre plusieurs processus : chaque worker calcule une bande de lignes de la grille et le
+ * coordinateur (cette classe) arrête la simulation après le nombre de générations demandé ou quand toutes les
+ * cellules sont mortes.
+ * <p>
+ * La grille de départ est tirée par le coordinateur avec la graine, dans le même ordre que
+ * {@link GameOfLifeAutomaton#initializeAutomaton()}, puis envoyée ligne par ligne aux workers : avec la même graine
+ * et la même densité le résultat est celui de GameOfLifeAutomaton, quel que soit le nombre de workers.
+ * <p>
+ * Par défaut les workers sont lancés sur la machine courante, voir {@link #setLaunchLocalWorkers(boolean)}.
+ */
+public class DistributedGameOfLife {
+    // Le type de simulation envoyé aux workers.
+    static final int SIMULATION_KIND = 3;
+
+    private final int x;
+    private final int y;
+    private final Boundary boundary;
+    private final int workers;
+    private int density = 50;
+    private long seed;
+    // La règle envoyée aux workers sous forme de masques (naissances et survies).
+    private CellRule rule = OuterTotalisticRule.LIFE;
+    private RuleTable ruleTable = OuterTotalisticRule.LIFE.compile();
+    private SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    private boolean launchLocalWorkers = true;
+    private long generation;
+    private long population;
+
+    /**
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param boundary le comportement des bords de la grille.
+     * @param workers le nombre de workers, au plus le nombre de lignes de la grille.
+     */
+    public DistributedGameOfLife(int x, int y, Boundary boundary, int workers) {
+        if (x <= 0 || y <= 0) {
+            throw new IllegalArgumentException("La taille de la grille doit être positive : " + x + "x" + y);
+        }
+        this.x = x;
+        this.y = y;
+        this.boundary = boundary;
+        this.workers = workers;
+    }
+
+    /**
+     * Simule des générations à partir d'une grille tirée au hasard.
+     *
+     * @param generations le nombre maximum de générations, la simulation s'arrête avant si toutes les cellules
+     *                    sont mortes.
+     * @param finalRows reçoit les lignes de la dernière génération (1 pour une cellule vivante), null pour ne pas
+     *                  les rapatrier.
+     * @throws IOException si un worker ne peut pas être joint.
+     */
+    public void run(long generations, Snapshot.RowTarget finalRows) throws IOException {
+        Snapshot.Header header = new Snapshot.Header(SIMULATION_KIND, this.x, this.y, 1, 0, this.seed,
+                new int[] {this.ruleTable.getBirthMask(), this.ruleTable.getSurvivalMask()});
+        SplittableRandom generator = new SplittableRandom(this.seed);
+        // Les lignes sont demandées dans l'ordre, les nombres aléatoires sont donc tirés dans l'ordre de la grille.
+        Snapshot.RowSource initialRows = (row, target, offset) -> {
+            for (int column = 0; column < this.x; column++) {
+                target[offset + column] = (byte) (generator.nextInt(1, 101) <= this.density ? 1 : 0);
+            }
+        };
+
+        try (StripeCoordinator coordinator = new StripeCoordinator(this.address)) {
+            if (this.launchLocalWorkers) {
+                coordinator.launchLocalWorkers(DistributedGameOfLife.class, this.workers);
+            }
+            coordinator.start(header, this.boundary, this.workers, initialRows);
+            coordinator.run(counts -> counts[1] > 0, generations, finalRows);
+            this.generation = coordinator.getGeneration();
+            this.population = coordinator.getCounts()[1];
+        }
+    }
+
+    /**
+     * Worker : se connecte au coordinateur dont l'adresse est le premier argument, reçoit sa bande de la grille
+     * puis la calcule jusqu'à la fin de la simulation.
+     */
+    public static void main(String[] args) throws IOException {
+        try (StripeWorker worker = StripeWorker.connect(StripeCoordinator.parseAddress(args[0]))) {
+            if (worker.getHeader().kind() != SIMULATION_KIND || !worker.hasInitialRows()) {
+                throw new IllegalStateException("Le coordinateur ne simule pas le jeu de la vie");
+            }
+            int[] rule = worker.getHeader().parameters();
+            worker.run(GameOfLifeAutomaton.tileKernel(rule[0], rule[1]));
+        }
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getDensity() {
+        return density;
+    }
+
+    public void setDensity(int density) {
+        this.density = density;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Fixe la graine du tirage de la grille de départ, comme {@link GameOfLifeAutomaton#setSeed(long)}.
+     *
+     * @param seed la graine du générateur.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public CellRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Remplace la règle calculée par les workers, B3/S23 par défaut.
+     *
+     * @param rule une règle à 2 états sans hasard du voisinage de Moore.
+     * @throws IllegalArgumentException si le jeu de la vie ne peut pas calculer la règle.
+     */
+    public void setRule(CellRule rule) {
+        this.ruleTable = GameOfLifeAutomaton.compileRule(rule, false);
+        this.rule = rule;
+    }
+
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Modifie l'adresse où le coordinateur attend les workers : une adresse TCP (port 0 pour un port libre) ou un
+     * socket Unix ({@link java.net.UnixDomainSocketAddress}) pour des workers sur la même machine.
+     *
+     * @param address l'adresse du coordinateur.
+     */
+    public void setAddress(SocketAddress address) {
+        this.address = address;
+    }
+
+    public boolean isLaunchLocalWorkers() {
+        return launchLocalWorkers;
+    }
+
+    /**
+     * Choisit si {@link #run(long, Snapshot.RowTarget)} lance lui-même les workers sur la machine courante.
+     *
+     * @param launchLocalWorkers false si les workers sont lancés à la main ({@code DistributedGameOfLife tcp:hôte:port}),
+     *                           sur d'autres machines par exemple.
+     */
+    public void setLaunchLocalWorkers(boolean launchLocalWorkers) {
+        this.launchLocalWorkers = launchLocalWorkers;
+    }
+
+    /**
+     * Renvoi le numéro de la dernière génération calculée.
+     *
+     * @return le numéro de la génération.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Renvoi le nombre de cellules vivantes à la fin de la simulation.
+     *
+     * @return le nombre de cellules vivantes.
+     */
+    public long getPopulation() {
+        return population;
+    }
+}
@@ -1,33 +1,825 @@
 package org.example.cellularautomaton.gameoflife;
 
 import org.example.cellularautomaton.Automaton;
-import org.example.cellularautomaton.automaton.LinkedCell;
+import org.example.cellularautomaton.AutomatonCapability;
+import org.example.cellularautomaton.automaton.ActiveTiles;
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.automaton.ByteGrid;
+import org.example.cellularautomaton.automaton.GenerationEvent;
+import org.example.cellularautomaton.automaton.Neighbourhood;
+import org.example.cellularautomaton.automaton.ParallelStepper;
+import org.example.cellularautomaton.automaton.SimulationMetrics;
+import org.example.cellularautomaton.automaton.TiledGrid;
+import org.example.cellularautomaton.automaton.VectorSupport;
+import org.example.cellularautomaton.rule.CellRule;
+import org.example.cellularautomaton.rule.OuterTotalisticRule;
+import org.example.cellularautomaton.rule.RuleTable;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class GameOfLifeAutomaton extends Automaton {
 
+    // Le nombre de colonnes de la grille
     private int x;
+    // Le nombre de lignes de la grille
     private int y;
-    private LinkedCell<Integer> cells;
-    /*
-    0 : voisin état 1 < 2
-        OU
-        voisin été 1 > 3
-    1 : voisin état 1 = 3
-        OU
-        voisin état 1 = 2 ET cellule courante = 1
-     */
+    private final Boundary boundary;
+    private final GameOfLifeEngine engine;
+    // Le plan utilisé par le moteur HASHLIFE
+    private HashLifeUniverse universe;
+    // La grille découpée en tuiles utilisée par le moteur TILED (1 octet par cellule en mémoire, 0 ou 1).
+    private TiledGrid tiledGrid;
+    // Le pourcentage de cellules vivantes à l'initialisation
+    private int density = 50;
+    // Le générateur de nombres aléatoires, ThreadLocalRandom est utilisé s'il est null.
+    private RandomGenerator random;
+    private long generation;
+    // La règle (B3/S23 par défaut) et ses masques : le bit k est mis si k voisins vivants font naître une cellule
+    // morte ou gardent une cellule vivante.
+    private CellRule rule = OuterTotalisticRule.LIFE;
+    private int birthMask = OuterTotalisticRule.LIFE.getBirth();
+    private int survivalMask = OuterTotalisticRule.LIFE.getSurvival();
+    // Vrai pour B3/S23, calculé par les opérations écrites pour cette règle (et par vecteurs avec le moteur VECTOR).
+    private boolean conway = true;
+    // Les autres règles : 6 mots par total des 9 cellules qui donne une cellule vivante (voir applyRule).
+    private long[] ruleTerms;
+    // Le calcul d'une cellule des moteurs TILED pour la règle.
+    private TiledGrid.TileKernel tileKernel = tileKernel(this.birthMask, this.survivalMask);
+
+    // Les cellules sont rangées par 64 dans des long : la cellule (colonne, ligne) est le bit (colonne % 64) du mot
+    // (ligne * wordsPerRow + colonne / 64).
+    private final int wordsPerRow;
+    private long[] board;
+    private long[] nextBoard;
+    // Masque des bits utilisés dans le dernier mot d'une ligne
+    private final long lastWordMask;
+    // Sommes horizontales (cellule + voisines de gauche et de droite) de 3 lignes consécutives, en 2 bits : lo et hi.
+    private final long[][] rowSums;
+    // Calcul en parallèle par bandes de lignes, null pour un calcul sur le thread courant.
+    private ParallelStepper parallelStepper;
+    // Les sommes horizontales de chaque bande pour le calcul en parallèle.
+    private long[][][] stripeRowSums;
+    // Les tuiles de 64 x 64 cellules (un mot de large) qui ont changé, utilisées par le moteur ACTIVE_TILES.
+    private ActiveTiles activeTiles;
+    // Vrai si les mots sont calculés par vecteurs (moteur VECTOR et module jdk.incubator.vector chargé).
+    private final boolean vectorized;
 
     public GameOfLifeAutomaton(int x, int y) {
+        this(x, y, Boundary.DEAD);
+    }
+
+    /**
+     * Constructeur du jeu de la vie.
+     *
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param boundary DEAD si les cellules en dehors de la grille sont mortes, TOROIDAL si les bords opposés de la
+     *                 grille sont voisins.
+     */
+    public GameOfLifeAutomaton(int x, int y, Boundary boundary) {
+        this(x, y, boundary, GameOfLifeEngine.BITBOARD);
+    }
+
+    /**
+     * Constructeur du jeu de la vie avec le choix du moteur. Le moteur HASHLIFE simule un plan infini : la grille
+     * x * y est la zone initialisée et affichée, les cellules peuvent en sortir. Il n'accepte donc que le bord DEAD.
+     *
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param boundary le comportement des bords de la grille.
+     * @param engine le moteur utilisé pour calculer les générations.
+     */
+    public GameOfLifeAutomaton(int x, int y, Boundary boundary, GameOfLifeEngine engine) {
+        if (engine == GameOfLifeEngine.HASHLIFE && boundary != Boundary.DEAD) {
+            throw new IllegalArgumentException("Le moteur HASHLIFE ne gère que le bord DEAD");
+        }
+        if (x <= 0 || y <= 0) {
+            throw new IllegalArgumentException("La taille de la grille doit être positive : " + x + "x" + y);
+        }
+        this.x = x;
+        this.y = y;
+        this.boundary = boundary;
+        this.engine = engine;
+        if (engine == GameOfLifeEngine.HASHLIFE) {
+            this.universe = new HashLifeUniverse();
+        }
+        this.wordsPerRow = (x + 63) >>> 6;
+        this.board = new long[Math.multiplyExact(this.wordsPerRow, y)];
+        this.nextBoard = new long[this.board.length];
+        this.lastWordMask = (x & 63) == 0 ? -1L : (1L << x) - 1;
+        this.rowSums = new long[6][this.wordsPerRow];
+        this.vectorized = engine == GameOfLifeEngine.VECTOR && VectorSupport.isAvailable();
+        if (engine == GameOfLifeEngine.ACTIVE_TILES) {
+            this.activeTiles = new ActiveTiles(x, y, 64, boundary);
+        }
+        initializeAutomaton();
+    }
 
+    /**
+     * Constructeur du jeu de la vie avec le moteur TILED : la grille est dans un fichier découpé en tuiles et seules
+     * les tuiles du cache sont en mémoire. La grille est initialisée au hasard selon la densité.
+     *
+     * @param tiledGrid la grille découpée en tuiles.
+     * @param boundary le comportement des bords de la grille.
+     */
+    public GameOfLifeAutomaton(TiledGrid tiledGrid, Boundary boundary) {
+        this.x = tiledGrid.getX();
+        this.y = tiledGrid.getY();
+        this.boundary = boundary;
+        this.engine = GameOfLifeEngine.TILED;
+        this.tiledGrid = tiledGrid;
+        this.wordsPerRow = (this.x + 63) >>> 6;
+        this.lastWordMask = (this.x & 63) == 0 ? -1L : (1L << this.x) - 1;
+        this.rowSums = null;
+        this.vectorized = false;
+        initializeAutomaton();
     }
 
+    /**
+     * Initialise la grille avec des cellules vivantes tirées au hasard selon la densité.
+     */
     @Override
     public void initializeAutomaton() {
-
+        RandomGenerator generator = this.random != null ? this.random : ThreadLocalRandom.current();
+        this.generation = 0;
+        if (this.engine == GameOfLifeEngine.TILED) {
+            // Les nombres aléatoires sont tirés dans le même ordre que pour la grille en mémoire.
+            byte[] cells = new byte[this.x];
+            for (int row = 0; row < this.y; row++) {
+                for (int column = 0; column < this.x; column++) {
+                    cells[column] = (byte) (generator.nextInt(1, 101) <= this.density ? 1 : 0);
+                }
+                this.tiledGrid.writeRow(row, cells, 0);
+            }
+            return;
+        }
+        Arrays.fill(this.board, 0);
+        for (int row = 0; row < this.y; row++) {
+            for (int column = 0; column < this.x; column++) {
+                if (generator.nextInt(1, 101) <= this.density) {
+                    this.board[row * this.wordsPerRow + (column >>> 6)] |= 1L << column;
+                }
+            }
+        }
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            this.universe.load(this.board, this.wordsPerRow, this.x, this.y);
+        }
+        if (this.activeTiles != null) {
+            this.activeTiles.markAll();
+        }
     }
 
+    /**
+     * Simule la prochaine génération.
+     */
     @Override
     public void simulate() {
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            advance(1);
+            return;
+        }
+        // Les cellules évaluées ne sont comptées que pour les mesures ou un enregistrement JFR.
+        GenerationEvent event = GenerationEvent.beginIfEnabled();
+        SimulationMetrics metrics = getMetrics();
+        long evaluatedCells = 0;
+        if (metrics != null || event != null) {
+            evaluatedCells = (long) this.x * this.y;
+            if (this.engine == GameOfLifeEngine.ACTIVE_TILES) {
+                int tileSize = this.activeTiles.getTileSize();
+                evaluatedCells = Math.min(evaluatedCells, (long) this.activeTiles.getActiveCount() * tileSize * tileSize);
+            }
+        }
+        if (metrics != null) {
+            metrics.begin();
+        }
+
+        simulateGeneration();
+
+        if (metrics != null) {
+            metrics.end(1, evaluatedCells, evaluatedCells);
+        }
+        if (event != null) {
+            event.record("GameOfLifeAutomaton", this.engine.name(), this.generation, 1, evaluatedCells, evaluatedCells);
+        }
+    }
+
+    /**
+     * Calcule la prochaine génération avec les moteurs autres que HASHLIFE.
+     */
+    private void simulateGeneration() {
+        if (this.engine == GameOfLifeEngine.TILED) {
+            this.tiledGrid.step(this.tileKernel, this.boundary);
+            this.generation++;
+            return;
+        }
+        if (this.engine == GameOfLifeEngine.ACTIVE_TILES) {
+            simulateActiveTiles();
+        }
+        else if (this.parallelStepper != null) {
+            this.parallelStepper.forEachStripe(this.y, (stripe, fromRow, toRow) ->
+                    simulateRows(fromRow, toRow, this.stripeRowSums[stripe]));
+        }
+        else {
+            simulateRows(0, this.y, this.rowSums);
+        }
+
+        long[] currentBoard = this.board;
+        this.board = this.nextBoard;
+        this.nextBoard = currentBoard;
+        this.generation++;
+    }
+
+    /**
+     * Avance l'automate du nombre de générations passé en paramètre. Avec le moteur HASHLIFE le coût dépend de la
+     * régularité du motif et non du nombre de générations.
+     *
+     * @param generations le nombre de générations à simuler.
+     */
+    public void advance(long generations) {
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            // Les générations sont calculées ensemble : les cellules évaluées sont celles de la grille à chaque
+            // génération, pour comparer le débit aux autres moteurs, et les cellules actives les cellules vivantes.
+            GenerationEvent event = GenerationEvent.beginIfEnabled();
+            SimulationMetrics metrics = getMetrics();
+            if (metrics != null) {
+                metrics.begin();
+            }
+
+            this.universe.advance(generations);
+            this.generation += generations;
+
+            long evaluatedCells = (long) this.x * this.y * generations;
+            if (metrics != null) {
+                metrics.end(generations, evaluatedCells, this.universe.getPopulation());
+            }
+            if (event != null) {
+                event.record("GameOfLifeAutomaton", this.engine.name(), this.generation, generations, evaluatedCells, this.universe.getPopulation());
+            }
+            return;
+        }
+        for (long ii = 0; ii < generations; ii++) {
+            simulate();
+        }
+    }
+
+    /**
+     * Simule plusieurs générations avec {@link #advance(long)} : le moteur HASHLIFE avance d'un coup.
+     *
+     * @param generations le nombre de générations à simuler.
+     */
+    @Override
+    public void step(long generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException("Le nombre de générations doit être positif : " + generations);
+        }
+        advance(generations);
+    }
+
+    /**
+     * Calcule la prochaine génération avec le moteur ACTIVE_TILES : seules les tuiles dont une voisine a changé à la
+     * dernière génération sont calculées, les autres gardent les mêmes cellules dans les deux grilles.
+     */
+    private void simulateActiveTiles() {
+        if (this.parallelStepper != null) {
+            this.parallelStepper.forEachStripe(this.activeTiles.getTilesPerColumn(), (stripe, fromTileRow, toTileRow) ->
+                    simulateActiveTileRows(fromTileRow, toTileRow, this.stripeRowSums[stripe]));
+        }
+        else {
+            simulateActiveTileRows(0, this.activeTiles.getTilesPerColumn(), this.rowSums);
+        }
+        this.activeTiles.endGeneration();
+    }
+
+    /**
+     * Calcule les tuiles actives des lignes de tuiles [fromTileRow, toTileRow[. Les tuiles actives voisines d'une
+     * ligne de tuiles sont calculées ensemble, puis comparées à la génération courante.
+     */
+    private void simulateActiveTileRows(int fromTileRow, int toTileRow, long[][] sums) {
+        int tileSize = this.activeTiles.getTileSize();
+        for (int tileRow = fromTileRow; tileRow < toTileRow; tileRow++) {
+            int fromRow = tileRow * tileSize;
+            int toRow = Math.min(this.y, fromRow + tileSize);
+            int word = 0;
+            while (word < this.wordsPerRow) {
+                if (!this.activeTiles.isActive(tileRow, word)) {
+                    word++;
+                    continue;
+                }
+                int fromWord = word;
+                while (word < this.wordsPerRow && this.activeTiles.isActive(tileRow, word)) {
+                    word++;
+                }
+                simulateRows(fromRow, toRow, sums, fromWord, word);
 
+                for (int tileWord = fromWord; tileWord < word; tileWord++) {
+                    long changes = 0;
+                    for (int row = fromRow; row < toRow; row++) {
+                        int index = row * this.wordsPerRow + tileWord;
+                        changes |= this.board[index] ^ this.nextBoard[index];
+                    }
+                    if (changes != 0) {
+                        this.activeTiles.setChanged(tileRow, tileWord);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calcule la prochaine génération des lignes [fromRow, toRow[ dans nextBoard.
+     *
+     * @param sums 6 tableaux de wordsPerRow mots pour les sommes horizontales des 3 lignes en cours.
+     */
+    private void simulateRows(int fromRow, int toRow, long[][] sums) {
+        simulateRows(fromRow, toRow, sums, 0, this.wordsPerRow);
+    }
+
+    /**
+     * Calcule la prochaine génération des mots [fromWord, toWord[ des lignes [fromRow, toRow[ dans nextBoard.
+     */
+    private void simulateRows(int fromRow, int toRow, long[][] sums, int fromWord, int toWord) {
+        long[] currentBoard = this.board;
+        long[] newBoard = this.nextBoard;
+        int words = this.wordsPerRow;
+        long[] aboveLo = sums[0];
+        long[] aboveHi = sums[1];
+        long[] middleLo = sums[2];
+        long[] middleHi = sums[3];
+        long[] belowLo = sums[4];
+        long[] belowHi = sums[5];
+        boolean conwayRule = this.conway;
+
+        computeRowSums(currentBoard, fromRow - 1, aboveLo, aboveHi, fromWord, toWord);
+        computeRowSums(currentBoard, fromRow, middleLo, middleHi, fromWord, toWord);
+
+        for (int row = fromRow; row < toRow; row++) {
+            computeRowSums(currentBoard, row + 1, belowLo, belowHi, fromWord, toWord);
+
+            int rowBase = row * words;
+            int word = fromWord;
+            if (this.vectorized && conwayRule) {
+                word = VectorLifeKernel.combine(currentBoard, newBoard, rowBase, aboveLo, aboveHi, middleLo, middleHi,
+                        belowLo, belowHi, fromWord, toWord);
+            }
+            for (; word < toWord; word++) {
+                long alive = currentBoard[rowBase + word];
+
+                // Addition des 3 sommes horizontales (de 0 à 3 chacune) : le total des 9 cellules en 4 bits.
+                long a0 = aboveLo[word];
+                long b0 = middleLo[word];
+                long c0 = belowLo[word];
+                long a1 = aboveHi[word];
+                long b1 = middleHi[word];
+                long c1 = belowHi[word];
+
+                long sum0 = a0 ^ b0 ^ c0;
+                long carry1 = (a0 & b0) | (c0 & (a0 ^ b0));
+                long twos = a1 ^ b1 ^ c1;
+                long carry2 = (a1 & b1) | (c1 & (a1 ^ b1));
+                long sum1 = twos ^ carry1;
+                long carry3 = twos & carry1;
+                long sum2 = carry2 ^ carry3;
+                long sum3 = carry2 & carry3;
+
+                if (!conwayRule) {
+                    newBoard[rowBase + word] = applyRule(alive, sum0, sum1, sum2, sum3);
+                    continue;
+                }
+                // Le total compte la cellule : 3 donne une cellule vivante, 4 garde une cellule vivante.
+                long three = sum0 & sum1 & ~sum2;
+                long four = ~sum0 & ~sum1 & sum2;
+                newBoard[rowBase + word] = ~sum3 & (three | (alive & four));
+            }
+            if (toWord == words) {
+                newBoard[rowBase + words - 1] &= this.lastWordMask;
+            }
+
+            // Les lignes descendent d'un cran : les tableaux de la ligne du dessus sont réutilisés pour la suivante.
+            long[] lo = aboveLo;
+            long[] hi = aboveHi;
+            aboveLo = middleLo;
+            aboveHi = middleHi;
+            middleLo = belowLo;
+            middleHi = belowHi;
+            belowLo = lo;
+            belowHi = hi;
+        }
+    }
+
+    /**
+     * Calcule 64 cellules avec une règle autre que B3/S23. Pour chaque total des 9 cellules (la cellule comprise)
+     * qui donne une cellule vivante, les bits dont le total (sum3 sum2 sum1 sum0) vaut ce nombre sont sélectionnés
+     * puis gardés selon l'état de la cellule : seuls les totaux utiles de la règle sont testés.
+     */
+    private long applyRule(long alive, long sum0, long sum1, long sum2, long sum3) {
+        long[] terms = this.ruleTerms;
+        long result = 0;
+        for (int term = 0; term < terms.length; term += 6) {
+            long match = ~((sum0 ^ terms[term]) | (sum1 ^ terms[term + 1]) | (sum2 ^ terms[term + 2]) | (sum3 ^ terms[term + 3]));
+            result |= match & (terms[term + 4] ^ (alive & terms[term + 5]));
+        }
+        return result;
+    }
+
+    /**
+     * Compile les masques de la règle pour {@link #applyRule(long, long, long, long, long)} : pour chaque total t
+     * utile, les 4 bits de t (0 ou -1), le résultat d'une cellule morte (naissance avec t voisins) et la différence
+     * avec celui d'une cellule vivante (survie avec t - 1 voisins).
+     */
+    private static long[] compileRuleTerms(int birth, int survival) {
+        long[] terms = new long[10 * 6];
+        int length = 0;
+        for (int total = 0; total <= 9; total++) {
+            long dead = -((birth >>> total) & 1L);
+            long alive = total == 0 ? 0 : -((survival >>> (total - 1)) & 1L);
+            if (dead == 0 && alive == 0) {
+                continue;
+            }
+            for (int bit = 0; bit < 4; bit++) {
+                terms[length++] = -((total >>> bit) & 1L);
+            }
+            terms[length++] = dead;
+            terms[length++] = dead ^ alive;
+        }
+        return Arrays.copyOf(terms, length);
+    }
+
+    /**
+     * Calcule pour chaque cellule des mots [fromWord, toWord[ de la ligne la somme de la cellule et de ses voisines
+     * de gauche et de droite, sur 2 bits. Une ligne en dehors de la grille vaut 0 ou la ligne du bord opposé selon
+     * le bord choisi.
+     */
+    private void computeRowSums(long[] currentBoard, int row, long[] lo, long[] hi, int fromWord, int toWord) {
+        if (row < 0 || row >= this.y) {
+            if (this.boundary == Boundary.DEAD) {
+                Arrays.fill(lo, fromWord, toWord, 0);
+                Arrays.fill(hi, fromWord, toWord, 0);
+                return;
+            }
+            row = row < 0 ? this.y - 1 : 0;
+        }
+
+        int rowBase = row * this.wordsPerRow;
+        int lastWord = this.wordsPerRow - 1;
+
+        // Les mots du milieu de la ligne ont toujours un mot avant et un mot après.
+        int toMiddleWord = Math.min(lastWord, toWord);
+        int word = Math.max(1, fromWord);
+        if (this.vectorized) {
+            word = VectorLifeKernel.computeRowSums(currentBoard, rowBase, lo, hi, word, toMiddleWord);
+        }
+        for (; word < toMiddleWord; word++) {
+            long cell = currentBoard[rowBase + word];
+            // Le bit i de west est la cellule à gauche du bit i, celui de east la cellule à droite.
+            long west = (cell << 1) | (currentBoard[rowBase + word - 1] >>> 63);
+            long east = (cell >>> 1) | (currentBoard[rowBase + word + 1] << 63);
+            lo[word] = west ^ cell ^ east;
+            hi[word] = (west & cell) | (east & (west ^ cell));
+        }
+
+        if (fromWord == 0) {
+            computeEdgeWordSums(currentBoard, rowBase, 0, lo, hi);
+        }
+        if (lastWord > 0 && toWord > lastWord) {
+            computeEdgeWordSums(currentBoard, rowBase, lastWord, lo, hi);
+        }
+    }
+
+    /**
+     * Calcule les sommes horizontales du premier ou du dernier mot d'une ligne, dont les voisins dépendent du bord.
+     */
+    private void computeEdgeWordSums(long[] currentBoard, int rowBase, int word, long[] lo, long[] hi) {
+        int lastWord = this.wordsPerRow - 1;
+        int lastBit = (this.x - 1) & 63;
+
+        long cell = currentBoard[rowBase + word];
+        long previous = word > 0 ? currentBoard[rowBase + word - 1] : 0;
+        long next = word < lastWord ? currentBoard[rowBase + word + 1] : 0;
+        long west = (cell << 1) | (previous >>> 63);
+        long east = (cell >>> 1) | (next << 63);
+
+        if (this.boundary == Boundary.TOROIDAL) {
+            if (word == 0) {
+                west |= (currentBoard[rowBase + lastWord] >>> lastBit) & 1;
+            }
+            if (word == lastWord) {
+                east = (east & ~(1L << lastBit)) | ((currentBoard[rowBase] & 1) << lastBit);
+            }
+        }
+
+        lo[word] = west ^ cell ^ east;
+        hi[word] = (west & cell) | (east & (west ^ cell));
+    }
+
+    /**
+     * Renvoi le calcul d'une cellule d'une tuile du moteur TILED ou d'une bande de DistributedGameOfLife pour une
+     * règle.
+     *
+     * @param birth le masque des naissances de la règle.
+     * @param survival le masque des survies de la règle.
+     */
+    static TiledGrid.TileKernel tileKernel(int birth, int survival) {
+        return (tile, index, column, row) -> nextTileState(tile, index, birth, survival);
+    }
+
+    /**
+     * Calcule la prochaine valeur d'une cellule d'une tuile : le bit du nombre de voisins vivants dans le masque des
+     * naissances ou des survies.
+     */
+    static byte nextTileState(ByteGrid tile, int index, int birth, int survival) {
+        byte[] cells = tile.getCells();
+        int stride = tile.getStride();
+        int neighbours = cells[index - stride - 1] + cells[index - stride] + cells[index - stride + 1]
+                + cells[index - 1] + cells[index + 1]
+                + cells[index + stride - 1] + cells[index + stride] + cells[index + stride + 1];
+        return (byte) (((cells[index] != 0 ? survival : birth) >>> neighbours) & 1);
+    }
+
+    /**
+     * Compile une règle pour le jeu de la vie : une règle à 2 états sans hasard, qui compte les voisins vivants du
+     * voisinage de Moore.
+     *
+     * @param rule la règle.
+     * @param hashLife true si la règle est utilisée par le moteur HASHLIFE, qui ne peut pas faire naître une cellule
+     *                 sans voisin (le plan infini serait rempli).
+     * @return la table de la règle.
+     * @throws IllegalArgumentException si la règle ne peut pas être calculée par le jeu de la vie.
+     */
+    static RuleTable compileRule(CellRule rule, boolean hashLife) {
+        RuleTable table = rule.compile();
+        if (table.getStates() != 2 || table.isStochastic() || table.getCountedState() != 1
+                || table.getNeighbourhood() != Neighbourhood.MOORE) {
+            throw new IllegalArgumentException("Le jeu de la vie ne calcule que les règles à 2 états sans hasard du voisinage de Moore : " + rule);
+        }
+        if (hashLife && (table.getBirthMask() & 1) != 0) {
+            throw new IllegalArgumentException("Le moteur HASHLIFE ne gère pas les naissances sans voisin (B0) : " + rule);
+        }
+        return table;
+    }
+
+    /**
+     * Remplace la règle du jeu de la vie, B3/S23 par défaut. Les cellules sont gardées.
+     *
+     * @param rule une règle à 2 états sans hasard du voisinage de Moore, par exemple
+     *             {@code OuterTotalisticRule.parse("B36/S23")}.
+     * @throws IllegalArgumentException si le moteur ne peut pas calculer la règle.
+     */
+    public void setRule(CellRule rule) {
+        RuleTable table = compileRule(rule, this.engine == GameOfLifeEngine.HASHLIFE);
+        this.rule = rule;
+        this.birthMask = table.getBirthMask();
+        this.survivalMask = table.getSurvivalMask();
+        this.conway = this.birthMask == OuterTotalisticRule.LIFE.getBirth() && this.survivalMask == OuterTotalisticRule.LIFE.getSurvival();
+        this.ruleTerms = compileRuleTerms(this.birthMask, this.survivalMask);
+        this.tileKernel = tileKernel(this.birthMask, this.survivalMask);
+        if (this.universe != null) {
+            this.universe.setRule(this.birthMask, this.survivalMask);
+        }
+        if (this.activeTiles != null) {
+            this.activeTiles.markAll();
+        }
+    }
+
+    public CellRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Tue toutes les cellules de la grille.
+     */
+    public void clear() {
+        this.generation = 0;
+        if (this.engine == GameOfLifeEngine.TILED) {
+            byte[] cells = new byte[this.x];
+            for (int row = 0; row < this.y; row++) {
+                this.tiledGrid.writeRow(row, cells, 0);
+            }
+            return;
+        }
+        Arrays.fill(this.board, 0);
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            this.universe.load(this.board, this.wordsPerRow, this.x, this.y);
+        }
+        if (this.activeTiles != null) {
+            this.activeTiles.markAll();
+        }
+    }
+
+    public boolean isAlive(int column, int row) {
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            return this.universe.isAlive(column, row);
+        }
+        if (this.engine == GameOfLifeEngine.TILED) {
+            return this.tiledGrid.get(column, row) != 0;
+        }
+        return ((this.board[row * this.wordsPerRow + (column >>> 6)] >>> column) & 1) != 0;
+    }
+
+    /**
+     * Renvoi 1 pour une cellule vivante, 0 pour une cellule morte.
+     */
+    @Override
+    public int getCell(int column, int row) {
+        return isAlive(column, row) ? 1 : 0;
+    }
+
+    public void setCell(int column, int row, boolean alive) {
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            this.universe.setCell(column, row, alive);
+            return;
+        }
+        if (this.engine == GameOfLifeEngine.TILED) {
+            this.tiledGrid.set(column, row, alive ? 1 : 0);
+            return;
+        }
+        int word = row * this.wordsPerRow + (column >>> 6);
+        if (alive) {
+            this.board[word] |= 1L << column;
+        }
+        else {
+            this.board[word] &= ~(1L << column);
+        }
+        if (this.activeTiles != null) {
+            this.activeTiles.markCell(column, row);
+        }
+    }
+
+    /**
+     * Renvoi le nombre de cellules vivantes.
+     *
+     * @return le nombre de cellules vivantes.
+     */
+    public long getPopulation() {
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            return this.universe.getPopulation();
+        }
+        long population = 0;
+        if (this.engine == GameOfLifeEngine.TILED) {
+            byte[] cells = new byte[this.x];
+            for (int row = 0; row < this.y; row++) {
+                this.tiledGrid.readRow(row, cells, 0);
+                for (byte cell : cells) {
+                    population += cell;
+                }
+            }
+            return population;
+        }
+        for (long word : this.board) {
+            population += Long.bitCount(word);
+        }
+        return population;
+    }
+
+    /**
+     * Copie la valeur de chaque cellule (1 pour une cellule vivante), ligne par ligne, dans target qui doit contenir
+     * au moins x * y cellules. Sert de source à une {@link org.example.cellularautomaton.automaton.FrameOutput}.
+     *
+     * @param target le tableau qui reçoit les cellules.
+     */
+    @Override
+    public void copyCells(byte[] target) {
+        if (this.engine == GameOfLifeEngine.TILED) {
+            for (int row = 0; row < this.y; row++) {
+                this.tiledGrid.readRow(row, target, row * this.x);
+            }
+            return;
+        }
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            for (int row = 0; row < this.y; row++) {
+                for (int column = 0; column < this.x; column++) {
+                    target[row * this.x + column] = (byte) (this.universe.isAlive(column, row) ? 1 : 0);
+                }
+            }
+            return;
+        }
+        for (int row = 0; row < this.y; row++) {
+            int rowBase = row * this.wordsPerRow;
+            int offset = row * this.x;
+            for (int column = 0; column < this.x; column++) {
+                target[offset + column] = (byte) ((this.board[rowBase + (column >>> 6)] >>> column) & 1);
+            }
+        }
+    }
+
+    /**
+     * Affiche la grille, une cellule vivante est représentée par une étoile.
+     */
+    public void printCurrentState() {
+        StringBuilder stringToPrint = new StringBuilder();
+        for (int row = 0; row < this.y; row++) {
+            for (int column = 0; column < this.x; column++) {
+                stringToPrint.append(isAlive(column, row) ? '*' : ' ');
+            }
+            stringToPrint.append('\n');
+        }
+        System.out.print(stringToPrint);
+    }
+
+    /**
+     * Fixe la graine du générateur de nombres aléatoires utilisé par {@link #initializeAutomaton()}.
+     *
+     * @param seed la graine du générateur.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    public int getDensity() {
+        return density;
+    }
+
+    public void setDensity(int density) {
+        this.density = density;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    public ParallelStepper getParallelStepper() {
+        return parallelStepper;
+    }
+
+    /**
+     * Active le calcul des générations en parallèle par bandes de lignes avec le moteur BITBOARD, ou par bandes de
+     * lignes de tuiles avec le moteur ACTIVE_TILES (les autres moteurs n'en tiennent pas compte).
+     *
+     * @param parallelStepper le découpage en bandes à utiliser, null pour calculer sur le thread courant.
+     */
+    public void setParallelStepper(ParallelStepper parallelStepper) {
+        this.parallelStepper = parallelStepper;
+        this.stripeRowSums = parallelStepper == null ? null : new long[parallelStepper.getStripes()][6][this.wordsPerRow];
+    }
+
+    /**
+     * Le jeu de la vie est DETERMINISTIC. ACTIVE_TILES et HASHLIFE ne calculent que les régions qui changent
+     * (SPARSE), HASHLIFE avance de plusieurs générations d'un coup (BATCHED) et les moteurs BITBOARD, VECTOR et
+     * ACTIVE_TILES calculent en parallèle avec un ParallelStepper.
+     */
+    @Override
+    public Set<AutomatonCapability> getCapabilities() {
+        Set<AutomatonCapability> capabilities = EnumSet.of(AutomatonCapability.DETERMINISTIC);
+        if (this.engine == GameOfLifeEngine.ACTIVE_TILES || this.engine == GameOfLifeEngine.HASHLIFE) {
+            capabilities.add(AutomatonCapability.SPARSE);
+        }
+        if (this.engine == GameOfLifeEngine.HASHLIFE) {
+            capabilities.add(AutomatonCapability.BATCHED);
+        }
+        if (this.parallelStepper != null && (this.engine == GameOfLifeEngine.BITBOARD
+                || this.engine == GameOfLifeEngine.VECTOR || this.engine == GameOfLifeEngine.ACTIVE_TILES)) {
+            capabilities.add(AutomatonCapability.PARALLEL);
+        }
+        return capabilities;
+    }
+
+    public GameOfLifeEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Renvoi le suivi des tuiles du moteur ACTIVE_TILES, pour savoir combien de tuiles ont changé par exemple.
+     *
+     * @return le suivi des tuiles ou null si un autre moteur est utilisé.
+     */
+    public ActiveTiles getActiveTiles() {
+        return activeTiles;
+    }
+
+    /**
+     * Renvoi la grille du moteur TILED.
+     *
+     * @return la grille découpée en tuiles ou null si un autre moteur est utilisé.
+     */
+    public TiledGrid getTiledGrid() {
+        return tiledGrid;
+    }
+
+    /**
+     * Renvoi le plan du moteur HASHLIFE, pour régler son budget mémoire par exemple.
+     *
+     * @return le plan HashLife ou null si un autre moteur est utilisé.
+     */
+    public HashLifeUniverse getHashLifeUniverse() {
+        return universe;
     }
 }
@@ -0,0 +1,18 @@
+package org.example.cellularautomaton.gameoflife;
+
+/**
+ * Le moteur utilisé par {@link GameOfLifeAutomaton} pour calculer les générations.
+ */
+public enum GameOfLifeEngine {
+    // Grille de bits de taille fixe, chaque génération est calculée 64 cellules à la fois.
+    BITBOARD,
+    // Plan infini en arbre quaternaire avec résultats mémorisés, pour avancer de très nombreuses générations.
+    HASHLIFE,
+    // Grille découpée en tuiles dans un fichier (TiledGrid), pour les grilles qui ne tiennent pas en mémoire.
+    TILED,
+    // BITBOARD qui ne calcule que les tuiles de 64 x 64 cellules dont une voisine a changé à la dernière génération.
+    ACTIVE_TILES,
+    // BITBOARD dont les mots sont calculés par vecteurs avec l'API Vector (module jdk.incubator.vector), comme
+    // BITBOARD si le module n'est pas chargé.
+    VECTOR
+}
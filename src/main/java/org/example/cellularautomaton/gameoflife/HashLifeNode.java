@@ -0,0 +1,70 @@
+package org.example.cellularautomaton.gameoflife;
+
+/**
+ * Noeud de l'arbre quaternaire de HashLife. Un noeud de niveau k représente un carré de 2^k x 2^k cellules découpé en
+ * 4 noeuds de niveau k - 1. Les noeuds sont canoniques (deux carrés identiques sont le même objet) et ne sont jamais
+ * modifiés, sauf le cache des générations suivantes.
+ */
+final class HashLifeNode {
+    // Les 2 feuilles (niveau 0) : une cellule morte et une cellule vivante.
+    static final HashLifeNode DEAD = new HashLifeNode(0x3C6EF372, 0);
+    static final HashLifeNode ALIVE = new HashLifeNode(0x5BE0CD19, 1);
+
+    final HashLifeNode nw;
+    final HashLifeNode ne;
+    final HashLifeNode sw;
+    final HashLifeNode se;
+    final int level;
+    final long population;
+    final int hash;
+    // Le noeud suivant dans la même case de la table des noeuds canoniques.
+    HashLifeNode next;
+    // results[j] est le centre du noeud (niveau - 1) avancé de 2^j générations, calculé à la demande.
+    HashLifeNode[] results;
+    // Marque utilisée par le ramasse-miettes de la table.
+    int mark;
+
+    private HashLifeNode(int hash, long population) {
+        this.nw = null;
+        this.ne = null;
+        this.sw = null;
+        this.se = null;
+        this.level = 0;
+        this.population = population;
+        this.hash = hash;
+    }
+
+    HashLifeNode(HashLifeNode nw, HashLifeNode ne, HashLifeNode sw, HashLifeNode se, int hash) {
+        this.nw = nw;
+        this.ne = ne;
+        this.sw = sw;
+        this.se = se;
+        this.level = nw.level + 1;
+        this.population = nw.population + ne.population + sw.population + se.population;
+        this.hash = hash;
+    }
+
+    /**
+     * Calcule le hash d'un noeud à partir du hash de ses 4 enfants.
+     */
+    static int hash(HashLifeNode nw, HashLifeNode ne, HashLifeNode sw, HashLifeNode se) {
+        int h = nw.hash * 0x01000193 + ne.hash;
+        h = h * 0x01000193 + sw.hash;
+        h = h * 0x01000193 + se.hash;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    HashLifeNode getResult(int step) {
+        return this.results != null ? this.results[step] : null;
+    }
+
+    void setResult(int step, HashLifeNode result) {
+        if (this.results == null) {
+            this.results = new HashLifeNode[this.level - 1];
+        }
+        this.results[step] = result;
+    }
+}
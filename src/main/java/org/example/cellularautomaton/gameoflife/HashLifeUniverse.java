@@ -0,0 +1,471 @@
+package org.example.cellularautomaton.gameoflife;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Plan infini du jeu de la vie simulé avec l'algorithme HashLife : le plan est un arbre quaternaire de noeuds
+ * canoniques et le résultat de chaque noeud est mémorisé, les motifs réguliers peuvent donc être avancés de
+ * milliards de générations en quelques appels.
+ * <p>
+ * Les noeuds sont gardés dans une table dont la taille est limitée par un budget mémoire. Lorsque le budget est
+ * dépassé après une étape, seuls les noeuds atteignables depuis la racine sont gardés et, si cela ne suffit pas,
+ * les résultats mémorisés sont oubliés.
+ */
+public class HashLifeUniverse {
+    // Estimation de la mémoire d'un noeud : l'objet, son tableau de résultats et sa case dans la table.
+    private static final int ESTIMATED_NODE_BYTES = 96;
+    // Prochain état des 4 cellules du centre pour chacune des 65536 grilles 4x4 avec la règle B3/S23.
+    private static final byte[] LIFE_CENTERS_OF_4X4 = computeCentersOf4x4(1 << 3, 1 << 2 | 1 << 3);
+
+    // Les centres des grilles 4x4 avec la règle du plan.
+    private byte[] centersOf4x4 = LIFE_CENTERS_OF_4X4;
+
+    private HashLifeNode[] table = new HashLifeNode[1 << 16];
+    private int nodeCount;
+    private long maxNodes = 4_000_000;
+    private int currentMark;
+    // Un noeud vide canonique par niveau
+    private HashLifeNode[] emptyNodes = new HashLifeNode[64];
+
+    private HashLifeNode root;
+    // Coordonnées de la cellule en haut à gauche de la racine
+    private long originX;
+    private long originY;
+    private long generation;
+
+    public HashLifeUniverse() {
+        this.emptyNodes[0] = HashLifeNode.DEAD;
+        this.root = empty(3);
+    }
+
+    /**
+     * Remplace le contenu du plan par une grille de bits rangée comme celle de {@link GameOfLifeAutomaton} : la
+     * cellule (colonne, ligne) est le bit (colonne % 64) du mot (ligne * wordsPerRow + colonne / 64).
+     */
+    public void load(long[] board, int wordsPerRow, int width, int height) {
+        int level = 3;
+        while ((1L << level) < Math.max(width, height)) {
+            level++;
+        }
+        this.root = build(board, wordsPerRow, width, height, level, 0, 0);
+        this.originX = 0;
+        this.originY = 0;
+        this.generation = 0;
+        collectGarbageIfNeeded();
+    }
+
+    private HashLifeNode build(long[] board, int wordsPerRow, int width, int height, int level, int x, int y) {
+        if (x >= width || y >= height) {
+            return empty(level);
+        }
+        if (level == 0) {
+            return ((board[y * wordsPerRow + (x >>> 6)] >>> x) & 1) != 0 ? HashLifeNode.ALIVE : HashLifeNode.DEAD;
+        }
+        int half = 1 << (level - 1);
+        return join(build(board, wordsPerRow, width, height, level - 1, x, y),
+                build(board, wordsPerRow, width, height, level - 1, x + half, y),
+                build(board, wordsPerRow, width, height, level - 1, x, y + half),
+                build(board, wordsPerRow, width, height, level - 1, x + half, y + half));
+    }
+
+    /**
+     * Avance le plan du nombre de générations passé en paramètre. Chaque bit du nombre de générations est une
+     * étape de 2^j générations calculée en un seul appel récursif.
+     *
+     * @param generations le nombre de générations (positif ou nul).
+     */
+    public void advance(long generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException("Le nombre de générations doit être positif : " + generations);
+        }
+        for (int step = 0; generations >> step != 0; step++) {
+            if (((generations >> step) & 1) != 0) {
+                advanceByPowerOfTwo(step);
+            }
+        }
+    }
+
+    private void advanceByPowerOfTwo(int step) {
+        // Le motif doit être dans le quart central de la racine et la racine assez grande pour que le motif, qui
+        // grandit d'au plus 2^step cellules, reste dans le centre renvoyé par successor.
+        while (this.root.level < step + 3 || innerQuarter(this.root).population != this.root.population) {
+            expand();
+        }
+        long quarter = 1L << (this.root.level - 2);
+        this.root = successor(this.root, step);
+        this.originX += quarter;
+        this.originY += quarter;
+        this.generation += 1L << step;
+        crop();
+        collectGarbageIfNeeded();
+    }
+
+    /**
+     * Renvoi le centre du noeud (niveau - 1) avancé de 2^step générations, avec step <= niveau - 2.
+     */
+    private HashLifeNode successor(HashLifeNode node, int step) {
+        if (node.population == 0) {
+            return empty(node.level - 1);
+        }
+        HashLifeNode result = node.getResult(step);
+        if (result != null) {
+            return result;
+        }
+
+        if (node.level == 2) {
+            result = successorOf4x4(node);
+        }
+        else {
+            int innerStep = Math.min(step, node.level - 3);
+            // Les 9 sous-carrés de niveau - 1 qui se chevauchent, avancés de 2^innerStep générations
+            HashLifeNode c1 = successor(node.nw, innerStep);
+            HashLifeNode c2 = successor(join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw), innerStep);
+            HashLifeNode c3 = successor(node.ne, innerStep);
+            HashLifeNode c4 = successor(join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne), innerStep);
+            HashLifeNode c5 = successor(join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw), innerStep);
+            HashLifeNode c6 = successor(join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne), innerStep);
+            HashLifeNode c7 = successor(node.sw, innerStep);
+            HashLifeNode c8 = successor(join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw), innerStep);
+            HashLifeNode c9 = successor(node.se, innerStep);
+
+            if (step < node.level - 2) {
+                // Les 9 sous-carrés sont déjà à la bonne génération, il reste à assembler leurs centres.
+                result = join(
+                        join(c1.se, c2.sw, c4.ne, c5.nw),
+                        join(c2.se, c3.sw, c5.ne, c6.nw),
+                        join(c4.se, c5.sw, c7.ne, c8.nw),
+                        join(c5.se, c6.sw, c8.ne, c9.nw));
+            }
+            else {
+                // Pleine vitesse : une deuxième moitié de 2^innerStep générations sur les 4 carrés assemblés.
+                result = join(
+                        successor(join(c1, c2, c4, c5), innerStep),
+                        successor(join(c2, c3, c5, c6), innerStep),
+                        successor(join(c4, c5, c7, c8), innerStep),
+                        successor(join(c5, c6, c8, c9), innerStep));
+            }
+        }
+
+        node.setResult(step, result);
+        return result;
+    }
+
+    private HashLifeNode successorOf4x4(HashLifeNode node) {
+        int bits = 0;
+        bits |= bitsOf2x2(node.nw);
+        bits |= bitsOf2x2(node.ne) << 2;
+        bits |= bitsOf2x2(node.sw) << 8;
+        bits |= bitsOf2x2(node.se) << 10;
+        int center = this.centersOf4x4[bits];
+        return join(leaf(center & 1), leaf(center & 2), leaf(center & 4), leaf(center & 8));
+    }
+
+    // Les 4 cellules d'un noeud de niveau 1 aux positions (0, 0), (1, 0), (0, 1), (1, 1) d'une grille 4x4
+    private static int bitsOf2x2(HashLifeNode node) {
+        return (int) (node.nw.population | node.ne.population << 1 | node.sw.population << 4 | node.se.population << 5);
+    }
+
+    private static HashLifeNode leaf(int alive) {
+        return alive != 0 ? HashLifeNode.ALIVE : HashLifeNode.DEAD;
+    }
+
+    /**
+     * Remplace la règle du plan, B3/S23 par défaut. Les résultats mémorisés avec l'ancienne règle sont oubliés.
+     *
+     * @param birth le bit k est mis si k voisins vivants font naître une cellule morte, sans le bit 0 : une cellule
+     *              sans voisin ne peut pas naître dans un plan infini.
+     * @param survival le bit k est mis si k voisins vivants gardent une cellule vivante.
+     */
+    public void setRule(int birth, int survival) {
+        if ((birth & 1) != 0) {
+            throw new IllegalArgumentException("Une cellule sans voisin ne peut pas naître dans le plan infini");
+        }
+        this.centersOf4x4 = computeCentersOf4x4(birth, survival);
+        for (HashLifeNode head : this.table) {
+            for (HashLifeNode node = head; node != null; node = node.next) {
+                node.results = null;
+            }
+        }
+    }
+
+    /**
+     * Calcule le prochain état des cellules (1, 1), (2, 1), (1, 2) et (2, 2) pour toutes les grilles 4x4, la
+     * cellule (x, y) étant le bit (y * 4 + x).
+     */
+    private static byte[] computeCentersOf4x4(int birth, int survival) {
+        byte[] centers = new byte[1 << 16];
+        for (int bits = 0; bits < centers.length; bits++) {
+            int center = 0;
+            int resultBit = 0;
+            for (int y = 1; y <= 2; y++) {
+                for (int x = 1; x <= 2; x++) {
+                    int neighbours = 0;
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            if ((dx != 0 || dy != 0) && ((bits >>> ((y + dy) * 4 + x + dx)) & 1) != 0) {
+                                neighbours++;
+                            }
+                        }
+                    }
+                    boolean alive = ((bits >>> (y * 4 + x)) & 1) != 0;
+                    if ((((alive ? survival : birth) >>> neighbours) & 1) != 0) {
+                        center |= 1 << resultBit;
+                    }
+                    resultBit++;
+                }
+            }
+            centers[bits] = (byte) center;
+        }
+        return centers;
+    }
+
+    /**
+     * Double la taille de la racine en la plaçant au centre d'un noeud vide.
+     */
+    private void expand() {
+        HashLifeNode node = this.root;
+        HashLifeNode border = empty(node.level - 1);
+        this.root = join(
+                join(border, border, border, node.nw),
+                join(border, border, node.ne, border),
+                join(border, node.sw, border, border),
+                join(node.se, border, border, border));
+        long half = 1L << (node.level - 1);
+        this.originX -= half;
+        this.originY -= half;
+    }
+
+    /**
+     * Réduit la racine tant que tout le motif est dans son centre.
+     */
+    private void crop() {
+        while (this.root.level > 3) {
+            HashLifeNode center = join(this.root.nw.se, this.root.ne.sw, this.root.sw.ne, this.root.se.nw);
+            if (center.population != this.root.population) {
+                return;
+            }
+            long quarter = 1L << (this.root.level - 2);
+            this.root = center;
+            this.originX += quarter;
+            this.originY += quarter;
+        }
+    }
+
+    private HashLifeNode innerQuarter(HashLifeNode node) {
+        return join(node.nw.se.se, node.ne.sw.sw, node.sw.ne.ne, node.se.nw.nw);
+    }
+
+    private HashLifeNode empty(int level) {
+        if (level >= this.emptyNodes.length) {
+            throw new IllegalStateException("Le plan est trop grand : niveau " + level);
+        }
+        HashLifeNode node = this.emptyNodes[level];
+        if (node == null) {
+            HashLifeNode child = empty(level - 1);
+            node = join(child, child, child, child);
+            this.emptyNodes[level] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Renvoi le noeud canonique formé des 4 noeuds passés en paramètre.
+     */
+    private HashLifeNode join(HashLifeNode nw, HashLifeNode ne, HashLifeNode sw, HashLifeNode se) {
+        int hash = HashLifeNode.hash(nw, ne, sw, se);
+        int bucket = hash & (this.table.length - 1);
+        for (HashLifeNode node = this.table[bucket]; node != null; node = node.next) {
+            if (node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+                return node;
+            }
+        }
+        HashLifeNode node = new HashLifeNode(nw, ne, sw, se, hash);
+        node.next = this.table[bucket];
+        this.table[bucket] = node;
+        this.nodeCount++;
+        if (this.nodeCount > this.table.length - (this.table.length >>> 2)) {
+            resize(this.table.length << 1);
+        }
+        return node;
+    }
+
+    private void resize(int capacity) {
+        HashLifeNode[] oldTable = this.table;
+        this.table = new HashLifeNode[capacity];
+        for (HashLifeNode head : oldTable) {
+            HashLifeNode node = head;
+            while (node != null) {
+                HashLifeNode next = node.next;
+                int bucket = node.hash & (capacity - 1);
+                node.next = this.table[bucket];
+                this.table[bucket] = node;
+                node = next;
+            }
+        }
+    }
+
+    private void collectGarbageIfNeeded() {
+        if (this.nodeCount > this.maxNodes) {
+            collectGarbage();
+        }
+    }
+
+    /**
+     * Retire de la table les noeuds qui ne sont plus atteignables depuis la racine. Les résultats mémorisés sont
+     * d'abord gardés, s'il reste plus de la moitié du budget de noeuds ils sont oubliés à leur tour.
+     */
+    public void collectGarbage() {
+        int kept = mark(true);
+        if (kept > this.maxNodes / 2) {
+            for (HashLifeNode head : this.table) {
+                for (HashLifeNode node = head; node != null; node = node.next) {
+                    node.results = null;
+                }
+            }
+            mark(false);
+        }
+
+        int mark = this.currentMark;
+        HashLifeNode[] oldTable = this.table;
+        int capacity = 1 << 16;
+        while (capacity - (capacity >>> 2) < this.nodeCount) {
+            capacity <<= 1;
+        }
+        this.table = new HashLifeNode[capacity];
+        this.nodeCount = 0;
+        for (HashLifeNode head : oldTable) {
+            HashLifeNode node = head;
+            while (node != null) {
+                HashLifeNode next = node.next;
+                if (node.mark == mark) {
+                    int bucket = node.hash & (capacity - 1);
+                    node.next = this.table[bucket];
+                    this.table[bucket] = node;
+                    this.nodeCount++;
+                }
+                else {
+                    node.next = null;
+                }
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Marque les noeuds atteignables depuis la racine et les noeuds vides, en suivant aussi les résultats
+     * mémorisés si keepResults est vrai.
+     *
+     * @return le nombre de noeuds marqués.
+     */
+    private int mark(boolean keepResults) {
+        int mark = ++this.currentMark;
+        int marked = 0;
+        Deque<HashLifeNode> toVisit = new ArrayDeque<>();
+        toVisit.push(this.root);
+        for (HashLifeNode emptyNode : this.emptyNodes) {
+            if (emptyNode != null && emptyNode.level > 0) {
+                toVisit.push(emptyNode);
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            HashLifeNode node = toVisit.pop();
+            if (node.level == 0 || node.mark == mark) {
+                continue;
+            }
+            node.mark = mark;
+            marked++;
+            toVisit.push(node.nw);
+            toVisit.push(node.ne);
+            toVisit.push(node.sw);
+            toVisit.push(node.se);
+            if (keepResults && node.results != null) {
+                for (HashLifeNode result : node.results) {
+                    if (result != null) {
+                        toVisit.push(result);
+                    }
+                }
+            }
+        }
+        return marked;
+    }
+
+    public boolean isAlive(long x, long y) {
+        long relativeX = x - this.originX;
+        long relativeY = y - this.originY;
+        long size = 1L << this.root.level;
+        if (relativeX < 0 || relativeY < 0 || relativeX >= size || relativeY >= size) {
+            return false;
+        }
+        HashLifeNode node = this.root;
+        while (node.level > 0) {
+            if (node.population == 0) {
+                return false;
+            }
+            long half = 1L << (node.level - 1);
+            boolean east = relativeX >= half;
+            boolean south = relativeY >= half;
+            node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+            relativeX -= east ? half : 0;
+            relativeY -= south ? half : 0;
+        }
+        return node == HashLifeNode.ALIVE;
+    }
+
+    public void setCell(long x, long y, boolean alive) {
+        while (x < this.originX || y < this.originY
+                || x >= this.originX + (1L << this.root.level) || y >= this.originY + (1L << this.root.level)) {
+            expand();
+        }
+        this.root = setCell(this.root, x - this.originX, y - this.originY, alive);
+    }
+
+    private HashLifeNode setCell(HashLifeNode node, long x, long y, boolean alive) {
+        if (node.level == 0) {
+            return alive ? HashLifeNode.ALIVE : HashLifeNode.DEAD;
+        }
+        long half = 1L << (node.level - 1);
+        if (y < half) {
+            if (x < half) {
+                return join(setCell(node.nw, x, y, alive), node.ne, node.sw, node.se);
+            }
+            return join(node.nw, setCell(node.ne, x - half, y, alive), node.sw, node.se);
+        }
+        if (x < half) {
+            return join(node.nw, node.ne, setCell(node.sw, x, y - half, alive), node.se);
+        }
+        return join(node.nw, node.ne, node.sw, setCell(node.se, x - half, y - half, alive));
+    }
+
+    public long getPopulation() {
+        return this.root.population;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Renvoi le nombre de noeuds dans la table des noeuds canoniques.
+     *
+     * @return le nombre de noeuds.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Limite la mémoire utilisée par les noeuds. Le budget est converti en nombre de noeuds avec une estimation de
+     * la taille d'un noeud, il peut être dépassé pendant une étape et est rétabli à la fin de l'étape.
+     *
+     * @param bytes le budget mémoire en octets.
+     */
+    public void setMemoryBudget(long bytes) {
+        this.maxNodes = Math.max(1024, bytes / ESTIMATED_NODE_BYTES);
+        collectGarbageIfNeeded();
+    }
+
+    public long getMemoryBudget() {
+        return this.maxNodes * ESTIMATED_NODE_BYTES;
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.cellularautomaton.gameoflife;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Les deux boucles du moteur BITBOARD écrites avec l'API Vector (moteur VECTOR) : chaque opération traite
+ * plusieurs mots de 64 cellules à la fois. Les méthodes calculent les mots par paquets de la taille d'un vecteur
+ * et renvoient le premier mot qui n'a pas été calculé, la fin de la ligne est calculée par GameOfLifeAutomaton.
+ * Cette classe n'est chargée que si le module jdk.incubator.vector l'est.
+ */
+final class VectorLifeKernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int LENGTH = SPECIES.length();
+
+    private VectorLifeKernel() {
+    }
+
+    /**
+     * Calcule les sommes horizontales des mots du milieu de la ligne (qui ont un mot avant et un mot après).
+     *
+     * @return le premier mot de [fromWord, toWord[ qui n'a pas été calculé.
+     */
+    static int computeRowSums(long[] currentBoard, int rowBase, long[] lo, long[] hi, int fromWord, int toWord) {
+        int word = fromWord;
+        for (; word <= toWord - LENGTH; word += LENGTH) {
+            LongVector cell = LongVector.fromArray(SPECIES, currentBoard, rowBase + word);
+            LongVector west = cell.lanewise(VectorOperators.LSHL, 1)
+                    .or(LongVector.fromArray(SPECIES, currentBoard, rowBase + word - 1).lanewise(VectorOperators.LSHR, 63));
+            LongVector east = cell.lanewise(VectorOperators.LSHR, 1)
+                    .or(LongVector.fromArray(SPECIES, currentBoard, rowBase + word + 1).lanewise(VectorOperators.LSHL, 63));
+            LongVector westXorCell = west.lanewise(VectorOperators.XOR, cell);
+            westXorCell.lanewise(VectorOperators.XOR, east).intoArray(lo, word);
+            west.and(cell).or(east.and(westXorCell)).intoArray(hi, word);
+        }
+        return word;
+    }
+
+    /**
+     * Additionne les sommes horizontales des 3 lignes et écrit la prochaine génération des mots de la ligne.
+     *
+     * @return le premier mot de [fromWord, toWord[ qui n'a pas été calculé.
+     */
+    static int combine(long[] currentBoard, long[] newBoard, int rowBase, long[] aboveLo, long[] aboveHi,
+                       long[] middleLo, long[] middleHi, long[] belowLo, long[] belowHi, int fromWord, int toWord) {
+        int word = fromWord;
+        for (; word <= toWord - LENGTH; word += LENGTH) {
+            LongVector a0 = LongVector.fromArray(SPECIES, aboveLo, word);
+            LongVector b0 = LongVector.fromArray(SPECIES, middleLo, word);
+            LongVector c0 = LongVector.fromArray(SPECIES, belowLo, word);
+            LongVector a1 = LongVector.fromArray(SPECIES, aboveHi, word);
+            LongVector b1 = LongVector.fromArray(SPECIES, middleHi, word);
+            LongVector c1 = LongVector.fromArray(SPECIES, belowHi, word);
+
+            LongVector a0XorB0 = a0.lanewise(VectorOperators.XOR, b0);
+            LongVector sum0 = a0XorB0.lanewise(VectorOperators.XOR, c0);
+            LongVector carry1 = a0.and(b0).or(c0.and(a0XorB0));
+            LongVector a1XorB1 = a1.lanewise(VectorOperators.XOR, b1);
+            LongVector twos = a1XorB1.lanewise(VectorOperators.XOR, c1);
+            LongVector carry2 = a1.and(b1).or(c1.and(a1XorB1));
+            LongVector sum1 = twos.lanewise(VectorOperators.XOR, carry1);
+            LongVector carry3 = twos.and(carry1);
+            LongVector sum2 = carry2.lanewise(VectorOperators.XOR, carry3);
+            LongVector sum3 = carry2.and(carry3);
+
+            // Le total compte la cellule : 3 donne une cellule vivante, 4 garde une cellule vivante.
+            LongVector three = sum0.and(sum1).lanewise(VectorOperators.AND_NOT, sum2);
+            LongVector four = sum2.lanewise(VectorOperators.AND_NOT, sum0.or(sum1));
+            LongVector alive = LongVector.fromArray(SPECIES, currentBoard, rowBase + word);
+            three.or(alive.and(four)).lanewise(VectorOperators.AND_NOT, sum3).intoArray(newBoard, rowBase + word);
+        }
+        return word;
+    }
+}
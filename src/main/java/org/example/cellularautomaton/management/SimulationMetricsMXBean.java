@@ -0,0 +1,36 @@
+package org.example.cellularautomaton.management;
+
+/**
+ * Vue JMX des mesures d'une simulation ({@link org.example.cellularautomaton.automaton.SimulationMetrics}), lisible
+ * dans JConsole ou VisualVM pendant la simulation. Les durées sont en nanosecondes par génération.
+ * <p>
+ * L'interface est seule dans son paquet, le seul paquet interne que le module exporte : JMX doit pouvoir l'appeler,
+ * le reste des moteurs reste privé au module.
+ */
+public interface SimulationMetricsMXBean {
+    long getGenerations();
+
+    long getEvaluatedCells();
+
+    long getActiveCells();
+
+    double getCellsPerSecond();
+
+    double getMeanStepNanos();
+
+    long getMaxStepNanos();
+
+    long getStepNanosP50();
+
+    long getStepNanosP90();
+
+    long getStepNanosP99();
+
+    long getStepNanosP999();
+
+    long getAllocatedBytes();
+
+    double getAllocationRate();
+
+    void reset();
+}
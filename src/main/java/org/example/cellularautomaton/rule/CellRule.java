@@ -0,0 +1,41 @@
+package org.example.cellularautomaton.rule;
+
+import org.example.cellularautomaton.automaton.Neighbourhood;
+
+/**
+ * Règle d'un automate dont le prochain état d'une cellule dépend de son état et du nombre de ses voisins dans un
+ * état donné : règles du jeu de la vie en notation B/S, règles « Generations » à plusieurs états
+ * ({@link OuterTotalisticRule}) ou table de transitions entre des états nommés ({@link TransitionTableRule}).
+ * <p>
+ * Les moteurs ne lisent pas la règle elle-même mais sa forme compilée ({@link RuleTable}), une table indexée par
+ * l'état et le nombre de voisins.
+ */
+public interface CellRule {
+    /**
+     * Renvoi le nombre d'états d'une cellule, numérotés de 0 à getStates() - 1.
+     *
+     * @return le nombre d'états.
+     */
+    int getStates();
+
+    /**
+     * Renvoi les voisins d'une cellule.
+     *
+     * @return le voisinage de la règle.
+     */
+    Neighbourhood getNeighbourhood();
+
+    /**
+     * Compile la règle en table.
+     *
+     * @return la table de la règle.
+     */
+    RuleTable compile();
+
+    /**
+     * Renvoi la règle écrite dans sa notation, relue par la méthode {@code parse} de la classe de la règle.
+     *
+     * @return le texte de la règle.
+     */
+    String getNotation();
+}
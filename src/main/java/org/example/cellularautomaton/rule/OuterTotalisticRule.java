@@ -0,0 +1,178 @@
+package org.example.cellularautomaton.rule;
+
+import org.example.cellularautomaton.automaton.Neighbourhood;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Règle « outer totalistic » : une cellule morte naît ou une cellule vivante survit selon le nombre de ses voisins
+ * vivants (état 1). Avec plus de 2 états (règles « Generations ») une cellule qui ne survit pas vieillit : elle
+ * passe par les états 2, 3... jusqu'au dernier puis meurt, et seules les cellules de l'état 1 sont comptées.
+ * <p>
+ * Notation : {@code B3/S23} (jeu de la vie), {@code B36/S23} (HighLife), {@code B2/S/C3} (Brian's Brain) : les
+ * chiffres après B donnent les naissances, après S les survies et après C le nombre d'états. Une lettre V à la fin
+ * choisit le voisinage de von Neumann, H la grille hexagonale, le voisinage de Moore sinon.
+ */
+public final class OuterTotalisticRule implements CellRule {
+    // Le jeu de la vie de Conway : B3/S23.
+    public static final OuterTotalisticRule LIFE = new OuterTotalisticRule(1 << 3, 1 << 2 | 1 << 3, 2, Neighbourhood.MOORE);
+
+    private final int birth;
+    private final int survival;
+    private final int states;
+    private final Neighbourhood neighbourhood;
+
+    /**
+     * @param birth le bit k est mis si k voisins vivants font naître une cellule morte.
+     * @param survival le bit k est mis si k voisins vivants gardent une cellule vivante.
+     * @param states le nombre d'états, au moins 2.
+     * @param neighbourhood le voisinage : MOORE, VON_NEUMANN ou HEXAGONAL.
+     */
+    public OuterTotalisticRule(int birth, int survival, int states, Neighbourhood neighbourhood) {
+        if (neighbourhood != Neighbourhood.MOORE && neighbourhood != Neighbourhood.VON_NEUMANN
+                && neighbourhood != Neighbourhood.HEXAGONAL) {
+            throw new IllegalArgumentException("La notation B/S ne connait pas le voisinage " + neighbourhood);
+        }
+        int counts = (1 << (neighbourhood.size() + 1)) - 1;
+        if ((birth & ~counts) != 0 || (survival & ~counts) != 0) {
+            throw new IllegalArgumentException("Le voisinage " + neighbourhood + " n'a que " + neighbourhood.size() + " voisins");
+        }
+        if (states < 2 || states > 256) {
+            throw new IllegalArgumentException("Le nombre d'états doit être entre 2 et 256 : " + states);
+        }
+        this.birth = birth;
+        this.survival = survival;
+        this.states = states;
+        this.neighbourhood = neighbourhood;
+    }
+
+    /**
+     * Lit une règle en notation B/S, par exemple {@code B3/S23} ou {@code B2/S/C3}. Les lettres peuvent être en
+     * minuscules et les parties dans n'importe quel ordre.
+     *
+     * @param notation le texte de la règle.
+     * @return la règle.
+     * @throws IllegalArgumentException si le texte n'est pas une règle B/S.
+     */
+    public static OuterTotalisticRule parse(String notation) {
+        String text = notation.trim().toUpperCase(Locale.ROOT);
+        Neighbourhood neighbourhood = Neighbourhood.MOORE;
+        if (text.endsWith("V")) {
+            neighbourhood = Neighbourhood.VON_NEUMANN;
+            text = text.substring(0, text.length() - 1);
+        }
+        else if (text.endsWith("H")) {
+            neighbourhood = Neighbourhood.HEXAGONAL;
+            text = text.substring(0, text.length() - 1);
+        }
+
+        int birth = -1;
+        int survival = -1;
+        int states = 2;
+        for (String part : text.split("/", -1)) {
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("Partie vide dans la règle : " + notation);
+            }
+            String digits = part.substring(1);
+            switch (part.charAt(0)) {
+                case 'B' -> birth = counts(digits, notation);
+                case 'S' -> survival = counts(digits, notation);
+                case 'C', 'G' -> {
+                    try {
+                        states = Integer.parseInt(digits);
+                    }
+                    catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Nombre d'états invalide dans la règle : " + notation, e);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Partie inconnue " + part + " dans la règle : " + notation);
+            }
+        }
+        if (birth < 0 || survival < 0) {
+            throw new IllegalArgumentException("La règle doit avoir une partie B et une partie S : " + notation);
+        }
+        return new OuterTotalisticRule(birth, survival, states, neighbourhood);
+    }
+
+    /**
+     * Convertit une suite de chiffres (nombres de voisins) en masque.
+     */
+    private static int counts(String digits, String notation) {
+        int mask = 0;
+        for (int index = 0; index < digits.length(); index++) {
+            char digit = digits.charAt(index);
+            if (digit < '0' || digit > '9') {
+                throw new IllegalArgumentException("Nombre de voisins invalide " + digit + " dans la règle : " + notation);
+            }
+            mask |= 1 << (digit - '0');
+        }
+        return mask;
+    }
+
+    @Override
+    public RuleTable compile() {
+        int counts = this.neighbourhood.size() + 1;
+        byte[] next = new byte[this.states * counts];
+        for (int count = 0; count < counts; count++) {
+            next[count] = (byte) ((this.birth >>> count) & 1);
+            // Une cellule vivante qui ne survit pas meurt, ou vieillit s'il y a plus de 2 états.
+            next[counts + count] = (byte) (((this.survival >>> count) & 1) != 0 ? 1 : this.states > 2 ? 2 : 0);
+            for (int state = 2; state < this.states; state++) {
+                next[state * counts + count] = (byte) ((state + 1) % this.states);
+            }
+        }
+        byte[] chances = new byte[next.length];
+        Arrays.fill(chances, (byte) RuleTable.CERTAIN);
+        return new RuleTable(this.neighbourhood, this.states, 1, next, next, chances);
+    }
+
+    @Override
+    public String getNotation() {
+        StringBuilder notation = new StringBuilder("B");
+        appendCounts(notation, this.birth);
+        notation.append("/S");
+        appendCounts(notation, this.survival);
+        if (this.states > 2) {
+            notation.append("/C").append(this.states);
+        }
+        if (this.neighbourhood == Neighbourhood.VON_NEUMANN) {
+            notation.append('V');
+        }
+        else if (this.neighbourhood == Neighbourhood.HEXAGONAL) {
+            notation.append('H');
+        }
+        return notation.toString();
+    }
+
+    private static void appendCounts(StringBuilder notation, int mask) {
+        for (int count = 0; count < Integer.SIZE; count++) {
+            if (((mask >>> count) & 1) != 0) {
+                notation.append(count);
+            }
+        }
+    }
+
+    public int getBirth() {
+        return birth;
+    }
+
+    public int getSurvival() {
+        return survival;
+    }
+
+    @Override
+    public int getStates() {
+        return states;
+    }
+
+    @Override
+    public Neighbourhood getNeighbourhood() {
+        return neighbourhood;
+    }
+
+    @Override
+    public String toString() {
+        return getNotation();
+    }
+}
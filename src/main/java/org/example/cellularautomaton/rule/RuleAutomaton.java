@@ -0,0 +1,304 @@
+package org.example.cellularautomaton.rule;
+
+import org.example.cellularautomaton.Automaton;
+import org.example.cellularautomaton.AutomatonCapability;
+import org.example.cellularautomaton.automaton.ByteGrid;
+import org.example.cellularautomaton.automaton.CellRandom;
+import org.example.cellularautomaton.automaton.GenerationEvent;
+import org.example.cellularautomaton.automaton.ParallelStepper;
+import org.example.cellularautomaton.automaton.SimulationMetrics;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Automate à deux dimensions qui suit n'importe quelle règle ({@link CellRule}) : jeu de la vie et variantes en
+ * notation B/S, règles « Generations » à plusieurs états ou table de transitions. Les cellules sont dans une
+ * ByteGrid dont la bordure couvre le voisinage de la règle (les cellules en dehors de la grille sont dans l'état 0).
+ * <p>
+ * Pour chaque cellule les voisins dans l'état compté sont comptés avec les décalages d'indice du voisinage, puis le
+ * prochain état est lu dans la table compilée de la règle. Les nombres aléatoires des transitions aléatoires sont
+ * tirés avec {@link CellRandom} : le résultat ne dépend que de la graine, pas du découpage en bandes.
+ */
+public class RuleAutomaton extends Automaton {
+    private final int x;
+    private final int y;
+    private CellRule rule;
+    private RuleTable table;
+    private ByteGrid grid;
+    // La grille dans laquelle est écrite la prochaine génération, elle est échangée avec grid à chaque génération.
+    private ByteGrid nextGrid;
+    // Le décalage d'indice de chaque voisin dans les grilles.
+    private int[] offsets;
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private long generation;
+    // Le pourcentage de cellules dans l'état initialState à l'initialisation, les autres sont dans l'état 0.
+    private int density = 50;
+    private int initialState = 1;
+    // Calcul en parallèle par bandes de lignes, null pour un calcul sur le thread courant.
+    private ParallelStepper parallelStepper;
+
+    /**
+     * @param x le nombre de colonnes de la grille.
+     * @param y le nombre de lignes de la grille.
+     * @param rule la règle de l'automate.
+     */
+    public RuleAutomaton(int x, int y, CellRule rule) {
+        if (x <= 0 || y <= 0) {
+            throw new IllegalArgumentException("La taille de la grille doit être positive : " + x + "x" + y);
+        }
+        this.x = x;
+        this.y = y;
+        setRule(rule);
+        initializeAutomaton();
+    }
+
+    /**
+     * Initialise la grille : chaque cellule est dans l'état initialState avec la probabilité density, dans l'état 0
+     * sinon.
+     */
+    @Override
+    public void initializeAutomaton() {
+        long initialKey = CellRandom.generationKey(this.seed, -1);
+        for (int row = 0; row < this.y; row++) {
+            int index = this.grid.index(0, row);
+            long cellIndex = (long) row * this.x;
+            for (int column = 0; column < this.x; column++, index++, cellIndex++) {
+                this.grid.set(index, (byte) (CellRandom.percentage(initialKey, cellIndex) <= this.density ? this.initialState : 0));
+            }
+        }
+        this.generation = 0;
+    }
+
+    /**
+     * Simule la prochaine génération.
+     */
+    @Override
+    public void simulate() {
+        GenerationEvent event = GenerationEvent.beginIfEnabled();
+        SimulationMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.begin();
+        }
+
+        long generationKey = CellRandom.generationKey(this.seed, this.generation);
+        ByteGrid current = this.grid;
+        ByteGrid next = this.nextGrid;
+        if (this.parallelStepper != null) {
+            this.parallelStepper.forEachStripe(this.y, (stripe, fromRow, toRow) ->
+                    simulateRows(current, next, fromRow, toRow, generationKey));
+        }
+        else {
+            simulateRows(current, next, 0, this.y, generationKey);
+        }
+        this.grid = next;
+        this.nextGrid = current;
+        this.generation++;
+
+        long cells = (long) this.x * this.y;
+        if (metrics != null) {
+            metrics.end(1, cells, cells);
+        }
+        if (event != null) {
+            event.record("RuleAutomaton", this.rule.getNotation(), this.generation, 1, cells, cells);
+        }
+    }
+
+    /**
+     * Calcule la prochaine génération des lignes [fromRow, toRow[.
+     */
+    private void simulateRows(ByteGrid current, ByteGrid next, int fromRow, int toRow, long generationKey) {
+        RuleTable currentTable = this.table;
+        int[] neighbours = this.offsets;
+        byte counted = (byte) currentTable.getCountedState();
+        byte[] cells = current.getCells();
+        byte[] nextCells = next.getCells();
+
+        for (int row = fromRow; row < toRow; row++) {
+            int index = current.index(0, row);
+            long cellIndex = (long) row * this.x;
+            for (int column = 0; column < this.x; column++, index++, cellIndex++) {
+                int count = 0;
+                for (int offset : neighbours) {
+                    count += cells[index + offset] == counted ? 1 : 0;
+                }
+                // Le nombre aléatoire n'est tiré que pour une transition aléatoire.
+                nextCells[index] = currentTable.next(currentTable.index(cells[index] & 0xFF, count), generationKey, cellIndex);
+            }
+        }
+    }
+
+    /**
+     * Remplace la règle, les cellules sont gardées. Les états qui n'existent pas dans la nouvelle règle doivent être
+     * effacés avant la prochaine génération.
+     *
+     * @param rule la nouvelle règle.
+     */
+    public void setRule(CellRule rule) {
+        RuleTable compiled = rule.compile();
+        int border = Math.max(1, compiled.getNeighbourhood().getRadius());
+        if (this.grid == null || this.grid.getBorder() != border) {
+            ByteGrid newGrid = new ByteGrid(this.x, this.y, border);
+            if (this.grid != null) {
+                for (int row = 0; row < this.y; row++) {
+                    System.arraycopy(this.grid.getCells(), this.grid.index(0, row), newGrid.getCells(), newGrid.index(0, row), this.x);
+                }
+            }
+            this.grid = newGrid;
+            this.nextGrid = new ByteGrid(this.x, this.y, border);
+        }
+        this.rule = rule;
+        this.table = compiled;
+        this.offsets = compiled.getNeighbourhood().offsets(this.grid.getStride());
+    }
+
+    @Override
+    public int getCell(int column, int row) {
+        return this.grid.get(column, row) & 0xFF;
+    }
+
+    public void setCell(int column, int row, int state) {
+        checkState(state);
+        this.grid.set(column, row, (byte) state);
+    }
+
+    /**
+     * Remplace toutes les cellules.
+     *
+     * @param source l'état de chaque cellule, ligne par ligne (x * y valeurs).
+     */
+    public void setCells(byte[] source) {
+        for (int row = 0; row < this.y; row++) {
+            System.arraycopy(source, row * this.x, this.grid.getCells(), this.grid.index(0, row), this.x);
+        }
+    }
+
+    /**
+     * Copie l'état de chaque cellule, ligne par ligne, dans target qui doit contenir au moins x * y cellules. Sert
+     * de source à une {@link org.example.cellularautomaton.automaton.FrameOutput}.
+     *
+     * @param target le tableau qui reçoit les cellules.
+     */
+    @Override
+    public void copyCells(byte[] target) {
+        for (int row = 0; row < this.y; row++) {
+            System.arraycopy(this.grid.getCells(), this.grid.index(0, row), target, row * this.x, this.x);
+        }
+    }
+
+    /**
+     * Renvoi le nombre de cellules dans un état.
+     *
+     * @param state l'état compté.
+     * @return le nombre de cellules.
+     */
+    public long countCells(int state) {
+        long total = 0;
+        for (int row = 0; row < this.y; row++) {
+            int index = this.grid.index(0, row);
+            for (int column = 0; column < this.x; column++, index++) {
+                total += (this.grid.get(index) & 0xFF) == state ? 1 : 0;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Met toutes les cellules dans l'état 0.
+     */
+    public void clear() {
+        Arrays.fill(this.grid.getCells(), (byte) 0);
+        this.generation = 0;
+    }
+
+    private void checkState(int state) {
+        if (state < 0 || state >= this.table.getStates()) {
+            throw new IllegalArgumentException("La règle " + this.rule + " n'a pas d'état " + state);
+        }
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * L'automate est DETERMINISTIC si aucune transition de la règle n'est aléatoire, PARALLEL avec un ParallelStepper.
+     */
+    @Override
+    public Set<AutomatonCapability> getCapabilities() {
+        Set<AutomatonCapability> capabilities = EnumSet.noneOf(AutomatonCapability.class);
+        if (!this.table.isStochastic()) {
+            capabilities.add(AutomatonCapability.DETERMINISTIC);
+        }
+        if (this.parallelStepper != null) {
+            capabilities.add(AutomatonCapability.PARALLEL);
+        }
+        return capabilities;
+    }
+
+    public CellRule getRule() {
+        return rule;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Fixe la graine des nombres aléatoires de l'initialisation et des transitions aléatoires.
+     *
+     * @param seed la graine.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getDensity() {
+        return density;
+    }
+
+    public void setDensity(int density) {
+        this.density = density;
+    }
+
+    public int getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * Modifie l'état des cellules tirées à l'initialisation.
+     *
+     * @param initialState un état de la règle.
+     */
+    public void setInitialState(int initialState) {
+        checkState(initialState);
+        this.initialState = initialState;
+    }
+
+    public ParallelStepper getParallelStepper() {
+        return parallelStepper;
+    }
+
+    /**
+     * Active le calcul des générations en parallèle par bandes de lignes. Le résultat est identique au calcul sur un
+     * seul thread quel que soit le découpage.
+     *
+     * @param parallelStepper le découpage en bandes à utiliser, null pour calculer sur le thread courant.
+     */
+    public void setParallelStepper(ParallelStepper parallelStepper) {
+        this.parallelStepper = parallelStepper;
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.cellularautomaton.rule;
+
+import org.example.cellularautomaton.automaton.CellRandom;
+import org.example.cellularautomaton.automaton.Neighbourhood;
+
+/**
+ * Forme compilée d'une règle ({@link CellRule#compile()}) : le prochain état d'une cellule pour chaque état et chaque
+ * nombre de voisins dans l'état compté, rangé dans un tableau à l'indice {@code état * (voisins + 1) + nombre}. Un
+ * moteur calcule une génération avec une lecture de tableau par cellule, quelle que soit la règle.
+ * <p>
+ * Une transition peut être aléatoire : la cellule prend le prochain état si le nombre aléatoire de la cellule
+ * ({@link CellRandom#percentage(long, long)}, entre 1 et 100) est inférieur ou égal à la chance de la transition,
+ * sinon elle prend l'autre état. Une chance de 100 est une transition certaine.
+ */
+public final class RuleTable {
+    // La chance d'une transition certaine.
+    static final int CERTAIN = 100;
+
+    private final Neighbourhood neighbourhood;
+    private final int states;
+    private final int countedState;
+    // Le nombre de cases d'un état dans les tableaux : de 0 à size voisins.
+    private final int counts;
+    private final byte[] next;
+    private final byte[] otherwise;
+    private final byte[] chances;
+    private final boolean stochastic;
+    // Vrai pour les états dont la transition dépend du nombre de voisins.
+    private final boolean[] countDependent;
+
+    /**
+     * @param neighbourhood le voisinage de la règle.
+     * @param states le nombre d'états.
+     * @param countedState l'état des voisins comptés.
+     * @param next le prochain état de chaque case.
+     * @param otherwise l'état pris quand le tirage d'une transition aléatoire échoue.
+     * @param chances la chance (de 0 à 100) de chaque transition.
+     */
+    RuleTable(Neighbourhood neighbourhood, int states, int countedState, byte[] next, byte[] otherwise, byte[] chances) {
+        this.neighbourhood = neighbourhood;
+        this.states = states;
+        this.countedState = countedState;
+        this.counts = neighbourhood.size() + 1;
+        if (next.length != states * this.counts || otherwise.length != next.length || chances.length != next.length) {
+            throw new IllegalArgumentException("La table doit avoir " + states * this.counts + " cases");
+        }
+        this.next = next.clone();
+        this.otherwise = otherwise.clone();
+        this.chances = chances.clone();
+        boolean anyRandom = false;
+        for (byte chance : this.chances) {
+            anyRandom |= chance < CERTAIN;
+        }
+        this.stochastic = anyRandom;
+        this.countDependent = new boolean[states];
+        for (int state = 0; state < states; state++) {
+            int first = index(state, 0);
+            for (int count = 1; count < this.counts; count++) {
+                int index = first + count;
+                this.countDependent[state] |= this.next[index] != this.next[first]
+                        || this.otherwise[index] != this.otherwise[first] || this.chances[index] != this.chances[first];
+            }
+        }
+    }
+
+    /**
+     * Renvoi l'indice de la case d'un état et d'un nombre de voisins, à passer aux méthodes qui lisent une case.
+     *
+     * @param state l'état de la cellule.
+     * @param count le nombre de voisins dans l'état compté.
+     * @return l'indice de la case.
+     */
+    public int index(int state, int count) {
+        return state * this.counts + count;
+    }
+
+    /**
+     * Renvoi le prochain état d'une cellule, en tirant le nombre aléatoire de la cellule si la transition est
+     * aléatoire.
+     *
+     * @param index la case de la cellule ({@link #index(int, int)}).
+     * @param generationKey la clé des nombres aléatoires de la génération.
+     * @param cellIndex l'indice de la cellule (ligne * largeur + colonne).
+     * @return le prochain état.
+     */
+    public byte next(int index, long generationKey, long cellIndex) {
+        int chance = this.chances[index];
+        if (chance >= CERTAIN || CellRandom.percentage(generationKey, cellIndex) <= chance) {
+            return this.next[index];
+        }
+        return this.otherwise[index];
+    }
+
+    /**
+     * Renvoi le prochain état d'une cellule quand la transition réussit (le seul état possible si la règle n'est
+     * pas aléatoire).
+     *
+     * @param state l'état de la cellule.
+     * @param count le nombre de voisins dans l'état compté.
+     * @return le prochain état.
+     */
+    public byte next(int state, int count) {
+        return this.next[index(state, count)];
+    }
+
+    /**
+     * Renvoi la chance de la transition d'une case.
+     *
+     * @param state l'état de la cellule.
+     * @param count le nombre de voisins dans l'état compté.
+     * @return la chance, de 0 à 100.
+     */
+    public int getChance(int state, int count) {
+        return this.chances[index(state, count)];
+    }
+
+    /**
+     * Renvoi l'état pris quand le tirage de la transition d'une case échoue.
+     *
+     * @param state l'état de la cellule.
+     * @param count le nombre de voisins dans l'état compté.
+     * @return l'autre état.
+     */
+    public byte otherwise(int state, int count) {
+        return this.otherwise[index(state, count)];
+    }
+
+    /**
+     * Indique si la transition d'un état dépend du nombre de voisins. Sinon un moteur peut lire la case du nombre 0
+     * sans compter les voisins.
+     *
+     * @param state l'état de la cellule.
+     * @return true si le prochain état dépend du nombre de voisins dans l'état compté.
+     */
+    public boolean isCountDependent(int state) {
+        return this.countDependent[state];
+    }
+
+    /**
+     * Renvoi les voisins comptés qui font naître une cellule (état 0 vers état 1) d'une règle à 2 états sans hasard :
+     * le bit k est mis si k voisins vivants font naître la cellule. Utilisé par les moteurs par bits.
+     *
+     * @return le masque des naissances.
+     * @throws IllegalStateException si la règle n'a pas 2 états, est aléatoire ou ne compte pas l'état 1.
+     */
+    public int getBirthMask() {
+        return binaryMask(0);
+    }
+
+    /**
+     * Renvoi les voisins comptés qui gardent une cellule vivante (état 1), comme {@link #getBirthMask()}.
+     *
+     * @return le masque des survies.
+     * @throws IllegalStateException si la règle n'a pas 2 états, est aléatoire ou ne compte pas l'état 1.
+     */
+    public int getSurvivalMask() {
+        return binaryMask(1);
+    }
+
+    private int binaryMask(int state) {
+        if (this.states != 2 || this.stochastic || this.countedState != 1) {
+            throw new IllegalStateException("La règle n'est pas une règle à 2 états sans hasard qui compte l'état 1");
+        }
+        int mask = 0;
+        for (int count = 0; count < this.counts; count++) {
+            mask |= this.next[index(state, count)] << count;
+        }
+        return mask;
+    }
+
+    public Neighbourhood getNeighbourhood() {
+        return neighbourhood;
+    }
+
+    public int getStates() {
+        return states;
+    }
+
+    public int getCountedState() {
+        return countedState;
+    }
+
+    /**
+     * Indique si une transition de la règle est aléatoire.
+     *
+     * @return true si le prochain état dépend du nombre aléatoire de la cellule.
+     */
+    public boolean isStochastic() {
+        return stochastic;
+    }
+}
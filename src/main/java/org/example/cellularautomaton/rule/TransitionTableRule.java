@@ -0,0 +1,285 @@
+package org.example.cellularautomaton.rule;
+
+import org.example.cellularautomaton.automaton.Neighbourhood;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Règle écrite comme une table de transitions entre des états nommés, par exemple les états d'une énumération
+ * comme {@link org.example.cellularautomaton.fireforest.ForestState}. Le texte de la règle a une instruction par
+ * ligne ({@code #} commence un commentaire) :
+ * <pre>
+ * states EMPTY FOREST FIRE BURNED
+ * count FIRE
+ * FIRE -> BURNED
+ * BURNED -> BURNED
+ * FOREST 1-8 -> FIRE 60%*n
+ * </pre>
+ * {@code states} nomme les états dans l'ordre de leur code (inutile si les états sont une énumération),
+ * {@code count} l'état des voisins comptés. Une transition donne l'état de départ ({@code *} pour tous), les nombres
+ * de voisins concernés ({@code 3}, {@code 1-8}, {@code 2,3,6-8}, tous si absent), l'état d'arrivée puis si la
+ * transition est aléatoire sa chance : {@code 60%}, ou {@code 60%*n} pour 60 % par voisin compté. Une transition
+ * aléatoire qui échoue garde l'état de départ, ou prend l'état donné par {@code else ÉTAT}. Une transition remplace
+ * celles des lignes précédentes pour les mêmes cases, une cellule sans transition garde son état.
+ */
+public final class TransitionTableRule implements CellRule {
+    private static final Pattern CHANCE = Pattern.compile("(\\d+)%(\\*n)?");
+
+    private final String[] names;
+    private final int countedState;
+    private final Neighbourhood neighbourhood;
+    private final byte[] next;
+    private final byte[] otherwise;
+    private final byte[] chances;
+    private final List<String> transitions;
+
+    private TransitionTableRule(String[] names, int countedState, Neighbourhood neighbourhood, byte[] next,
+                                byte[] otherwise, byte[] chances, List<String> transitions) {
+        this.names = names;
+        this.countedState = countedState;
+        this.neighbourhood = neighbourhood;
+        this.next = next;
+        this.otherwise = otherwise;
+        this.chances = chances;
+        this.transitions = transitions;
+    }
+
+    /**
+     * Lit une règle dont les états sont nommés par une ligne {@code states}.
+     *
+     * @param text le texte de la règle.
+     * @param neighbourhood les voisins d'une cellule.
+     * @return la règle.
+     * @throws IllegalArgumentException si le texte n'est pas une table de transitions.
+     */
+    public static TransitionTableRule parse(String text, Neighbourhood neighbourhood) {
+        return parse(null, text, neighbourhood);
+    }
+
+    /**
+     * Lit une règle dont les états sont les constantes d'une énumération : le code d'un état est son ordinal.
+     *
+     * @param stateType l'énumération des états.
+     * @param text le texte de la règle.
+     * @param neighbourhood les voisins d'une cellule.
+     * @return la règle.
+     * @throws IllegalArgumentException si le texte n'est pas une table de transitions.
+     */
+    public static <E extends Enum<E>> TransitionTableRule parse(Class<E> stateType, String text, Neighbourhood neighbourhood) {
+        String[] names = null;
+        if (stateType != null) {
+            names = Arrays.stream(stateType.getEnumConstants()).map(Enum::name).toArray(String[]::new);
+        }
+        int countedState = -1;
+        int counts = neighbourhood.size() + 1;
+        byte[] next = null;
+        byte[] otherwise = null;
+        byte[] chances = null;
+        List<String> transitions = new ArrayList<>();
+
+        String[] lines = text.split("\n");
+        for (int lineNumber = 1; lineNumber <= lines.length; lineNumber++) {
+            String line = lines[lineNumber - 1];
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            String where = "Ligne " + lineNumber + " (" + line + ") : ";
+
+            switch (tokens[0]) {
+                case "states" -> {
+                    String[] declared = Arrays.copyOfRange(tokens, 1, tokens.length);
+                    if (names != null && !Arrays.equals(names, declared)) {
+                        throw new IllegalArgumentException(where + "les états ne sont pas ceux de " + stateType.getSimpleName());
+                    }
+                    if (next != null) {
+                        throw new IllegalArgumentException(where + "les états doivent être nommés avant les transitions");
+                    }
+                    names = declared;
+                }
+                case "count" -> {
+                    if (tokens.length != 2) {
+                        throw new IllegalArgumentException(where + "un seul état est compté");
+                    }
+                    countedState = state(names, tokens[1], where);
+                }
+                default -> {
+                    if (names == null || names.length == 0) {
+                        throw new IllegalArgumentException(where + "les états doivent être nommés avant les transitions");
+                    }
+                    if (names.length > 256) {
+                        throw new IllegalArgumentException(where + "au plus 256 états : " + names.length);
+                    }
+                    if (next == null) {
+                        next = new byte[names.length * counts];
+                        otherwise = new byte[next.length];
+                        chances = new byte[next.length];
+                        for (int state = 0; state < names.length; state++) {
+                            Arrays.fill(next, state * counts, (state + 1) * counts, (byte) state);
+                            Arrays.fill(otherwise, state * counts, (state + 1) * counts, (byte) state);
+                        }
+                        Arrays.fill(chances, (byte) RuleTable.CERTAIN);
+                    }
+                    addTransition(names, tokens, counts, next, otherwise, chances, where);
+                    transitions.add(String.join(" ", tokens));
+                }
+            }
+        }
+        if (names == null || names.length == 0) {
+            throw new IllegalArgumentException("La règle ne nomme aucun état");
+        }
+        if (countedState < 0) {
+            throw new IllegalArgumentException("La règle ne donne pas l'état des voisins comptés (ligne count)");
+        }
+        if (next == null) {
+            // Aucune transition : chaque cellule garde son état.
+            return parse(stateType, "states " + String.join(" ", names) + "\ncount " + names[countedState] + "\n* -> *", neighbourhood);
+        }
+        return new TransitionTableRule(names, countedState, neighbourhood, next, otherwise, chances, transitions);
+    }
+
+    /**
+     * Remplit les cases d'une transition : {@code DÉPART [NOMBRES] -> ARRIVÉE [CHANCE] [else ÉTAT]}.
+     */
+    private static void addTransition(String[] names, String[] tokens, int counts, byte[] next, byte[] otherwise,
+                                      byte[] chances, String where) {
+        int arrow = Arrays.asList(tokens).indexOf("->");
+        if (arrow < 1 || arrow > 2 || arrow == tokens.length - 1) {
+            throw new IllegalArgumentException(where + "une transition s'écrit DÉPART [NOMBRES] -> ARRIVÉE [CHANCE] [else ÉTAT]");
+        }
+        boolean allStates = tokens[0].equals("*");
+        int from = allStates ? -1 : state(names, tokens[0], where);
+        boolean[] countSet = arrow == 2 ? countSet(tokens[1], counts, where) : null;
+        // * comme arrivée garde l'état de départ (utile avec *).
+        boolean keep = tokens[arrow + 1].equals("*");
+        int to = keep ? -1 : state(names, tokens[arrow + 1], where);
+
+        int position = arrow + 2;
+        int chance = RuleTable.CERTAIN;
+        boolean perNeighbour = false;
+        if (position < tokens.length) {
+            Matcher matcher = CHANCE.matcher(tokens[position]);
+            if (matcher.matches()) {
+                chance = Integer.parseInt(matcher.group(1));
+                perNeighbour = matcher.group(2) != null;
+                if (!perNeighbour && chance > RuleTable.CERTAIN) {
+                    throw new IllegalArgumentException(where + "une chance ne dépasse pas 100 %");
+                }
+                position++;
+            }
+        }
+        int elseState = -1;
+        if (position < tokens.length) {
+            if (!tokens[position].equals("else") || position + 2 != tokens.length) {
+                throw new IllegalArgumentException(where + "fin de ligne inattendue : " + tokens[position]);
+            }
+            elseState = state(names, tokens[position + 1], where);
+        }
+
+        for (int state = 0; state < names.length; state++) {
+            if (!allStates && state != from) {
+                continue;
+            }
+            for (int count = 0; count < counts; count++) {
+                if (countSet != null && !countSet[count]) {
+                    continue;
+                }
+                int index = state * counts + count;
+                next[index] = (byte) (keep ? state : to);
+                otherwise[index] = (byte) (elseState >= 0 ? elseState : state);
+                chances[index] = (byte) Math.min(RuleTable.CERTAIN, perNeighbour ? chance * count : chance);
+            }
+        }
+    }
+
+    /**
+     * Lit les nombres de voisins d'une transition : {@code 3}, {@code 1-8} ou {@code 2,3,6-8}.
+     */
+    private static boolean[] countSet(String text, int counts, String where) {
+        boolean[] set = new boolean[counts];
+        for (String range : text.split(",")) {
+            int dash = range.indexOf('-');
+            int from;
+            int to;
+            try {
+                from = Integer.parseInt(dash < 0 ? range : range.substring(0, dash));
+                to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1));
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException(where + "nombre de voisins invalide : " + range, e);
+            }
+            if (from < 0 || to >= counts || from > to) {
+                throw new IllegalArgumentException(where + "les nombres de voisins vont de 0 à " + (counts - 1) + " : " + range);
+            }
+            Arrays.fill(set, from, to + 1, true);
+        }
+        return set;
+    }
+
+    private static int state(String[] names, String name, String where) {
+        if (names != null) {
+            for (int state = 0; state < names.length; state++) {
+                if (names[state].equals(name)) {
+                    return state;
+                }
+            }
+        }
+        throw new IllegalArgumentException(where + "état inconnu " + name);
+    }
+
+    @Override
+    public RuleTable compile() {
+        return new RuleTable(this.neighbourhood, this.names.length, this.countedState, this.next, this.otherwise, this.chances);
+    }
+
+    /**
+     * Renvoi le texte de la règle avec la ligne {@code states}, relu par {@link #parse(String, Neighbourhood)}.
+     */
+    @Override
+    public String getNotation() {
+        StringBuilder notation = new StringBuilder("states ").append(String.join(" ", this.names))
+                .append("\ncount ").append(this.names[this.countedState]);
+        for (String transition : this.transitions) {
+            notation.append('\n').append(transition);
+        }
+        return notation.toString();
+    }
+
+    /**
+     * Renvoi le nom d'un état.
+     *
+     * @param state le code de l'état.
+     * @return le nom de l'état.
+     */
+    public String getStateName(int state) {
+        return this.names[state];
+    }
+
+    @Override
+    public int getStates() {
+        return this.names.length;
+    }
+
+    public int getCountedState() {
+        return countedState;
+    }
+
+    @Override
+    public Neighbourhood getNeighbourhood() {
+        return neighbourhood;
+    }
+
+    @Override
+    public String toString() {
+        return getNotation();
+    }
+}
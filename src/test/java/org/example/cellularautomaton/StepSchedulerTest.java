@@ -0,0 +1,221 @@
+package org.example.cellularautomaton;
+
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.gameoflife.GameOfLifeAutomaton;
+import org.example.cellularautomaton.gameoflife.GameOfLifeEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Les lots de générations du planificateur et l'arrêt exact de {@link Automaton#stepUntil}.
+ */
+class StepSchedulerTest {
+    /**
+     * Automate sans cellules qui garde la taille de chaque appel à step. Après slowFrom générations, chaque
+     * génération attend slowNanos.
+     */
+    private static final class CountingAutomaton extends Automaton {
+        private final List<Long> steps = new ArrayList<>();
+        private long generation;
+        private long slowFrom = Long.MAX_VALUE;
+        private long slowNanos;
+
+        @Override
+        public void initializeAutomaton() {
+            this.generation = 0;
+        }
+
+        @Override
+        public void simulate() {
+            if (this.generation >= this.slowFrom) {
+                long end = System.nanoTime() + this.slowNanos;
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+            }
+            this.generation++;
+        }
+
+        @Override
+        public void step(long generations) {
+            this.steps.add(generations);
+            super.step(generations);
+        }
+
+        @Override
+        public long getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public int getX() {
+            return 1;
+        }
+
+        @Override
+        public int getY() {
+            return 1;
+        }
+
+        @Override
+        public int getCell(int column, int row) {
+            return 0;
+        }
+
+        @Override
+        public void copyCells(byte[] target) {
+            target[0] = 0;
+        }
+
+        @Override
+        public Set<AutomatonCapability> getCapabilities() {
+            return EnumSet.noneOf(AutomatonCapability.class);
+        }
+    }
+
+    /**
+     * Les générations rapides font grandir les lots, les lentes les réduisent : chaque lot est entre la moitié et le
+     * double du précédent, sans dépasser la taille maximum.
+     */
+    @Test
+    void adaptiveBatchStaysWithinFactorTwo() {
+        CountingAutomaton automaton = new CountingAutomaton();
+        automaton.slowFrom = 20_000;
+        automaton.slowNanos = 20_000;
+        StepScheduler scheduler = new StepScheduler(automaton);
+        scheduler.setTargetBatchNanos(200_000);
+        scheduler.setMaxBatchSize(4096);
+        List<Long> observed = new ArrayList<>();
+        scheduler.addObserver((observedAutomaton, generations, nanos) -> observed.add(generations));
+
+        long maxGenerations = 22_000;
+        assertEquals(maxGenerations, scheduler.run(maxGenerations));
+        assertEquals(maxGenerations, automaton.getGeneration());
+        assertEquals(automaton.steps, observed);
+        assertEquals(automaton.steps.size(), scheduler.getBatches());
+        assertEquals(maxGenerations, scheduler.getGenerations());
+
+        List<Long> steps = automaton.steps;
+        long largest = 1;
+        boolean shrunk = false;
+        // Le dernier lot peut être coupé par maxGenerations.
+        for (int batch = 1; batch < steps.size() - 1; batch++) {
+            long previous = steps.get(batch - 1);
+            long current = steps.get(batch);
+            assertTrue(current <= 2 * previous && current >= Math.max(1, previous / 2), previous + " puis " + current);
+            assertTrue(current <= 4096, current + " générations");
+            largest = Math.max(largest, current);
+            shrunk |= current < previous;
+        }
+        assertTrue(largest > 1 && shrunk, "les lots doivent grandir puis diminuer : " + steps);
+    }
+
+    /**
+     * La condition n'est testée qu'entre deux lots : l'automate dépasse de moins d'un lot la première génération qui
+     * la vérifie, jamais maxGenerations.
+     */
+    @Test
+    void stopConditionIsCheckedBetweenBatches() {
+        CountingAutomaton automaton = new CountingAutomaton();
+        StepScheduler scheduler = new StepScheduler(automaton);
+        scheduler.setBatchSize(7);
+        List<Long> checked = new ArrayList<>();
+        long done = scheduler.runUntil(() -> {
+            checked.add(automaton.getGeneration());
+            return automaton.getGeneration() >= 30;
+        }, 1000);
+        assertEquals(35, done);
+        assertEquals(List.of(0L, 7L, 14L, 21L, 28L, 35L), checked);
+
+        for (long maxGenerations : new long[] {1, 6, 7, 8, 20, 99}) {
+            CountingAutomaton limited = new CountingAutomaton();
+            StepScheduler limitedScheduler = new StepScheduler(limited);
+            limitedScheduler.setBatchSize(7);
+            assertEquals(maxGenerations, limitedScheduler.runUntil(() -> false, maxGenerations));
+            assertEquals(maxGenerations, limited.getGeneration());
+            long last = limited.steps.get(limited.steps.size() - 1);
+            assertEquals(maxGenerations % 7 == 0 ? 7 : maxGenerations % 7, last, maxGenerations + " générations");
+        }
+
+        CountingAutomaton adaptive = new CountingAutomaton();
+        StepScheduler adaptiveScheduler = new StepScheduler(adaptive);
+        adaptiveScheduler.setTargetBatchNanos(1_000_000_000);
+        assertEquals(1000, adaptiveScheduler.runUntil(() -> false, 1000));
+        assertEquals(1000, adaptive.getGeneration());
+    }
+
+    @Test
+    void trueConditionRunsNoGeneration() {
+        CountingAutomaton automaton = new CountingAutomaton();
+        StepScheduler scheduler = new StepScheduler(automaton);
+        scheduler.setBatchSize(5);
+        scheduler.addObserver((observedAutomaton, generations, nanos) -> {
+            throw new AssertionError("Aucun lot ne doit être simulé");
+        });
+        assertEquals(0, scheduler.runUntil(() -> true, 100));
+        assertEquals(0, scheduler.run(0));
+        assertEquals(0, automaton.stepUntil(() -> true, 100));
+        assertEquals(0, automaton.getGeneration());
+        assertTrue(automaton.steps.isEmpty());
+        assertEquals(0, scheduler.getBatches());
+    }
+
+    /**
+     * stepUntil teste la condition avant chaque génération et s'arrête exactement sur la première qui la vérifie.
+     */
+    @Test
+    void stepUntilStopsExactly() {
+        CountingAutomaton automaton = new CountingAutomaton();
+        int[] checks = {0};
+        assertEquals(13, automaton.stepUntil(() -> {
+            checks[0]++;
+            return automaton.getGeneration() >= 13;
+        }, 100));
+        assertEquals(13, automaton.getGeneration());
+        assertEquals(14, checks[0]);
+        assertEquals(5, automaton.stepUntil(() -> false, 5));
+        assertEquals(18, automaton.getGeneration());
+        assertThrows(IllegalArgumentException.class, () -> automaton.step(-1));
+        assertThrows(IllegalArgumentException.class, () -> new StepScheduler(automaton).setBatchSize(0));
+    }
+
+    /**
+     * Simuler par lots donne les mêmes cellules que génération par génération, y compris avec HASHLIFE qui avance
+     * d'un lot en un seul calcul.
+     */
+    @Test
+    void batchesGiveTheSameGenerations() {
+        for (GameOfLifeEngine engine : new GameOfLifeEngine[] {GameOfLifeEngine.BITBOARD, GameOfLifeEngine.HASHLIFE}) {
+            GameOfLifeAutomaton expected = new GameOfLifeAutomaton(128, 128, Boundary.DEAD, GameOfLifeEngine.BITBOARD);
+            GameOfLifeAutomaton batched = new GameOfLifeAutomaton(128, 128, Boundary.DEAD, engine);
+            expected.clear();
+            batched.clear();
+            int[][] rPentomino = {{1, 0}, {2, 0}, {0, 1}, {1, 1}, {1, 2}};
+            for (int[] cell : rPentomino) {
+                expected.setCell(62 + cell[0], 62 + cell[1], true);
+                batched.setCell(62 + cell[0], 62 + cell[1], true);
+            }
+            for (int generation = 0; generation < 23; generation++) {
+                expected.simulate();
+            }
+            StepScheduler scheduler = new StepScheduler(batched);
+            scheduler.setBatchSize(5);
+            assertEquals(23, scheduler.run(23));
+            assertEquals(23, batched.getGeneration());
+            byte[] expectedCells = new byte[128 * 128];
+            byte[] cells = new byte[128 * 128];
+            expected.copyCells(expectedCells);
+            batched.copyCells(cells);
+            assertArrayEquals(expectedCells, cells, engine.toString());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.example.cellularautomaton.automaton;
+
+import org.example.cellularautomaton.fireforest.ForestAutomaton;
+import org.example.cellularautomaton.fireforest.ForestEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Une vue ouverte sur une génération ne change pas tant qu'elle n'est pas fermée, et sa grille est réutilisée par la
+ * simulation une fois la vue fermée.
+ */
+class GenerationExchangeTest {
+    private static final int X = 37;
+    private static final int Y = 23;
+
+    /**
+     * Remplit la grille avec le numéro de la génération : une vue qui lit une grille réécrite voit une autre valeur.
+     */
+    private static void fill(ByteGrid grid, long generation) {
+        Arrays.fill(grid.getCells(), (byte) generation);
+    }
+
+    private static void assertFilled(GridView view, String message) {
+        byte[] row = new byte[view.getX()];
+        for (int ii = 0; ii < view.getY(); ii++) {
+            view.copyRow(ii, row, 0);
+            for (byte value : row) {
+                assertEquals((byte) view.getGeneration(), value, message + " : ligne " + ii);
+            }
+        }
+    }
+
+    @Test
+    void closedViewReleasesItsGrid() {
+        GenerationExchange exchange = new GenerationExchange();
+        assertNull(exchange.acquire());
+        assertEquals(-1, exchange.getGeneration());
+
+        ByteGrid first = exchange.claim(X, Y, 1);
+        fill(first, 0);
+        exchange.publish(first, 0);
+        GridView view = exchange.acquire();
+        assertNotNull(view);
+        assertTrue(exchange.isWanted());
+
+        ByteGrid second = exchange.claim(X, Y, 1);
+        assertNotSame(first, second);
+        fill(second, 1);
+        exchange.publish(second, 1);
+        assertFalse(exchange.isWanted());
+
+        // La première grille est lue : la simulation écrit ailleurs.
+        ByteGrid third = exchange.claim(first, second);
+        assertNotSame(first, third);
+        assertNotSame(second, third);
+        assertArrayEquals(second.getCells(), third.getCells());
+        fill(third, 2);
+        exchange.publish(third, 2);
+        assertEquals(0, view.getGeneration());
+        assertFilled(view, "vue ouverte");
+
+        GridView region = view.region(3, 4, 10, 5);
+        view.close();
+        view.close();
+        assertThrows(IllegalStateException.class, () -> view.get(0, 0));
+        // La région garde la grille ouverte.
+        assertNotSame(first, exchange.claim(first, null));
+        assertEquals(3, region.getFromColumn());
+        assertEquals(4, region.getFromRow());
+        assertFilled(region, "région");
+        assertThrows(IndexOutOfBoundsException.class, () -> region.get(10, 0));
+        region.close();
+
+        // Toutes les vues sont fermées : la grille est réutilisée.
+        assertSame(first, exchange.claim(first, null));
+        exchange.reset();
+        assertNull(exchange.acquire());
+    }
+
+    /**
+     * Un fil publie des générations pendant qu'un autre ouvre des vues, les lit, les garde un moment puis les relit :
+     * une vue ne change jamais, les générations lues ne reculent pas et le nombre de grilles reste borné.
+     */
+    @Test
+    void heldViewNeverChanges() throws InterruptedException {
+        GenerationExchange exchange = new GenerationExchange();
+        int generations = 20_000;
+        Set<ByteGrid> grids = Collections.newSetFromMap(new IdentityHashMap<>());
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread publisher = new Thread(() -> {
+            ByteGrid current = exchange.claim(X, Y, 1);
+            ByteGrid next = exchange.claim(X, Y, 1);
+            grids.add(current);
+            grids.add(next);
+            fill(current, 0);
+            exchange.publish(current, 0);
+            for (long generation = 1; generation <= generations; generation++) {
+                ByteGrid written = exchange.claim(next, null);
+                grids.add(written);
+                fill(written, generation);
+                exchange.publish(written, generation);
+                next = current;
+                current = written;
+            }
+            running.set(false);
+        });
+
+        List<GridView> held = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            try {
+                long lastGeneration = -1;
+                int views = 0;
+                while (running.get() || views == 0) {
+                    GridView view = exchange.acquire();
+                    if (view == null) {
+                        continue;
+                    }
+                    views++;
+                    assertTrue(view.getGeneration() >= lastGeneration, view.getGeneration() + " après " + lastGeneration);
+                    lastGeneration = view.getGeneration();
+                    assertFilled(view, "génération " + view.getGeneration());
+                    Thread.yield();
+                    assertFilled(view, "génération " + view.getGeneration() + " relue");
+                    // Quelques vues restent ouvertes jusqu'à la fin de la publication.
+                    if (views % 500 == 1 && held.size() < 3) {
+                        held.add(view);
+                    }
+                    else {
+                        view.close();
+                    }
+                }
+                for (GridView view : held) {
+                    assertFilled(view, "génération " + view.getGeneration() + " gardée");
+                    view.close();
+                }
+            }
+            catch (Throwable e) {
+                failure.set(e);
+                running.set(false);
+            }
+        });
+
+        reader.start();
+        publisher.start();
+        publisher.join();
+        reader.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        // Les deux grilles du double tampon, la dernière lue et celles des vues gardées.
+        assertTrue(grids.size() <= 2 + 1 + held.size() + 1, grids.size() + " grilles");
+    }
+
+    /**
+     * ACTIVE_TILES publie sa grille courante : chaque vue est la copie de la génération, même gardée ouverte pendant
+     * les générations suivantes.
+     */
+    @Test
+    void activeTilesViewsMatchCopyCells() {
+        ForestAutomaton forest = new ForestAutomaton(150, 133, 8);
+        forest.setDensity(65);
+        forest.setProbabilityOfSpread(60);
+        forest.setEngine(ForestEngine.ACTIVE_TILES);
+        forest.setSeed(11);
+        forest.initForest();
+
+        List<GridView> held = new ArrayList<>();
+        List<byte[]> heldCells = new ArrayList<>();
+        byte[] cells = new byte[forest.getX() * forest.getY()];
+        byte[] viewCells = new byte[cells.length];
+        while (forest.isStillFireInForest()) {
+            forest.copyCells(cells);
+            GridView view = forest.openGeneration();
+            assertEquals(forest.getGeneration(), view.getGeneration());
+            for (int row = 0; row < view.getY(); row++) {
+                view.copyRow(row, viewCells, row * view.getX());
+            }
+            assertArrayEquals(cells, viewCells, "génération " + forest.getGeneration());
+            if (forest.getGeneration() % 5 == 0) {
+                held.add(view);
+                heldCells.add(cells.clone());
+            }
+            else {
+                view.close();
+            }
+            forest.simulateForestFire();
+        }
+        for (int ii = 0; ii < held.size(); ii++) {
+            GridView view = held.get(ii);
+            for (int row = 0; row < view.getY(); row++) {
+                view.copyRow(row, viewCells, row * view.getX());
+            }
+            assertArrayEquals(heldCells.get(ii), viewCells, "vue gardée de la génération " + view.getGeneration());
+            view.close();
+        }
+    }
+
+    /**
+     * Les stockages qui modifient leurs cellules en place publient une copie à la génération qui suit une demande.
+     */
+    @Test
+    void copiedGenerationFollowsTheRequest() {
+        ForestAutomaton forest = new ForestAutomaton(60, 40, 8);
+        forest.setDensity(65);
+        forest.setProbabilityOfSpread(60);
+        forest.setEngine(ForestEngine.FRONTIER);
+        forest.setSeed(11);
+        forest.initForest();
+        assertNull(forest.openGeneration());
+        forest.simulateForestFire();
+        byte[] cells = new byte[forest.getX() * forest.getY()];
+        forest.copyCells(cells);
+        forest.simulateForestFire();
+        try (GridView view = forest.openGeneration()) {
+            assertEquals(1, view.getGeneration());
+            byte[] viewCells = new byte[cells.length];
+            for (int row = 0; row < view.getY(); row++) {
+                view.copyRow(row, viewCells, row * view.getX());
+            }
+            assertArrayEquals(cells, viewCells);
+        }
+    }
+}
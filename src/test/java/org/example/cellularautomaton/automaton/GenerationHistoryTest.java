@@ -0,0 +1,180 @@
+package org.example.cellularautomaton.automaton;
+
+import org.example.cellularautomaton.fireforest.ForestAutomaton;
+import org.example.cellularautomaton.fireforest.ForestEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * L'historique d'un feu de forêt : chaque génération relue par seek, dans n'importe quel ordre, doit être celle qui a
+ * été enregistrée, que les générations soient données en entier ou par leurs changements.
+ */
+class GenerationHistoryTest {
+    private static final int[] KEYFRAME_INTERVALS = {1, 2, 7, 16, 1000};
+
+    private static ForestAutomaton forest(ForestEngine engine) {
+        ForestAutomaton forest = new ForestAutomaton(90, 70, 8);
+        forest.setDensity(65);
+        forest.setProbabilityOfSpread(60);
+        forest.setWestWindSpeed(10);
+        forest.setEngine(engine);
+        forest.setSeed(11);
+        return forest;
+    }
+
+    /**
+     * Simule la forêt jusqu'à la fin du feu et renvoi les cellules de chaque génération.
+     */
+    private static List<byte[]> run(ForestAutomaton forest) {
+        forest.initForest();
+        List<byte[]> frames = new ArrayList<>();
+        frames.add(cells(forest));
+        while (forest.isStillFireInForest()) {
+            forest.simulateForestFire();
+            frames.add(cells(forest));
+        }
+        return frames;
+    }
+
+    private static byte[] cells(ForestAutomaton forest) {
+        byte[] cells = new byte[forest.getX() * forest.getY()];
+        forest.copyCells(cells);
+        return cells;
+    }
+
+    private static GenerationHistory record(List<byte[]> frames, int keyframeInterval) {
+        GenerationHistory history = new GenerationHistory(keyframeInterval);
+        for (int generation = 0; generation < frames.size(); generation++) {
+            history.record(generation, frames.get(generation));
+        }
+        return history;
+    }
+
+    /**
+     * Enregistre les générations par leurs changements, donnés dans le désordre.
+     */
+    private static GenerationHistory recordChanges(List<byte[]> frames, int keyframeInterval) {
+        GenerationHistory history = new GenerationHistory(keyframeInterval);
+        history.record(0, frames.get(0));
+        Random random = new Random(keyframeInterval);
+        for (int generation = 1; generation < frames.size(); generation++) {
+            byte[] previous = frames.get(generation - 1);
+            byte[] frame = frames.get(generation);
+            long[] changes = new long[frame.length];
+            int count = 0;
+            for (int cell = 0; cell < frame.length; cell++) {
+                if (frame[cell] != previous[cell]) {
+                    changes[count++] = GenerationHistory.change(cell, frame[cell]);
+                }
+            }
+            for (int change = count - 1; change > 0; change--) {
+                int other = random.nextInt(change + 1);
+                long swapped = changes[change];
+                changes[change] = changes[other];
+                changes[other] = swapped;
+            }
+            history.recordChanges(generation, changes, count);
+        }
+        return history;
+    }
+
+    /**
+     * Les générations à relire : dans l'ordre, à l'envers, autour de chaque image clé dans les deux sens, puis au
+     * hasard.
+     */
+    private static List<Integer> seekOrder(int generations, int keyframeInterval) {
+        List<Integer> order = new ArrayList<>();
+        for (int generation = 0; generation < generations; generation++) {
+            order.add(generation);
+        }
+        for (int generation = generations - 1; generation >= 0; generation--) {
+            order.add(generation);
+        }
+        for (int keyframe = 0; keyframe < generations; keyframe += keyframeInterval) {
+            for (int generation : new int[] {keyframe - 1, keyframe, keyframe + 1, keyframe, keyframe - 1, keyframe + 2}) {
+                if (generation >= 0 && generation < generations) {
+                    order.add(generation);
+                }
+            }
+        }
+        Random random = new Random(3);
+        for (int seek = 0; seek < 3 * generations; seek++) {
+            order.add(random.nextInt(generations));
+        }
+        return order;
+    }
+
+    private static void assertSeeksMatch(List<byte[]> frames, GenerationHistory history, String message) {
+        assertEquals(0, history.getFirstGeneration(), message);
+        assertEquals(frames.size() - 1, history.getLastGeneration(), message);
+        assertEquals(frames.size(), history.getGenerationCount(), message);
+        for (int generation : seekOrder(frames.size(), history.getKeyframeInterval())) {
+            assertArrayEquals(frames.get(generation), history.seek(generation), message + " : génération " + generation);
+        }
+    }
+
+    @Test
+    void seekReturnsRecordedFrames() {
+        List<byte[]> frames = run(forest(ForestEngine.ARRAY));
+        for (int keyframeInterval : KEYFRAME_INTERVALS) {
+            assertSeeksMatch(frames, record(frames, keyframeInterval), "images clés toutes les " + keyframeInterval);
+        }
+    }
+
+    /**
+     * recordChanges et record donnent le même historique : les mêmes octets et les mêmes générations relues.
+     */
+    @Test
+    void recordChangesMatchesRecord() {
+        List<byte[]> frames = run(forest(ForestEngine.ARRAY));
+        for (int keyframeInterval : KEYFRAME_INTERVALS) {
+            GenerationHistory recorded = record(frames, keyframeInterval);
+            GenerationHistory changes = recordChanges(frames, keyframeInterval);
+            assertEquals(recorded.getStoredBytes(), changes.getStoredBytes(), "images clés toutes les " + keyframeInterval);
+            assertSeeksMatch(frames, changes, "changements, images clés toutes les " + keyframeInterval);
+        }
+    }
+
+    /**
+     * La forêt enregistre elle-même ses générations : par leurs changements avec ARRAY, FRONTIER, ACTIVE_TILES et
+     * VECTOR, en entier avec LINKED_CELL. L'historique est le même que celui des générations copiées.
+     */
+    @Test
+    void forestHistoryMatchesRecordedFrames() {
+        for (ForestEngine engine : new ForestEngine[] {ForestEngine.ARRAY, ForestEngine.LINKED_CELL, ForestEngine.FRONTIER,
+                ForestEngine.ACTIVE_TILES, ForestEngine.VECTOR}) {
+            ForestAutomaton forest = forest(engine);
+            forest.setHistory(new GenerationHistory(7));
+            List<byte[]> frames = run(forest);
+            GenerationHistory history = forest.getHistory();
+            assertEquals(record(frames, 7).getStoredBytes(), history.getStoredBytes(), engine.toString());
+            assertSeeksMatch(frames, history, engine.toString());
+
+            // Une nouvelle forêt vide l'historique.
+            List<byte[]> restarted = run(forest);
+            assertSeeksMatch(restarted, history, engine + " relancée");
+        }
+    }
+
+    @Test
+    void invalidUse() {
+        GenerationHistory history = new GenerationHistory(4);
+        assertThrows(IllegalStateException.class, () -> history.recordChanges(0, new long[0], 0));
+        history.record(5, new byte[10]);
+        assertThrows(IllegalArgumentException.class, () -> history.record(7, new byte[10]));
+        assertThrows(IllegalArgumentException.class, () -> history.record(6, new byte[11]));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.seek(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.seek(6));
+        assertThrows(IllegalArgumentException.class, () -> new GenerationHistory(0));
+        history.clear();
+        assertEquals(0, history.getGenerationCount());
+        assertEquals(-1, history.getCellCount());
+    }
+}
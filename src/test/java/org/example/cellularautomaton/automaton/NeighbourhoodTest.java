@@ -0,0 +1,79 @@
+package org.example.cellularautomaton.automaton;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Les voisinages de 4, 6 et 8 voisins, leurs poids du vent et leur compilation en décalages d'indices.
+ */
+class NeighbourhoodTest {
+    private static final int STRIDE = 100;
+
+    @Test
+    void standardNeighbourhoods() {
+        assertSame(Neighbourhood.VON_NEUMANN, Neighbourhood.of(4));
+        assertSame(Neighbourhood.HEXAGONAL, Neighbourhood.of(6));
+        assertSame(Neighbourhood.MOORE, Neighbourhood.of(8));
+        assertNull(Neighbourhood.of(5));
+        assertSame(Neighbourhood.VON_NEUMANN, Neighbourhood.vonNeumann(1));
+        assertSame(Neighbourhood.MOORE, Neighbourhood.moore(1));
+    }
+
+    /**
+     * Les décalages d'indices suivent l'ordre des voisins : gauche, haut, droite et bas pour von Neumann.
+     */
+    @Test
+    void offsetsFollowTheStride() {
+        assertArrayEquals(new int[] {-1, -STRIDE, 1, STRIDE}, Neighbourhood.VON_NEUMANN.offsets(STRIDE));
+        assertArrayEquals(new int[] {-1, -STRIDE - 1, -STRIDE, 1, STRIDE + 1, STRIDE}, Neighbourhood.HEXAGONAL.offsets(STRIDE));
+        assertArrayEquals(new int[] {-1, STRIDE - 1, -STRIDE - 1, -STRIDE, -STRIDE + 1, 1, STRIDE + 1, STRIDE},
+                Neighbourhood.MOORE.offsets(STRIDE));
+        for (Neighbourhood neighbourhood : new Neighbourhood[] {Neighbourhood.VON_NEUMANN, Neighbourhood.HEXAGONAL, Neighbourhood.MOORE}) {
+            int[] offsets = neighbourhood.offsets(STRIDE);
+            for (int neighbour = 0; neighbour < neighbourhood.size(); neighbour++) {
+                assertEquals(neighbourhood.getRow(neighbour) * STRIDE + neighbourhood.getColumn(neighbour), offsets[neighbour]);
+            }
+            assertEquals(1, neighbourhood.getRadius());
+        }
+    }
+
+    @Test
+    void largerRadius() {
+        assertEquals(12, Neighbourhood.vonNeumann(2).size());
+        assertEquals(24, Neighbourhood.moore(2).size());
+        assertEquals(2, Neighbourhood.moore(2).getRadius());
+        assertEquals(48, Neighbourhood.moore(3).size());
+        assertThrows(IllegalArgumentException.class, () -> Neighbourhood.moore(0));
+    }
+
+    /**
+     * Le vent d'ouest pousse le feu vers l'est : il est ajouté pour le voisin de gauche et retiré pour celui de
+     * droite. Le vent du sud est ajouté pour le voisin du bas et retiré pour celui du haut, les diagonales n'ont pas de
+     * vent.
+     */
+    @Test
+    void defaultWindWeights() {
+        Neighbourhood neighbourhood = new Neighbourhood("TEST", new int[] {-1, 1, 0, 0, 1}, new int[] {0, 0, -1, 1, 1});
+        assertArrayEquals(new int[] {1, -1, 0, 0, 0}, weights(neighbourhood, true));
+        assertArrayEquals(new int[] {0, 0, -1, 1, 0}, weights(neighbourhood, false));
+    }
+
+    @Test
+    void invalidNeighbourhoods() {
+        assertThrows(IllegalArgumentException.class, () -> new Neighbourhood("TEST", new int[] {0}, new int[] {0}));
+        assertThrows(IllegalArgumentException.class, () -> new Neighbourhood("TEST", new int[] {1, 0}, new int[] {0}));
+    }
+
+    private static int[] weights(Neighbourhood neighbourhood, boolean west) {
+        int[] weights = new int[neighbourhood.size()];
+        for (int neighbour = 0; neighbour < weights.length; neighbour++) {
+            weights[neighbour] = west ? neighbourhood.getWestWeight(neighbour) : neighbourhood.getSouthWeight(neighbour);
+        }
+        return weights;
+    }
+}
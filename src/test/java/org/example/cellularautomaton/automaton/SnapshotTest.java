@@ -0,0 +1,210 @@
+package org.example.cellularautomaton.automaton;
+
+import org.example.cellularautomaton.Automaton;
+import org.example.cellularautomaton.automaton1d.Automaton1D;
+import org.example.cellularautomaton.automaton1d.Automaton1DEngine;
+import org.example.cellularautomaton.fireforest.ForestAutomaton;
+import org.example.cellularautomaton.fireforest.ForestEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Un point de reprise doit permettre de reprendre une simulation exactement comme si elle n'avait pas été
+ * interrompue, et un fichier abimé doit être refusé sans toucher à l'automate.
+ */
+class SnapshotTest {
+    private static final int GENERATIONS = 30;
+
+    @TempDir
+    Path directory;
+
+    private static ForestAutomaton forest(ForestEngine engine, int nbNextCell, long seed) {
+        ForestAutomaton forest = new ForestAutomaton(53, 41, nbNextCell);
+        forest.setDensity(65);
+        forest.setProbabilityOfSpread(60);
+        forest.setWestWindSpeed(10);
+        forest.setSouthWindSpeed(-5);
+        forest.setEngine(engine);
+        forest.setSeed(seed);
+        forest.initForest();
+        return forest;
+    }
+
+    private static byte[] cells(Automaton automaton) {
+        byte[] cells = new byte[automaton.getX() * automaton.getY()];
+        automaton.copyCells(cells);
+        return cells;
+    }
+
+    /**
+     * Remplace un octet des lignes du fichier : le CRC ne correspond plus.
+     */
+    private static void corrupt(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - Long.BYTES - 3] ^= 0x5A;
+        Files.write(path, bytes);
+    }
+
+    private static void truncate(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+    }
+
+    /**
+     * Remplace un int de l'en-tête : x est à l'octet 16, y à l'octet 20.
+     */
+    private static void damageHeader(Path path, int offset, int value) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        Files.write(path, bytes);
+    }
+
+    private static void appendByte(Path path) throws IOException {
+        Files.write(path, new byte[] {0}, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Écrit le point de reprise de l'automate dans plusieurs fichiers abimés chacun d'une façon : une ligne modifiée,
+     * un fichier coupé, une taille de grille démesurée dans l'en-tête et un octet après le CRC.
+     */
+    private Path[] damagedSnapshots(SnapshotWriter writer) throws IOException {
+        Path[] paths = new Path[5];
+        for (int ii = 0; ii < paths.length; ii++) {
+            paths[ii] = this.directory.resolve("damaged-" + ii + ".snapshot");
+            writer.save(paths[ii]);
+        }
+        corrupt(paths[0]);
+        truncate(paths[1]);
+        damageHeader(paths[2], 16, Integer.MAX_VALUE);
+        damageHeader(paths[3], 20, Integer.MAX_VALUE);
+        appendByte(paths[4]);
+        return paths;
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWriter {
+        void save(Path path) throws IOException;
+    }
+
+    /**
+     * La forêt est sauvée en cours de feu puis rechargée dans une forêt d'une autre graine, avec le même moteur et
+     * avec un autre moteur : les générations suivantes doivent être les mêmes que celles de la forêt sauvée.
+     */
+    @Test
+    void forestRoundTrip() throws IOException {
+        for (int nbNextCell : new int[] {4, 6, 8}) {
+            for (ForestEngine engine : new ForestEngine[] {ForestEngine.ARRAY, ForestEngine.LINKED_CELL, ForestEngine.FRONTIER}) {
+                ForestAutomaton saved = forest(ForestEngine.ARRAY, nbNextCell, 21);
+                for (int generation = 0; generation < 5; generation++) {
+                    saved.simulateForestFire();
+                }
+                Path path = this.directory.resolve("forest-" + nbNextCell + "-" + engine + ".snapshot");
+                saved.saveSnapshot(path);
+
+                ForestAutomaton restored = forest(engine, nbNextCell, 99);
+                restored.loadSnapshot(path);
+                assertEquals(saved.getGeneration(), restored.getGeneration());
+                assertEquals(saved.getSeed(), restored.getSeed());
+                assertArrayEquals(cells(saved), cells(restored), engine + ", " + nbNextCell + " voisins");
+                for (int generation = 0; generation < GENERATIONS; generation++) {
+                    saved.simulateForestFire();
+                    restored.simulateForestFire();
+                    assertArrayEquals(cells(saved), cells(restored),
+                            engine + ", " + nbNextCell + " voisins : génération " + saved.getGeneration());
+                }
+            }
+        }
+    }
+
+    @Test
+    void automaton1DRoundTrip() throws IOException {
+        for (Boundary boundary : Boundary.values()) {
+            for (Automaton1DEngine engine : Automaton1DEngine.values()) {
+                Automaton1D saved = new Automaton1D(101, 110, Automaton1DEngine.LOOKUP_TABLE, boundary);
+                for (int generation = 0; generation < 7; generation++) {
+                    saved.simulateAGeneration();
+                }
+                Path path = this.directory.resolve("automaton-" + boundary + "-" + engine + ".snapshot");
+                saved.saveSnapshot(path);
+
+                Automaton1D restored = new Automaton1D(20, 30, engine, Boundary.DEAD);
+                restored.loadSnapshot(path);
+                assertEquals(saved.getSize(), restored.getSize());
+                assertEquals(saved.getRule(), restored.getRule());
+                assertEquals(saved.getBoundary(), restored.getBoundary());
+                assertEquals(saved.getGeneration(), restored.getGeneration());
+                for (int generation = 0; generation < GENERATIONS; generation++) {
+                    saved.simulateAGeneration();
+                    restored.simulateAGeneration();
+                    assertArrayEquals(cells(saved), cells(restored), engine + ", " + boundary + " : génération " + saved.getGeneration());
+                }
+            }
+        }
+    }
+
+    @Test
+    void damagedForestSnapshotIsRejected() throws IOException {
+        ForestAutomaton saved = forest(ForestEngine.ARRAY, 8, 21);
+        saved.simulateForestFire();
+        Path[] damaged = damagedSnapshots(saved::saveSnapshot);
+
+        for (ForestEngine engine : new ForestEngine[] {ForestEngine.ARRAY, ForestEngine.LINKED_CELL, ForestEngine.FRONTIER}) {
+            ForestAutomaton forest = forest(engine, 8, 99);
+            forest.simulateForestFire();
+            byte[] before = cells(forest);
+            for (Path path : damaged) {
+                assertThrows(IOException.class, () -> forest.loadSnapshot(path), engine + ", " + path.getFileName());
+                assertEquals(1, forest.getGeneration());
+                assertEquals(99, forest.getSeed());
+                assertArrayEquals(before, cells(forest), engine + ", " + path.getFileName());
+            }
+        }
+    }
+
+    @Test
+    void damagedAutomaton1DSnapshotIsRejected() throws IOException {
+        Automaton1D saved = new Automaton1D(101, 110);
+        saved.simulateAGeneration();
+        Path[] damaged = damagedSnapshots(saved::saveSnapshot);
+
+        Automaton1D automaton = new Automaton1D(40, 30);
+        automaton.simulateAGeneration();
+        byte[] before = cells(automaton);
+        for (Path path : damaged) {
+            assertThrows(IOException.class, () -> automaton.loadSnapshot(path), path.getFileName().toString());
+            assertEquals(40, automaton.getSize());
+            assertEquals(30, automaton.getRule());
+            assertEquals(1, automaton.getGeneration());
+            assertArrayEquals(before, cells(automaton), path.getFileName().toString());
+        }
+    }
+
+    @Test
+    void snapshotOfAnotherAutomatonIsRejected() throws IOException {
+        Path automatonPath = this.directory.resolve("automaton.snapshot");
+        new Automaton1D(64, 90).saveSnapshot(automatonPath);
+        Path forestPath = this.directory.resolve("forest.snapshot");
+        forest(ForestEngine.ARRAY, 4, 21).saveSnapshot(forestPath);
+
+        ForestAutomaton forest = forest(ForestEngine.ARRAY, 4, 99);
+        byte[] before = cells(forest);
+        assertThrows(IllegalArgumentException.class, () -> forest.loadSnapshot(automatonPath));
+        assertArrayEquals(before, cells(forest));
+
+        Automaton1D automaton = new Automaton1D(40, 30);
+        assertThrows(IllegalArgumentException.class, () -> automaton.loadSnapshot(forestPath));
+        assertEquals(40, automaton.getSize());
+    }
+}
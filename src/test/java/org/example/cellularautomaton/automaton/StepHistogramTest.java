@@ -0,0 +1,116 @@
+package org.example.cellularautomaton.automaton;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Les cases de l'histogramme (une par valeur jusqu'à 127, 64 par puissance de 2 ensuite) et ses percentiles, comparés
+ * à ceux d'un tableau trié des mêmes valeurs.
+ */
+class StepHistogramTest {
+    private static final double[] PERCENTILES = {0, 0.1, 1, 10, 25, 50, 75, 90, 99, 99.9, 100};
+
+    @Test
+    void smallValuesHaveTheirOwnBucket() {
+        for (int value = 0; value < 128; value++) {
+            assertEquals(value, StepHistogram.bucket(value));
+            assertEquals(value, StepHistogram.highestValue(value));
+        }
+        assertEquals(128, StepHistogram.bucket(128));
+        assertEquals(129, StepHistogram.highestValue(128));
+        assertEquals(128, StepHistogram.bucket(129));
+        assertEquals(129, StepHistogram.bucket(130));
+    }
+
+    /**
+     * Les cases se suivent sans trou jusqu'à Long.MAX_VALUE : la plus grande valeur d'une case est juste avant la
+     * plus petite de la suivante, et une case fait au plus 1/64 de sa plus petite valeur.
+     */
+    @Test
+    void bucketsAreContiguousUpToMaxValue() {
+        int last = StepHistogram.bucket(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, StepHistogram.highestValue(last));
+        long lowest = 0;
+        for (int bucket = 0; bucket <= last; bucket++) {
+            long highest = StepHistogram.highestValue(bucket);
+            assertTrue(highest >= lowest, "case " + bucket);
+            assertEquals(bucket, StepHistogram.bucket(lowest), "plus petite valeur de la case " + bucket);
+            assertEquals(bucket, StepHistogram.bucket(highest), "plus grande valeur de la case " + bucket);
+            if (lowest >= 128) {
+                assertTrue(highest - lowest + 1 <= lowest / 64, "case " + bucket + " trop large");
+            }
+            lowest = highest + 1;
+        }
+        // La dernière case finit à Long.MAX_VALUE : la valeur suivante déborde.
+        assertEquals(Long.MIN_VALUE, lowest);
+    }
+
+    @Test
+    void percentilesFollowTheSortedValues() {
+        Random random = new Random(17);
+        for (int size : new int[] {1, 2, 10, 1000, 20_000}) {
+            long[] values = new long[size];
+            for (int ii = 0; ii < size; ii++) {
+                // Des valeurs réparties sur toutes les puissances de 2.
+                values[ii] = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            }
+            values[0] = 0;
+            if (size > 1) {
+                values[size - 1] = Long.MAX_VALUE;
+            }
+            assertPercentiles(values);
+        }
+    }
+
+    @Test
+    void extremeValues() {
+        assertPercentiles(new long[] {0});
+        assertPercentiles(new long[] {Long.MAX_VALUE});
+        assertPercentiles(new long[] {0, Long.MAX_VALUE});
+        assertPercentiles(new long[] {0, 0, 0, Long.MAX_VALUE, Long.MAX_VALUE});
+
+        StepHistogram histogram = new StepHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE, 3);
+        histogram.record(7, 0);
+        assertEquals(4, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(25));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(26));
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMax());
+    }
+
+    /**
+     * Le percentile de l'histogramme doit être la plus grande valeur de la case de la valeur de même rang du tableau
+     * trié, sans dépasser le maximum.
+     */
+    private static void assertPercentiles(long[] values) {
+        StepHistogram histogram = new StepHistogram();
+        for (long value : values) {
+            histogram.record(value);
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        long max = sorted[sorted.length - 1];
+        assertEquals(sorted.length, histogram.getTotalCount());
+        assertEquals(max, histogram.getMax());
+        for (double percentile : PERCENTILES) {
+            int rank = (int) Math.max(1, Math.ceil(percentile / 100 * sorted.length));
+            long reference = sorted[rank - 1];
+            long expected = Math.min(StepHistogram.highestValue(StepHistogram.bucket(reference)), max);
+            long value = histogram.getValueAtPercentile(percentile);
+            assertEquals(expected, value, sorted.length + " valeurs, p" + percentile);
+            assertTrue(value >= reference && value - reference <= Math.max(0, reference / 64),
+                    sorted.length + " valeurs, p" + percentile + " : " + value + " pour " + reference);
+        }
+    }
+}
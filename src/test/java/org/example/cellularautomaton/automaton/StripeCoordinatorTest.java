@@ -0,0 +1,225 @@
+package org.example.cellularautomaton.automaton;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Le coordinateur et les workers avec une règle qui décale la grille d'une ligne vers le bas à chaque génération :
+ * chaque ligne vient de la ligne du dessus, donc de la bande du dessus pour la première ligne d'une bande. Un worker
+ * qui s'arrête doit arrêter la simulation avec une IOException, sans bloquer le coordinateur ni les autres workers.
+ */
+class StripeCoordinatorTest {
+    private static final int X = 21;
+    private static final int Y = 9;
+    private static final int KIND = 99;
+    // La génération où le worker 1 s'arrête, dans les tests d'arrêt.
+    private static final int FAILING_GENERATION = 3;
+
+    /**
+     * La valeur de la cellule du dessus : le bord de la bande vient du voisin du dessus, ou de la dernière ligne
+     * de la grille sur un tore.
+     */
+    private static final TiledGrid.TileKernel SHIFT_DOWN = (tile, index, column, row) ->
+            tile.getCells()[index - (tile.index(0, 1) - tile.index(0, 0))];
+
+    private static byte initialCell(int column, int row) {
+        return (byte) ((column * 7 + row * 3) % 5 == 0 ? 1 : 0);
+    }
+
+    private static Snapshot.Header header() {
+        return new Snapshot.Header(KIND, X, Y, 1, 0, 0, new int[0]);
+    }
+
+    private static Snapshot.RowSource initialRows() {
+        return (row, target, offset) -> {
+            for (int column = 0; column < X; column++) {
+                target[offset + column] = initialCell(column, row);
+            }
+        };
+    }
+
+    /**
+     * Worker lancé dans une autre JVM par {@link #forkedWorkerStopsTheSimulation()} : il calcule sa bande puis
+     * s'arrête brutalement à la génération FAILING_GENERATION s'il est le worker 1.
+     */
+    public static void main(String[] args) throws IOException {
+        try (StripeWorker worker = StripeWorker.connect(StripeCoordinator.parseAddress(args[0]))) {
+            worker.run((tile, index, column, row) -> {
+                if (worker.getWorkerIndex() == 1 && worker.getGeneration() == FAILING_GENERATION) {
+                    Runtime.getRuntime().halt(3);
+                }
+                return SHIFT_DOWN.nextState(tile, index, column, row);
+            });
+        }
+    }
+
+    private static List<Future<?>> startWorkers(ExecutorService executor, StripeCoordinator coordinator, int count,
+                                                boolean failing) throws IOException {
+        InetSocketAddress address = (InetSocketAddress) coordinator.getAddress();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int ii = 0; ii < count; ii++) {
+            workers.add(executor.submit(() -> {
+                try (StripeWorker worker = StripeWorker.connect(address)) {
+                    worker.run((tile, index, column, row) -> {
+                        if (failing && worker.getWorkerIndex() == 1 && worker.getGeneration() == FAILING_GENERATION) {
+                            throw new IllegalStateException("Arrêt du worker 1");
+                        }
+                        return SHIFT_DOWN.nextState(tile, index, column, row);
+                    });
+                }
+                return null;
+            }));
+        }
+        return workers;
+    }
+
+    private static StripeCoordinator coordinator() throws IOException {
+        return new StripeCoordinator(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    /**
+     * Après k générations la ligne r contient la ligne de départ r - k (modulo Y sur un tore, vide en dehors de la
+     * grille avec le bord DEAD).
+     */
+    @Test
+    void rowsCrossStripeBoundaries() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (Boundary boundary : Boundary.values()) {
+                for (int workers = 1; workers <= 4; workers++) {
+                    for (int generations : new int[] {0, 1, 2, 5, Y + 2}) {
+                        String message = workers + " workers, " + boundary + ", " + generations + " générations";
+                        byte[] cells = new byte[X * Y];
+                        try (StripeCoordinator coordinator = coordinator()) {
+                            List<Future<?>> running = startWorkers(executor, coordinator, workers, false);
+                            coordinator.start(header(), boundary, workers, initialRows());
+                            assertEquals(generations, coordinator.run(counts -> true, generations,
+                                    (row, source, offset) -> System.arraycopy(source, offset, cells, row * X, X)), message);
+                            for (Future<?> worker : running) {
+                                worker.get(10, TimeUnit.SECONDS);
+                            }
+                        }
+                        for (int row = 0; row < Y; row++) {
+                            int from = row - generations;
+                            for (int column = 0; column < X; column++) {
+                                byte expected = boundary == Boundary.TOROIDAL ? initialCell(column, Math.floorMod(from, Y))
+                                        : from >= 0 ? initialCell(column, from) : 0;
+                                assertEquals(expected, cells[row * X + column], message + " : " + column + "x" + row);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Le worker 1 s'arrête sur une exception : le coordinateur reçoit une IOException qui le nomme, et ses voisins
+     * s'arrêtent aussi au lieu d'attendre ses lignes.
+     */
+    @Test
+    void failingWorkerStopsTheSimulation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int workers = 2; workers <= 3; workers++) {
+                for (Boundary boundary : Boundary.values()) {
+                    List<Future<?>> running;
+                    Future<Long> simulation;
+                    try (StripeCoordinator coordinator = coordinator()) {
+                        running = startWorkers(executor, coordinator, workers, true);
+                        coordinator.start(header(), boundary, workers, initialRows());
+                        simulation = executor.submit(() -> coordinator.run(counts -> true, 100, null));
+                        ExecutionException failure = assertThrows(ExecutionException.class, () -> simulation.get(10, TimeUnit.SECONDS));
+                        assertTrue(failure.getCause() instanceof IOException, failure.getCause().toString());
+                        assertTrue(failure.getCause().getMessage().startsWith("Le worker "), failure.getCause().getMessage());
+                    }
+                    for (Future<?> worker : running) {
+                        // Chaque worker se termine : normalement ou sur l'erreur de sa connexion.
+                        try {
+                            worker.get(10, TimeUnit.SECONDS);
+                        }
+                        catch (ExecutionException e) {
+                            assertTrue(e.getCause() instanceof IOException || e.getCause() instanceof IllegalStateException,
+                                    e.getCause().toString());
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Un worker lancé dans une autre JVM s'arrête brutalement : le coordinateur donne son code de sortie, et les
+     * autres workers s'arrêtent quand le coordinateur est fermé.
+     */
+    @Test
+    void forkedWorkerStopsTheSimulation() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<Process> processes;
+        try (StripeCoordinator coordinator = coordinator()) {
+            processes = coordinator.launchLocalWorkers(StripeCoordinatorTest.class, 3);
+            coordinator.start(header(), Boundary.TOROIDAL, 3, initialRows());
+            Future<Long> simulation = executor.submit(() -> coordinator.run(counts -> true, 100, null));
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> simulation.get(30, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof IOException, failure.getCause().toString());
+            assertTrue(failure.getCause().getMessage().startsWith("Le worker "), failure.getCause().getMessage());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        int halted = 0;
+        for (Process process : processes) {
+            assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+            halted += process.exitValue() == 3 ? 1 : 0;
+        }
+        assertEquals(1, halted);
+    }
+
+    @Test
+    void forwardedJvmArguments() {
+        List<String> arguments = List.of("-Xmx2g", "--add-modules", "jdk.incubator.vector", "-ea", "-Dname=value",
+                "--enable-preview", "-agentlib:jdwp=transport=dt_socket", "--add-opens=java.base/java.lang=ALL-UNNAMED",
+                "-XX:+UseZGC", "-esa");
+        assertEquals(List.of("--add-modules", "jdk.incubator.vector", "-ea", "-Dname=value", "--enable-preview",
+                        "--add-opens=java.base/java.lang=ALL-UNNAMED", "-esa"),
+                StripeCoordinator.forwardedJvmArguments(arguments));
+    }
+
+    @Test
+    void addressRoundTrip() {
+        for (String address : new String[] {"tcp:127.0.0.1:4000", "unix:/tmp/stripe.socket"}) {
+            assertEquals(address, StripeCoordinator.formatAddress(StripeCoordinator.parseAddress(address)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> StripeCoordinator.parseAddress("127.0.0.1:4000"));
+        assertThrows(IllegalArgumentException.class, () -> StripeCoordinator.parseAddress("tcp:4000"));
+    }
+
+    @Test
+    void invalidWorkerCount() throws IOException {
+        try (StripeCoordinator coordinator = coordinator()) {
+            assertThrows(IllegalArgumentException.class, () -> coordinator.start(header(), Boundary.DEAD, 0, null));
+            assertThrows(IllegalArgumentException.class, () -> coordinator.start(header(), Boundary.DEAD, Y + 1, null));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.cellularautomaton.automaton1d;
+
+import org.example.cellularautomaton.automaton.Boundary;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the engines of Automaton1D against a direct evaluation of the Wolfram rule, for every rule and both
+ * boundaries.
+ */
+class Automaton1DTest {
+    private static final int GENERATIONS = 40;
+
+    private static byte[] cells(Automaton1D automaton) {
+        byte[] cells = new byte[automaton.getSize()];
+        automaton.copyCells(cells);
+        return cells;
+    }
+
+    /**
+     * Computes the next generation cell by cell: the new value of a cell is the bit of the rule selected by the
+     * left neighbour, the cell and the right neighbour.
+     */
+    private static byte[] nextGeneration(byte[] cells, int rule, Boundary boundary) {
+        int size = cells.length;
+        byte[] next = new byte[size];
+        for (int index = 0; index < size; index++) {
+            int left = index > 0 ? cells[index - 1] : boundary == Boundary.TOROIDAL ? cells[size - 1] : 0;
+            int right = index < size - 1 ? cells[index + 1] : boundary == Boundary.TOROIDAL ? cells[0] : 0;
+            next[index] = (byte) ((rule >>> (left << 2 | cells[index] << 1 | right)) & 1);
+        }
+        return next;
+    }
+
+    private static void assertFollowsRule(int size, int rule, Automaton1DEngine engine, Boundary boundary) {
+        Automaton1D automaton = new Automaton1D(size, rule, engine, boundary);
+        byte[] expected = cells(automaton);
+        for (int generation = 1; generation <= GENERATIONS; generation++) {
+            expected = nextGeneration(expected, rule, boundary);
+            automaton.simulateAGeneration();
+            assertArrayEquals(expected, cells(automaton),
+                    engine + ", rule " + rule + ", " + boundary + ", size " + size + ", generation " + generation);
+        }
+    }
+
+    @Test
+    void lookupTableFollowsEveryRule() {
+        for (Boundary boundary : Boundary.values()) {
+            for (int rule = 0; rule < 256; rule++) {
+                assertFollowsRule(31, rule, Automaton1DEngine.LOOKUP_TABLE, boundary);
+            }
+        }
+    }
+
+    /**
+     * The sizes cover a single partial word, exactly one and two words, and partial last words so that the carries
+     * between words and the unused bits of the last word are checked.
+     */
+    @Test
+    void bitParallelFollowsEveryRule() {
+        for (int size : new int[] {1, 5, 63, 64, 65, 128, 200}) {
+            for (Boundary boundary : Boundary.values()) {
+                for (int rule = 0; rule < 256; rule++) {
+                    assertFollowsRule(size, rule, Automaton1DEngine.BIT_PARALLEL, boundary);
+                }
+            }
+        }
+    }
+
+    /**
+     * The deprecated printer still writes one generation per line, '*' for a live cell and ' ' for a dead one.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    void printCurrentStateOfAutomaton() {
+        Automaton1D automaton = new Automaton1D(70, 90);
+        automaton.simulateAGeneration();
+        StringBuilder expected = new StringBuilder();
+        for (byte cell : cells(automaton)) {
+            expected.append(cell == 1 ? '*' : ' ');
+        }
+        expected.append('\n');
+
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            automaton.printCurrentStateOfAutomaton();
+        }
+        finally {
+            System.setOut(standardOutput);
+        }
+        assertEquals(expected.toString(), printed.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.automaton.Snapshot;
+import org.example.cellularautomaton.automaton.StripeCoordinator;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * La forêt répartie entre 1, 2 ou 3 workers doit brûler exactement comme la forêt ARRAY : chaque worker initialise
+ * sa bande et tire les mêmes nombres aléatoires. La forêt n'a que 13 lignes, le feu traverse donc souvent les
+ * lignes échangées entre les bandes.
+ */
+class DistributedForestTest {
+    private static final int X = 57;
+    private static final int Y = 13;
+    private static final int[] NEIGHBOURHOODS = {4, 6, 8};
+
+    private static ForestAutomaton forest(int nbNextCell) {
+        ForestAutomaton forest = new ForestAutomaton(X, Y, nbNextCell);
+        forest.setDensity(70);
+        forest.setProbabilityOfSpread(70);
+        forest.setWestWindSpeed(10);
+        forest.setSouthWindSpeed(5);
+        forest.setEngine(ForestEngine.ARRAY);
+        forest.setSeed(11);
+        return forest;
+    }
+
+    private static byte[] cells(ForestAutomaton forest) {
+        byte[] cells = new byte[X * Y];
+        forest.copyCells(cells);
+        return cells;
+    }
+
+    private static long[] counts(byte[] cells) {
+        long[] counts = new long[4];
+        for (byte cell : cells) {
+            counts[cell]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Simule la forêt ARRAY jusqu'à la fin du feu et renvoi les cellules de chaque génération.
+     */
+    private static List<byte[]> run(ForestAutomaton forest) {
+        forest.initForest();
+        List<byte[]> generations = new ArrayList<>();
+        generations.add(cells(forest));
+        while (forest.isStillFireInForest()) {
+            forest.simulateForestFire();
+            generations.add(cells(forest));
+        }
+        return generations;
+    }
+
+    /**
+     * Lance des workers dans des threads du processus courant. Ils attendent que le coordinateur écoute.
+     */
+    private static List<Future<?>> startWorkers(ExecutorService executor, SocketAddress address, int count) {
+        String formattedAddress = StripeCoordinator.formatAddress(address);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int worker = 0; worker < count; worker++) {
+            workers.add(executor.submit(() -> {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (true) {
+                    try {
+                        DistributedForest.main(new String[] {formattedAddress});
+                        return null;
+                    }
+                    catch (ConnectException e) {
+                        if (System.nanoTime() > deadline) {
+                            throw e;
+                        }
+                        Thread.sleep(10);
+                    }
+                }
+            }));
+        }
+        return workers;
+    }
+
+    private static void join(List<Future<?>> workers) throws Exception {
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Chaque génération est calculée par une simulation répartie arrêtée à cette génération, avec l'en-tête que
+     * DistributedForest envoie à ses workers. Les compteurs reçus par le coordinateur avant chaque génération sont
+     * ceux de la forêt ARRAY.
+     */
+    @Test
+    void everyGenerationMatchesArray() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int nbNextCell : NEIGHBOURHOODS) {
+                ForestAutomaton reference = forest(nbNextCell);
+                List<byte[]> expected = run(reference);
+                Snapshot.Header header = new Snapshot.Header(ForestAutomaton.SNAPSHOT_KIND, X, Y, 2, 0, reference.getSeed(),
+                        new int[] {nbNextCell, reference.getDensity(), reference.getProbabilityOfSpread(),
+                                reference.getWestWindSpeed(), reference.getSouthWindSpeed()});
+                for (int workers = 1; workers <= 3; workers++) {
+                    for (int generation = 0; generation < expected.size(); generation++) {
+                        String message = workers + " workers, " + nbNextCell + " voisins : génération " + generation;
+                        byte[] cells = new byte[X * Y];
+                        try (StripeCoordinator coordinator = new StripeCoordinator(
+                                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+                            List<Future<?>> running = startWorkers(executor, coordinator.getAddress(), workers);
+                            coordinator.start(header, Boundary.DEAD, workers, null);
+                            int[] counted = {0};
+                            long generations = coordinator.run(counts -> {
+                                assertArrayEquals(counts(expected.get(counted[0]++)), counts, message);
+                                return true;
+                            }, generation, (row, source, offset) -> System.arraycopy(source, offset, cells, row * X, X));
+                            join(running);
+                            assertEquals(generation, generations, message);
+                            // La condition n'est plus demandée à la dernière génération.
+                            assertEquals(generation, counted[0], message);
+                            assertArrayEquals(counts(expected.get(generation)), coordinator.getCounts(), message);
+                        }
+                        assertArrayEquals(expected.get(generation), cells, message);
+                    }
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * DistributedForest simule le feu jusqu'à son extinction et donne le même résultat que la forêt ARRAY.
+     */
+    @Test
+    void wholeFireMatchesArray() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int nbNextCell : NEIGHBOURHOODS) {
+                ForestAutomaton reference = forest(nbNextCell);
+                List<byte[]> expected = run(reference);
+                for (int workers = 1; workers <= 3; workers++) {
+                    String message = workers + " workers, " + nbNextCell + " voisins";
+                    DistributedForest distributed = new DistributedForest(forest(nbNextCell), workers);
+                    int port;
+                    try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                        port = socket.getLocalPort();
+                    }
+                    distributed.setAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                    distributed.setLaunchLocalWorkers(false);
+                    List<Future<?>> running = startWorkers(executor, distributed.getAddress(), workers);
+                    byte[] cells = new byte[X * Y];
+                    distributed.run((row, source, offset) -> System.arraycopy(source, offset, cells, row * X, X));
+                    join(running);
+                    assertEquals(expected.size() - 1, distributed.getGeneration(), message);
+                    assertArrayEquals(expected.get(expected.size() - 1), cells, message);
+                    assertArrayEquals(counts(cells), distributed.getCounts(), message);
+                    assertEquals(reference.getPercentageBurnedForest(), distributed.getPercentageBurnedForest(), message);
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
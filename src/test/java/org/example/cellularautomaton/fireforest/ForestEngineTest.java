@@ -0,0 +1,298 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.MappedGrid;
+import org.example.cellularautomaton.automaton.Neighbourhood;
+import org.example.cellularautomaton.automaton.ParallelStepper;
+import org.example.cellularautomaton.automaton.TiledGrid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Chaque moteur de la forêt doit calculer exactement les mêmes générations que le moteur de référence, pour les
+ * voisinages de 4, 6 et 8 voisins, avec et sans vent. La forêt couvre plusieurs tuiles de 64 cellules sans avoir une
+ * taille multiple de 16 ou de 64, pour que les bords des tuiles et des mots soient couverts.
+ */
+class ForestEngineTest {
+    private static final int X = 150;
+    private static final int Y = 133;
+    private static final int[] NEIGHBOURHOODS = {4, 6, 8};
+    // Vent d'ouest et vent du sud : sans vent, vent positif, vent négatif.
+    private static final int[][] WINDS = {{0, 0}, {10, 5}, {-7, 0}};
+    private static final int MAX_GENERATIONS = 300;
+
+    @TempDir
+    Path directory;
+
+    private static ForestAutomaton forest(ForestEngine engine, int nbNextCell, int[] wind) {
+        // Le constructeur qui prend le moteur initialise la forêt : les stockages sur disque n'ont pas encore leur grille.
+        ForestAutomaton forest = new ForestAutomaton(X, Y, nbNextCell);
+        forest.setDensity(65);
+        forest.setProbabilityOfSpread(60);
+        forest.setWestWindSpeed(wind[0]);
+        forest.setSouthWindSpeed(wind[1]);
+        forest.setEngine(engine);
+        forest.setSeed(11);
+        return forest;
+    }
+
+    private static byte[] cells(ForestAutomaton forest) {
+        byte[] cells = new byte[forest.getX() * forest.getY()];
+        forest.copyCells(cells);
+        return cells;
+    }
+
+    /**
+     * Simule la forêt jusqu'à la fin du feu et renvoi les cellules de chaque génération.
+     */
+    private static List<byte[]> run(ForestAutomaton forest) {
+        forest.initForest();
+        List<byte[]> generations = new ArrayList<>();
+        generations.add(cells(forest));
+        while (forest.isStillFireInForest() && generations.size() < MAX_GENERATIONS) {
+            forest.simulateForestFire();
+            generations.add(cells(forest));
+        }
+        return generations;
+    }
+
+    private static void assertSameRun(List<byte[]> expected, List<byte[]> actual, String message) {
+        assertEquals(expected.size(), actual.size(), message + " : nombre de générations");
+        for (int generation = 0; generation < expected.size(); generation++) {
+            assertArrayEquals(expected.get(generation), actual.get(generation), message + " : génération " + generation);
+        }
+    }
+
+    /**
+     * Donne aux stockages sur disque leur grille, dans un fichier du dossier temporaire.
+     *
+     * @return la grille à fermer à la fin de la simulation, null pour les stockages en mémoire.
+     */
+    private Closeable attachStorage(ForestAutomaton forest, String name) throws IOException {
+        if (forest.getEngine() == ForestEngine.MAPPED) {
+            MappedGrid grid = MappedGrid.create(this.directory.resolve(name + ".grid"), X, Y, 2);
+            forest.setMappedGrid(grid);
+            return grid;
+        }
+        if (forest.getEngine() == ForestEngine.TILED) {
+            // Un cache plus petit que la grille pour que les tuiles soient écrites sur le disque et relues.
+            TiledGrid grid = new TiledGrid(this.directory.resolve(name + ".tiles"), X, Y, 16, 2, 16);
+            forest.setTiledGrid(grid);
+            return grid;
+        }
+        return null;
+    }
+
+    private void assertMatchesArray(ForestEngine engine) throws IOException {
+        int runs = 0;
+        for (int nbNextCell : NEIGHBOURHOODS) {
+            for (int[] wind : WINDS) {
+                List<byte[]> expected = run(forest(ForestEngine.ARRAY, nbNextCell, wind));
+                ForestAutomaton forest = forest(engine, nbNextCell, wind);
+                Closeable storage = attachStorage(forest, "forest-" + runs++);
+                try {
+                    assertSameRun(expected, run(forest), engine + ", " + nbNextCell + " voisins, vent " + wind[0] + "/" + wind[1]);
+                }
+                finally {
+                    if (storage != null) {
+                        storage.close();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void arrayMatchesLinkedCell() {
+        for (int nbNextCell : NEIGHBOURHOODS) {
+            for (int[] wind : WINDS) {
+                List<byte[]> expected = run(forest(ForestEngine.LINKED_CELL, nbNextCell, wind));
+                List<byte[]> actual = run(forest(ForestEngine.ARRAY, nbNextCell, wind));
+                assertSameRun(expected, actual, "ARRAY, " + nbNextCell + " voisins, vent " + wind[0] + "/" + wind[1]);
+            }
+        }
+    }
+
+    @Test
+    void frontierMatchesArray() throws IOException {
+        assertMatchesArray(ForestEngine.FRONTIER);
+    }
+
+    @Test
+    void mappedMatchesArray() throws IOException {
+        assertMatchesArray(ForestEngine.MAPPED);
+    }
+
+    @Test
+    void tiledMatchesArray() throws IOException {
+        assertMatchesArray(ForestEngine.TILED);
+    }
+
+    @Test
+    void activeTilesMatchesArray() throws IOException {
+        assertMatchesArray(ForestEngine.ACTIVE_TILES);
+    }
+
+    /**
+     * Calculé par vecteurs avec le module jdk.incubator.vector (./gradlew test -Pvector), comme ARRAY sans lui.
+     */
+    @Test
+    void vectorMatchesArray() throws IOException {
+        assertMatchesArray(ForestEngine.VECTOR);
+    }
+
+    private static ForestAutomaton forest(ForestEngine engine, Neighbourhood neighbourhood, int probabilityOfSpread) {
+        ForestAutomaton forest = new ForestAutomaton(X, Y, 8);
+        forest.setNeighbourhood(neighbourhood);
+        forest.setDensity(65);
+        forest.setProbabilityOfSpread(probabilityOfSpread);
+        forest.setEngine(engine);
+        forest.setSeed(11);
+        return forest;
+    }
+
+    /**
+     * Avec une probabilité de 100 % et sans vent, une cellule forêt prend feu dès qu'un de ses voisins est en feu :
+     * la génération suivante est calculée ici directement avec les décalages du voisinage, sans les tables de
+     * décalages des moteurs.
+     */
+    private static byte[] certainSpread(byte[] cells, Neighbourhood neighbourhood) {
+        byte[] next = cells.clone();
+        for (int row = 0; row < Y; row++) {
+            for (int column = 0; column < X; column++) {
+                byte cell = cells[row * X + column];
+                if (cell == ForestState.FIRE.getCode()) {
+                    next[row * X + column] = ForestState.BURNED.getCode();
+                }
+                else if (cell == ForestState.FOREST.getCode()) {
+                    for (int neighbour = 0; neighbour < neighbourhood.size(); neighbour++) {
+                        int neighbourColumn = column + neighbourhood.getColumn(neighbour);
+                        int neighbourRow = row + neighbourhood.getRow(neighbour);
+                        if (neighbourColumn >= 0 && neighbourColumn < X && neighbourRow >= 0 && neighbourRow < Y
+                                && cells[neighbourRow * X + neighbourColumn] == ForestState.FIRE.getCode()) {
+                            next[row * X + column] = ForestState.FIRE.getCode();
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Les moteurs sur ByteGrid suivent le voisinage compilé en décalages d'indices, y compris pour les voisinages de
+     * rayon 2 : le feu doit atteindre exactement les voisins de chaque cellule en feu, jusqu'aux bords de la forêt.
+     */
+    @Test
+    void fireReachesEveryNeighbour() {
+        Neighbourhood[] neighbourhoods = {Neighbourhood.of(4), Neighbourhood.of(6), Neighbourhood.of(8),
+                Neighbourhood.vonNeumann(2), Neighbourhood.moore(2)};
+        ForestEngine[] engines = {ForestEngine.ARRAY, ForestEngine.FRONTIER, ForestEngine.ACTIVE_TILES, ForestEngine.VECTOR};
+        for (Neighbourhood neighbourhood : neighbourhoods) {
+            for (ForestEngine engine : engines) {
+                ForestAutomaton forest = forest(engine, neighbourhood, 100);
+                forest.initForest();
+                byte[] expected = cells(forest);
+                for (int generation = 1; forest.isStillFireInForest() && generation < MAX_GENERATIONS; generation++) {
+                    expected = certainSpread(expected, neighbourhood);
+                    forest.simulateForestFire();
+                    assertArrayEquals(expected, cells(forest), engine + ", " + neighbourhood + " : génération " + generation);
+                }
+            }
+        }
+    }
+
+    /**
+     * Avec une probabilité de propagation et du vent, les voisinages de rayon 2 donnent les mêmes générations avec
+     * chaque moteur sur ByteGrid.
+     */
+    @Test
+    void largerNeighbourhoodsMatchArray() {
+        for (Neighbourhood neighbourhood : new Neighbourhood[] {Neighbourhood.vonNeumann(2), Neighbourhood.moore(2)}) {
+            ForestAutomaton reference = forest(ForestEngine.ARRAY, neighbourhood, 30);
+            reference.setWestWindSpeed(10);
+            List<byte[]> expected = run(reference);
+            for (ForestEngine engine : new ForestEngine[] {ForestEngine.FRONTIER, ForestEngine.ACTIVE_TILES, ForestEngine.VECTOR}) {
+                ForestAutomaton forest = forest(engine, neighbourhood, 30);
+                forest.setWestWindSpeed(10);
+                assertSameRun(expected, run(forest), engine + ", " + neighbourhood);
+            }
+        }
+    }
+
+    /**
+     * Le tableau d'états est vérifié en entier avant la copie : une colonne trop courte est refusée sans modifier
+     * le tableau.
+     */
+    @Test
+    void forestStateChecksEveryColumn() {
+        for (ForestEngine engine : new ForestEngine[] {ForestEngine.ARRAY, ForestEngine.LINKED_CELL}) {
+            ForestAutomaton forest = forest(engine, 8, WINDS[0]);
+            forest.initForest();
+            ForestState[][] expected = forest.getForestState();
+            byte[] cells = cells(forest);
+            for (int column = 0; column < X; column++) {
+                for (int row = 0; row < Y; row++) {
+                    assertEquals(ForestState.fromCode(cells[row * X + column]), expected[column][row]);
+                }
+            }
+
+            ForestState[][] shortColumn = new ForestState[X][Y];
+            shortColumn[X - 1] = new ForestState[Y - 1];
+            assertThrows(IllegalArgumentException.class, () -> forest.getForestState(shortColumn), engine.toString());
+            assertNull(shortColumn[0][0]);
+            ForestState[][] missingColumn = new ForestState[X][];
+            assertThrows(IllegalArgumentException.class, () -> forest.getForestState(missingColumn), engine.toString());
+            assertThrows(IllegalArgumentException.class, () -> forest.getForestState(new ForestState[X - 1][Y]), engine.toString());
+
+            ForestState[][] larger = new ForestState[X + 1][Y + 2];
+            forest.getForestState(larger);
+            assertEquals(expected[X - 1][Y - 1], larger[X - 1][Y - 1]);
+        }
+    }
+
+    /**
+     * Les nombres aléatoires dépendent de la graine, de la génération et de la cellule : deux forêts de même graine
+     * brûlent de la même façon, quel que soit le découpage en bandes, et une autre graine donne une autre forêt.
+     */
+    @Test
+    void sameSeedGivesSameRunWithParallelStripes() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int nbNextCell : NEIGHBOURHOODS) {
+                int[] wind = WINDS[1];
+                List<byte[]> expected = run(forest(ForestEngine.ARRAY, nbNextCell, wind));
+                assertSameRun(expected, run(forest(ForestEngine.ARRAY, nbNextCell, wind)), "même graine, " + nbNextCell + " voisins");
+                for (int stripes : new int[] {2, 3, 7}) {
+                    ForestAutomaton forest = forest(ForestEngine.ARRAY, nbNextCell, wind);
+                    forest.setParallelStepper(new ParallelStepper(executor, stripes));
+                    assertSameRun(expected, run(forest), stripes + " bandes, " + nbNextCell + " voisins");
+                }
+
+                ForestAutomaton otherSeed = forest(ForestEngine.ARRAY, nbNextCell, wind);
+                otherSeed.setSeed(12);
+                otherSeed.initForest();
+                otherSeed.simulateForestFire();
+                assertFalse(Arrays.equals(expected.get(1), cells(otherSeed)), "une autre graine donne la même forêt");
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.cellularautomaton.fireforest;
+
+import org.example.cellularautomaton.automaton.RunningStatistics;
+import org.example.cellularautomaton.automaton.SimulationMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Les essais d'un point sont ajoutés dans l'ordre de leur numéro : le résultat et l'arrêt anticipé ne dépendent pas
+ * du nombre de workers. Un essai en échec arrête le point après la fin de tous les workers.
+ */
+class ForestMonteCarloRunnerTest {
+    private static final List<ForestParameters> POINTS = ForestParameters.combinations(40, 30, new int[] {4, 8},
+            new int[] {45, 70}, new int[] {50, 90}, new int[] {0}, new int[] {0});
+
+    private static ForestMonteCarloRunner runner(ExecutorService executor, int workers) {
+        ForestMonteCarloRunner runner = new ForestMonteCarloRunner(executor, workers);
+        runner.setSeed(17);
+        runner.setMaxTrials(150);
+        runner.setMinTrials(20);
+        runner.setTargetHalfWidth(3);
+        return runner;
+    }
+
+    private static void assertSameStatistics(RunningStatistics expected, RunningStatistics actual, String message) {
+        assertEquals(expected.getCount(), actual.getCount(), message);
+        assertEquals(expected.getMean(), actual.getMean(), message);
+        assertEquals(expected.getVariance(), actual.getVariance(), message);
+        assertEquals(expected.getMin(), actual.getMin(), message);
+        assertEquals(expected.getMax(), actual.getMax(), message);
+    }
+
+    @Test
+    void sameResultsForAnyWorkerCount() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<ForestPointResult> expected = runner(executor, 1).run(POINTS, result -> {
+            });
+            int stoppedEarly = 0;
+            for (ForestPointResult result : expected) {
+                stoppedEarly += result.stoppedEarly() ? 1 : 0;
+            }
+            // Les points couvrent les deux cas : arrêt sur l'intervalle de confiance et tous les essais.
+            assertTrue(stoppedEarly > 0 && stoppedEarly < expected.size(), stoppedEarly + " points arrêtés");
+
+            for (int workers : new int[] {2, 3, 4}) {
+                List<ForestPointResult> received = new ArrayList<>();
+                List<ForestPointResult> results = runner(executor, workers).run(POINTS, received::add);
+                assertEquals(results, received);
+                for (int point = 0; point < POINTS.size(); point++) {
+                    String message = workers + " workers, " + POINTS.get(point);
+                    ForestPointResult result = results.get(point);
+                    assertEquals(POINTS.get(point), result.parameters(), message);
+                    assertEquals(expected.get(point).stoppedEarly(), result.stoppedEarly(), message);
+                    assertEquals(expected.get(point).confidenceHalfWidth(), result.confidenceHalfWidth(), message);
+                    assertSameStatistics(expected.get(point).burnedPercentage(), result.burnedPercentage(), message);
+                    assertSameStatistics(expected.get(point).generationsToExtinction(), result.generationsToExtinction(), message);
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Mesures qui comptent les générations en cours et font échouer la génération numéro failingStep.
+     */
+    private static final class FailingMetrics extends SimulationMetrics {
+        private final RuntimeException failure = new IllegalStateException("Échec d'une génération");
+        private final AtomicInteger steps = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final int failingStep;
+
+        private FailingMetrics(int failingStep) {
+            this.failingStep = failingStep;
+        }
+
+        @Override
+        public void begin() {
+            this.running.incrementAndGet();
+            super.begin();
+        }
+
+        @Override
+        public void end(long generations, long evaluatedCells, long activeCells) {
+            super.end(generations, evaluatedCells, activeCells);
+            this.running.decrementAndGet();
+            if (this.steps.incrementAndGet() == this.failingStep) {
+                throw this.failure;
+            }
+        }
+    }
+
+    /**
+     * L'exception de l'essai en échec est relancée quand plus aucun worker ne calcule : les forêts des workers
+     * peuvent être réutilisées par le point suivant, qui donne le même résultat qu'avec un nouveau runner.
+     */
+    @Test
+    void failingTrialStopsEveryWorker() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int workers : new int[] {1, 4}) {
+                ForestMonteCarloRunner runner = runner(executor, workers);
+                runner.setTargetHalfWidth(0);
+                FailingMetrics metrics = new FailingMetrics(200);
+                runner.setMetrics(metrics);
+                RuntimeException failure = assertThrows(RuntimeException.class, () -> runner.runPoint(POINTS.get(1), 0));
+                assertSame(metrics.failure, failure);
+                assertEquals(0, metrics.running.get(), workers + " workers");
+                int steps = metrics.steps.get();
+                Thread.sleep(50);
+                assertEquals(steps, metrics.steps.get(), workers + " workers : un essai continue après l'échec");
+
+                runner.setMetrics(null);
+                ForestPointResult result = runner.runPoint(POINTS.get(1), 0);
+                ForestMonteCarloRunner fresh = runner(executor, 1);
+                fresh.setTargetHalfWidth(0);
+                assertSameStatistics(fresh.runPoint(POINTS.get(1), 0).burnedPercentage(), result.burnedPercentage(), workers + " workers");
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
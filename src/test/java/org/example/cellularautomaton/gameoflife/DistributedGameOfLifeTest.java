@@ -0,0 +1,149 @@
+package org.example.cellularautomaton.gameoflife;
+
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.rule.OuterTotalisticRule;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Le jeu de la vie réparti doit calculer les mêmes générations que le moteur BITBOARD, quel que soit le nombre de
+ * workers. Les bandes n'ont que quelques lignes : les lignes échangées entre workers sont une grande partie de la
+ * grille.
+ */
+class DistributedGameOfLifeTest {
+    private static final int X = 45;
+    private static final int Y = 11;
+    private static final int GENERATIONS = 12;
+
+    private static GameOfLifeAutomaton reference(Boundary boundary) {
+        GameOfLifeAutomaton automaton = new GameOfLifeAutomaton(X, Y, boundary, GameOfLifeEngine.BITBOARD);
+        automaton.setSeed(5);
+        automaton.setDensity(40);
+        automaton.initializeAutomaton();
+        return automaton;
+    }
+
+    private static DistributedGameOfLife distributed(Boundary boundary, int workers) {
+        DistributedGameOfLife life = new DistributedGameOfLife(X, Y, boundary, workers);
+        life.setSeed(5);
+        life.setDensity(40);
+        return life;
+    }
+
+    private static byte[] cells(GameOfLifeAutomaton automaton) {
+        byte[] cells = new byte[X * Y];
+        automaton.copyCells(cells);
+        return cells;
+    }
+
+    /**
+     * Lance la simulation avec des workers dans des threads du processus courant, qui se connectent au coordinateur
+     * sur un port libre de l'interface locale, et renvoi les cellules de la dernière génération.
+     */
+    private static byte[] runInProcess(DistributedGameOfLife life, long generations) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        life.setAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        life.setLaunchLocalWorkers(false);
+        String address = "tcp:" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port;
+
+        ExecutorService executor = Executors.newFixedThreadPool(life.getWorkers());
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < life.getWorkers(); worker++) {
+                workers.add(executor.submit(() -> {
+                    // Le coordinateur n'écoute peut-être pas encore.
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (true) {
+                        try {
+                            DistributedGameOfLife.main(new String[] {address});
+                            return null;
+                        }
+                        catch (ConnectException e) {
+                            if (System.nanoTime() > deadline) {
+                                throw e;
+                            }
+                            Thread.sleep(10);
+                        }
+                    }
+                }));
+            }
+            byte[] cells = new byte[X * Y];
+            life.run(generations, (row, source, offset) -> System.arraycopy(source, offset, cells, row * X, X));
+            for (Future<?> worker : workers) {
+                worker.get(10, TimeUnit.SECONDS);
+            }
+            return cells;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Chaque génération, jusqu'à GENERATIONS, est calculée par une simulation répartie arrêtée à cette génération.
+     */
+    @Test
+    void everyGenerationMatchesBitboard() throws Exception {
+        for (Boundary boundary : Boundary.values()) {
+            for (int workers = 1; workers <= 3; workers++) {
+                GameOfLifeAutomaton reference = reference(boundary);
+                for (int generation = 0; generation <= GENERATIONS; generation++) {
+                    DistributedGameOfLife life = distributed(boundary, workers);
+                    byte[] cells = runInProcess(life, generation);
+                    String message = workers + " workers, " + boundary + " : génération " + generation;
+                    assertEquals(generation, life.getGeneration(), message);
+                    assertEquals(reference.getPopulation(), life.getPopulation(), message);
+                    assertArrayEquals(cells(reference), cells, message);
+                    reference.simulate();
+                }
+            }
+        }
+    }
+
+    /**
+     * La règle est envoyée aux workers sous forme de masques.
+     */
+    @Test
+    void otherRuleMatchesBitboard() throws Exception {
+        OuterTotalisticRule highLife = OuterTotalisticRule.parse("B36/S23");
+        for (int workers = 1; workers <= 3; workers++) {
+            GameOfLifeAutomaton reference = reference(Boundary.TOROIDAL);
+            reference.setRule(highLife);
+            reference.advance(GENERATIONS);
+            DistributedGameOfLife life = distributed(Boundary.TOROIDAL, workers);
+            life.setRule(highLife);
+            assertArrayEquals(cells(reference), runInProcess(life, GENERATIONS), workers + " workers");
+        }
+    }
+
+    /**
+     * Les workers lancés dans d'autres JVM par le coordinateur donnent le même résultat.
+     */
+    @Test
+    void forkedWorkersMatchBitboard() throws IOException {
+        GameOfLifeAutomaton reference = reference(Boundary.TOROIDAL);
+        reference.advance(GENERATIONS);
+        DistributedGameOfLife life = distributed(Boundary.TOROIDAL, 2);
+        byte[] cells = new byte[X * Y];
+        life.run(GENERATIONS, (row, source, offset) -> System.arraycopy(source, offset, cells, row * X, X));
+        assertEquals(GENERATIONS, life.getGeneration());
+        assertArrayEquals(cells(reference), cells);
+    }
+}
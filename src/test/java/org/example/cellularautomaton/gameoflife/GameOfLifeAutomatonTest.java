@@ -0,0 +1,347 @@
+package org.example.cellularautomaton.gameoflife;
+
+import org.example.cellularautomaton.automaton.Boundary;
+import org.example.cellularautomaton.automaton.ParallelStepper;
+import org.example.cellularautomaton.automaton.TiledGrid;
+import org.example.cellularautomaton.rule.CellRule;
+import org.example.cellularautomaton.rule.OuterTotalisticRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Vérifie les moteurs du jeu de la vie avec un calcul direct de la règle, cellule par cellule, pour les deux bords. Les
+ * largeurs ne sont pas toutes des multiples de 64 pour que le dernier mot d'une ligne soit couvert.
+ */
+class GameOfLifeAutomatonTest {
+    private static final int[][] SIZES = {{70, 45}, {64, 20}, {130, 7}, {200, 150}};
+    private static final int GENERATIONS = 60;
+
+    @TempDir
+    Path directory;
+
+    private static GameOfLifeAutomaton random(int x, int y, Boundary boundary, GameOfLifeEngine engine) {
+        GameOfLifeAutomaton automaton = new GameOfLifeAutomaton(x, y, boundary, engine);
+        automaton.setSeed(7);
+        automaton.setDensity(35);
+        automaton.initializeAutomaton();
+        return automaton;
+    }
+
+    private static byte[] cells(GameOfLifeAutomaton automaton) {
+        byte[] cells = new byte[automaton.getX() * automaton.getY()];
+        automaton.copyCells(cells);
+        return cells;
+    }
+
+    /**
+     * Calcule la génération suivante en comptant les 8 voisins de chaque cellule : une cellule morte naît si son
+     * nombre de voisins vivants est dans births, une cellule vivante survit s'il est dans survivals.
+     */
+    private static byte[] nextGeneration(byte[] cells, int x, int y, Boundary boundary, Set<Integer> births, Set<Integer> survivals) {
+        byte[] next = new byte[cells.length];
+        for (int row = 0; row < y; row++) {
+            for (int column = 0; column < x; column++) {
+                int neighbours = 0;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if (dx == 0 && dy == 0) {
+                            continue;
+                        }
+                        int neighbourColumn = column + dx;
+                        int neighbourRow = row + dy;
+                        if (boundary == Boundary.TOROIDAL) {
+                            neighbourColumn = Math.floorMod(neighbourColumn, x);
+                            neighbourRow = Math.floorMod(neighbourRow, y);
+                        }
+                        else if (neighbourColumn < 0 || neighbourColumn >= x || neighbourRow < 0 || neighbourRow >= y) {
+                            continue;
+                        }
+                        neighbours += cells[neighbourRow * x + neighbourColumn];
+                    }
+                }
+                boolean alive = cells[row * x + column] != 0;
+                next[row * x + column] = (byte) ((alive ? survivals : births).contains(neighbours) ? 1 : 0);
+            }
+        }
+        return next;
+    }
+
+    private static void assertFollowsLife(GameOfLifeAutomaton automaton, int generations, String message) {
+        assertFollowsRule(automaton, generations, Set.of(3), Set.of(2, 3), message);
+    }
+
+    private static void assertFollowsRule(GameOfLifeAutomaton automaton, int generations, Set<Integer> births,
+                                          Set<Integer> survivals, String message) {
+        byte[] expected = cells(automaton);
+        for (int generation = 1; generation <= generations; generation++) {
+            expected = nextGeneration(expected, automaton.getX(), automaton.getY(), automaton.getBoundary(), births, survivals);
+            automaton.simulate();
+            assertArrayEquals(expected, cells(automaton), message + " : génération " + generation);
+        }
+    }
+
+    private static void assertEngineFollowsLife(GameOfLifeEngine engine) {
+        for (int[] size : SIZES) {
+            for (Boundary boundary : Boundary.values()) {
+                assertFollowsLife(random(size[0], size[1], boundary, engine), GENERATIONS,
+                        engine + " " + size[0] + "x" + size[1] + ", " + boundary);
+            }
+        }
+    }
+
+    @Test
+    void bitboardFollowsLife() {
+        assertEngineFollowsLife(GameOfLifeEngine.BITBOARD);
+    }
+
+    /**
+     * Le moteur ACTIVE_TILES ne calcule que les tuiles dont une voisine a changé : le motif qui se stabilise dans
+     * une tuile et les cellules qui traversent les bords des tuiles (et du tore) doivent donner les mêmes
+     * générations que le calcul de toute la grille.
+     */
+    @Test
+    void activeTilesFollowsLife() {
+        assertEngineFollowsLife(GameOfLifeEngine.ACTIVE_TILES);
+    }
+
+    @Test
+    void blinkerOscillates() {
+        for (Boundary boundary : Boundary.values()) {
+            GameOfLifeAutomaton automaton = new GameOfLifeAutomaton(70, 10, boundary);
+            automaton.clear();
+            // Le clignotant est à cheval sur les deux mots de la ligne.
+            for (int column = 63; column <= 65; column++) {
+                automaton.setCell(column, 5, true);
+            }
+            byte[] start = cells(automaton);
+            automaton.simulate();
+            assertEquals(3, automaton.getPopulation());
+            for (int row = 4; row <= 6; row++) {
+                assertEquals(1, automaton.getCell(64, row), boundary + " : ligne " + row);
+            }
+            automaton.simulate();
+            assertArrayEquals(start, cells(automaton), boundary.toString());
+        }
+    }
+
+    /**
+     * Sur un tore le planeur traverse les bords et revient à sa place après 4 générations par cellule parcourue.
+     */
+    @Test
+    void gliderWrapsAroundTorus() {
+        GameOfLifeAutomaton automaton = new GameOfLifeAutomaton(70, 70, Boundary.TOROIDAL);
+        automaton.clear();
+        int[][] glider = {{1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2}};
+        for (int[] cell : glider) {
+            automaton.setCell(cell[0], cell[1], true);
+        }
+        byte[] start = cells(automaton);
+        assertFollowsLife(automaton, 4 * 70, "planeur");
+        assertArrayEquals(start, cells(automaton));
+    }
+
+    /**
+     * Le moteur HASHLIFE simule un plan infini : il est comparé au moteur BITBOARD sur une grille assez grande pour
+     * que le motif, placé au centre, n'atteigne pas les bords. Les sauts de plusieurs générations sont comparés aux
+     * générations calculées une par une.
+     */
+    @Test
+    void hashLifeMatchesBitboard() {
+        int size = 256;
+        GameOfLifeAutomaton bitboard = new GameOfLifeAutomaton(size, size, Boundary.DEAD, GameOfLifeEngine.BITBOARD);
+        GameOfLifeAutomaton hashLife = new GameOfLifeAutomaton(size, size, Boundary.DEAD, GameOfLifeEngine.HASHLIFE);
+        bitboard.clear();
+        hashLife.clear();
+        Random random = new Random(3);
+        for (int row = 112; row < 144; row++) {
+            for (int column = 112; column < 144; column++) {
+                boolean alive = random.nextInt(100) < 40;
+                bitboard.setCell(column, row, alive);
+                hashLife.setCell(column, row, alive);
+            }
+        }
+        assertArrayEquals(cells(bitboard), cells(hashLife));
+
+        for (int generations : new int[] {1, 1, 2, 7, 16, 64, 100}) {
+            bitboard.advance(generations);
+            hashLife.advance(generations);
+            assertEquals(bitboard.getGeneration(), hashLife.getGeneration());
+            assertArrayEquals(cells(bitboard), cells(hashLife), "génération " + bitboard.getGeneration());
+            assertEquals(bitboard.getPopulation(), hashLife.getPopulation(), "génération " + bitboard.getGeneration());
+        }
+        // La comparaison n'a de sens que si aucune cellule n'a atteint les bords de la grille.
+        for (int index = 0; index < size; index++) {
+            assertFalse(bitboard.isAlive(index, 0) || bitboard.isAlive(index, size - 1)
+                    || bitboard.isAlive(0, index) || bitboard.isAlive(size - 1, index), "le motif touche le bord");
+        }
+    }
+
+    @Test
+    void hashLifeRejectsToroidalBoundary() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameOfLifeAutomaton(64, 64, Boundary.TOROIDAL, GameOfLifeEngine.HASHLIFE));
+    }
+
+    /**
+     * Le moteur VECTOR ne calcule par vecteurs que si le module jdk.incubator.vector est chargé (./gradlew test
+     * -Pvector), sinon il calcule comme BITBOARD.
+     */
+    @Test
+    void vectorFollowsLife() {
+        assertEngineFollowsLife(GameOfLifeEngine.VECTOR);
+    }
+
+    /**
+     * Le moteur TILED tire les cellules initiales dans le même ordre que la grille en mémoire : avec la même graine
+     * il doit suivre les mêmes générations que le moteur BITBOARD. Le cache est plus petit que la grille.
+     */
+    @Test
+    void tiledMatchesBitboard() throws IOException {
+        for (int[] size : SIZES) {
+            for (Boundary boundary : Boundary.values()) {
+                GameOfLifeAutomaton expected = random(size[0], size[1], boundary, GameOfLifeEngine.BITBOARD);
+                Path path = this.directory.resolve("life-" + size[0] + "x" + size[1] + "-" + boundary + ".tiles");
+                try (TiledGrid grid = new TiledGrid(path, size[0], size[1], 16, 1, 4)) {
+                    GameOfLifeAutomaton tiled = new GameOfLifeAutomaton(grid, boundary);
+                    tiled.setSeed(7);
+                    tiled.setDensity(35);
+                    tiled.initializeAutomaton();
+                    for (int generation = 0; generation <= GENERATIONS; generation++) {
+                        assertArrayEquals(cells(expected), cells(tiled),
+                                "TILED " + size[0] + "x" + size[1] + ", " + boundary + " : génération " + generation);
+                        expected.simulate();
+                        tiled.simulate();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Les règles autres que B3/S23 passent par les masques compilés de la règle (et par le calcul des tuiles pour
+     * TILED) : HighLife (B36/S23) et Seeds (B2/S, aucune survie) sont comparées au calcul direct avec chaque moteur
+     * à grille.
+     */
+    @Test
+    void otherRulesFollowTheirReference() throws IOException {
+        Object[][] rules = {{"B36/S23", Set.of(3, 6), Set.of(2, 3)}, {"B2/S", Set.of(2), Set.<Integer>of()}};
+        GameOfLifeEngine[] engines = {GameOfLifeEngine.BITBOARD, GameOfLifeEngine.ACTIVE_TILES, GameOfLifeEngine.VECTOR};
+        for (Object[] rule : rules) {
+            CellRule cellRule = OuterTotalisticRule.parse((String) rule[0]);
+            @SuppressWarnings("unchecked")
+            Set<Integer> births = (Set<Integer>) rule[1];
+            @SuppressWarnings("unchecked")
+            Set<Integer> survivals = (Set<Integer>) rule[2];
+            for (int[] size : SIZES) {
+                for (Boundary boundary : Boundary.values()) {
+                    for (GameOfLifeEngine engine : engines) {
+                        GameOfLifeAutomaton automaton = random(size[0], size[1], boundary, engine);
+                        automaton.setRule(cellRule);
+                        assertFollowsRule(automaton, 20, births, survivals,
+                                engine + " " + rule[0] + " " + size[0] + "x" + size[1] + ", " + boundary);
+                    }
+                    Path path = this.directory.resolve("rule-" + size[0] + "x" + size[1] + "-" + boundary + "-" + ((String) rule[0]).replace('/', '-') + ".tiles");
+                    try (TiledGrid grid = new TiledGrid(path, size[0], size[1], 16, 1, 4)) {
+                        GameOfLifeAutomaton tiled = new GameOfLifeAutomaton(grid, boundary);
+                        tiled.setSeed(7);
+                        tiled.setDensity(35);
+                        tiled.initializeAutomaton();
+                        tiled.setRule(cellRule);
+                        assertFollowsRule(tiled, 20, births, survivals, "TILED " + rule[0] + " " + size[0] + "x" + size[1] + ", " + boundary);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Le moteur HASHLIFE recalcule ses résultats mémorisés quand la règle change : il doit suivre le moteur BITBOARD
+     * avec HighLife et Seeds, y compris après avoir calculé des générations avec B3/S23.
+     */
+    @Test
+    void hashLifeFollowsOtherRules() {
+        for (String notation : new String[] {"B36/S23", "B2/S"}) {
+            int size = 256;
+            GameOfLifeAutomaton bitboard = new GameOfLifeAutomaton(size, size, Boundary.DEAD, GameOfLifeEngine.BITBOARD);
+            GameOfLifeAutomaton hashLife = new GameOfLifeAutomaton(size, size, Boundary.DEAD, GameOfLifeEngine.HASHLIFE);
+            bitboard.clear();
+            hashLife.clear();
+            Random random = new Random(5);
+            for (int row = 120; row < 136; row++) {
+                for (int column = 120; column < 136; column++) {
+                    boolean alive = random.nextInt(100) < 30;
+                    bitboard.setCell(column, row, alive);
+                    hashLife.setCell(column, row, alive);
+                }
+            }
+            // Des résultats B3/S23 sont mémorisés avant le changement de règle.
+            bitboard.advance(8);
+            hashLife.advance(8);
+            CellRule rule = OuterTotalisticRule.parse(notation);
+            bitboard.setRule(rule);
+            hashLife.setRule(rule);
+            for (int generations : new int[] {1, 3, 8, 16}) {
+                bitboard.advance(generations);
+                hashLife.advance(generations);
+                assertArrayEquals(cells(bitboard), cells(hashLife), notation + " : génération " + bitboard.getGeneration());
+                assertEquals(bitboard.getPopulation(), hashLife.getPopulation(), notation + " : génération " + bitboard.getGeneration());
+            }
+        }
+    }
+
+    @Test
+    void unsupportedRulesAreRejected() {
+        GameOfLifeAutomaton hashLife = new GameOfLifeAutomaton(64, 64, Boundary.DEAD, GameOfLifeEngine.HASHLIFE);
+        assertThrows(IllegalArgumentException.class, () -> hashLife.setRule(OuterTotalisticRule.parse("B03/S23")));
+        GameOfLifeAutomaton bitboard = new GameOfLifeAutomaton(64, 64, Boundary.DEAD, GameOfLifeEngine.BITBOARD);
+        assertThrows(IllegalArgumentException.class, () -> bitboard.setRule(OuterTotalisticRule.parse("B2/S/C3")));
+        assertThrows(IllegalArgumentException.class, () -> bitboard.setRule(OuterTotalisticRule.parse("B3/S23V")));
+        assertEquals(OuterTotalisticRule.LIFE, bitboard.getRule());
+    }
+
+    /**
+     * Le calcul par bandes doit donner les mêmes générations que le calcul sur un seul thread, quel que soit le
+     * nombre de bandes. La grille a plusieurs lignes de tuiles pour que le moteur ACTIVE_TILES soit découpé.
+     */
+    @Test
+    void parallelStripesMatchSingleThread() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            GameOfLifeEngine[] engines = {GameOfLifeEngine.BITBOARD, GameOfLifeEngine.ACTIVE_TILES, GameOfLifeEngine.VECTOR};
+            for (GameOfLifeEngine engine : engines) {
+                for (Boundary boundary : Boundary.values()) {
+                    GameOfLifeAutomaton expected = random(200, 150, boundary, engine);
+                    GameOfLifeAutomaton[] parallel = new GameOfLifeAutomaton[3];
+                    int[] stripes = {2, 3, 7};
+                    for (int ii = 0; ii < parallel.length; ii++) {
+                        parallel[ii] = random(200, 150, boundary, engine);
+                        parallel[ii].setParallelStepper(new ParallelStepper(executor, stripes[ii]));
+                    }
+                    for (int generation = 1; generation <= GENERATIONS; generation++) {
+                        expected.simulate();
+                        for (int ii = 0; ii < parallel.length; ii++) {
+                            parallel[ii].simulate();
+                            assertArrayEquals(cells(expected), cells(parallel[ii]),
+                                    engine + ", " + boundary + ", " + stripes[ii] + " bandes : génération " + generation);
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.cellularautomaton.rule;
+
+import org.example.cellularautomaton.automaton.Neighbourhood;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La notation B/S des règles « outer totalistic » : lecture, écriture et compilation en table.
+ */
+class OuterTotalisticRuleTest {
+    private static final String[] NOTATIONS = {"B3/S23", "B36/S23", "B2/S", "B/S012345678", "B2/S/C3", "B3/S23V", "B2/S34H", "B0/S8"};
+
+    @Test
+    void notationRoundTrip() {
+        for (String notation : NOTATIONS) {
+            OuterTotalisticRule rule = OuterTotalisticRule.parse(notation);
+            assertEquals(notation, rule.getNotation());
+            assertEquals(notation, rule.toString());
+            OuterTotalisticRule reread = OuterTotalisticRule.parse(rule.toString());
+            assertEquals(rule.getBirth(), reread.getBirth(), notation);
+            assertEquals(rule.getSurvival(), reread.getSurvival(), notation);
+            assertEquals(rule.getStates(), reread.getStates(), notation);
+            assertEquals(rule.getNeighbourhood(), reread.getNeighbourhood(), notation);
+        }
+    }
+
+    /**
+     * Les minuscules, les espaces autour, l'ordre des parties et la lettre G à la place de C sont acceptés, la
+     * notation écrite est toujours la même.
+     */
+    @Test
+    void otherSpellings() {
+        assertEquals("B36/S23", OuterTotalisticRule.parse(" b63/s32 ").getNotation());
+        assertEquals("B36/S23", OuterTotalisticRule.parse("S23/B36").getNotation());
+        assertEquals("B2/S/C3", OuterTotalisticRule.parse("C3/B2/S").getNotation());
+        assertEquals("B2/S/C3", OuterTotalisticRule.parse("B2/S/G3").getNotation());
+        assertEquals("B3/S23", OuterTotalisticRule.parse("B3/S23/C2").getNotation());
+        assertEquals(Neighbourhood.VON_NEUMANN, OuterTotalisticRule.parse("b1/s1v").getNeighbourhood());
+    }
+
+    @Test
+    void lifeIsB3S23() {
+        OuterTotalisticRule life = OuterTotalisticRule.parse("B3/S23");
+        assertEquals(OuterTotalisticRule.LIFE.getBirth(), life.getBirth());
+        assertEquals(OuterTotalisticRule.LIFE.getSurvival(), life.getSurvival());
+        assertEquals("B3/S23", OuterTotalisticRule.LIFE.toString());
+    }
+
+    @Test
+    void malformedNotationsAreRejected() {
+        String[] malformed = {"", "B3", "S23", "B3/S23/X1", "B3//S23", "/B3/S23", "B3/S23/", "B3a/S23", "B3/S2-3",
+                "B9/S23", "B5/S23V", "B7/S23H", "B3/S23/Cx", "B3/S23/C", "B3/S23/C1", "B3/S23/C257", "3/S23"};
+        for (String notation : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> OuterTotalisticRule.parse(notation), notation);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new OuterTotalisticRule(1 << 3, 0, 2, Neighbourhood.moore(2)));
+    }
+
+    /**
+     * Les masques de la table compilée sont ceux de la règle, une cellule morte naît et une cellule vivante qui ne
+     * survit pas meurt.
+     */
+    @Test
+    void compiledTableFollowsMasks() {
+        for (String notation : new String[] {"B3/S23", "B36/S23", "B2/S", "B0/S8", "B2/S34H", "B3/S23V"}) {
+            OuterTotalisticRule rule = OuterTotalisticRule.parse(notation);
+            RuleTable table = rule.compile();
+            assertEquals(rule.getBirth(), table.getBirthMask(), notation);
+            assertEquals(rule.getSurvival(), table.getSurvivalMask(), notation);
+            assertFalse(table.isStochastic(), notation);
+            assertEquals(1, table.getCountedState(), notation);
+            for (int count = 0; count <= rule.getNeighbourhood().size(); count++) {
+                assertEquals((rule.getBirth() >>> count) & 1, table.next(0, count), notation + ", " + count + " voisins");
+                assertEquals((rule.getSurvival() >>> count) & 1, table.next(1, count), notation + ", " + count + " voisins");
+                assertEquals(RuleTable.CERTAIN, table.getChance(1, count), notation);
+            }
+        }
+    }
+
+    /**
+     * Avec 3 états (Brian's Brain) une cellule vivante qui ne survit pas passe à l'état 2 puis meurt quel que soit
+     * son nombre de voisins : l'état 2 ne dépend pas des voisins et la table n'a pas de masques binaires.
+     */
+    @Test
+    void generationsRuleAges() {
+        RuleTable table = OuterTotalisticRule.parse("B2/S/C3").compile();
+        assertEquals(3, table.getStates());
+        for (int count = 0; count <= 8; count++) {
+            assertEquals(count == 2 ? 1 : 0, table.next(0, count));
+            assertEquals(2, table.next(1, count));
+            assertEquals(0, table.next(2, count));
+        }
+        assertTrue(table.isCountDependent(0));
+        assertFalse(table.isCountDependent(1));
+        assertFalse(table.isCountDependent(2));
+        assertThrows(IllegalStateException.class, table::getBirthMask);
+        assertThrows(IllegalStateException.class, table::getSurvivalMask);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.cellularautomaton.rule;
+
+import org.example.cellularautomaton.automaton.Neighbourhood;
+import org.example.cellularautomaton.fireforest.ForestState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Les tables de transitions : le texte relu donne la même table et un texte mal formé est refusé.
+ */
+class TransitionTableRuleTest {
+    private static final String STATES = "states EMPTY FOREST FIRE BURNED\ncount FIRE\n";
+
+    private static void assertSameTable(RuleTable expected, RuleTable actual, String message) {
+        assertEquals(expected.getStates(), actual.getStates(), message);
+        assertEquals(expected.getCountedState(), actual.getCountedState(), message);
+        assertEquals(expected.isStochastic(), actual.isStochastic(), message);
+        for (int state = 0; state < expected.getStates(); state++) {
+            assertEquals(expected.isCountDependent(state), actual.isCountDependent(state), message);
+            for (int count = 0; count <= expected.getNeighbourhood().size(); count++) {
+                String where = message + " : état " + state + ", " + count + " voisins";
+                assertEquals(expected.next(state, count), actual.next(state, count), where);
+                assertEquals(expected.otherwise(state, count), actual.otherwise(state, count), where);
+                assertEquals(expected.getChance(state, count), actual.getChance(state, count), where);
+            }
+        }
+    }
+
+    /**
+     * La règle de la forêt est relue depuis sa notation, qui nomme les états, pour chaque voisinage.
+     */
+    @Test
+    void forestRuleRoundTrip() {
+        for (Neighbourhood neighbourhood : new Neighbourhood[] {Neighbourhood.VON_NEUMANN, Neighbourhood.HEXAGONAL,
+                Neighbourhood.MOORE, Neighbourhood.moore(2)}) {
+            TransitionTableRule rule = ForestState.rule(60, neighbourhood);
+            TransitionTableRule reread = TransitionTableRule.parse(rule.getNotation(), neighbourhood);
+            assertEquals(rule.getNotation(), reread.getNotation());
+            assertEquals(rule.toString(), reread.toString());
+            assertSameTable(rule.compile(), reread.compile(), neighbourhood.toString());
+            assertSameTable(rule.compile(), TransitionTableRule.parse(ForestState.class, rule.getNotation(), neighbourhood).compile(),
+                    neighbourhood.toString());
+        }
+    }
+
+    /**
+     * 60 % par voisin en feu : la chance croît avec le nombre de voisins et s'arrête à 100 %.
+     */
+    @Test
+    void chancePerNeighbourIsCapped() {
+        RuleTable table = ForestState.rule(60, Neighbourhood.MOORE).compile();
+        int forest = ForestState.FOREST.getCode();
+        assertTrue(table.isStochastic());
+        assertEquals(forest, table.next(forest, 0));
+        assertEquals(60, table.getChance(forest, 1));
+        for (int count = 2; count <= 8; count++) {
+            assertEquals(RuleTable.CERTAIN, table.getChance(forest, count));
+            assertEquals(ForestState.FIRE.getCode(), table.next(forest, count));
+            assertEquals(forest, table.otherwise(forest, count));
+        }
+        assertFalse(table.isCountDependent(ForestState.FIRE.getCode()));
+        assertEquals(ForestState.BURNED.getCode(), table.next(ForestState.FIRE.getCode(), 3));
+    }
+
+    /**
+     * Les commentaires, les lignes vides, les listes de nombres, * et else : une transition remplace celles des
+     * lignes précédentes pour les mêmes cases.
+     */
+    @Test
+    void transitionSyntax() {
+        TransitionTableRule rule = TransitionTableRule.parse(STATES + """
+                # Les arbres repoussent.
+                * -> *
+                BURNED -> FOREST 5% else EMPTY
+
+                FOREST 1,3-4 -> FIRE
+                FOREST 4 -> BURNED   # remplace la ligne précédente pour 4 voisins
+                """, Neighbourhood.VON_NEUMANN);
+        RuleTable table = rule.compile();
+        assertEquals("FIRE", rule.getStateName(rule.getCountedState()));
+        int forest = ForestState.FOREST.getCode();
+        int[] expected = {forest, ForestState.FIRE.getCode(), forest, ForestState.FIRE.getCode(), ForestState.BURNED.getCode()};
+        for (int count = 0; count < expected.length; count++) {
+            assertEquals(expected[count], table.next(forest, count), count + " voisins");
+        }
+        assertEquals(5, table.getChance(ForestState.BURNED.getCode(), 0));
+        assertEquals(ForestState.EMPTY.getCode(), table.otherwise(ForestState.BURNED.getCode(), 0));
+        assertSameTable(table, TransitionTableRule.parse(rule.getNotation(), Neighbourhood.VON_NEUMANN).compile(), "relue");
+    }
+
+    @Test
+    void malformedTablesAreRejected() {
+        Neighbourhood moore = Neighbourhood.MOORE;
+        String[] malformed = {
+                "",
+                "count FIRE\nFIRE -> BURNED",
+                "FIRE -> BURNED\nstates EMPTY FOREST FIRE BURNED\ncount FIRE",
+                "states EMPTY FOREST FIRE BURNED\nFIRE -> BURNED",
+                "states EMPTY FOREST FIRE BURNED\ncount FIRE SMOKE",
+                "states EMPTY FOREST FIRE BURNED\ncount SMOKE",
+                STATES + "SMOKE -> BURNED",
+                STATES + "FIRE -> SMOKE",
+                STATES + "FIRE BURNED",
+                STATES + "FIRE ->",
+                STATES + "-> BURNED",
+                STATES + "FOREST 1 2 -> FIRE",
+                STATES + "FOREST 1-9 -> FIRE",
+                STATES + "FOREST 5-2 -> FIRE",
+                STATES + "FOREST x -> FIRE",
+                STATES + "FOREST -> FIRE 101%",
+                STATES + "FOREST -> FIRE 50% BURNED",
+                STATES + "FOREST -> FIRE 50% else",
+                STATES + "FOREST -> FIRE 50% else SMOKE",
+        };
+        for (String text : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> TransitionTableRule.parse(text, moore), text);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> TransitionTableRule.parse(ForestState.class, "states EMPTY FIRE\ncount FIRE", moore));
+    }
+}